@@ -2,6 +2,7 @@ package com.deliveryapp.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -9,7 +10,16 @@ import java.util.concurrent.Executor;
 
 @Configuration
 @EnableAsync
-public class AsyncConfig {
+public class AsyncConfig implements AsyncConfigurer {
+
+    /**
+     * Plain @Async methods (SMS, group notifications) have always run on
+     * the SMS pool. Pin it explicitly so adding more executors doesn't change that.
+     */
+    @Override
+    public Executor getAsyncExecutor() {
+        return smsTaskExecutor();
+    }
 
     /**
      * Dedicated thread pool for async SMS sending.
@@ -28,4 +38,98 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * Background pool for rebuilding in-memory catalog read models
+     * (price book, etc.) after catalog writes or exchange rate changes.
+     * Kept small so a full rebuild never starves the request threads of DB connections.
+     *
+     * Read models don't queue a task per catalog event: each collects its
+     * changes in a DirtyQueue drained by one task at a time, so a bulk edit
+     * can't overflow the queue, and a rejected drain keeps its changes pending.
+     */
+    @Bean(name = "catalogTaskExecutor")
+    public ThreadPoolTaskExecutor catalogTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("catalog-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Resizes uploaded images into their renditions. Decoding a photo takes a
+     * lot of memory and CPU, so at most two run at once; when the queue is full
+     * the upload is left to the startup backfill instead of blocking.
+     */
+    @Bean(name = "imageTaskExecutor")
+    public ThreadPoolTaskExecutor imageTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("image-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Sends the websocket broadcasts of the order outbox. Separate from the
+     * notification lane so the live order boards never wait behind FCM or
+     * Telegram. A rejected queue is picked up again by the outbox poll.
+     */
+    @Bean(name = "outboxLiveExecutor")
+    public ThreadPoolTaskExecutor outboxLiveExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("outbox-live-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Sends the push notifications and Telegram messages of the order outbox.
+     * These wait on remote APIs, so there are more threads than for the live
+     * lane; each holds a DB connection only while it reads the order or saves
+     * the notifications, never across a remote call.
+     */
+    @Bean(name = "outboxNotifyExecutor")
+    public ThreadPoolTaskExecutor outboxNotifyExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("outbox-notify-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs the sections of the home feed side by side. Sized well under the
+     * Hikari pool (20) since every section holds a connection while it runs;
+     * when the queue is full a section fails fast instead of piling up.
+     * (Java 17: no virtual threads yet.)
+     *
+     * No request context is passed on: a timed-out section may still run after
+     * its request has been recycled, so HomeFeedService hands over only the
+     * base URL.
+     */
+    @Bean(name = "homeFeedExecutor")
+    public ThreadPoolTaskExecutor homeFeedExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("home-");
+        executor.initialize();
+        return executor;
+    }
+}
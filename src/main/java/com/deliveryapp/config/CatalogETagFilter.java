@@ -0,0 +1,176 @@
+package com.deliveryapp.config;
+
+import com.deliveryapp.service.CatalogVersionService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Conditional GETs for the public catalog.
+ *
+ * The ETag comes from CatalogVersionService, not from hashing the body, so it
+ * is known before the request is handled: a matching If-None-Match is answered
+ * with 304 without touching JPA or the mappers. Runs after Spring Security, so
+ * protected GETs under these paths still require authentication.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogETagFilter extends OncePerRequestFilter {
+
+    private static final String[] CATALOG_PATHS = { "/api/catalog/", "/api/banners", "/api/store-categories/" };
+
+    // Endpoints whose response only depends on one store
+    private static final Pattern STORE_PATH = Pattern
+            .compile("^/api/(?:catalog/products/store|catalog/stores|store-categories/store)/(\\d+)(?:/.*)?$");
+
+    private final CatalogVersionService catalogVersionService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod()))
+            return true;
+        String path = pathOf(request);
+        // Suggestion ranking follows order counts, which don't bump the catalog version
+        if (path.startsWith("/api/catalog/search/suggest"))
+            return true;
+        // Sync holds back changes that are still settling, so its answer can change under the same tag
+        if (path.startsWith("/api/catalog/sync"))
+            return true;
+        for (String prefix : CATALOG_PATHS) {
+            if (path.startsWith(prefix))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // Taken before the handler runs: a write landing meanwhile can only make the tag older than the body
+        String tag = resolveTag(pathOf(request));
+        if (tag == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), tag)) {
+            response.setHeader(HttpHeaders.ETAG, tag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        TaggedResponse tagged = new TaggedResponse(response, tag);
+        chain.doFilter(request, tagged);
+        tagged.applyTag();
+    }
+
+    /**
+     * Adds the tag once the status is known, i.e. just before the body is
+     * written or the response is committed. Only 2xx responses are tagged, so
+     * error bodies are never revalidated into a 304 later on, and only when the
+     * handler left Cache-Control alone.
+     */
+    private static final class TaggedResponse extends HttpServletResponseWrapper {
+
+        private final String tag;
+        private boolean decided = false;
+
+        TaggedResponse(HttpServletResponse response, String tag) {
+            super(response);
+            this.tag = tag;
+        }
+
+        void applyTag() {
+            if (decided)
+                return;
+            decided = true;
+            int status = getStatus();
+            // A handler that set its own Cache-Control (e.g. no-store on a degraded home feed) opts out
+            if (status >= 200 && status < 300 && !isCommitted() && !containsHeader(HttpHeaders.CACHE_CONTROL)) {
+                setHeader(HttpHeaders.ETAG, tag);
+                // Clients may keep the body but must revalidate it on every use
+                setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            applyTag();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            applyTag();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            applyTag();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            decided = true;
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            decided = true;
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            decided = true;
+            super.sendRedirect(location);
+        }
+    }
+
+    private String resolveTag(String path) {
+        try {
+            Matcher store = STORE_PATH.matcher(path);
+            return store.matches()
+                    ? catalogVersionService.storeTag(Long.valueOf(store.group(1)))
+                    : catalogVersionService.globalTag();
+        } catch (RuntimeException e) {
+            // No versions → no caching, never a failed request
+            log.debug("Catalog ETag unavailable for {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null)
+            return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/"))
+                value = value.substring(2);
+            if (value.equals(tag) || value.equals("*"))
+                return true;
+        }
+        return false;
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -2,9 +2,14 @@ package com.deliveryapp.config;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -14,6 +19,28 @@ public class FileStorageConfig implements WebMvcConfigurer {
     @Value("${file.upload-dir:uploads}")
     private String uploadDir;
 
+    /**
+     * Strong ETag: the file name itself when it is content-addressed, otherwise
+     * last-modified and size (as Nginx does) — no file is read to compute it.
+     * A ".gz"/".br" sibling served in place of the file reports the original
+     * name, so the encoding is appended: gzip and identity bodies differ byte
+     * for byte and must not share a strong tag.
+     */
+    static String etag(Resource resource) {
+        try {
+            String name = resource.getFilename();
+            String tag = name != null && name.matches("[0-9a-f]{64}(\\.[a-z]+)*")
+                    ? name
+                    : Long.toHexString(resource.lastModified()) + "-" + Long.toHexString(resource.contentLength());
+            String encoding = resource instanceof HttpResource http
+                    ? http.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)
+                    : null;
+            return encoding != null ? tag + "-" + encoding : tag;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Convert to absolute path
@@ -29,7 +56,12 @@ public class FileStorageConfig implements WebMvcConfigurer {
         System.out.println("Serving uploaded files from: " + resourceLocation);
 
         // Serve anything inside uploads folder (e.g. localhost:8080/uploads/stores/img.jpg)
+        // Range requests (resumable APK downloads) are handled by the resource handler itself;
+        // a ".gz"/".br" sibling of a file is served instead when the client accepts it
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations(resourceLocation);
+                .addResourceLocations(resourceLocation)
+                .setEtagGenerator(FileStorageConfig::etag)
+                .resourceChain(false)
+                .addResolver(new EncodedResourceResolver());
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.deliveryapp.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes products.display_order NOT NULL on databases created before the entity
+ * said so; ddl-auto never tightens an existing column.
+ *
+ * Keyset listings seek with "display_order > ? OR (display_order = ? AND
+ * product_id > ?)", which never matches a NULL, so such a product would be
+ * skipped by every page after the first. Old NULLs become 0, which is what
+ * new products get; both statements are no-ops once done.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductDisplayOrderInitializer implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        try {
+            int updated = jdbcTemplate.update("UPDATE products SET display_order = 0 WHERE display_order IS NULL");
+            if (updated > 0)
+                log.info("Set display_order = 0 on {} products that had none", updated);
+            jdbcTemplate.execute("ALTER TABLE products ALTER COLUMN display_order SET NOT NULL");
+        } catch (Exception e) {
+            log.warn("products.display_order not made NOT NULL: {}", e.getMessage());
+        }
+    }
+}
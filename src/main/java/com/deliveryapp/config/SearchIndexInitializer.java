@@ -0,0 +1,91 @@
+package com.deliveryapp.config;
+
+import com.deliveryapp.util.ArabicTextUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * Creates the Postgres objects behind ranked catalog search. Hibernate's
+ * ddl-auto can't express any of them, so they are created here, idempotently,
+ * on every start:
+ *
+ * • pg_trgm, for typo-tolerant / substring matching
+ * • ar_normalize(text), the SQL twin of ArabicTextUtil.normalize
+ * • products.search_vector, a generated tsvector (name weighted above description)
+ * • GIN indexes on the tsvector and on the normalized product / store names
+ * • trigram and prefix indexes on orders.order_number, for the admin order search
+ *
+ * If anything fails (no Postgres, no CREATE EXTENSION privilege…) search keeps
+ * using the plain LIKE queries; isReady() tells the services which one to use.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchIndexInitializer implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    private volatile boolean ready = false;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void run(String... args) {
+        try {
+            if (!isPostgres()) {
+                log.info("Ranked search disabled: database is not PostgreSQL");
+                return;
+            }
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            createOrderNumberIndexes();
+            jdbcTemplate.execute("""
+                    CREATE OR REPLACE FUNCTION ar_normalize(t text) RETURNS text
+                    LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+                        SELECT btrim(regexp_replace(translate(lower(coalesce(t, '')), '%s', '%s'), '\\s+', ' ', 'g'))
+                    $$""".formatted(ArabicTextUtil.FOLD_FROM, ArabicTextUtil.FOLD_TO));
+            jdbcTemplate.execute("""
+                    ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector
+                    GENERATED ALWAYS AS (
+                        setweight(to_tsvector('simple', ar_normalize(name)), 'A') ||
+                        setweight(to_tsvector('simple', ar_normalize(description)), 'B')
+                    ) STORED""");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_products_search_vector "
+                    + "ON products USING GIN (search_vector)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_products_name_trgm "
+                    + "ON products USING GIN (ar_normalize(name) gin_trgm_ops)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_stores_name_trgm "
+                    + "ON stores USING GIN (ar_normalize(name) gin_trgm_ops)");
+            ready = true;
+            log.info("Ranked search ready (tsvector + pg_trgm)");
+        } catch (Exception e) {
+            log.warn("Ranked search unavailable, falling back to LIKE search: {}", e.getMessage());
+        }
+    }
+
+    // Failing here only makes order number search slower, so it doesn't disable ranked search
+    private void createOrderNumberIndexes() {
+        try {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_orders_order_number_trgm "
+                    + "ON orders USING GIN (order_number gin_trgm_ops)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_orders_order_number_prefix "
+                    + "ON orders (order_number varchar_pattern_ops)");
+        } catch (Exception e) {
+            log.warn("Order number indexes not created: {}", e.getMessage());
+        }
+    }
+
+    private boolean isPostgres() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        }
+    }
+}
@@ -102,6 +102,8 @@ public class SecurityConfig {
                 "https://dashboard.allin-shops.com"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(List.of("*"));
+        // Readable by the dashboard's JavaScript
+        configuration.setExposedHeaders(List.of("X-Total-Estimated", "Idempotent-Replayed"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
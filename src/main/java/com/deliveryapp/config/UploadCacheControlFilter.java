@@ -0,0 +1,128 @@
+package com.deliveryapp.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Cache-Control for the files served under /uploads, by file name. Names that
+ * never change meaning are kept for a year without revalidation; fixed names
+ * that get replaced are always revalidated (cheap with the ETag); older
+ * UUID-named uploads get a day.
+ *
+ * Added once the status is known, like CatalogETagFilter, and only to 200, 206
+ * and 304: a 404 for a name that is uploaded a moment later must not be kept
+ * for a year.
+ */
+@Component
+public class UploadCacheControlFilter extends OncePerRequestFilter {
+
+    // Names that never change meaning: content-addressed uploads and their renditions
+    // ("<sha256>.jpg", "<sha256>.thumb.jpg"), catalog snapshots and versioned APK releases
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile(".*/[0-9a-f]{64}(\\.[a-z]+)*$");
+    private static final Pattern CATALOG_SNAPSHOT = Pattern.compile("/uploads/catalog/.+\\.[0-9a-f]{12}\\.json\\.gz$");
+    private static final Pattern APK_RELEASE = Pattern.compile("/uploads/app/Allin-.+\\.apk$");
+
+    // Fixed names whose content is replaced in place
+    private static final Pattern MUTABLE = Pattern.compile("/uploads/(catalog/manifest\\.json|app/Allin\\.apk|app/latest\\.txt)$");
+
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+            .getHeaderValue();
+    private static final String REVALIDATE = CacheControl.noCache().getHeaderValue();
+    private static final String DEFAULT = CacheControl.maxAge(Duration.ofDays(1)).cachePublic().getHeaderValue();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !pathOf(request).startsWith("/uploads/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CachedResponse cached = new CachedResponse(response, cacheControl(pathOf(request)));
+        chain.doFilter(request, cached);
+        // A 304 has no body, so nothing above applied it yet
+        cached.applyCacheControl();
+    }
+
+    static String cacheControl(String path) {
+        if (CONTENT_ADDRESSED.matcher(path).matches() || CATALOG_SNAPSHOT.matcher(path).matches()
+                || APK_RELEASE.matcher(path).matches())
+            return IMMUTABLE;
+        if (MUTABLE.matcher(path).matches())
+            return REVALIDATE;
+        return DEFAULT;
+    }
+
+    private static final class CachedResponse extends HttpServletResponseWrapper {
+
+        private final String cacheControl;
+        private boolean decided = false;
+
+        CachedResponse(HttpServletResponse response, String cacheControl) {
+            super(response);
+            this.cacheControl = cacheControl;
+        }
+
+        void applyCacheControl() {
+            if (decided)
+                return;
+            decided = true;
+            int status = getStatus();
+            if ((status == SC_OK || status == SC_PARTIAL_CONTENT || status == SC_NOT_MODIFIED) && !isCommitted())
+                setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            applyCacheControl();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            applyCacheControl();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            applyCacheControl();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            decided = true;
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            decided = true;
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            decided = true;
+            super.sendRedirect(location);
+        }
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -1,11 +1,13 @@
 package com.deliveryapp.controller;
 
+import com.deliveryapp.dto.CursorResponse;
 import com.deliveryapp.dto.PagedResponse;
 import com.deliveryapp.dto.order.OrderResponse;
 import com.deliveryapp.dto.order.UpdateOrderStatusRequest;
 import com.deliveryapp.entity.Order;
 import com.deliveryapp.enums.OrderStatus;
 import com.deliveryapp.mapper.order.OrderMapper;
+import com.deliveryapp.repository.OrderSearchFilter;
 import com.deliveryapp.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -30,20 +32,50 @@ public class AdminOrderController {
     private final OrderMapper orderMapper;
 
     // 1. GET ALL ORDERS (Paginated with Optional Filters + Search)
+    // Every filter is optional; endDate is inclusive. When the result set is too large to
+    // count, totalElements is an estimate and the X-Total-Estimated header is set.
     @GetMapping
     public ResponseEntity<PagedResponse<OrderResponse>> getAllOrders(
             @RequestParam(required = false) String orderNumber, // Added
             @RequestParam(required = false) OrderStatus status,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long storeId,
+            @RequestParam(required = false) Long driverId,
+            @RequestParam(required = false) String customerPhone,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
 
         Pageable pageable = PageRequest.of(page, size);
+        OrderSearchFilter filter = toFilter(orderNumber, status, startDate, endDate, storeId, driverId, customerPhone);
 
-        Page<Order> orderPage = orderService.getAdminOrders(orderNumber, status, startDate, endDate, pageable);
+        OrderService.AdminOrderPage result = orderService.getAdminOrders(filter, pageable);
 
-        return ResponseEntity.ok(createPagedResponse(orderPage));
+        return ResponseEntity.ok()
+                .header("X-Total-Estimated", String.valueOf(result.totalEstimated()))
+                .body(createPagedResponse(result.page()));
+    }
+
+    // 1b. SAME SEARCH, CURSOR-BASED (infinite scroll / deep pages): pass nextCursor back as ?cursor=
+    @GetMapping("/feed")
+    public ResponseEntity<CursorResponse<OrderResponse>> getOrderFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String orderNumber,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long storeId,
+            @RequestParam(required = false) Long driverId,
+            @RequestParam(required = false) String customerPhone,
+            @RequestParam(defaultValue = "20") int size) {
+
+        OrderSearchFilter filter = toFilter(orderNumber, status, startDate, endDate, storeId, driverId, customerPhone);
+        OrderService.OrderSlice slice = orderService.getAdminOrdersAfter(filter, cursor, size);
+
+        List<OrderResponse> content = slice.content().stream()
+                .map(orderMapper::toOrderResponse)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(new CursorResponse<>(content, slice.nextCursor(), slice.nextCursor() != null));
     }
 
     // 2. UPDATE STATUS
@@ -70,7 +102,23 @@ public class AdminOrderController {
         return ResponseEntity.ok("تم حذف الطلب بنجاح");
     }
 
-    // --- HELPER METHOD ---
+    // --- HELPER METHODS ---
+    private static OrderSearchFilter toFilter(String orderNumber, OrderStatus status, LocalDate startDate,
+            LocalDate endDate, Long storeId, Long driverId, String customerPhone) {
+        return new OrderSearchFilter(
+                blankToNull(orderNumber),
+                status,
+                startDate != null ? startDate.atStartOfDay() : null,
+                endDate != null ? endDate.plusDays(1).atStartOfDay() : null,
+                storeId,
+                driverId,
+                blankToNull(customerPhone));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
     private PagedResponse<OrderResponse> createPagedResponse(Page<Order> orderPage) {
         List<OrderResponse> content = orderPage.getContent().stream()
                 .map(orderMapper::toOrderResponse)
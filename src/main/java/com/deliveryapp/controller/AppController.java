@@ -3,6 +3,7 @@ package com.deliveryapp.controller;
 import com.deliveryapp.service.FileStorageService;
 import com.deliveryapp.util.UrlUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -23,8 +24,9 @@ public class AppController {
     // --- 1. ADMIN: Upload New APK ---
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<String> uploadApk(@RequestParam("file") MultipartFile file) {
-        String relativePath = fileStorageService.storeApkFile(file);
+    public ResponseEntity<String> uploadApk(@RequestParam("file") MultipartFile file,
+            @RequestParam(value = "version", required = false) String version) {
+        String relativePath = fileStorageService.storeApkFile(file, version);
         String fullUrl = urlUtil.getFullUrl(relativePath);
         
         return ResponseEntity.ok("Allin App uploaded successfully. Download link: " + fullUrl);
@@ -33,16 +35,20 @@ public class AppController {
     // --- 2. PUBLIC: Get Download Link (JSON) ---
     @GetMapping("/link")
     public ResponseEntity<String> getAppDownloadLink() {
-        return ResponseEntity.ok(urlUtil.getFullUrl("/uploads/app/Allin.apk"));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(urlUtil.getFullUrl(fileStorageService.getLatestApkUrl()));
     }
 
     // --- 3. PUBLIC: Direct Download Redirect ---
     @GetMapping("/download")
     public ResponseEntity<Void> downloadApp() {
-        String fileUrl = urlUtil.getFullUrl("/uploads/app/Allin.apk");
+        String fileUrl = urlUtil.getFullUrl(fileStorageService.getLatestApkUrl());
         
-        // This HTTP 302 Redirect tells the browser to instantly start downloading the APK
+        // This HTTP 302 Redirect tells the browser to instantly start downloading the APK.
+        // The redirect itself is never cached; the versioned file it points at is.
         return ResponseEntity.status(HttpStatus.FOUND)
+                .cacheControl(CacheControl.noCache())
                 .location(URI.create(fileUrl))
                 .build();
     }
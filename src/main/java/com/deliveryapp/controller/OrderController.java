@@ -4,6 +4,7 @@ import com.deliveryapp.dto.PagedResponse;
 import com.deliveryapp.dto.order.*;
 import com.deliveryapp.entity.Order;
 import com.deliveryapp.mapper.order.OrderMapper;
+import com.deliveryapp.service.IdempotencyService;
 import com.deliveryapp.service.OrderCalculationService;
 import com.deliveryapp.service.OrderService;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +27,7 @@ public class OrderController {
     private final OrderService orderService;
     private final OrderMapper orderMapper;
     private final OrderCalculationService orderCalculationService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping("/calc-fee")
     public ResponseEntity<DeliveryFeeResponse> calculateFee(@RequestBody DeliveryFeeRequest request) {
@@ -38,10 +40,21 @@ public class OrderController {
         return ResponseEntity.ok(orderCalculationService.verifyCoupon(request));
     }
 
+    // With an Idempotency-Key header, a retried request returns the order the first attempt created
     @PostMapping("/place")
-    public ResponseEntity<OrderResponse> placeOrder(@RequestBody PlaceOrderRequest request) {
-        Order order = orderService.placeOrder(request);
-        return ResponseEntity.ok(orderMapper.toOrderResponse(order));
+    public ResponseEntity<OrderResponse> placeOrder(@RequestBody PlaceOrderRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            Order order = orderService.placeOrder(request);
+            return ResponseEntity.ok(orderMapper.toOrderResponse(order));
+        }
+
+        IdempotencyService.Outcome outcome = idempotencyService.execute("order:" + request.getUserId(),
+                idempotencyKey, request, () -> orderService.placeOrder(request).getOrderId());
+        Order order = orderService.getOrderById(outcome.resourceId());
+        return ResponseEntity.ok()
+                .header("Idempotent-Replayed", String.valueOf(outcome.replayed()))
+                .body(orderMapper.toOrderResponse(order));
     }
 
     // 🟢 GET USER HISTORY (Paginated + Search)
@@ -3,6 +3,8 @@ package com.deliveryapp.controller;
 import com.deliveryapp.dto.catalog.StoreCategoryRequest;
 import com.deliveryapp.dto.catalog.StoreCategoryResponse;
 import com.deliveryapp.entity.StoreCategory;
+import com.deliveryapp.mapper.catalog.CatalogMapper;
+import com.deliveryapp.service.CatalogNavigationService;
 import com.deliveryapp.service.StoreCategoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +20,8 @@ import java.util.stream.Collectors;
 public class StoreCategoryController {
 
     private final StoreCategoryService storeCategoryService;
+    private final CatalogNavigationService navigationService;
+    private final CatalogMapper catalogMapper;
 
     // =================================================================================
     // PUBLIC (User App)
@@ -26,8 +30,7 @@ public class StoreCategoryController {
     // Usage: GET /api/store-categories/store/5/active
     @GetMapping("/store/{storeId}/active")
     public ResponseEntity<List<StoreCategoryResponse>> getActiveCategories(@PathVariable Long storeId) {
-        List<StoreCategory> categories = storeCategoryService.getActiveCategoriesForStore(storeId);
-        return ResponseEntity.ok(categories.stream().map(this::mapToResponse).collect(Collectors.toList()));
+        return ResponseEntity.ok(navigationService.getActiveStoreCategories(storeId));
     }
 
     // =================================================================================
@@ -39,14 +42,14 @@ public class StoreCategoryController {
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
     public ResponseEntity<List<StoreCategoryResponse>> getAllCategories(@PathVariable Long storeId) {
         List<StoreCategory> categories = storeCategoryService.getAllCategoriesForStore(storeId);
-        return ResponseEntity.ok(categories.stream().map(this::mapToResponse).collect(Collectors.toList()));
+        return ResponseEntity.ok(categories.stream().map(catalogMapper::toStoreCategoryResponse).collect(Collectors.toList()));
     }
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
     public ResponseEntity<StoreCategoryResponse> createCategory(@RequestBody StoreCategoryRequest request) {
         StoreCategory saved = storeCategoryService.createStoreCategory(request);
-        return ResponseEntity.ok(mapToResponse(saved));
+        return ResponseEntity.ok(catalogMapper.toStoreCategoryResponse(saved));
     }
 
     @PutMapping("/{id}")
@@ -55,7 +58,7 @@ public class StoreCategoryController {
             @PathVariable Long id,
             @RequestBody StoreCategoryRequest request) {
         StoreCategory updated = storeCategoryService.updateStoreCategory(id, request);
-        return ResponseEntity.ok(mapToResponse(updated));
+        return ResponseEntity.ok(catalogMapper.toStoreCategoryResponse(updated));
     }
 
     @DeleteMapping("/{id}")
@@ -64,21 +67,4 @@ public class StoreCategoryController {
         storeCategoryService.deleteStoreCategory(id);
         return ResponseEntity.ok("Store Category deleted successfully");
     }
-
-    // =================================================================================
-    // MAPPER
-    // =================================================================================
-
-    private StoreCategoryResponse mapToResponse(StoreCategory sc) {
-        StoreCategoryResponse dto = new StoreCategoryResponse();
-        dto.setStoreCategoryId(sc.getStoreCategoryId());
-        dto.setName(sc.getName());
-        dto.setIsActive(sc.getIsActive());
-        dto.setDisplayOrder(sc.getDisplayOrder());
-
-        if (sc.getStore() != null) {
-            dto.setStoreId(sc.getStore().getStoreId());
-        }
-        return dto;
-    }
-}
\ No newline at end of file
+}
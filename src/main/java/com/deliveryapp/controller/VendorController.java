@@ -126,19 +126,14 @@ public class VendorController {
     @GetMapping("/products")
     public ResponseEntity<PagedResponse<ProductResponse>> getMyProducts(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
 
         Long storeId = getVendorStoreId();
         Pageable pageable = PageRequest.of(page, size);
         Page<Product> productPage = productService.getProductsByStore(storeId, pageable);
 
-        List<ProductResponse> content = productPage.getContent().stream()
-                .map(catalogMapper::toProductResponse)
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(new PagedResponse<>(
-                content, productPage.getNumber(), productPage.getSize(),
-                productPage.getTotalElements(), productPage.getTotalPages(), productPage.isLast()));
+        return ResponseEntity.ok(catalogMapper.toProductPage(productPage, compact));
     }
 
     @PutMapping(value = "/products/{productId}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -7,7 +7,7 @@ import com.deliveryapp.dto.catalog.ProductRequest;
 import com.deliveryapp.entity.Product;
 import com.deliveryapp.entity.ProductVariant;
 import com.deliveryapp.mapper.catalog.AdminCatalogMapper;
-import com.deliveryapp.service.PricingService;
+import com.deliveryapp.service.PriceBookService;
 import com.deliveryapp.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -30,7 +30,7 @@ import java.util.stream.Collectors;
 public class AdminProductController {
 
     private final ProductService productService;
-    private final PricingService pricingService;
+    private final PriceBookService priceBookService;
     private final AdminCatalogMapper adminCatalogMapper;
 
     @GetMapping("/products")
@@ -93,7 +93,7 @@ public class AdminProductController {
         responseDto.setVariantId(variant.getVariantId());
         responseDto.setVariantName(variant.getVariantValue());
         responseDto.setPriceAdjustment(variant.getPriceAdjustment());
-        responseDto.setCalculatedPriceAdjustment(pricingService.getVariantFinalPriceInSYP(variant));
+        responseDto.setCalculatedPriceAdjustment(priceBookService.getVariantPrice(variant));
 
         return ResponseEntity.ok(responseDto);
     }
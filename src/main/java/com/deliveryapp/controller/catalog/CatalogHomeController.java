@@ -0,0 +1,32 @@
+package com.deliveryapp.controller.catalog;
+
+import com.deliveryapp.dto.catalog.HomeFeedResponse;
+import com.deliveryapp.service.HomeFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/catalog/home")
+@RequiredArgsConstructor
+public class CatalogHomeController {
+
+    private final HomeFeedService homeFeedService;
+
+    // Banners, categories, trending, offers, newest and stores in one call; size applies to product sections
+    @GetMapping
+    public ResponseEntity<HomeFeedResponse> getHomeFeed(
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
+        HomeFeedResponse feed = homeFeedService.getHomeFeed(size, compact);
+        if (!feed.getFailedSections().isEmpty()) {
+            // Incomplete: never stored, so the catalog ETag can't turn it into a 304 later
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(feed);
+        }
+        return ResponseEntity.ok(feed);
+    }
+}
@@ -1,9 +1,13 @@
 package com.deliveryapp.controller.catalog;
 
 import com.deliveryapp.dto.PagedResponse;
+import com.deliveryapp.dto.catalog.ProductCursorResponse;
+import com.deliveryapp.dto.catalog.ProductFacetPageResponse;
 import com.deliveryapp.dto.catalog.ProductResponse;
 import com.deliveryapp.entity.Product;
 import com.deliveryapp.mapper.catalog.CatalogMapper;
+import com.deliveryapp.repository.ProductSeekFilter;
+import com.deliveryapp.service.ProductFacetIndex;
 import com.deliveryapp.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -13,8 +17,10 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.EnumMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/catalog/products")
@@ -23,45 +29,119 @@ public class CatalogProductController {
 
     private final ProductService productService;
     private final CatalogMapper catalogMapper;
+    private final ProductFacetIndex productFacetIndex;
 
     @GetMapping("/all")
     public ResponseEntity<PagedResponse<ProductResponse>> getAllProductsRandom(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("displayOrder").ascending());
-        return ResponseEntity.ok(createPagedResponse(productService.getAllProductsRandomly(pageable)));
+        return ResponseEntity.ok(createPagedResponse(productService.getAllProductsRandomly(pageable), compact));
+    }
+
+    /**
+     * Cursor-based listing for infinite scroll (mobile app). Covers the same
+     * listings as the paged endpoints below through optional filters; pass the
+     * returned nextCursor back to get the next page. No total count. At most
+     * 100 products per page.
+     * sort = "newest" lists by productId DESC, otherwise by displayOrder.
+     */
+    @GetMapping("/feed")
+    public ResponseEntity<ProductCursorResponse> getProductFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Long storeId,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long subCategoryId,
+            @RequestParam(required = false) Long storeCategoryId,
+            @RequestParam(defaultValue = "false") boolean trending,
+            @RequestParam(defaultValue = "false") boolean offers,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "false") boolean compact) {
+        ProductSeekFilter filter = new ProductSeekFilter(storeId, categoryId, subCategoryId, storeCategoryId,
+                trending, offers, maxPrice, "newest".equalsIgnoreCase(sort));
+        ProductService.ProductSlice slice = productService.getProductsAfter(filter, cursor, size);
+        return ResponseEntity.ok(catalogMapper.toProductCursorPage(slice.content(), slice.nextCursor(), compact));
+    }
+
+    /**
+     * Filtered listing with facet counts. Each filter takes one or more values
+     * (storeId=1,2); values of one filter are OR'ed, filters are AND'ed.
+     * offers / trending filter on the flag when given, priceBucket refers to
+     * the buckets listed in the response, minPrice / maxPrice to the exact SYP
+     * price. sort = newest / price_asc / price_desc, display order otherwise.
+     * At most 100 products per page.
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFacetPageResponse> filterProducts(
+            @RequestParam(required = false) List<Long> storeId,
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) List<Long> subCategoryId,
+            @RequestParam(required = false) List<Long> storeCategoryId,
+            @RequestParam(required = false) List<Long> colorId,
+            @RequestParam(required = false) List<Long> priceBucket,
+            @RequestParam(required = false) Boolean offers,
+            @RequestParam(required = false) Boolean trending,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
+        Map<ProductFacetIndex.Facet, Set<Long>> filters = new EnumMap<>(ProductFacetIndex.Facet.class);
+        putFilter(filters, ProductFacetIndex.Facet.STORE, storeId);
+        putFilter(filters, ProductFacetIndex.Facet.CATEGORY, categoryId);
+        putFilter(filters, ProductFacetIndex.Facet.SUB_CATEGORY, subCategoryId);
+        putFilter(filters, ProductFacetIndex.Facet.STORE_CATEGORY, storeCategoryId);
+        putFilter(filters, ProductFacetIndex.Facet.COLOR, colorId);
+        putFilter(filters, ProductFacetIndex.Facet.PRICE, priceBucket);
+        if (offers != null)
+            filters.put(ProductFacetIndex.Facet.OFFER, Set.of(offers ? 1L : 0L));
+        if (trending != null)
+            filters.put(ProductFacetIndex.Facet.TRENDING, Set.of(trending ? 1L : 0L));
+
+        ProductService.FacetedProducts result = productService.filterProducts(
+                new ProductFacetIndex.Query(filters, toOrder(sort), minPrice, maxPrice),
+                PageRequest.of(page, Math.min(size, ProductService.MAX_PAGE_SIZE)));
+        return ResponseEntity.ok(catalogMapper.toProductFacetPage(result.page(), result.counts(),
+                productFacetIndex.priceBounds(), compact));
     }
 
     @GetMapping("/{productId}")
     public ResponseEntity<ProductResponse> getProductById(@PathVariable Long productId) {
-        return ResponseEntity.ok(catalogMapper.toProductResponse(productService.getProductById(productId)));
+        return ResponseEntity.ok(catalogMapper.toProductResponse(productService.getProductDetail(productId)));
     }
 
     @GetMapping("/store/{storeId}")
     public ResponseEntity<PagedResponse<ProductResponse>> getProductsByStore(
             @PathVariable Long storeId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("displayOrder").ascending());
-        return ResponseEntity.ok(createPagedResponse(productService.getProductsByStore(storeId, pageable)));
+        return ResponseEntity.ok(createPagedResponse(productService.getProductsByStore(storeId, pageable), compact));
     }
 
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<PagedResponse<ProductResponse>> getProductsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("displayOrder").ascending());
-        return ResponseEntity.ok(createPagedResponse(productService.getProductsByCategory(categoryId, pageable)));
+        return ResponseEntity.ok(createPagedResponse(productService.getProductsByCategory(categoryId, pageable), compact));
     }
 
     @GetMapping("/subcategory/{subCategoryId}")
     public ResponseEntity<PagedResponse<ProductResponse>> getProductsBySubCategory(
             @PathVariable Long subCategoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("displayOrder").ascending());
-        return ResponseEntity.ok(createPagedResponse(productService.getProductsBySubCategory(subCategoryId, pageable)));
+        return ResponseEntity.ok(createPagedResponse(productService.getProductsBySubCategory(subCategoryId, pageable), compact));
     }
 
     @GetMapping("/search")
@@ -69,9 +149,10 @@ public class CatalogProductController {
             @RequestParam("q") String keyword,
             @RequestParam(value = "categoryId", defaultValue = "0") Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(createPagedResponse(productService.searchProducts(keyword, categoryId, pageable)));
+        return ResponseEntity.ok(createPagedResponse(productService.searchProducts(keyword, categoryId, pageable), compact));
     }
 
     @GetMapping("/store/search")
@@ -79,9 +160,10 @@ public class CatalogProductController {
             @RequestParam("q") String keyword,
             @RequestParam("storeId") long storeId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(createPagedResponse(productService.searchProductsInStore(keyword, storeId, pageable)));
+        return ResponseEntity.ok(createPagedResponse(productService.searchProductsInStore(keyword, storeId, pageable), compact));
     }
 
     @GetMapping("/store/{storeId}/category/{categoryId}")
@@ -89,10 +171,11 @@ public class CatalogProductController {
             @PathVariable Long storeId,
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("displayOrder").ascending());
         return ResponseEntity.ok(
-                createPagedResponse(productService.getProductsByStoreAndCategory(storeId, categoryId, pageable)));
+                createPagedResponse(productService.getProductsByStoreAndCategory(storeId, categoryId, pageable), compact));
     }
 
     @GetMapping("/store/{storeId}/subcategory/{subCategoryId}")
@@ -100,35 +183,43 @@ public class CatalogProductController {
             @PathVariable Long storeId,
             @PathVariable Long subCategoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("displayOrder").ascending());
         return ResponseEntity.ok(
-                createPagedResponse(productService.getProductsByStoreAndSubCategory(storeId, subCategoryId, pageable)));
+                createPagedResponse(productService.getProductsByStoreAndSubCategory(storeId, subCategoryId, pageable), compact));
     }
 
+    // Price range on the SYP shelf price (offers and USD prices included); sort = price_asc / price_desc
     @GetMapping("/price")
     public ResponseEntity<PagedResponse<ProductResponse>> getProductsByPrice(
-            @RequestParam Double max,
+            @RequestParam(required = false) Double min,
+            @RequestParam(required = false) Double max,
+            @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("displayOrder").ascending());
-        return ResponseEntity.ok(createPagedResponse(productService.getProductsUnderPrice(max, pageable)));
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
+        return ResponseEntity.ok(createPagedResponse(
+                productService.getProductsByPriceRange(min, max, toOrder(sort), PageRequest.of(page, size)),
+                compact));
     }
 
     @GetMapping("/new")
     public ResponseEntity<PagedResponse<ProductResponse>> getNewestProducts(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(createPagedResponse(productService.getNewestProducts(pageable)));
+        return ResponseEntity.ok(createPagedResponse(productService.getNewestProducts(pageable), compact));
     }
 
     @GetMapping("/trending")
     public ResponseEntity<PagedResponse<ProductResponse>> getTrendingProducts(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(createPagedResponse(productService.getTrendingProducts(pageable)));
+        return ResponseEntity.ok(createPagedResponse(productService.getTrendingProducts(pageable), compact));
     }
 
     @GetMapping("/store/{storeId}/store-category/{storeCategoryId}")
@@ -136,26 +227,40 @@ public class CatalogProductController {
             @PathVariable Long storeId,
             @PathVariable Long storeCategoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("displayOrder").ascending());
         return ResponseEntity.ok(createPagedResponse(
-                productService.getProductsByStoreAndStoreCategory(storeId, storeCategoryId, pageable)));
+                productService.getProductsByStoreAndStoreCategory(storeId, storeCategoryId, pageable), compact));
     }
 
     @GetMapping("/offers")
     public ResponseEntity<PagedResponse<ProductResponse>> getOffers(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("displayOrder").ascending());
-        return ResponseEntity.ok(createPagedResponse(productService.getOffers(pageable)));
+        return ResponseEntity.ok(createPagedResponse(productService.getOffers(pageable), compact));
+    }
+
+    private static ProductFacetIndex.Order toOrder(String sort) {
+        if (sort == null)
+            return ProductFacetIndex.Order.DISPLAY_ORDER;
+        return switch (sort.toLowerCase()) {
+            case "newest" -> ProductFacetIndex.Order.NEWEST;
+            case "price_asc" -> ProductFacetIndex.Order.PRICE_ASC;
+            case "price_desc" -> ProductFacetIndex.Order.PRICE_DESC;
+            default -> ProductFacetIndex.Order.DISPLAY_ORDER;
+        };
+    }
+
+    private static void putFilter(Map<ProductFacetIndex.Facet, Set<Long>> filters, ProductFacetIndex.Facet facet,
+            List<Long> values) {
+        if (values != null && !values.isEmpty())
+            filters.put(facet, Set.copyOf(values));
     }
 
-    private PagedResponse<ProductResponse> createPagedResponse(Page<Product> productPage) {
-        List<ProductResponse> content = productPage.getContent().stream()
-                .map(catalogMapper::toProductResponse)
-                .collect(Collectors.toList());
-        return new PagedResponse<>(
-                content, productPage.getNumber(), productPage.getSize(),
-                productPage.getTotalElements(), productPage.getTotalPages(), productPage.isLast());
+    private PagedResponse<ProductResponse> createPagedResponse(Page<Product> productPage, boolean compact) {
+        return catalogMapper.toProductPage(productPage, compact);
     }
 }
\ No newline at end of file
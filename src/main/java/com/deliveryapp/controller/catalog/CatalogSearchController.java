@@ -4,11 +4,13 @@ import com.deliveryapp.dto.PagedResponse;
 import com.deliveryapp.dto.catalog.GlobalSearchResponse;
 import com.deliveryapp.dto.catalog.ProductResponse;
 import com.deliveryapp.dto.catalog.StoreResponse;
+import com.deliveryapp.dto.catalog.SuggestionResponse;
 import com.deliveryapp.entity.Product;
 import com.deliveryapp.entity.Store;
 import com.deliveryapp.mapper.catalog.CatalogMapper;
 import com.deliveryapp.service.ProductService;
 import com.deliveryapp.service.StoreService;
+import com.deliveryapp.service.SuggestionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -27,6 +29,7 @@ public class CatalogSearchController {
     private final StoreService storeService;
     private final ProductService productService;
     private final CatalogMapper catalogMapper;
+    private final SuggestionService suggestionService;
 
     // 🌟 PROFESSIONAL GLOBAL SEARCH
     // Usage: /api/catalog/search/global?q=burger&page=0&size=10
@@ -34,7 +37,8 @@ public class CatalogSearchController {
     public ResponseEntity<GlobalSearchResponse> globalSearch(
             @RequestParam("q") String keyword,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean compact) {
 
         // 1. Search Stores (Limit to top 5 to keep UI clean)
         List<Store> matchingStores = storeService.searchStores(keyword);
@@ -48,7 +52,7 @@ public class CatalogSearchController {
         Page<Product> matchingProducts = productService.searchProductsGlobal(keyword, pageable);
 
         // Map Page<Product> to PagedResponse<ProductResponse>
-        PagedResponse<ProductResponse> productResponses = createPagedResponse(matchingProducts);
+        PagedResponse<ProductResponse> productResponses = createPagedResponse(matchingProducts, compact);
 
         // 3. Combine and Return
         GlobalSearchResponse finalResponse = new GlobalSearchResponse(storeResponses, productResponses);
@@ -56,18 +60,20 @@ public class CatalogSearchController {
         return ResponseEntity.ok(finalResponse);
     }
 
-    // --- HELPER METHOD TO CREATE PAGED RESPONSE ---
-    private PagedResponse<ProductResponse> createPagedResponse(Page<Product> productPage) {
-        List<ProductResponse> content = productPage.getContent().stream()
-                .map(catalogMapper::toProductResponse)
+    // ⚡ SUGGEST-AS-YOU-TYPE (served from memory, call on every keystroke)
+    // Usage: /api/catalog/search/suggest?q=برغ&limit=8
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @RequestParam("q") String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        List<SuggestionResponse> suggestions = suggestionService.suggest(prefix, limit).stream()
+                .map(s -> new SuggestionResponse(s.type().name(), s.id(), s.text()))
                 .collect(Collectors.toList());
+        return ResponseEntity.ok(suggestions);
+    }
 
-        return new PagedResponse<>(
-                content,
-                productPage.getNumber(),
-                productPage.getSize(),
-                productPage.getTotalElements(),
-                productPage.getTotalPages(),
-                productPage.isLast());
+    // --- HELPER METHOD TO CREATE PAGED RESPONSE ---
+    private PagedResponse<ProductResponse> createPagedResponse(Page<Product> productPage, boolean compact) {
+        return catalogMapper.toProductPage(productPage, compact);
     }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.deliveryapp.controller.catalog;
 
+import com.deliveryapp.dto.catalog.StoreMenuResponse;
 import com.deliveryapp.dto.catalog.StoreResponse;
 import com.deliveryapp.entity.Store;
 import com.deliveryapp.mapper.catalog.CatalogMapper;
+import com.deliveryapp.service.StoreMenuService;
 import com.deliveryapp.service.StoreService;
 import com.deliveryapp.util.DistanceUtil;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +20,7 @@ import java.util.stream.Collectors;
 public class CatalogStoreController {
 
     private final StoreService storeService;
+    private final StoreMenuService storeMenuService;
     private final CatalogMapper catalogMapper;
     private final DistanceUtil distanceUtil;
 
@@ -47,6 +50,12 @@ public class CatalogStoreController {
         return ResponseEntity.ok(response);
     }
 
+    // Whole menu grouped by store category, for the store page (cached per store)
+    @GetMapping("/{storeId}/menu")
+    public ResponseEntity<StoreMenuResponse> getStoreMenu(@PathVariable Long storeId) {
+        return ResponseEntity.ok(storeMenuService.getMenu(storeId));
+    }
+
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<List<StoreResponse>> getStoresByCategory(@PathVariable Long categoryId) {
         return ResponseEntity.ok(storeService.getStoresByCategory(categoryId).stream()
@@ -0,0 +1,24 @@
+package com.deliveryapp.controller.catalog;
+
+import com.deliveryapp.dto.catalog.CatalogSyncResponse;
+import com.deliveryapp.service.CatalogSyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/catalog/sync")
+@RequiredArgsConstructor
+public class CatalogSyncController {
+
+    private final CatalogSyncService catalogSyncService;
+
+    // Changes after the client's version; since=0 (first launch) returns the whole catalog
+    @GetMapping
+    public ResponseEntity<CatalogSyncResponse> sync(@RequestParam(defaultValue = "0") long since) {
+        return ResponseEntity.ok(catalogSyncService.sync(since));
+    }
+}
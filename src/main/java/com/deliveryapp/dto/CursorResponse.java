@@ -0,0 +1,13 @@
+package com.deliveryapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CursorResponse<T> {
+    private List<T> content;
+    private String nextCursor; // Pass back as ?cursor= to get the next page, null on the last page
+    private boolean hasMore;
+}
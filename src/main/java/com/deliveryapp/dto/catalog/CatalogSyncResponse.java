@@ -0,0 +1,45 @@
+package com.deliveryapp.dto.catalog;
+
+import com.deliveryapp.dto.banners.BannerResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answer to /api/catalog/sync?since=N.
+ *
+ * full = false: upserts and deletes after N; apply them and sync again from
+ * version (right away while hasMore is true).
+ * full = true: the whole catalog — replace the local copy.
+ *
+ * Products are compact (storeId only); products of a store that is not in the
+ * local catalog are hidden, and go with the store when it is deleted.
+ * Categories are only sent with full snapshots. Banners are always the
+ * complete active list, since their schedules change without a write.
+ */
+@Data
+public class CatalogSyncResponse {
+    private long version;
+    private boolean full;
+    private boolean hasMore;
+
+    private List<StoreResponse> stores = new ArrayList<>();
+    private List<StoreCategoryResponse> storeCategories = new ArrayList<>();
+    private List<ProductResponse> products = new ArrayList<>();
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<CategoryResponse> categories;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<SubCategoryResponse> subCategories;
+    private List<BannerResponse> banners;
+
+    private Deleted deleted = new Deleted();
+
+    @Data
+    public static class Deleted {
+        private List<Long> stores = new ArrayList<>();
+        private List<Long> storeCategories = new ArrayList<>();
+        private List<Long> products = new ArrayList<>();
+    }
+}
@@ -0,0 +1,24 @@
+package com.deliveryapp.dto.catalog;
+
+import com.deliveryapp.dto.PagedResponse;
+import com.deliveryapp.dto.banners.BannerResponse;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything the app's home screen shows, in one response. A section that
+ * failed or timed out is null and listed in failedSections; the app can load
+ * it through its own endpoint.
+ */
+@Data
+public class HomeFeedResponse {
+    private List<BannerResponse> banners;
+    private List<CategoryResponse> categories;
+    private PagedResponse<ProductResponse> trending;
+    private PagedResponse<ProductResponse> offers;
+    private PagedResponse<ProductResponse> newest;
+    private List<StoreResponse> stores;
+    private List<String> failedSections = new ArrayList<>();
+}
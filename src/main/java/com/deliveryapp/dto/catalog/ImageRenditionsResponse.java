@@ -0,0 +1,23 @@
+package com.deliveryapp.dto.catalog;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/**
+ * Resized copies of an uploaded image: thumb (240px) for lists, card (640px)
+ * for grids and cards, full (1600px) for detail screens. The WebP variants are
+ * only present when the server can encode WebP.
+ *
+ * All of them are opaque stills (transparency on white, first GIF frame);
+ * the plain image field next to them is the original upload.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImageRenditionsResponse {
+    private String thumb;
+    private String card;
+    private String full;
+    private String thumbWebp;
+    private String cardWebp;
+    private String fullWebp;
+}
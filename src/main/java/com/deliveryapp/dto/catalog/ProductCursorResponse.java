@@ -0,0 +1,27 @@
+package com.deliveryapp.dto.catalog;
+
+import com.deliveryapp.dto.CursorResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset product page for the catalog feed. Same compact-mode store dictionary
+ * as {@link ProductPageResponse}.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ProductCursorResponse extends CursorResponse<ProductResponse> {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<Long, StoreResponse> stores; // Only set in compact mode
+
+    public ProductCursorResponse(List<ProductResponse> content, String nextCursor,
+            Map<Long, StoreResponse> stores) {
+        super(content, nextCursor, nextCursor != null);
+        this.stores = stores;
+    }
+}
@@ -0,0 +1,21 @@
+package com.deliveryapp.dto.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A page of filtered products with facet counts: facet name (store, category,
+ * subCategory, storeCategory, color, offer, trending, price) → value → number
+ * of matching products. offer / trending use 1 and 0, price uses bucket
+ * numbers: bucket i holds prices below priceBuckets[i], the last one the rest.
+ */
+@Data
+@AllArgsConstructor
+public class ProductFacetPageResponse {
+    private ProductPageResponse products;
+    private Map<String, Map<Long, Integer>> facets;
+    private List<Double> priceBuckets;
+}
@@ -0,0 +1,27 @@
+package com.deliveryapp.dto.catalog;
+
+import com.deliveryapp.dto.PagedResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Product page for the catalog. In compact mode products only carry their
+ * storeId and every distinct store is sent once here, keyed by storeId.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ProductPageResponse extends PagedResponse<ProductResponse> {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<Long, StoreResponse> stores; // Only set in compact mode
+
+    public ProductPageResponse(List<ProductResponse> content, int pageNumber, int pageSize,
+            long totalElements, int totalPages, boolean isLast, Map<Long, StoreResponse> stores) {
+        super(content, pageNumber, pageSize, totalElements, totalPages, isLast);
+        this.stores = stores;
+    }
+}
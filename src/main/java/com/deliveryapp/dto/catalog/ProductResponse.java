@@ -1,5 +1,6 @@
 package com.deliveryapp.dto.catalog;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import java.util.List;
 
@@ -9,6 +10,8 @@ public class ProductResponse {
     private String name;
     private String description;
     private String imageUrl;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ImageRenditionsResponse imageRenditions; // Null until the renditions are generated
     private boolean isAvailable;
     private Boolean isTrending;
     private Integer displayOrder;
@@ -30,6 +33,8 @@ public class ProductResponse {
 
     // --- RELATIONSHIPS ---
     private StoreResponse store;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long storeId; // Compact mode only: the store is side-loaded in the page's stores map
     private Long categoryId;
     private String categoryName;
     private Long subCategoryId;
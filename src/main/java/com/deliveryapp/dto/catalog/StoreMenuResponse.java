@@ -0,0 +1,24 @@
+package com.deliveryapp.dto.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * A store's whole menu: its active sections in display order, each with its
+ * products. The last section has no category when some products have none.
+ */
+@Data
+@AllArgsConstructor
+public class StoreMenuResponse {
+    private Long storeId;
+    private List<Section> sections;
+
+    @Data
+    @AllArgsConstructor
+    public static class Section {
+        private StoreCategoryResponse category;
+        private List<ProductResponse> products;
+    }
+}
@@ -2,6 +2,7 @@ package com.deliveryapp.dto.catalog;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 @Data
@@ -13,6 +14,10 @@ public class StoreResponse {
     // Images
     private String logo;
     private String coverImage;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ImageRenditionsResponse logoRenditions; // Null until the renditions are generated
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ImageRenditionsResponse coverImageRenditions;
 
     // Contact & Location
     private String phone; // Added
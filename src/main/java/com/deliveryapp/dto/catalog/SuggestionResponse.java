@@ -0,0 +1,12 @@
+package com.deliveryapp.dto.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SuggestionResponse {
+    private String type; // PRODUCT, STORE or CATEGORY — tells the app which screen to open
+    private Long id;
+    private String text;
+}
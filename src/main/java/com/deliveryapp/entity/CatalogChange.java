@@ -0,0 +1,46 @@
+package com.deliveryapp.entity;
+
+import com.deliveryapp.event.CatalogChangedEvent;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the catalog change log read by /api/catalog/sync. The id is the
+ * sync version: it only grows, and a client that has seen version N asks for
+ * the entries after N. Entries name what changed, not the new values — the
+ * current state is read when the client syncs.
+ */
+@Entity
+@Table(name = "catalog_changes", indexes = {
+        @Index(name = "idx_catalog_changes_changed_at", columnList = "changed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private CatalogChangedEvent.Type entityType;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(name = "store_id")
+    private Long storeId;
+
+    // Database clock, the one the settle check compares against; JVM clocks differ between nodes
+    @CreationTimestamp(source = SourceType.DB)
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,26 @@
+package com.deliveryapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Change counter for one slice of the public catalog ("global", "shared" or
+ * "store:{id}"). Bumped in the same transaction as the catalog write, so every
+ * node sees the new version together with the new rows.
+ */
+@Entity
+@Table(name = "catalog_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogVersion {
+
+    @Id
+    @Column(length = 40)
+    private String scope;
+
+    @Column(nullable = false)
+    private Long version;
+}
@@ -0,0 +1,49 @@
+package com.deliveryapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A client's Idempotency-Key and what it produced. The id is scoped to the
+ * caller ("order:<userId>:<key>"), so two users can't collide on a key.
+ * A retry with the same key and the same request gets the original result;
+ * the same key with a different request is refused.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyKey {
+
+    public enum Status {
+        IN_PROGRESS, COMPLETED
+    }
+
+    @Id
+    @Column(length = 200)
+    private String id;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    // e.g. the order id, once completed
+    @Column(name = "resource_id")
+    private Long resourceId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
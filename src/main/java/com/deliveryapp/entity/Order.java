@@ -8,7 +8,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Admin search, newest first: unfiltered, by status, by driver, by customer
+        @Index(name = "idx_orders_created_at", columnList = "created_at, order_id"),
+        @Index(name = "idx_orders_status_created_at", columnList = "status, created_at, order_id"),
+        @Index(name = "idx_orders_driver_created_at", columnList = "driver_id, created_at"),
+        @Index(name = "idx_orders_user_created_at", columnList = "user_id, created_at")
+})
 @Data
 public class Order {
 
@@ -25,7 +31,8 @@ public class Order {
 
     // MUST BE PLURAL 'stores'
     @ManyToMany
-    @JoinTable(name = "order_stores", joinColumns = @JoinColumn(name = "order_id"), inverseJoinColumns = @JoinColumn(name = "store_id"))
+    @JoinTable(name = "order_stores", joinColumns = @JoinColumn(name = "order_id"), inverseJoinColumns = @JoinColumn(name = "store_id"),
+            indexes = @Index(name = "idx_order_stores_store_id", columnList = "store_id, order_id"))
     private List<Store> stores;
 
     @ManyToOne
@@ -59,6 +66,12 @@ public class Order {
     private LocalDateTime updatedAt;
     private LocalDateTime deliveredAt;
 
+    // Optimistic lock: of two concurrent updates (admin, driver, vendor) the second fails
+    // instead of silently overwriting the first. Existing rows start at 0.
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
     private List<OrderItem> orderItems;
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.deliveryapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A side effect of an order write (push notification, Telegram message,
+ * websocket broadcast), stored in the same transaction as the write and
+ * dispatched by the relay once it has committed. Nothing is sent for a write
+ * that rolls back, and nothing is lost when a send fails or the node dies.
+ *
+ * Events of one order are dispatched in id order within their lane: a slow
+ * Telegram call never holds back the live websocket updates, but an order's
+ * UPDATED broadcast never overtakes its CREATED one.
+ */
+@Entity
+@Table(name = "order_outbox", indexes = {
+        @Index(name = "idx_order_outbox_status_available_at", columnList = "status, available_at"),
+        @Index(name = "idx_order_outbox_order_lane", columnList = "order_id, lane, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderOutboxEvent {
+
+    public enum Lane {
+        LIVE, NOTIFY
+    }
+
+    public enum Type {
+        ORDER_CREATED(Lane.LIVE),
+        ORDER_UPDATED(Lane.LIVE),
+        ORDER_DELETED(Lane.LIVE),
+        STAFF_NEW_ORDER(Lane.NOTIFY),
+        STAFF_ORDER_CANCELLED(Lane.NOTIFY),
+        STAFF_NOTIFICATION(Lane.NOTIFY),
+        USER_NOTIFICATION(Lane.NOTIFY),
+        TELEGRAM_NEW_ORDER(Lane.NOTIFY);
+
+        private final Lane lane;
+
+        Type(Lane lane) {
+            this.lane = lane;
+        }
+
+        public Lane lane() {
+            return lane;
+        }
+    }
+
+    public enum Status {
+        PENDING, DISPATCHED, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // No foreign key: the events of a cancelled order outlive it
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Lane lane;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 40)
+    private Type type;
+
+    // JSON arguments of the side effect (titles, store ids...); the order itself is re-read
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    // Scheme and host of the request that wrote the event, for the image URLs of broadcasts
+    @Column(name = "base_url")
+    private String baseUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Not dispatched before this: set to the next retry after a failure
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    // Lease of the node dispatching it
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "dispatched_at")
+    private LocalDateTime dispatchedAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
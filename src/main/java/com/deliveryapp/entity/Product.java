@@ -8,10 +8,27 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Keyset listings seek on (display_order, product_id), optionally per store / category
+        @Index(name = "idx_products_available_order", columnList = "is_available, display_order, product_id"),
+        @Index(name = "idx_products_store_order", columnList = "store_id, display_order, product_id"),
+        @Index(name = "idx_products_category_order", columnList = "category_id, display_order, product_id")
+})
+@NamedEntityGraph(name = Product.REFERENCES_GRAPH, attributeNodes = {
+        @NamedAttributeNode(value = "store", subgraph = "store"),
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode(value = "subCategory", subgraph = "subCategory"),
+        @NamedAttributeNode("storeCategory")
+}, subgraphs = {
+        @NamedSubgraph(name = "store", attributeNodes = @NamedAttributeNode("category")),
+        @NamedSubgraph(name = "subCategory", attributeNodes = @NamedAttributeNode("category"))
+})
 @Data
 public class Product {
 
+    // Every to-one association the catalog mappers read, joined in one statement
+    public static final String REFERENCES_GRAPH = "Product.references";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "product_id")
@@ -65,7 +82,8 @@ public class Product {
     @BatchSize(size = 50)
     private List<ProductVariant> variants;
     private Boolean isTrending = false; // Default to false
-    @Column(columnDefinition = "integer default 0")
+    // NOT NULL: keyset listings compare it, and NULL never compares (see ProductDisplayOrderInitializer)
+    @Column(nullable = false, columnDefinition = "integer default 0")
     private Integer displayOrder = 0;
 
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.deliveryapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A content-addressed upload (/uploads/products/<sha256>.jpg) and how many
+ * entity fields point at it. The same bytes uploaded twice share one file;
+ * the file is deleted once the count drops to zero.
+ *
+ * Files uploaded before content addressing have no row and are deleted as
+ * soon as they are replaced, like before.
+ */
+@Entity
+@Table(name = "stored_files")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredFile {
+
+    @Id
+    @Column(length = 255)
+    private String url;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
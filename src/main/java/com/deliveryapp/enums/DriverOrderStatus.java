@@ -3,5 +3,14 @@ package com.deliveryapp.enums;
 public enum DriverOrderStatus {
     PENDING, // Initial state when admin assigns the order
     ACCEPTED, // Driver accepted
-    REJECTED // Driver declined
-}
\ No newline at end of file
+    REJECTED; // Driver declined
+
+    // A driver may still drop an order they accepted; a rejected order waits for the admin to reassign it
+    public boolean canTransitionTo(DriverOrderStatus next) {
+        return switch (this) {
+            case PENDING -> next == ACCEPTED || next == REJECTED;
+            case ACCEPTED -> next == REJECTED;
+            case REJECTED -> false;
+        };
+    }
+}
@@ -1,5 +1,33 @@
 package com.deliveryapp.enums;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum OrderStatus {
-    PENDING, CONFIRMED, PREPARING, READY_FOR_PICKUP,OUT_FOR_DELIVERY, DELIVERED, CANCELLED
-}
\ No newline at end of file
+    PENDING, CONFIRMED, PREPARING, READY_FOR_PICKUP,OUT_FOR_DELIVERY, DELIVERED, CANCELLED;
+
+    /**
+     * The statuses an order may move to from this one. Orders only move forward
+     * (steps may be skipped: a driver marks an order DELIVERED straight from
+     * CONFIRMED) and can be cancelled until delivered. DELIVERED and CANCELLED
+     * are final.
+     */
+    public Set<OrderStatus> allowedNext() {
+        return switch (this) {
+            case PENDING -> EnumSet.of(CONFIRMED, PREPARING, READY_FOR_PICKUP, OUT_FOR_DELIVERY, DELIVERED, CANCELLED);
+            case CONFIRMED -> EnumSet.of(PREPARING, READY_FOR_PICKUP, OUT_FOR_DELIVERY, DELIVERED, CANCELLED);
+            case PREPARING -> EnumSet.of(READY_FOR_PICKUP, OUT_FOR_DELIVERY, DELIVERED, CANCELLED);
+            case READY_FOR_PICKUP -> EnumSet.of(OUT_FOR_DELIVERY, DELIVERED, CANCELLED);
+            case OUT_FOR_DELIVERY -> EnumSet.of(DELIVERED, CANCELLED);
+            case DELIVERED, CANCELLED -> EnumSet.noneOf(OrderStatus.class);
+        };
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return next != null && allowedNext().contains(next);
+    }
+
+    public boolean isFinal() {
+        return this == DELIVERED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,59 @@
+package com.deliveryapp.event;
+
+/**
+ * Published by the catalog write paths after an entity changes.
+ *
+ * Listeners use @TransactionalEventListener so they only react once the change
+ * is committed (or immediately when the write ran outside a transaction).
+ *
+ * @param type     what kind of entity changed
+ * @param entityId id of the changed entity (null for EXCHANGE_RATE)
+ * @param storeId  owning store, when the entity belongs to one
+ * @param deleted  true when the entity was removed
+ */
+public record CatalogChangedEvent(Type type, Long entityId, Long storeId, boolean deleted) {
+
+    public enum Type {
+        PRODUCT, STORE, STORE_CATEGORY, CATEGORY, SUBCATEGORY, COLOR, BANNER, EXCHANGE_RATE
+    }
+
+    public static CatalogChangedEvent productSaved(Long productId, Long storeId) {
+        return new CatalogChangedEvent(Type.PRODUCT, productId, storeId, false);
+    }
+
+    public static CatalogChangedEvent productDeleted(Long productId, Long storeId) {
+        return new CatalogChangedEvent(Type.PRODUCT, productId, storeId, true);
+    }
+
+    public static CatalogChangedEvent storeSaved(Long storeId) {
+        return new CatalogChangedEvent(Type.STORE, storeId, storeId, false);
+    }
+
+    public static CatalogChangedEvent storeDeleted(Long storeId) {
+        return new CatalogChangedEvent(Type.STORE, storeId, storeId, true);
+    }
+
+    public static CatalogChangedEvent storeCategoryChanged(Long storeCategoryId, Long storeId, boolean deleted) {
+        return new CatalogChangedEvent(Type.STORE_CATEGORY, storeCategoryId, storeId, deleted);
+    }
+
+    public static CatalogChangedEvent categoryChanged(Long categoryId, boolean deleted) {
+        return new CatalogChangedEvent(Type.CATEGORY, categoryId, null, deleted);
+    }
+
+    public static CatalogChangedEvent subCategoryChanged(Long subCategoryId, boolean deleted) {
+        return new CatalogChangedEvent(Type.SUBCATEGORY, subCategoryId, null, deleted);
+    }
+
+    public static CatalogChangedEvent colorChanged(Long colorId, boolean deleted) {
+        return new CatalogChangedEvent(Type.COLOR, colorId, null, deleted);
+    }
+
+    public static CatalogChangedEvent bannerChanged(Long bannerId, boolean deleted) {
+        return new CatalogChangedEvent(Type.BANNER, bannerId, null, deleted);
+    }
+
+    public static CatalogChangedEvent exchangeRateChanged() {
+        return new CatalogChangedEvent(Type.EXCHANGE_RATE, null, null, false);
+    }
+}
@@ -12,6 +12,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import org.springframework.dao.DataIntegrityViolationException; // Add this import
+import org.springframework.dao.OptimisticLockingFailureException;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -34,6 +35,20 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.CONFLICT, "تعارض", ex.getMessage(), request);
     }
 
+    @ExceptionHandler(StatusConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleStatusConflictException(
+            StatusConflictException ex, WebRequest request) {
+        return buildResponse(HttpStatus.CONFLICT, "تعارض", ex.getMessage(), request);
+    }
+
+    // A versioned row (e.g. an order) was changed by someone else since it was read
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex, WebRequest request) {
+        return buildResponse(HttpStatus.CONFLICT, "تعارض",
+                "تم تعديل هذا السجل من قبل مستخدم آخر في نفس الوقت. يرجى التحديث والمحاولة مرة أخرى.", request);
+    }
+
     @ExceptionHandler({ AccessDeniedException.class, AuthorizationDeniedException.class })
     public ResponseEntity<Map<String, Object>> handleAccessDeniedException(Exception ex, WebRequest request) {
         return buildResponse(HttpStatus.FORBIDDEN, "مرفوض", ex.getMessage(), request);
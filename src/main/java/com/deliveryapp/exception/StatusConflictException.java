@@ -0,0 +1,12 @@
+package com.deliveryapp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// The request doesn't fit the current state of the record (e.g. an order that is already delivered)
+@ResponseStatus(HttpStatus.CONFLICT)
+public class StatusConflictException extends RuntimeException {
+    public StatusConflictException(String message) {
+        super(message);
+    }
+}
@@ -2,14 +2,21 @@ package com.deliveryapp.mapper.catalog;
 
 import com.deliveryapp.dto.catalog.*;
 import com.deliveryapp.entity.*;
-import com.deliveryapp.service.PricingService;
+import com.deliveryapp.service.ImageRenditionService;
+import com.deliveryapp.service.PriceBookService;
+import com.deliveryapp.service.ProductFacetIndex;
 import com.deliveryapp.util.UrlUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
@@ -17,7 +24,8 @@ import java.util.stream.Collectors;
 public class CatalogMapper {
 
     private final UrlUtil urlUtil;
-    private final PricingService pricingService;
+    private final PriceBookService priceBookService;
+    private final ImageRenditionService imageRenditionService;
 
     // --- CATEGORY ---
     public CategoryResponse toCategoryResponse(Category category) {
@@ -47,6 +55,20 @@ public class CatalogMapper {
         return dto;
     }
 
+    // --- STORE CATEGORY ---
+    public StoreCategoryResponse toStoreCategoryResponse(StoreCategory storeCategory) {
+        StoreCategoryResponse dto = new StoreCategoryResponse();
+        dto.setStoreCategoryId(storeCategory.getStoreCategoryId());
+        dto.setName(storeCategory.getName());
+        dto.setIsActive(storeCategory.getIsActive());
+        dto.setDisplayOrder(storeCategory.getDisplayOrder());
+
+        if (storeCategory.getStore() != null) {
+            dto.setStoreId(storeCategory.getStore().getStoreId());
+        }
+        return dto;
+    }
+
     // --- STORE ---
     public StoreResponse toStoreResponse(Store store) {
         StoreResponse dto = new StoreResponse();
@@ -66,6 +88,8 @@ public class CatalogMapper {
 
         dto.setLogo(urlUtil.getFullUrl(store.getLogo()));
         dto.setCoverImage(urlUtil.getFullUrl(store.getCoverImage()));
+        dto.setLogoRenditions(toImageRenditions(store.getLogo()));
+        dto.setCoverImageRenditions(toImageRenditions(store.getCoverImage()));
 
         if (store.getCategory() != null) {
             dto.setCategoryId(store.getCategory().getCategoryId());
@@ -95,15 +119,7 @@ public class CatalogMapper {
             List<StoreCategoryResponse> categoriesList = store.getStoreCategories().stream()
                     // Filter to only show Active categories to the user
                     .filter(sc -> Boolean.TRUE.equals(sc.getIsActive()))
-                    .map(sc -> {
-                        StoreCategoryResponse scDto = new StoreCategoryResponse();
-                        scDto.setStoreCategoryId(sc.getStoreCategoryId());
-                        scDto.setStoreId(sc.getStore().getStoreId());
-                        scDto.setName(sc.getName());
-                        scDto.setIsActive(sc.getIsActive());
-                        scDto.setDisplayOrder(sc.getDisplayOrder());
-                        return scDto;
-                    })
+                    .map(this::toStoreCategoryResponse)
                     .collect(Collectors.toList());
             dto.setStoreCategories(categoriesList);
         } else {
@@ -113,20 +129,119 @@ public class CatalogMapper {
         return dto;
     }
 
+    // --- PRODUCT PAGE ---
+
+    /**
+     * Maps a page of products, mapping each distinct store only once.
+     *
+     * compact = false: every product embeds its store (the same StoreResponse is
+     * shared by all products of that store).
+     * compact = true: products only carry storeId and the stores are returned once
+     * in the page's stores dictionary.
+     */
+    public ProductPageResponse toProductPage(Page<Product> page, boolean compact) {
+        Map<Long, StoreResponse> stores = new LinkedHashMap<>();
+        List<ProductResponse> content = toProductResponses(page.getContent(), compact, stores);
+
+        return new ProductPageResponse(
+                content, page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages(), page.isLast(),
+                compact ? stores : null);
+    }
+
+    // Filtered page plus facet counts keyed by facet name
+    public ProductFacetPageResponse toProductFacetPage(Page<Product> page,
+            Map<ProductFacetIndex.Facet, Map<Long, Integer>> counts, double[] priceBounds, boolean compact) {
+        Map<String, Map<Long, Integer>> facets = new LinkedHashMap<>();
+        counts.forEach((facet, values) -> facets.put(facet.key(), values));
+        return new ProductFacetPageResponse(toProductPage(page, compact), facets,
+                Arrays.stream(priceBounds).boxed().toList());
+    }
+
+    // Keyset variant of toProductPage, same store handling
+    public ProductCursorResponse toProductCursorPage(List<Product> products, String nextCursor, boolean compact) {
+        Map<Long, StoreResponse> stores = new LinkedHashMap<>();
+        List<ProductResponse> content = toProductResponses(products, compact, stores);
+        return new ProductCursorResponse(content, nextCursor, compact ? stores : null);
+    }
+
+    // Products carrying only their storeId, for callers that send the stores separately
+    public List<ProductResponse> toCompactProductResponses(List<Product> products) {
+        return products.stream().map(product -> {
+            ProductResponse dto = toProductResponse(product, null);
+            if (product.getStore() != null)
+                dto.setStoreId(product.getStore().getStoreId());
+            return dto;
+        }).collect(Collectors.toList());
+    }
+
+    private List<ProductResponse> toProductResponses(List<Product> products, boolean compact,
+            Map<Long, StoreResponse> stores) {
+        return products.stream().map(product -> {
+            Store store = product.getStore();
+            StoreResponse storeDto = store == null ? null
+                    : stores.computeIfAbsent(store.getStoreId(), id -> toStoreResponse(store));
+            ProductResponse dto = toProductResponse(product, compact ? null : storeDto);
+            if (compact && store != null)
+                dto.setStoreId(store.getStoreId());
+            return dto;
+        }).collect(Collectors.toList());
+    }
+
+    // --- STORE MENU ---
+
+    /**
+     * Groups a store's products under its active sections, in section order.
+     * Products carry only their storeId. Products without a section come last
+     * in a section with no category; products of an inactive section are left
+     * out, as they have no tab.
+     */
+    public StoreMenuResponse toStoreMenu(Long storeId, List<StoreCategoryResponse> categories,
+            List<Product> products) {
+        Map<Long, List<ProductResponse>> bySection = new LinkedHashMap<>();
+        categories.forEach(category -> bySection.put(category.getStoreCategoryId(), new ArrayList<>()));
+        List<ProductResponse> unsorted = new ArrayList<>();
+
+        for (Product product : products) {
+            StoreCategory storeCategory = product.getStoreCategory();
+            List<ProductResponse> target = storeCategory == null ? unsorted
+                    : bySection.get(storeCategory.getStoreCategoryId());
+            if (target == null)
+                continue;
+            ProductResponse dto = toProductResponse(product, null);
+            dto.setStoreId(storeId);
+            target.add(dto);
+        }
+
+        List<StoreMenuResponse.Section> sections = new ArrayList<>();
+        categories.forEach(category -> sections.add(
+                new StoreMenuResponse.Section(category, bySection.get(category.getStoreCategoryId()))));
+        if (!unsorted.isEmpty())
+            sections.add(new StoreMenuResponse.Section(null, unsorted));
+        return new StoreMenuResponse(storeId, sections);
+    }
+
     // --- PRODUCT ---
 
     public ProductResponse toProductResponse(Product product) {
+        return toProductResponse(product,
+                product.getStore() != null ? toStoreResponse(product.getStore()) : null);
+    }
+
+    private ProductResponse toProductResponse(Product product, StoreResponse storeDto) {
         ProductResponse dto = new ProductResponse();
         dto.setProductId(product.getProductId());
         dto.setName(product.getName());
         dto.setDescription(product.getDescription());
         dto.setImageUrl(urlUtil.getFullUrl(product.getImage()));
+        dto.setImageRenditions(toImageRenditions(product.getImage()));
         dto.setAvailable(product.getIsAvailable());
         dto.setIsTrending(product.getIsTrending() != null ? product.getIsTrending() : false);
         dto.setDisplayOrder(product.getDisplayOrder());
 
-        // 🔴 Calculate SYP price using today's exchange rate
-        dto.setCalculatedPrice(pricingService.getFinalPriceInSYP(product));
+        // 🔴 SYP prices come precomputed from the price book (today's exchange rate)
+        PriceBookService.ProductPrices prices = priceBookService.getPrices(product);
+        dto.setCalculatedPrice(prices.finalPrice());
 
         // --- MAP GALLERY IMAGES ---
         if (product.getImages() != null && !product.getImages().isEmpty()) {
@@ -152,12 +267,8 @@ public class CatalogMapper {
         }
 
         // --- MAP STORE (Updated) ---
-        if (product.getStore() != null) {
-            StoreResponse storeDto = toStoreResponse(product.getStore());
-            dto.setStore(storeDto);
-
-            // ❌ REMOVED: dto.setStoreId(...) and dto.setStoreName(...)
-        }
+        // Mapped by the caller so pages can map each store once (null in compact mode)
+        dto.setStore(storeDto);
 
         // --- MAP CATEGORY / SUBCATEGORY ---
         if (product.getCategory() != null) {
@@ -175,7 +286,7 @@ public class CatalogMapper {
                 ProductVariantResponse vDto = new ProductVariantResponse();
                 vDto.setVariantId(v.getVariantId());
                 vDto.setVariantName(v.getVariantValue());
-                vDto.setCalculatedPriceAdjustment(pricingService.getVariantFinalPriceInSYP(v));
+                vDto.setCalculatedPriceAdjustment(priceBookService.getVariantPrice(v));
                 return vDto;
             }).collect(Collectors.toList()));
         } else {
@@ -203,9 +314,9 @@ public class CatalogMapper {
 
         if (dto.getHasOffer()) {
             // If there is an offer, we need to show the old crossed-out price
-            dto.setOriginalPrice(pricingService.getRegularPriceInSYP(product));
-            // And calculate the percentage badge
-            dto.setDiscountPercentage(pricingService.getDiscountPercentage(product));
+            dto.setOriginalPrice(prices.regularPrice());
+            // And the percentage badge
+            dto.setDiscountPercentage(prices.discountPercentage());
         } else {
             dto.setOriginalPrice(null);
             dto.setDiscountPercentage(null);
@@ -214,6 +325,22 @@ public class CatalogMapper {
         return dto;
     }
 
+    // --- IMAGES ---
+    // Renditions are flattened JPEGs, so the plain image fields keep the original (transparency, animation)
+    private ImageRenditionsResponse toImageRenditions(String path) {
+        ImageRenditionService.Renditions renditions = imageRenditionService.renditionsOf(path);
+        if (renditions == null)
+            return null;
+        ImageRenditionsResponse dto = new ImageRenditionsResponse();
+        dto.setThumb(urlUtil.getFullUrl(renditions.thumb()));
+        dto.setCard(urlUtil.getFullUrl(renditions.card()));
+        dto.setFull(urlUtil.getFullUrl(renditions.full()));
+        dto.setThumbWebp(urlUtil.getFullUrl(renditions.thumbWebp()));
+        dto.setCardWebp(urlUtil.getFullUrl(renditions.cardWebp()));
+        dto.setFullWebp(urlUtil.getFullUrl(renditions.fullWebp()));
+        return dto;
+    }
+
     private boolean isStoreOpen(Store store) {
         if (store.getOpeningTime() == null || store.getClosingTime() == null)
             return true; // Assume open if not set
@@ -17,4 +17,11 @@ public interface BannerRepository extends JpaRepository<Banner, Long> {
 
     // For Admin: See all, sorted by ID or Order
     List<Banner> findAllByOrderByDisplayOrderAsc();
-}
\ No newline at end of file
+
+    // Schedule boundaries: the active banner list changes at these instants
+    @Query("SELECT DISTINCT b.startDate FROM Banner b WHERE b.isActive = true AND b.startDate IS NOT NULL")
+    List<LocalDateTime> findActiveStartDates();
+
+    @Query("SELECT DISTINCT b.endDate FROM Banner b WHERE b.isActive = true AND b.endDate IS NOT NULL")
+    List<LocalDateTime> findActiveEndDates();
+}
@@ -0,0 +1,48 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.entity.CatalogChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// changed_at is stamped by the database, so every age below is measured on the database clock too
+@Repository
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+
+    /**
+     * Serializes appends to the log until the calling transaction ends, so ids
+     * are taken in commit order: once id N+1 exists, the transaction of id N
+     * has already committed or rolled back.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:key)", nativeQuery = true)
+    Integer lockForAppend(@Param("key") long key);
+
+    // Entries after a version that are at least settleMs old, oldest first
+    @Query(value = "SELECT * FROM catalog_changes WHERE id > :since "
+            + "AND changed_at <= LOCALTIMESTAMP - make_interval(secs => :settleMs / 1000.0) "
+            + "ORDER BY id ASC LIMIT :limit", nativeQuery = true)
+    List<CatalogChange> findSettledAfter(@Param("since") long since, @Param("settleMs") long settleMs,
+            @Param("limit") int limit);
+
+    @Query(value = "SELECT MAX(id) FROM catalog_changes "
+            + "WHERE changed_at <= LOCALTIMESTAMP - make_interval(secs => :settleMs / 1000.0)", nativeQuery = true)
+    Long findLatestSettledId(@Param("settleMs") long settleMs);
+
+    @Query("SELECT MAX(c.id) FROM CatalogChange c")
+    Long findLatestId();
+
+    @Query("SELECT MIN(c.id) FROM CatalogChange c")
+    Long findOldestId();
+
+    // The newest entry is always kept, so the current version survives a quiet month
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM catalog_changes WHERE changed_at < LOCALTIMESTAMP - make_interval(days => :days) "
+            + "AND id < (SELECT MAX(id) FROM catalog_changes)", nativeQuery = true)
+    int deleteOlderThan(@Param("days") int days);
+}
@@ -0,0 +1,17 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.entity.CatalogVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, String> {
+
+    // Creates the scope on its first change; concurrent writers queue on the row lock
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO catalog_versions (scope, version) VALUES (:scope, 1) "
+            + "ON CONFLICT (scope) DO UPDATE SET version = catalog_versions.version + 1", nativeQuery = true)
+    void increment(String scope);
+}
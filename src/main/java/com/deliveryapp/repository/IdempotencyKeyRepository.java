@@ -0,0 +1,25 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.status = com.deliveryapp.entity.IdempotencyKey.Status.COMPLETED, "
+            + "k.resourceId = :resourceId WHERE k.id = :id")
+    int markCompleted(@Param("id") String id, @Param("resourceId") Long resourceId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
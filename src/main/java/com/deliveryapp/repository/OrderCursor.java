@@ -0,0 +1,30 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.exception.InvalidDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of an order in a keyset listing (newest first): the sort key of the
+ * last order a client has seen. Sent to clients as an opaque token.
+ */
+public record OrderCursor(LocalDateTime createdAt, Long orderId) {
+
+    public String encode() {
+        String raw = createdAt + "_" + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("_", 2);
+            return new OrderCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidDataException("مؤشر الصفحة غير صالح");
+        }
+    }
+}
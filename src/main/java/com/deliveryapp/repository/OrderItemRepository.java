@@ -2,6 +2,7 @@ package com.deliveryapp.repository;
 
 import com.deliveryapp.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +12,9 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     boolean existsByProductProductId(Long productId);
 
     List<OrderItem> findByVariantVariantId(Long variantId);
+
+    // [productId, number of order lines] — popularity for search suggestions
+    @Query("SELECT oi.product.productId, COUNT(oi) FROM OrderItem oi WHERE oi.product IS NOT NULL "
+            + "GROUP BY oi.product.productId")
+    List<Object[]> countOrderLinesByProduct();
 }
\ No newline at end of file
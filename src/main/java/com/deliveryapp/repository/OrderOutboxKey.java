@@ -0,0 +1,7 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.entity.OrderOutboxEvent;
+
+// One order's queue of outbox events in one lane: dispatched one at a time, in id order
+public record OrderOutboxKey(Long orderId, OrderOutboxEvent.Lane lane) {
+}
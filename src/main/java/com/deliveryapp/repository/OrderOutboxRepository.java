@@ -0,0 +1,62 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.entity.OrderOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    // The head of a queue: the oldest event not dispatched yet
+    Optional<OrderOutboxEvent> findFirstByOrderIdAndLaneAndStatusOrderByIdAsc(Long orderId,
+            OrderOutboxEvent.Lane lane, OrderOutboxEvent.Status status);
+
+    // Queues with an event due and not leased by a node (page size = batch limit)
+    @Query("SELECT DISTINCT new com.deliveryapp.repository.OrderOutboxKey(e.orderId, e.lane) FROM OrderOutboxEvent e "
+            + "WHERE e.status = com.deliveryapp.entity.OrderOutboxEvent.Status.PENDING AND e.availableAt <= :now "
+            + "AND (e.lockedUntil IS NULL OR e.lockedUntil < :now)")
+    List<OrderOutboxKey> findDueKeys(@Param("now") LocalDateTime now, Pageable limit);
+
+    // Leases an event to this node; 0 when another node holds it or it is done
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderOutboxEvent e SET e.lockedUntil = :until WHERE e.id = :id "
+            + "AND e.status = com.deliveryapp.entity.OrderOutboxEvent.Status.PENDING "
+            + "AND (e.lockedUntil IS NULL OR e.lockedUntil < :now)")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderOutboxEvent e SET e.status = com.deliveryapp.entity.OrderOutboxEvent.Status.DISPATCHED, "
+            + "e.dispatchedAt = :now, e.attempts = e.attempts + 1, e.lockedUntil = NULL WHERE e.id = :id")
+    int markDispatched(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Retry later, or give up (status FAILED) after the last attempt
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderOutboxEvent e SET e.status = :status, e.availableAt = :availableAt, "
+            + "e.attempts = e.attempts + 1, e.lastError = :error, e.lockedUntil = NULL WHERE e.id = :id")
+    int markAttemptFailed(@Param("id") Long id, @Param("status") OrderOutboxEvent.Status status,
+            @Param("availableAt") LocalDateTime availableAt, @Param("error") String error);
+
+    long countByStatus(OrderOutboxEvent.Status status);
+
+    @Query("SELECT MIN(e.createdAt) FROM OrderOutboxEvent e "
+            + "WHERE e.status = com.deliveryapp.entity.OrderOutboxEvent.Status.PENDING")
+    LocalDateTime findOldestPendingCreatedAt();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OrderOutboxEvent e "
+            + "WHERE e.status = com.deliveryapp.entity.OrderOutboxEvent.Status.DISPATCHED AND e.dispatchedAt < :cutoff")
+    int deleteDispatchedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
 
         // ==========================================================
         // ORIGINAL METHODS (Returns List - Kept for compatibility)
@@ -73,28 +73,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
                         String orderNumber, Pageable pageable);
 
         // --- ADMIN ---
-        Page<Order> findByStatusOrderByCreatedAtDesc(OrderStatus status, Pageable pageable);
-
-        Page<Order> findByCreatedAtBetweenOrderByCreatedAtDesc(LocalDateTime start, LocalDateTime end,
-                        Pageable pageable);
-
-        Page<Order> findByStatusAndCreatedAtBetweenOrderByCreatedAtDesc(OrderStatus status, LocalDateTime start,
-                        LocalDateTime end, Pageable pageable);
-
-        // NEW: Admin Search Combinations
-        Page<Order> findAllByOrderByCreatedAtDesc(Pageable pageable);
-
-        Page<Order> findByOrderNumberContainingIgnoreCaseOrderByCreatedAtDesc(String orderNumber, Pageable pageable);
-
-        Page<Order> findByOrderNumberContainingIgnoreCaseAndStatusOrderByCreatedAtDesc(String orderNumber,
-                        OrderStatus status, Pageable pageable);
-
-        Page<Order> findByOrderNumberContainingIgnoreCaseAndCreatedAtBetweenOrderByCreatedAtDesc(String orderNumber,
-                        LocalDateTime start, LocalDateTime end, Pageable pageable);
-
-        Page<Order> findByOrderNumberContainingIgnoreCaseAndStatusAndCreatedAtBetweenOrderByCreatedAtDesc(
-                        String orderNumber, OrderStatus status, LocalDateTime start, LocalDateTime end,
-                        Pageable pageable);
+        // Search: see OrderRepositoryCustom (findPositions / countUpTo)
 
         Page<Order> findByStores_StoreIdOrderByCreatedAtDesc(Long storeId, Pageable pageable);
 
@@ -0,0 +1,25 @@
+package com.deliveryapp.repository;
+
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Positions of up to {@code limit} orders matching the filter, newest first,
+     * that come after {@code after} (keyset; null = from the newest) and after
+     * skipping {@code offset} of them (offset pages; 0 for keyset).
+     */
+    List<OrderCursor> findPositions(OrderSearchFilter filter, OrderCursor after, long offset, int limit);
+
+    /**
+     * Number of orders matching the filter, counting no further than
+     * {@code limit}: large result sets are never counted in full.
+     */
+    long countUpTo(OrderSearchFilter filter, int limit);
+
+    /**
+     * The planner's estimate of the number of orders (PostgreSQL statistics),
+     * or null when there is none.
+     */
+    Long estimateTotal();
+}
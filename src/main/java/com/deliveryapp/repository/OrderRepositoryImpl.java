@@ -0,0 +1,124 @@
+package com.deliveryapp.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Native SQL: the bounded count needs LIMIT in a subquery, and each search only
+// carries the predicates that are set, so it gets a plan on the matching index
+class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    // Below this many characters an order number is matched as a prefix
+    private static final int MIN_SUBSTRING_LENGTH = 3;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderCursor> findPositions(OrderSearchFilter filter, OrderCursor after, long offset, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT o.created_at, o.order_id FROM orders o WHERE 1 = 1");
+        appendFilter(sql, params, filter);
+        if (after != null) {
+            sql.append(" AND (o.created_at < :afterCreatedAt"
+                    + " OR (o.created_at = :afterCreatedAt AND o.order_id < :afterId))");
+            params.put("afterCreatedAt", after.createdAt());
+            params.put("afterId", after.orderId());
+        }
+        sql.append(" ORDER BY o.created_at DESC, o.order_id DESC");
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit);
+        params.forEach(query::setParameter);
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        return rows.stream()
+                .map(row -> new OrderCursor(toLocalDateTime(row[0]), ((Number) row[1]).longValue()))
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countUpTo(OrderSearchFilter filter, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM (SELECT 1 FROM orders o WHERE 1 = 1");
+        appendFilter(sql, params, filter);
+        sql.append(" LIMIT :countLimit) matched");
+        params.put("countLimit", limit);
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        params.forEach(query::setParameter);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Long estimateTotal() {
+        boolean postgres = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        if (!postgres)
+            return null;
+        Number estimate = (Number) entityManager
+                .createNativeQuery("SELECT reltuples FROM pg_class WHERE oid = 'orders'::regclass")
+                .getSingleResult();
+        // -1 until the table is first analyzed
+        return estimate != null && estimate.longValue() >= 0 ? estimate.longValue() : null;
+    }
+
+    // =================================================================================
+    // HELPERS
+    // =================================================================================
+
+    private static void appendFilter(StringBuilder sql, Map<String, Object> params, OrderSearchFilter filter) {
+        if (filter.orderNumber() != null) {
+            String number = escapeLike(filter.orderNumber().trim().toUpperCase());
+            // Order numbers are stored upper case, so the plain column is indexed and compared
+            sql.append(" AND o.order_number LIKE :orderNumber ESCAPE '\\'");
+            params.put("orderNumber", number.length() >= MIN_SUBSTRING_LENGTH ? "%" + number + "%" : number + "%");
+        }
+        if (filter.status() != null) {
+            sql.append(" AND o.status = :status");
+            params.put("status", filter.status().name());
+        }
+        if (filter.createdFrom() != null) {
+            sql.append(" AND o.created_at >= :createdFrom");
+            params.put("createdFrom", filter.createdFrom());
+        }
+        if (filter.createdBefore() != null) {
+            sql.append(" AND o.created_at < :createdBefore");
+            params.put("createdBefore", filter.createdBefore());
+        }
+        if (filter.storeId() != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM order_stores os"
+                    + " WHERE os.order_id = o.order_id AND os.store_id = :storeId)");
+            params.put("storeId", filter.storeId());
+        }
+        if (filter.driverId() != null) {
+            sql.append(" AND o.driver_id = :driverId");
+            params.put("driverId", filter.driverId());
+        }
+        if (filter.customerPhone() != null) {
+            sql.append(" AND o.user_id IN (SELECT u.user_id FROM users u WHERE u.phone_number = :customerPhone)");
+            params.put("customerPhone", filter.customerPhone().trim());
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+}
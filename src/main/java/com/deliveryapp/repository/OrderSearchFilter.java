@@ -0,0 +1,26 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.enums.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters of the admin order search. Null means "not filtered".
+ * orderNumber matches anywhere in the number from three characters on (trigram
+ * index), as a prefix below that. createdFrom is inclusive, createdBefore
+ * exclusive. customerPhone must match the customer's phone number exactly.
+ */
+public record OrderSearchFilter(
+        String orderNumber,
+        OrderStatus status,
+        LocalDateTime createdFrom,
+        LocalDateTime createdBefore,
+        Long storeId,
+        Long driverId,
+        String customerPhone) {
+
+    public boolean isEmpty() {
+        return orderNumber == null && status == null && createdFrom == null && createdBefore == null
+                && storeId == null && driverId == null && customerPhone == null;
+    }
+}
@@ -0,0 +1,5 @@
+package com.deliveryapp.repository;
+
+// One product → color link, for the in-memory facet index
+public record ProductColorRow(Long productId, Long colorId) {
+}
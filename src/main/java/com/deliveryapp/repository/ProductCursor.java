@@ -0,0 +1,36 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.exception.InvalidDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of a product in a keyset listing: the sort key of the last product a
+ * client has seen. Sent to clients as an opaque token, the format is free to change.
+ */
+public record ProductCursor(Integer displayOrder, Long productId) {
+
+    public String encode(boolean newestFirst) {
+        // A product without a display order lists as 0, see ProductDisplayOrderInitializer
+        String raw = newestFirst ? "n" + productId
+                : "o" + (displayOrder != null ? displayOrder : 0) + "_" + productId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token, boolean newestFirst) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (newestFirst && raw.startsWith("n")) {
+                return new ProductCursor(null, Long.parseLong(raw.substring(1)));
+            }
+            if (!newestFirst && raw.startsWith("o")) {
+                String[] parts = raw.substring(1).split("_", 2);
+                return new ProductCursor(Integer.parseInt(parts[0]), Long.parseLong(parts[1]));
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            // fall through
+        }
+        throw new InvalidDataException("مؤشر الصفحة غير صالح");
+    }
+}
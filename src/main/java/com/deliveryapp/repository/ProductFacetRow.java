@@ -0,0 +1,7 @@
+package com.deliveryapp.repository;
+
+// The product columns the in-memory facet index needs: facet values and the pricing inputs
+public record ProductFacetRow(Long productId, Long storeId, Long categoryId, Long subCategoryId,
+        Long storeCategoryId, Boolean hasOffer, Boolean isTrending, Integer displayOrder,
+        Boolean isUsd, Double basePrice, Double usdPrice, Double offerBasePrice, Double offerUsdPrice) {
+}
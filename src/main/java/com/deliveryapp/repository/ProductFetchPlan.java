@@ -0,0 +1,38 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.entity.Product;
+
+/**
+ * What to load together with a page of products, per view.
+ *
+ * To-one associations always come from the {@link Product#REFERENCES_GRAPH}
+ * entity graph in the main select. Collections can't share that select (several
+ * bags in one join would multiply rows), so the gallery images, colors and
+ * variants every product response carries are each loaded by one extra
+ * fetch-join query for the whole page. The statement count therefore depends on
+ * the plan only, never on the page size.
+ */
+public enum ProductFetchPlan {
+
+    // Products mapped together with their store (embedded or in the page's store
+    // dictionary): catalog pages, product detail, admin and vendor tables
+    WITH_STORE(true),
+
+    // Products that carry only their storeId (store menu, sync batches), so the
+    // store's subcategories and sections are never read
+    WITHOUT_STORE(false);
+
+    private final boolean storeDetails; // store subcategories + store categories
+
+    ProductFetchPlan(boolean storeDetails) {
+        this.storeDetails = storeDetails;
+    }
+
+    public String graphName() {
+        return Product.REFERENCES_GRAPH;
+    }
+
+    public boolean storeDetails() {
+        return storeDetails;
+    }
+}
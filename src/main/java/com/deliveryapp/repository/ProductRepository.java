@@ -2,6 +2,7 @@ package com.deliveryapp.repository;
 
 import com.deliveryapp.entity.Product;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
@@ -10,16 +11,65 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
         // ── Fetch full entities by IDs (used by fetchPage helper) ──
         @Query("SELECT p FROM Product p WHERE p.productId IN :ids")
         List<Product> findByProductIdIn(@Param("ids") List<Long> ids);
 
+        // ── Products of an order with everything validation and pricing touch, in one query ──
+        @Query("SELECT DISTINCT p FROM Product p JOIN FETCH p.store s LEFT JOIN FETCH s.category "
+                        + "LEFT JOIN FETCH p.category LEFT JOIN FETCH p.subCategory sc LEFT JOIN FETCH sc.category "
+                        + "LEFT JOIN FETCH p.colors WHERE p.productId IN :ids")
+        List<Product> findForOrderByProductIdIn(@Param("ids") Collection<Long> ids);
+
+        // ── IDs for rebuilding the in-memory price book ──
+        @Query("SELECT p.productId FROM Product p")
+        List<Long> findAllProductIds();
+
+        @Query("SELECT p.productId FROM Product p WHERE p.isUsd = true")
+        List<Long> findUsdProductIds();
+
+        // ── Rows for the in-memory search index ──
+        @Query("SELECT new com.deliveryapp.repository.ProductSearchRow(p.productId, p.name, p.description, "
+                        + "s.storeId, c.categoryId, p.isAvailable, p.displayOrder) "
+                        + "FROM Product p LEFT JOIN p.store s LEFT JOIN p.category c")
+        List<ProductSearchRow> findAllSearchRows();
+
+        @Query("SELECT new com.deliveryapp.repository.ProductSearchRow(p.productId, p.name, p.description, "
+                        + "s.storeId, c.categoryId, p.isAvailable, p.displayOrder) "
+                        + "FROM Product p LEFT JOIN p.store s LEFT JOIN p.category c WHERE p.productId IN :ids")
+        List<ProductSearchRow> findSearchRowsByProductIdIn(@Param("ids") Collection<Long> ids);
+
+        // ── Facet index (available products only) ──
+        String FACET_ROW_SELECT = "SELECT new com.deliveryapp.repository.ProductFacetRow(p.productId, s.storeId, "
+                        + "c.categoryId, sub.subcategoryId, sc.storeCategoryId, p.hasOffer, p.isTrending, p.displayOrder, "
+                        + "p.isUsd, p.basePrice, p.usdPrice, p.offerBasePrice, p.offerUsdPrice) "
+                        + "FROM Product p LEFT JOIN p.store s LEFT JOIN p.category c "
+                        + "LEFT JOIN p.subCategory sub LEFT JOIN p.storeCategory sc WHERE p.isAvailable = true";
+
+        @Query(FACET_ROW_SELECT)
+        List<ProductFacetRow> findAllFacetRows();
+
+        @Query(FACET_ROW_SELECT + " AND p.productId IN :ids")
+        List<ProductFacetRow> findFacetRowsByProductIdIn(@Param("ids") Collection<Long> ids);
+
+        @Query("SELECT new com.deliveryapp.repository.ProductColorRow(p.productId, c.colorId) "
+                        + "FROM Product p JOIN p.colors c WHERE p.isAvailable = true")
+        List<ProductColorRow> findAllColorRows();
+
+        @Query("SELECT new com.deliveryapp.repository.ProductColorRow(p.productId, c.colorId) "
+                        + "FROM Product p JOIN p.colors c WHERE p.isAvailable = true AND p.productId IN :ids")
+        List<ProductColorRow> findColorRowsByProductIdIn(@Param("ids") Collection<Long> ids);
+
         // ── All active products (sorted by displayOrder for catalog) ──
         @Query(value = "SELECT p.productId FROM Product p WHERE p.isAvailable = true ORDER BY p.displayOrder ASC, p.productId ASC", countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isAvailable = true")
         Page<Long> findAllActiveProductIds(Pageable pageable);
 
+        // ── Whole store menu (no paging; grouped by store category by the caller) ──
+        @Query("SELECT p.productId FROM Product p WHERE p.store.storeId = :storeId AND p.isAvailable = true ORDER BY p.displayOrder ASC, p.productId ASC")
+        List<Long> findMenuProductIds(@Param("storeId") Long storeId);
+
         // ── By store ──
         @Query(value = "SELECT p.productId FROM Product p WHERE p.store.storeId = :storeId AND p.isAvailable = true ORDER BY p.displayOrder ASC, p.productId ASC", countQuery = "SELECT COUNT(p) FROM Product p WHERE p.store.storeId = :storeId AND p.isAvailable = true")
         Page<Long> findIdsByStoreStoreIdAndIsAvailableTrue(@Param("storeId") Long storeId, Pageable pageable);
@@ -80,10 +130,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                         @Param("subCategoryId") Long subCategoryId,
                         Pageable pageable);
 
-        // ── Under price ──
-        @Query(value = "SELECT p.productId FROM Product p WHERE p.basePrice <= :price AND p.isAvailable = true ORDER BY p.displayOrder ASC, p.productId ASC", countQuery = "SELECT COUNT(p) FROM Product p WHERE p.basePrice <= :price AND p.isAvailable = true")
-        Page<Long> findIdsByBasePriceLessThanEqualAndIsAvailableTrue(@Param("price") Double price, Pageable pageable);
-
         // ── Newest products (sorted by productId DESC — intentionally no displayOrder)
         // ──
         @Query(value = "SELECT p.productId FROM Product p WHERE p.isAvailable = true ORDER BY p.productId DESC", countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isAvailable = true")
@@ -134,6 +180,32 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
         @Query(value = "SELECT p.productId FROM Product p WHERE p.hasOffer = true AND p.isAvailable = true ORDER BY p.displayOrder ASC, p.productId ASC", countQuery = "SELECT COUNT(p) FROM Product p WHERE p.hasOffer = true AND p.isAvailable = true")
         Page<Long> findIdsByHasOfferTrueAndIsAvailableTrue(Pageable pageable);
 
+        // ── Ranked search (needs the objects created by SearchIndexInitializer) ──
+        // keyword is ArabicTextUtil-normalized, tsQuery a prefix query built from it.
+        // Name prefix hits first, then full-text rank plus trigram similarity.
+        @Query(value = """
+                        SELECT p.product_id
+                        FROM products p
+                        WHERE p.is_available = true
+                        AND (p.search_vector @@ to_tsquery('simple', :tsQuery)
+                             OR ar_normalize(p.name) LIKE CONCAT('%', :keyword, '%')
+                             OR ar_normalize(p.name) % :keyword)
+                        ORDER BY
+                        CASE WHEN ar_normalize(p.name) LIKE CONCAT(:keyword, '%') THEN 1 ELSE 0 END DESC,
+                        ts_rank(p.search_vector, to_tsquery('simple', :tsQuery))
+                                + similarity(ar_normalize(p.name), :keyword) DESC,
+                        p.product_id ASC
+                        """, countQuery = """
+                        SELECT COUNT(*)
+                        FROM products p
+                        WHERE p.is_available = true
+                        AND (p.search_vector @@ to_tsquery('simple', :tsQuery)
+                             OR ar_normalize(p.name) LIKE CONCAT('%', :keyword, '%')
+                             OR ar_normalize(p.name) % :keyword)
+                        """, nativeQuery = true)
+        Page<Long> findIdsByRankedSearch(@Param("keyword") String keyword, @Param("tsQuery") String tsQuery,
+                        Pageable pageable);
+
         // ── Non-paginated (unchanged) ──
         List<Product> findBySubCategorySubcategoryId(Long subCategoryId);
 
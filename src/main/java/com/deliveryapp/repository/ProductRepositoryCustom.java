@@ -0,0 +1,22 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.entity.Product;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Loads the given products with everything the plan's view maps, in a fixed
+     * number of statements. Result order is unspecified.
+     */
+    List<Product> findAllWithPlan(Collection<Long> ids, ProductFetchPlan plan);
+
+    /**
+     * Keyset listing: positions of up to {@code limit} available products that
+     * come after {@code after} (null = first page) in the filter's order.
+     * Never runs a count query.
+     */
+    List<ProductCursor> findPositionsAfter(ProductSeekFilter filter, ProductCursor after, int limit);
+}
@@ -0,0 +1,124 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.entity.Product;
+import com.deliveryapp.entity.Store;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // All statements must hit the same persistence context so the follow-up
+    // fetch joins initialize the collections of the products loaded first
+    @Override
+    @Transactional(readOnly = true)
+    public List<Product> findAllWithPlan(Collection<Long> ids, ProductFetchPlan plan) {
+        if (ids.isEmpty())
+            return List.of();
+
+        List<Product> products = entityManager
+                .createQuery("SELECT p FROM Product p WHERE p.productId IN :ids", Product.class)
+                .setParameter("ids", ids)
+                .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph(plan.graphName()))
+                .getResultList();
+        if (products.isEmpty())
+            return products;
+
+        fetchProductCollection("images", ids);
+        fetchProductCollection("colors", ids);
+        fetchProductCollection("variants", ids);
+
+        if (plan.storeDetails()) {
+            List<Long> storeIds = products.stream()
+                    .map(Product::getStore)
+                    .filter(Objects::nonNull)
+                    .map(Store::getStoreId)
+                    .distinct()
+                    .toList();
+            if (!storeIds.isEmpty()) {
+                entityManager.createQuery("SELECT DISTINCT s FROM Store s LEFT JOIN FETCH s.subCategories sc "
+                        + "LEFT JOIN FETCH sc.category WHERE s.storeId IN :ids", Store.class)
+                        .setParameter("ids", storeIds)
+                        .getResultList();
+                entityManager.createQuery(
+                        "SELECT DISTINCT s FROM Store s LEFT JOIN FETCH s.storeCategories WHERE s.storeId IN :ids",
+                        Store.class)
+                        .setParameter("ids", storeIds)
+                        .getResultList();
+            }
+        }
+        return products;
+    }
+
+    // The products are already managed, so this only fills in the collection
+    private void fetchProductCollection(String attribute, Collection<Long> ids) {
+        entityManager.createQuery("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p." + attribute
+                + " WHERE p.productId IN :ids", Product.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    // Only the predicates that are actually set end up in the statement, so each
+    // listing gets a plan that can walk the matching (…, display_order, product_id) index
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductCursor> findPositionsAfter(ProductSeekFilter filter, ProductCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT p.displayOrder, p.productId FROM Product p WHERE p.isAvailable = true");
+        Map<String, Object> params = new HashMap<>();
+
+        if (filter.storeId() != null) {
+            jpql.append(" AND p.store.storeId = :storeId");
+            params.put("storeId", filter.storeId());
+        }
+        if (filter.categoryId() != null) {
+            jpql.append(" AND p.category.categoryId = :categoryId");
+            params.put("categoryId", filter.categoryId());
+        }
+        if (filter.subCategoryId() != null) {
+            jpql.append(" AND p.subCategory.subcategoryId = :subCategoryId");
+            params.put("subCategoryId", filter.subCategoryId());
+        }
+        if (filter.storeCategoryId() != null) {
+            jpql.append(" AND p.storeCategory.storeCategoryId = :storeCategoryId");
+            params.put("storeCategoryId", filter.storeCategoryId());
+        }
+        if (filter.trendingOnly())
+            jpql.append(" AND p.isTrending = true");
+        if (filter.offersOnly())
+            jpql.append(" AND p.hasOffer = true");
+
+        if (filter.newestFirst()) {
+            if (after != null) {
+                jpql.append(" AND p.productId < :afterId");
+                params.put("afterId", after.productId());
+            }
+            jpql.append(" ORDER BY p.productId DESC");
+        } else {
+            if (after != null) {
+                jpql.append(" AND (p.displayOrder > :afterOrder"
+                        + " OR (p.displayOrder = :afterOrder AND p.productId > :afterId))");
+                params.put("afterOrder", after.displayOrder());
+                params.put("afterId", after.productId());
+            }
+            jpql.append(" ORDER BY p.displayOrder ASC, p.productId ASC");
+        }
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+                .setMaxResults(limit);
+        params.forEach(query::setParameter);
+        return query.getResultList().stream()
+                .map(row -> new ProductCursor((Integer) row[0], (Long) row[1]))
+                .toList();
+    }
+}
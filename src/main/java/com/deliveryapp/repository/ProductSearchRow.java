@@ -0,0 +1,6 @@
+package com.deliveryapp.repository;
+
+// The product columns the in-memory search index needs, without loading entities
+public record ProductSearchRow(Long productId, String name, String description, Long storeId, Long categoryId,
+        Boolean isAvailable, Integer displayOrder) {
+}
@@ -0,0 +1,19 @@
+package com.deliveryapp.repository;
+
+/**
+ * Filters for keyset (cursor) catalog listings. Null / false means "not filtered".
+ * maxPrice bounds the effective SYP price, which only the in-memory facet index
+ * knows: listings with it are served there, not by findPositionsAfter.
+ * Listings seek on (displayOrder, productId) ascending, or on productId
+ * descending when newestFirst is set.
+ */
+public record ProductSeekFilter(
+        Long storeId,
+        Long categoryId,
+        Long subCategoryId,
+        Long storeCategoryId,
+        boolean trendingOnly,
+        boolean offersOnly,
+        Double maxPrice,
+        boolean newestFirst) {
+}
@@ -2,6 +2,8 @@ package com.deliveryapp.repository;
 
 import com.deliveryapp.entity.ProductVariant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +11,8 @@ import java.util.List;
 @Repository
 public interface ProductVariantRepository extends JpaRepository<ProductVariant, Long> {
     List<ProductVariant> findByProductProductId(Long productId);
+
+    // Variants together with their product (needed for currency) in one query
+    @Query("SELECT v FROM ProductVariant v JOIN FETCH v.product WHERE v.product.productId IN :productIds")
+    List<ProductVariant> findWithProductByProductIdIn(@Param("productIds") List<Long> productIds);
 }
\ No newline at end of file
@@ -14,4 +14,7 @@ public interface StoreCategoryRepository extends JpaRepository<StoreCategory, Lo
 
     // For User App: Get only active sections
     List<StoreCategory> findByStoreStoreIdAndIsActiveTrueOrderByDisplayOrderAsc(Long storeId);
+
+    // Navigation tree: active sections of every store
+    List<StoreCategory> findByIsActiveTrueOrderByDisplayOrderAsc();
 }
\ No newline at end of file
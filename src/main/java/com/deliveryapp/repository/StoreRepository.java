@@ -3,8 +3,10 @@ package com.deliveryapp.repository;
 import com.deliveryapp.entity.Store;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalTime;
 import java.util.List;
 
 @Repository
@@ -38,4 +40,41 @@ public interface StoreRepository extends JpaRepository<Store, Long> {
             "ORDER BY s.rating DESC, s.totalOrders DESC")
     List<Store> searchStoresGlobal(String keyword);
 
-}
\ No newline at end of file
+    // Rows for the in-memory search index
+    @Query("SELECT new com.deliveryapp.repository.StoreSearchRow(s.storeId, s.name, s.description, "
+            + "s.isActive, s.rating, s.totalOrders) FROM Store s")
+    List<StoreSearchRow> findAllSearchRows();
+
+    @Query("SELECT new com.deliveryapp.repository.StoreSearchRow(s.storeId, s.name, s.description, "
+            + "s.isActive, s.rating, s.totalOrders) FROM Store s WHERE s.storeId = :storeId")
+    List<StoreSearchRow> findSearchRowsByStoreId(@Param("storeId") Long storeId);
+
+    // Ranked variant (needs SearchIndexInitializer's objects), keyword must be
+    // ArabicTextUtil-normalized. Name prefix hits, then similarity, then popularity.
+    @Query(value = """
+            SELECT s.* FROM stores s
+            WHERE s.is_active = true
+            AND (ar_normalize(s.name) LIKE CONCAT('%', :keyword, '%')
+                 OR ar_normalize(s.name) % :keyword
+                 OR ar_normalize(s.description) LIKE CONCAT('%', :keyword, '%'))
+            ORDER BY
+            CASE WHEN ar_normalize(s.name) LIKE CONCAT(:keyword, '%') THEN 1 ELSE 0 END DESC,
+            similarity(ar_normalize(s.name), :keyword) DESC,
+            s.rating DESC NULLS LAST, s.total_orders DESC NULLS LAST
+            LIMIT 20
+            """, nativeQuery = true)
+    List<Store> searchStoresRanked(@Param("keyword") String keyword);
+
+    @Query("SELECT s.storeId FROM Store s")
+    List<Long> findAllStoreIds();
+
+    @Query("SELECT s.storeId FROM Store s WHERE s.isActive = true ORDER BY s.storeId")
+    List<Long> findActiveStoreIds();
+
+    // Opening hours boundaries: the open/closed flag of some store flips at these times
+    @Query("SELECT DISTINCT s.openingTime FROM Store s WHERE s.openingTime IS NOT NULL")
+    List<LocalTime> findDistinctOpeningTimes();
+
+    @Query("SELECT DISTINCT s.closingTime FROM Store s WHERE s.closingTime IS NOT NULL")
+    List<LocalTime> findDistinctClosingTimes();
+}
@@ -0,0 +1,6 @@
+package com.deliveryapp.repository;
+
+// The store columns the in-memory search index needs, without loading entities
+public record StoreSearchRow(Long storeId, String name, String description, Boolean isActive, Double rating,
+        Integer totalOrders) {
+}
@@ -0,0 +1,45 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.entity.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+    // Creates the row on the first reference; concurrent uploads of the same bytes queue on the row lock
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO stored_files (url, sha256, size, content_type, ref_count, created_at) "
+            + "VALUES (:url, :sha256, :size, :contentType, 1, LOCALTIMESTAMP) "
+            + "ON CONFLICT (url) DO UPDATE SET ref_count = stored_files.ref_count + 1", nativeQuery = true)
+    void addReference(@Param("url") String url, @Param("sha256") String sha256, @Param("size") long size,
+            @Param("contentType") String contentType);
+
+    // Returns the number of rows touched: 0 means the file has no row (or no references left)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE StoredFile f SET f.refCount = f.refCount - 1 WHERE f.url = :url AND f.refCount > 0")
+    int decrementRefCount(@Param("url") String url);
+
+    // Only removes the row while it is still unreferenced
+    @Modifying
+    @Query("DELETE FROM StoredFile f WHERE f.url = :url AND f.refCount <= 0")
+    int deleteIfUnreferenced(@Param("url") String url);
+
+    // Which of the given upload URLs any entity still points at (every image column)
+    @Query(value = "SELECT image FROM products WHERE image IN (:urls) "
+            + "UNION SELECT image_url FROM product_images WHERE image_url IN (:urls) "
+            + "UNION SELECT logo FROM stores WHERE logo IN (:urls) "
+            + "UNION SELECT cover_image FROM stores WHERE cover_image IN (:urls) "
+            + "UNION SELECT icon FROM categories WHERE icon IN (:urls) "
+            + "UNION SELECT icon FROM subcategories WHERE icon IN (:urls) "
+            + "UNION SELECT image FROM banners WHERE image IN (:urls) "
+            + "UNION SELECT image_url FROM notifications WHERE image_url IN (:urls) "
+            + "UNION SELECT profile_image FROM users WHERE profile_image IN (:urls)", nativeQuery = true)
+    List<String> findReferencedUrls(@Param("urls") Collection<String> urls);
+}
@@ -2,6 +2,7 @@ package com.deliveryapp.repository;
 
 import com.deliveryapp.entity.SubCategory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +15,7 @@ public interface SubCategoryRepository extends JpaRepository<SubCategory, Long>
 
     List<SubCategory> findByCategoryCategoryIdAndIsActiveTrueOrderByDisplayOrderAsc(Long categoryId);
 
+    // Navigation tree: every active subcategory with its parent in one query
+    @Query("SELECT s FROM SubCategory s LEFT JOIN FETCH s.category WHERE s.isActive = true ORDER BY s.displayOrder ASC")
+    List<SubCategory> findAllActiveWithCategory();
 }
\ No newline at end of file
@@ -3,6 +3,9 @@ package com.deliveryapp.repository;
 import com.deliveryapp.entity.User;
 import com.deliveryapp.enums.UserType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -21,4 +24,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Find available drivers
     List<User> findByUserTypeAndIsAvailableTrue(UserType userType);
 
+    // Incremented in SQL, so two deliveries of one driver committing at once both count
+    @Modifying
+    @Query("UPDATE User u SET u.totalDeliveries = COALESCE(u.totalDeliveries, 0) + 1 WHERE u.userId = :userId")
+    int incrementTotalDeliveries(@Param("userId") Long userId);
+
 }
\ No newline at end of file
@@ -0,0 +1,292 @@
+package com.deliveryapp.scheduled;
+
+import com.deliveryapp.repository.StoredFileRepository;
+import com.deliveryapp.service.ImageRenditionService;
+import com.deliveryapp.util.AdvisoryLock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Moves uploads that no entity references any more out of the upload
+ * directory. Explicit deletes miss files left by rolled back transactions,
+ * replaced banners, anonymized accounts and so on.
+ *
+ * The upload tree is streamed and checked in batches against every image
+ * column (products, product_images, stores, categories, subcategories,
+ * banners, notifications, users). Unreferenced files older than the grace
+ * period — newer ones may belong to a transaction that has not committed yet
+ * — are moved to the quarantine directory under today's date, together with
+ * their renditions, and only deleted once the quarantine period is over, so
+ * a wrong call can still be undone by moving the files back. Their
+ * stored_files rows are kept for that: a restored file still has its
+ * reference count, and uploading the same bytes again writes the file anew.
+ *
+ * Every node schedules the job; an advisory lock lets one sweep at a time.
+ * A file that can't be moved (e.g. removed meanwhile) is skipped on its own.
+ *
+ * Starts in dry-run mode: orphans are only counted and logged until
+ * uploads.gc.dry-run is switched off.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UploadGarbageCollectorJob {
+
+    // Not entity images: the APK releases and the catalog snapshots
+    private static final List<String> SKIPPED_DIRECTORIES = List.of("app", "catalog");
+
+    private static final long GC_LOCK = 0x75706c6f61644743L; // "uploadGC"
+
+    private final StoredFileRepository storedFileRepository;
+    private final ImageRenditionService imageRenditionService;
+    private final MeterRegistry meterRegistry;
+    private final AdvisoryLock advisoryLock;
+
+    @Value("${file.upload-dir:uploads}")
+    private String rootDir;
+
+    @Value("${uploads.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${uploads.gc.dry-run:true}")
+    private boolean dryRun;
+
+    @Value("${uploads.gc.quarantine-dir:uploads-quarantine}")
+    private String quarantineDir;
+
+    @Value("${uploads.gc.grace-hours:24}")
+    private long graceHours;
+
+    @Value("${uploads.gc.quarantine-days:14}")
+    private long quarantineDays;
+
+    @Value("${uploads.gc.batch-size:200}")
+    private int batchSize;
+
+    // Pause between batches, so a sweep never competes with the day's traffic for the database
+    @Value("${uploads.gc.batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    public record SweepResult(long scanned, long orphans, long quarantined, long purged) {
+    }
+
+    @Scheduled(cron = "${uploads.gc.cron:0 30 4 * * *}")
+    public void scheduledSweep() {
+        if (!enabled)
+            return;
+        if (!advisoryLock.runExclusively(GC_LOCK, this::sweepAndLog))
+            log.debug("Upload GC skipped: another node is sweeping");
+    }
+
+    private void sweepAndLog() {
+        SweepResult result = sweep();
+        log.info("Upload GC{}: {} files scanned, {} orphans, {} quarantined, {} purged from quarantine",
+                dryRun ? " (dry run)" : "", result.scanned(), result.orphans(), result.quarantined(),
+                result.purged());
+    }
+
+    public SweepResult sweep() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Sweep sweep = new Sweep();
+        Path root = Paths.get(rootDir).toAbsolutePath().normalize();
+        if (Files.isDirectory(root)) {
+            try (Stream<Path> files = Files.walk(root)) {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                    sweep.visit(root, file);
+                }
+                sweep.flush();
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("Upload GC stopped: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        long purged = dryRun ? 0 : purgeQuarantine();
+        sample.stop(meterRegistry.timer("uploads.gc.sweep", "dry_run", String.valueOf(dryRun)));
+        count("purged", purged);
+        return new SweepResult(sweep.scanned, sweep.orphans, sweep.quarantined, purged);
+    }
+
+    // =================================================================================
+    // SWEEP
+    // =================================================================================
+
+    private class Sweep {
+        private final Instant graceCutoff = Instant.now().minus(Duration.ofHours(graceHours));
+        private final List<String> batch = new ArrayList<>();
+        private Path root;
+        private long scanned;
+        private long orphans;
+        private long quarantined;
+
+        void visit(Path root, Path file) throws InterruptedException {
+            this.root = root;
+            String relative = root.relativize(file).toString().replace('\\', '/');
+            int slash = relative.indexOf('/');
+            if (slash > 0 && SKIPPED_DIRECTORIES.contains(relative.substring(0, slash)))
+                return;
+            scanned++;
+            count("scanned", 1);
+
+            String url = "/uploads/" + relative;
+            String name = file.getFileName().toString();
+            if (name.startsWith(".upload-") && name.endsWith(".tmp")) {
+                // Left behind by an upload that crashed mid-copy
+                if (pastGrace(file))
+                    collect(url);
+            } else if (imageRenditionService.isRendition(url)) {
+                // Goes with its original; only collected here when the original is gone
+                boolean hasOriginal = imageRenditionService.originalCandidates(url).stream()
+                        .anyMatch(original -> Files.exists(resolve(original)));
+                if (!hasOriginal && pastGrace(file))
+                    collect(url);
+            } else {
+                batch.add(url);
+                if (batch.size() >= batchSize)
+                    flush();
+            }
+        }
+
+        void flush() throws InterruptedException {
+            if (batch.isEmpty())
+                return;
+            Set<String> referenced = new HashSet<>(storedFileRepository.findReferencedUrls(batch));
+            for (String url : batch) {
+                // Re-checked now: a re-used content-addressed file is touched when referenced again
+                if (!referenced.contains(url) && pastGrace(resolve(url)) && collect(url)) {
+                    imageRenditionService.forget(url);
+                    for (String rendition : imageRenditionService.renditionUrls(url)) {
+                        if (Files.exists(resolve(rendition)))
+                            quarantine(rendition);
+                    }
+                }
+            }
+            batch.clear();
+            if (batchPauseMs > 0)
+                Thread.sleep(batchPauseMs);
+        }
+
+        // True when the file was moved to the quarantine
+        private boolean collect(String url) {
+            orphans++;
+            count("orphan", 1);
+            if (dryRun) {
+                log.debug("Upload GC (dry run) would quarantine {}", url);
+                return false;
+            }
+            if (!quarantine(url))
+                return false;
+            quarantined++;
+            count("quarantined", 1);
+            return true;
+        }
+
+        private boolean quarantine(String url) {
+            Path source = resolve(url);
+            Path target = quarantineRoot().resolve(LocalDate.now().toString())
+                    .resolve(root.relativize(source)).normalize();
+            try {
+                Files.createDirectories(target.getParent());
+                long size = Files.size(source);
+                Files.move(source, target);
+                meterRegistry.counter("uploads.gc.bytes").increment(size);
+                return true;
+            } catch (NoSuchFileException e) {
+                return false; // Gone meanwhile
+            } catch (IOException e) {
+                log.warn("Upload GC could not quarantine {}: {}", url, e.getMessage());
+                return false;
+            }
+        }
+
+        private boolean pastGrace(Path file) {
+            try {
+                return Files.getLastModifiedTime(file).toInstant().isBefore(graceCutoff);
+            } catch (IOException e) {
+                return false; // Gone meanwhile
+            }
+        }
+    }
+
+    // =================================================================================
+    // QUARANTINE
+    // =================================================================================
+
+    // Deletes the dated quarantine folders older than the quarantine period
+    private long purgeQuarantine() {
+        Path quarantine = quarantineRoot();
+        if (!Files.isDirectory(quarantine))
+            return 0;
+        LocalDate cutoff = LocalDate.now().minusDays(quarantineDays);
+        long purged = 0;
+        try (Stream<Path> days = Files.list(quarantine)) {
+            for (Path day : days.toList()) {
+                if (isBefore(day, cutoff))
+                    purged += deleteTree(day);
+            }
+        } catch (IOException e) {
+            log.warn("Upload GC could not purge the quarantine: {}", e.getMessage());
+        }
+        return purged;
+    }
+
+    private static boolean isBefore(Path day, LocalDate cutoff) {
+        try {
+            return LocalDate.parse(day.getFileName().toString()).isBefore(cutoff);
+        } catch (DateTimeParseException e) {
+            return false; // Not one of ours
+        }
+    }
+
+    private static long deleteTree(Path directory) throws IOException {
+        long files = 0;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                if (Files.isRegularFile(path))
+                    files++;
+                Files.deleteIfExists(path);
+            }
+        }
+        return files;
+    }
+
+    // =================================================================================
+    // HELPERS
+    // =================================================================================
+
+    private Path resolve(String url) {
+        return Paths.get(rootDir).toAbsolutePath().normalize().resolve(url.substring("/uploads/".length())).normalize();
+    }
+
+    private Path quarantineRoot() {
+        return Paths.get(quarantineDir).toAbsolutePath().normalize();
+    }
+
+    private void count(String result, long amount) {
+        if (amount > 0)
+            meterRegistry.counter("uploads.gc.files", "result", result, "dry_run", String.valueOf(dryRun))
+                    .increment(amount);
+    }
+}
@@ -2,9 +2,11 @@ package com.deliveryapp.service;
 
 import com.deliveryapp.dto.banners.BannerRequest;
 import com.deliveryapp.entity.Banner;
+import com.deliveryapp.event.CatalogChangedEvent;
 import com.deliveryapp.exception.ResourceNotFoundException;
 import com.deliveryapp.repository.BannerRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -18,6 +20,7 @@ public class BannerService {
 
     private final BannerRepository bannerRepository;
     private final FileStorageService fileStorageService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // --- PUBLIC: Get Active Banners ---
     public List<Banner> getActiveBanners() {
@@ -48,7 +51,7 @@ public class BannerService {
             banner.setImage(imageUrl);
         }
 
-        return bannerRepository.save(banner);
+        return publishBannerSaved(bannerRepository.save(banner));
     }
 
     // --- ADMIN: Update Banner ---
@@ -80,7 +83,7 @@ public class BannerService {
             banner.setImage(imageUrl);
         }
 
-        return bannerRepository.save(banner);
+        return publishBannerSaved(bannerRepository.save(banner));
     }
 
     // --- ADMIN: Delete Banner ---
@@ -89,5 +92,11 @@ public class BannerService {
             throw new ResourceNotFoundException("اللوحة الإعلانية غير موجودة برقم: " + id);
         }
         bannerRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.bannerChanged(id, true));
+    }
+
+    private Banner publishBannerSaved(Banner banner) {
+        eventPublisher.publishEvent(CatalogChangedEvent.bannerChanged(banner.getBannerId(), false));
+        return banner;
     }
 }
\ No newline at end of file
@@ -0,0 +1,200 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.dto.catalog.CategoryResponse;
+import com.deliveryapp.dto.catalog.StoreCategoryResponse;
+import com.deliveryapp.dto.catalog.SubCategoryResponse;
+import com.deliveryapp.entity.Category;
+import com.deliveryapp.entity.StoreCategory;
+import com.deliveryapp.entity.SubCategory;
+import com.deliveryapp.event.CatalogChangedEvent;
+import com.deliveryapp.exception.ResourceNotFoundException;
+import com.deliveryapp.mapper.catalog.CatalogMapper;
+import com.deliveryapp.repository.CategoryRepository;
+import com.deliveryapp.repository.StoreCategoryRepository;
+import com.deliveryapp.repository.StoreRepository;
+import com.deliveryapp.repository.SubCategoryRepository;
+import com.deliveryapp.util.UrlUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * The public navigation tree — active categories, their active subcategories
+ * and the active sections of every store — held in memory, so the home screen
+ * and store menus cost no queries.
+ *
+ * A tree is loaded as a whole and swapped in one reference write. It records
+ * the "navigation" catalog version it was loaded from; a read that sees a newer
+ * version (a local commit, or one picked up from another node) reloads before
+ * answering, so it never serves a tree older than the ETag of the same request.
+ *
+ * Icon URLs are absolute and depend on the host the request came in on, so
+ * the mapped DTOs are kept per base URL and built by the first request for
+ * that host. The returned DTOs are shared and must not be modified.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogNavigationService {
+
+    // Base URLs come from the Host header; don't let arbitrary hosts grow the cache
+    private static final int MAX_VIEWS = 8;
+
+    private final CategoryRepository categoryRepository;
+    private final SubCategoryRepository subCategoryRepository;
+    private final StoreCategoryRepository storeCategoryRepository;
+    private final StoreRepository storeRepository;
+    private final CatalogMapper catalogMapper;
+    private final UrlUtil urlUtil;
+    private final CatalogVersionService catalogVersionService;
+    @Qualifier("catalogTaskExecutor")
+    private final Executor catalogTaskExecutor;
+
+    // Detached entities as loaded, plus the DTO views mapped from them
+    private record Tree(long version, List<Category> categories, List<SubCategory> subCategories,
+            Map<Long, List<StoreCategoryResponse>> storeCategories, Set<Long> storeIds,
+            Map<String, View> views) {
+    }
+
+    private record View(List<CategoryResponse> activeCategories, Map<Long, CategoryResponse> categoriesById,
+            Map<Long, List<SubCategoryResponse>> subCategories) {
+    }
+
+    private volatile Tree tree;
+
+    // =================================================================================
+    // QUERIES
+    // =================================================================================
+
+    public List<CategoryResponse> getActiveCategories() {
+        return view(current()).activeCategories();
+    }
+
+    public CategoryResponse getCategory(Long categoryId) {
+        CategoryResponse category = view(current()).categoriesById().get(categoryId);
+        if (category == null) {
+            throw new ResourceNotFoundException("الفئة غير موجودة برقم: " + categoryId);
+        }
+        return category;
+    }
+
+    public List<SubCategoryResponse> getActiveSubCategories(Long categoryId) {
+        View view = view(current());
+        if (!view.categoriesById().containsKey(categoryId)) {
+            throw new ResourceNotFoundException("الفئة غير موجودة برقم: " + categoryId);
+        }
+        return view.subCategories().getOrDefault(categoryId, List.of());
+    }
+
+    public List<StoreCategoryResponse> getActiveStoreCategories(Long storeId) {
+        Tree current = current();
+        if (!current.storeIds().contains(storeId)) {
+            throw new ResourceNotFoundException("Store not found with id: " + storeId);
+        }
+        return current.storeCategories().getOrDefault(storeId, List.of());
+    }
+
+    // =================================================================================
+    // MAINTENANCE
+    // =================================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        catalogTaskExecutor.execute(this::current);
+    }
+
+    // Reload off the request path; reads still check the version themselves
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        switch (event.type()) {
+            case CATEGORY, SUBCATEGORY, STORE_CATEGORY, STORE -> catalogTaskExecutor.execute(this::current);
+            default -> {
+            }
+        }
+    }
+
+    private Tree current() {
+        Tree current = tree;
+        long version = catalogVersionService.navigationVersion();
+        if (current != null && current.version() >= version)
+            return current;
+        synchronized (this) {
+            current = tree;
+            if (current != null && current.version() >= version)
+                return current;
+            try {
+                // Version read before the data, so a concurrent write can only make the tree look older
+                tree = load(version);
+            } catch (RuntimeException e) {
+                if (current == null)
+                    throw e;
+                log.warn("Navigation tree reload failed, serving version {}: {}", current.version(), e.getMessage());
+            }
+            return tree;
+        }
+    }
+
+    private Tree load(long version) {
+        long start = System.currentTimeMillis();
+        List<Category> categories = categoryRepository.findAllByOrderByDisplayOrderAsc();
+        List<SubCategory> subCategories = subCategoryRepository.findAllActiveWithCategory();
+
+        Map<Long, List<StoreCategoryResponse>> storeCategories = new HashMap<>();
+        for (StoreCategory storeCategory : storeCategoryRepository.findByIsActiveTrueOrderByDisplayOrderAsc()) {
+            storeCategories.computeIfAbsent(storeCategory.getStore().getStoreId(), id -> new ArrayList<>())
+                    .add(catalogMapper.toStoreCategoryResponse(storeCategory));
+        }
+
+        Tree fresh = new Tree(version, List.copyOf(categories), List.copyOf(subCategories),
+                immutable(storeCategories), Set.copyOf(storeRepository.findAllStoreIds()),
+                new ConcurrentHashMap<>());
+        log.info("Navigation tree loaded: {} categories, {} stores in {} ms (version {})",
+                categories.size(), fresh.storeIds().size(), System.currentTimeMillis() - start, version);
+        return fresh;
+    }
+
+    // Mapped on the request thread, so icon URLs get this request's host
+    private View view(Tree current) {
+        String baseUrl = urlUtil.getFullUrl("/");
+        View view = current.views().get(baseUrl);
+        if (view != null)
+            return view;
+        view = map(current);
+        if (current.views().size() < MAX_VIEWS)
+            current.views().putIfAbsent(baseUrl, view);
+        return view;
+    }
+
+    private View map(Tree current) {
+        List<CategoryResponse> activeCategories = new ArrayList<>();
+        Map<Long, CategoryResponse> categoriesById = new HashMap<>();
+        for (Category category : current.categories()) {
+            CategoryResponse dto = catalogMapper.toCategoryResponse(category);
+            categoriesById.put(category.getCategoryId(), dto);
+            if (Boolean.TRUE.equals(category.getIsActive()))
+                activeCategories.add(dto);
+        }
+
+        Map<Long, List<SubCategoryResponse>> subCategories = new HashMap<>();
+        for (SubCategory sub : current.subCategories()) {
+            if (sub.getCategory() != null)
+                subCategories.computeIfAbsent(sub.getCategory().getCategoryId(), id -> new ArrayList<>())
+                        .add(catalogMapper.toSubCategoryResponse(sub));
+        }
+        return new View(List.copyOf(activeCategories), Map.copyOf(categoriesById), immutable(subCategories));
+    }
+
+    private static <T> Map<Long, List<T>> immutable(Map<Long, List<T>> groups) {
+        return groups.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> List.copyOf(e.getValue())));
+    }
+}
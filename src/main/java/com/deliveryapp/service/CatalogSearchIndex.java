@@ -0,0 +1,367 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.event.CatalogChangedEvent;
+import com.deliveryapp.repository.ProductRepository;
+import com.deliveryapp.repository.ProductSearchRow;
+import com.deliveryapp.repository.StoreRepository;
+import com.deliveryapp.repository.StoreSearchRow;
+import com.deliveryapp.util.ArabicTextUtil;
+import com.deliveryapp.util.DirtyQueue;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Per-node in-memory inverted index over product and store names and
+ * descriptions, so search keystrokes don't reach the database.
+ *
+ * Text is folded with ArabicTextUtil, every query word must match the start of
+ * an indexed word (in the name, or the description when asked), and hits are
+ * ranked name-before-description, exact-word-before-prefix. Words are indexed
+ * with and without their attached article ("ال", "وال", "بال" …), since most
+ * Arabic searches leave it out.
+ *
+ * Built on startup, then kept current from CatalogChangedEvents. Writes made on
+ * other nodes are picked up by a full rebuild once the global catalog version
+ * has moved (checked every catalog.search.rebuild-interval-ms); a failed build
+ * is retried on the same schedule. Refreshes and rebuilds go through one
+ * DirtyQueue, so they never overlap. Until the first build finishes isReady()
+ * is false and callers keep using the DB queries.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogSearchIndex {
+
+    private static final double NAME_EXACT = 3.0;
+    private static final double NAME_PREFIX = 2.0;
+    private static final double DESCRIPTION_EXACT = 1.5;
+    private static final double DESCRIPTION_PREFIX = 1.0;
+    private static final int MAX_STORE_RESULTS = 20;
+
+    private final ProductRepository productRepository;
+    private final StoreRepository storeRepository;
+    private final ArabicTextUtil arabicTextUtil;
+    private final CatalogVersionService catalogVersionService;
+    @Qualifier("catalogTaskExecutor")
+    private final Executor catalogTaskExecutor;
+
+    // Replaced as a whole by a rebuild
+    private volatile DocIndex<ProductDoc> products = new DocIndex<>();
+    private volatile DocIndex<StoreDoc> stores = new DocIndex<>();
+
+    private final DirtyQueue<Change> changes = new DirtyQueue<>("Catalog search index", this::refresh,
+            this::rebuild);
+
+    // Global catalog version the current index was loaded at
+    private volatile long builtVersion;
+    private volatile boolean ready = false;
+
+    private record Change(CatalogChangedEvent.Type type, long id, boolean deleted) {
+    }
+
+    private interface Doc {
+        long id();
+
+        Set<String> nameTerms();
+
+        Set<String> descriptionTerms();
+    }
+
+    private record ProductDoc(long id, Long storeId, Long categoryId, boolean available, int displayOrder,
+            Set<String> nameTerms, Set<String> descriptionTerms) implements Doc {
+    }
+
+    private record StoreDoc(long id, boolean active, double rating, int totalOrders,
+            Set<String> nameTerms, Set<String> descriptionTerms) implements Doc {
+    }
+
+    private record Hit<D>(D doc, double score) {
+    }
+
+    // =================================================================================
+    // QUERIES
+    // =================================================================================
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // True when the index is built and the query has at least one searchable word
+    public boolean canServe(String query) {
+        return ready && !arabicTextUtil.tokenize(query).isEmpty();
+    }
+
+    /**
+     * Ranked ids of available products matching every word of the query.
+     * categoryId / storeId narrow the result when not null.
+     */
+    public Page<Long> searchProducts(String query, boolean includeDescription, Long categoryId, Long storeId,
+            Pageable pageable) {
+        List<Long> ranked = products.match(arabicTextUtil.tokenize(query), includeDescription).stream()
+                .filter(hit -> hit.doc().available())
+                .filter(hit -> categoryId == null || categoryId.equals(hit.doc().categoryId()))
+                .filter(hit -> storeId == null || storeId.equals(hit.doc().storeId()))
+                .sorted(Comparator.<Hit<ProductDoc>>comparingDouble(Hit::score).reversed()
+                        .thenComparingInt(hit -> hit.doc().displayOrder())
+                        .thenComparingLong(hit -> hit.doc().id()))
+                .map(hit -> hit.doc().id())
+                .toList();
+
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageable.getPageSize(), ranked.size());
+        return new PageImpl<>(ranked.subList(from, to), pageable, ranked.size());
+    }
+
+    // Ranked ids of active stores matching every word of the query (name or description)
+    public List<Long> searchStores(String query) {
+        return stores.match(arabicTextUtil.tokenize(query), true).stream()
+                .filter(hit -> hit.doc().active())
+                .sorted(Comparator.<Hit<StoreDoc>>comparingDouble(Hit::score).reversed()
+                        .thenComparing(Comparator.comparingDouble((Hit<StoreDoc> hit) -> hit.doc().rating())
+                                .reversed())
+                        .thenComparing(Comparator.comparingInt((Hit<StoreDoc> hit) -> hit.doc().totalOrders())
+                                .reversed()))
+                .limit(MAX_STORE_RESULTS)
+                .map(hit -> hit.doc().id())
+                .toList();
+    }
+
+    // =================================================================================
+    // MAINTENANCE
+    // =================================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        changes.markRebuild(catalogTaskExecutor);
+    }
+
+    // Cheap when nothing changed: one version read
+    @Scheduled(fixedDelayString = "${catalog.search.rebuild-interval-ms:60000}",
+            initialDelayString = "${catalog.search.rebuild-interval-ms:60000}")
+    public void rebuildIfChanged() {
+        if (!ready || catalogVersionService.globalVersion() != builtVersion)
+            changes.markRebuild(catalogTaskExecutor);
+        else
+            changes.retry(catalogTaskExecutor);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        switch (event.type()) {
+            case PRODUCT, STORE -> changes.mark(new Change(event.type(), event.entityId(), event.deleted()),
+                    catalogTaskExecutor);
+            default -> {
+            }
+        }
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        // Version read before the rows, so a concurrent write can only make the index look older
+        long version = catalogVersionService.globalVersion();
+        DocIndex<StoreDoc> freshStores = new DocIndex<>();
+        DocIndex<ProductDoc> freshProducts = new DocIndex<>();
+        try {
+            storeRepository.findAllSearchRows().forEach(row -> freshStores.put(toDoc(row)));
+            productRepository.findAllSearchRows().forEach(row -> freshProducts.put(toDoc(row)));
+        } catch (RuntimeException e) {
+            log.warn(ready ? "Catalog search index rebuild failed, keeping the current one: {}"
+                    : "Catalog search index build failed, search stays on the database: {}", e.getMessage());
+            throw e;
+        }
+        stores = freshStores;
+        products = freshProducts;
+        builtVersion = version;
+        ready = true;
+        log.info("Catalog search index built: {} products, {} stores in {} ms",
+                freshProducts.size(), freshStores.size(), System.currentTimeMillis() - start);
+    }
+
+    // Deletions last, so an id saved and deleted in the same batch ends up removed
+    private void refresh(Set<Change> batch) {
+        // Not built yet: the pending build reads them
+        if (!ready)
+            return;
+        List<Long> productIds = batch.stream()
+                .filter(change -> change.type() == CatalogChangedEvent.Type.PRODUCT && !change.deleted())
+                .map(Change::id).distinct().toList();
+        if (!productIds.isEmpty()) {
+            Map<Long, ProductSearchRow> rows = new HashMap<>();
+            productRepository.findSearchRowsByProductIdIn(productIds).forEach(row -> rows.put(row.productId(), row));
+            for (Long id : productIds) {
+                ProductSearchRow row = rows.get(id);
+                if (row != null)
+                    products.put(toDoc(row));
+                else
+                    products.remove(id);
+            }
+        }
+        for (Change change : batch) {
+            if (change.type() != CatalogChangedEvent.Type.STORE || change.deleted())
+                continue;
+            storeRepository.findSearchRowsByStoreId(change.id()).stream().findFirst()
+                    .ifPresentOrElse(row -> stores.put(toDoc(row)), () -> stores.remove(change.id()));
+        }
+        for (Change change : batch) {
+            if (!change.deleted())
+                continue;
+            if (change.type() == CatalogChangedEvent.Type.PRODUCT)
+                products.remove(change.id());
+            else
+                stores.remove(change.id());
+        }
+    }
+
+    private ProductDoc toDoc(ProductSearchRow row) {
+        return new ProductDoc(row.productId(), row.storeId(), row.categoryId(),
+                Boolean.TRUE.equals(row.isAvailable()),
+                row.displayOrder() != null ? row.displayOrder() : 0,
+                Set.copyOf(arabicTextUtil.indexTerms(row.name())),
+                Set.copyOf(arabicTextUtil.indexTerms(row.description())));
+    }
+
+    private StoreDoc toDoc(StoreSearchRow row) {
+        return new StoreDoc(row.storeId(), Boolean.TRUE.equals(row.isActive()),
+                row.rating() != null ? row.rating() : 0.0,
+                row.totalOrders() != null ? row.totalOrders() : 0,
+                Set.copyOf(arabicTextUtil.indexTerms(row.name())),
+                Set.copyOf(arabicTextUtil.indexTerms(row.description())));
+    }
+
+    // =================================================================================
+    // INDEX STRUCTURES
+    // =================================================================================
+
+    /**
+     * Documents plus one posting index per field. Writers are serialized; readers
+     * take no lock and may briefly miss a document while it is being replaced.
+     */
+    private static final class DocIndex<D extends Doc> {
+
+        private final Map<Long, D> docs = new ConcurrentHashMap<>();
+        private final PostingIndex names = new PostingIndex();
+        private final PostingIndex descriptions = new PostingIndex();
+
+        int size() {
+            return docs.size();
+        }
+
+        synchronized void put(D doc) {
+            D previous = docs.put(doc.id(), doc);
+            if (previous != null)
+                unindex(previous);
+            doc.nameTerms().forEach(term -> names.add(term, doc.id()));
+            doc.descriptionTerms().forEach(term -> descriptions.add(term, doc.id()));
+        }
+
+        synchronized void remove(long id) {
+            D previous = docs.remove(id);
+            if (previous != null)
+                unindex(previous);
+        }
+
+        private void unindex(D doc) {
+            doc.nameTerms().forEach(term -> names.remove(term, doc.id()));
+            doc.descriptionTerms().forEach(term -> descriptions.remove(term, doc.id()));
+        }
+
+        // Documents matching every token; a token's score is its best field hit, scores add up
+        List<Hit<D>> match(List<String> tokens, boolean includeDescription) {
+            if (tokens.isEmpty())
+                return List.of();
+            Map<Long, Double> scores = null;
+            for (String token : tokens) {
+                Map<Long, Double> tokenScores = new HashMap<>();
+                names.collect(token, NAME_EXACT, NAME_PREFIX, tokenScores);
+                if (includeDescription)
+                    descriptions.collect(token, DESCRIPTION_EXACT, DESCRIPTION_PREFIX, tokenScores);
+
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + tokenScores.get(id));
+                }
+                if (scores.isEmpty())
+                    return List.of();
+            }
+
+            List<Hit<D>> hits = new ArrayList<>(scores.size());
+            scores.forEach((id, score) -> {
+                D doc = docs.get(id);
+                if (doc != null)
+                    hits.add(new Hit<>(doc, score));
+            });
+            return hits;
+        }
+    }
+
+    /**
+     * Term → sorted array of ids. Arrays are replaced on write, never mutated,
+     * so a reader always sees a complete posting list.
+     */
+    private static final class PostingIndex {
+
+        private final ConcurrentSkipListMap<String, long[]> postings = new ConcurrentSkipListMap<>();
+
+        void add(String term, long id) {
+            postings.compute(term, (t, ids) -> insert(ids, id));
+        }
+
+        void remove(String term, long id) {
+            postings.computeIfPresent(term, (t, ids) -> {
+                long[] remaining = delete(ids, id);
+                return remaining.length == 0 ? null : remaining;
+            });
+        }
+
+        // Every term starting with the token; the exact term outranks longer completions
+        void collect(String token, double exactWeight, double prefixWeight, Map<Long, Double> scores) {
+            for (Map.Entry<String, long[]> entry : postings
+                    .subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+                double weight = entry.getKey().equals(token) ? exactWeight : prefixWeight;
+                for (long id : entry.getValue()) {
+                    scores.merge(id, weight, Math::max);
+                }
+            }
+        }
+
+        private static long[] insert(long[] ids, long id) {
+            if (ids == null)
+                return new long[] { id };
+            int pos = Arrays.binarySearch(ids, id);
+            if (pos >= 0)
+                return ids;
+            int at = -pos - 1;
+            long[] result = new long[ids.length + 1];
+            System.arraycopy(ids, 0, result, 0, at);
+            result[at] = id;
+            System.arraycopy(ids, at, result, at + 1, ids.length - at);
+            return result;
+        }
+
+        private static long[] delete(long[] ids, long id) {
+            int pos = Arrays.binarySearch(ids, id);
+            if (pos < 0)
+                return ids;
+            long[] result = new long[ids.length - 1];
+            System.arraycopy(ids, 0, result, 0, pos);
+            System.arraycopy(ids, pos + 1, result, pos, ids.length - pos - 1);
+            return result;
+        }
+    }
+}
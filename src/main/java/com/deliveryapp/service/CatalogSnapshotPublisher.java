@@ -0,0 +1,349 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.dto.catalog.CategoryResponse;
+import com.deliveryapp.dto.catalog.SubCategoryResponse;
+import com.deliveryapp.mapper.catalog.CatalogMapper;
+import com.deliveryapp.repository.StoreRepository;
+import com.deliveryapp.util.AdvisoryLock;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes gzip-compressed JSON snapshots of the hottest catalog reads into
+ * uploads/catalog/, where they are served as static files (/uploads/**) by
+ * FileStorageConfig or a fronting Nginx — no application work per read.
+ *
+ * Snapshots: "categories" (active categories with their subcategories),
+ * "trending" and "offers" (first page, compact), and "store-{id}-menu" for
+ * every active store. File names carry a hash of the content
+ * (trending.3f9a1c2b7d4e.json.gz), so a name never changes meaning and can be
+ * cached forever; manifest.json (not compressed, never cached) lists the
+ * current file of each snapshot. The previous file of a snapshot is kept for
+ * clients still holding the old manifest.
+ *
+ * Changes are detected by polling the catalog versions, which also covers
+ * writes made on other nodes; only snapshots whose version moved are rebuilt.
+ * Image URLs inside snapshots are relative ("/uploads/..."): there is no
+ * request host to build absolute URLs from.
+ *
+ * Nodes sharing uploads/ take turns: each run holds a Postgres advisory lock
+ * (on a connection of its own, see AdvisoryLock), and a node that doesn't get
+ * it skips the tick. Every snapshot is read in a short read-only transaction of
+ * its own, so a run never keeps one connection or persistence context busy
+ * across all store menus. The bookkeeping is rebuilt from manifest.json
+ * whenever it was written by another node or a previous run of this one, and
+ * hashed files it no longer points at are deleted then (except the newest
+ * previous file of each snapshot).
+ *
+ * manifest.json is written whenever the entries differ from the last one
+ * written, even when a snapshot failed halfway through a run: the files that
+ * were already replaced are published rather than left unreferenced.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogSnapshotPublisher {
+
+    static final String MANIFEST = "manifest.json";
+
+    // Advisory lock key of the publisher ("catalogS" in ASCII)
+    private static final long PUBLISHER_LOCK = 0x636174616c6f6753L;
+    private static final String SNAPSHOT_SUFFIX = ".json.gz";
+
+    private final CatalogVersionService catalogVersionService;
+    private final CatalogNavigationService navigationService;
+    private final StoreMenuService storeMenuService;
+    private final ProductService productService;
+    private final StoreRepository storeRepository;
+    private final AdvisoryLock advisoryLock;
+    private final CatalogMapper catalogMapper;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    @Qualifier("catalogTaskExecutor")
+    private final Executor catalogTaskExecutor;
+
+    @Value("${file.upload-dir:uploads}")
+    private String rootDir;
+
+    @Value("${catalog.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${catalog.snapshot.list-size:50}")
+    private int listSize;
+
+    public record ManifestEntry(String file, String hash, long size, Instant publishedAt) {
+    }
+
+    public record Manifest(Instant generatedAt, Map<String, ManifestEntry> snapshots) {
+    }
+
+    private record CategoryNode(CategoryResponse category, List<SubCategoryResponse> subCategories) {
+    }
+
+    // Catalog version each snapshot was last written for
+    private final Map<String, Object> publishedVersions = new HashMap<>();
+    private final Map<String, ManifestEntry> entries = new TreeMap<>();
+    private final Map<String, String> previousFiles = new HashMap<>();
+    // Hash of the manifest this node last wrote or loaded; null until the state is loaded
+    private String manifestHash;
+    // Entries changed since the manifest was last written or loaded
+    private boolean manifestDirty;
+
+    // =================================================================================
+    // PUBLISHING
+    // =================================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        catalogTaskExecutor.execute(this::publishChanged);
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.snapshot.interval-ms:15000}",
+            initialDelayString = "${catalog.snapshot.interval-ms:15000}")
+    public void scheduledPublish() {
+        publishChanged();
+    }
+
+    synchronized void publishChanged() {
+        if (!enabled)
+            return;
+        try {
+            boolean ran = advisoryLock.runExclusively(PUBLISHER_LOCK, () -> {
+                try {
+                    publishLocked();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!ran)
+                log.debug("Catalog snapshots are being published by another node");
+        } catch (Exception e) {
+            log.warn("Catalog snapshot publishing failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private void publishLocked() throws IOException {
+        syncWithManifest();
+        try {
+            publishIfChanged("categories", catalogVersionService.navigationVersion(), this::categoryTree);
+
+            // Null while catalog versions are unavailable; lists and menus wait for the next tick
+            String globalTag = catalogVersionService.globalTag();
+            if (globalTag != null && !globalTag.equals(publishedVersions.get("global"))) {
+                publishIfChanged("trending", globalTag, () -> catalogMapper.toProductPage(
+                        productService.getTrendingProducts(PageRequest.of(0, listSize)), true));
+                publishIfChanged("offers", globalTag, () -> catalogMapper.toProductPage(
+                        productService.getOffers(PageRequest.of(0, listSize, Sort.by("displayOrder").ascending())),
+                        true));
+                publishMenus();
+                publishedVersions.put("global", globalTag);
+            }
+        } finally {
+            // Also after a failed snapshot: the files replaced before it are live from now on
+            if (manifestDirty)
+                writeManifest();
+        }
+    }
+
+    /**
+     * Reloads the bookkeeping when manifest.json isn't the one this node last
+     * wrote: after a restart, or after another node published. Every snapshot
+     * is then checked again (unchanged content is not rewritten), the newest
+     * unreferenced file of each snapshot is kept as its previous file and the
+     * other hashed files are deleted.
+     */
+    private void syncWithManifest() throws IOException {
+        Path manifestPath = directory().resolve(MANIFEST);
+        byte[] json = Files.exists(manifestPath) ? Files.readAllBytes(manifestPath) : null;
+        String hash = json != null ? sha256(json) : "";
+        if (hash.equals(manifestHash))
+            return;
+
+        entries.clear();
+        previousFiles.clear();
+        publishedVersions.clear();
+        manifestDirty = false;
+        if (json != null)
+            entries.putAll(objectMapper.readValue(json, Manifest.class).snapshots());
+
+        Set<String> referenced = new HashSet<>();
+        entries.values().forEach(entry -> referenced.add(fileName(entry)));
+        Map<String, List<Path>> unreferenced = new HashMap<>();
+        try (Stream<Path> files = Files.list(directory())) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(SNAPSHOT_SUFFIX) && !name.startsWith(MANIFEST)
+                        && !referenced.contains(name)) {
+                    unreferenced.computeIfAbsent(snapshotName(name), key -> new ArrayList<>()).add(file);
+                }
+            }
+        }
+        for (Map.Entry<String, List<Path>> stale : unreferenced.entrySet()) {
+            List<Path> files = stale.getValue();
+            files.sort(Comparator.comparing(CatalogSnapshotPublisher::lastModified).reversed());
+            if (entries.containsKey(stale.getKey()))
+                previousFiles.put(stale.getKey(), files.remove(0).getFileName().toString());
+            for (Path file : files)
+                Files.deleteIfExists(file);
+        }
+        manifestHash = hash;
+        log.info("Catalog snapshot state loaded from {}: {} snapshots", MANIFEST, entries.size());
+    }
+
+    private void publishMenus() throws IOException {
+        Set<String> live = new HashSet<>();
+        for (Long storeId : storeRepository.findActiveStoreIds()) {
+            String name = "store-" + storeId + "-menu";
+            live.add(name);
+            publishIfChanged(name, catalogVersionService.storeTag(storeId), () -> storeMenuService.getMenu(storeId));
+        }
+        // Stores that were deleted or deactivated
+        for (String name : List.copyOf(entries.keySet())) {
+            if (name.startsWith("store-") && !live.contains(name))
+                retire(name);
+        }
+    }
+
+    private void publishIfChanged(String name, Object version, Supplier<Object> content) throws IOException {
+        if (version != null && version.equals(publishedVersions.get(name)))
+            return;
+
+        // Lazy associations need a transaction; one per snapshot, so its entities are released right after
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readOnly.setReadOnly(true);
+        byte[] json = objectMapper.writeValueAsBytes(readOnly.execute(status -> content.get()));
+        String hash = sha256(json).substring(0, 12);
+
+        ManifestEntry current = entries.get(name);
+        if (current != null && current.hash().equals(hash)) {
+            publishedVersions.put(name, version);
+            return;
+        }
+
+        String file = name + "." + hash + SNAPSHOT_SUFFIX;
+        Path target = directory().resolve(file);
+        Path temp = directory().resolve(file + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+            out.write(json);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        entries.put(name, new ManifestEntry("/uploads/catalog/" + file, hash, Files.size(target), Instant.now()));
+        manifestDirty = true;
+        publishedVersions.put(name, version);
+        if (current != null)
+            rotate(name, fileName(current));
+    }
+
+    // Keeps the file the previous manifest pointed at, drops the one before
+    private void rotate(String name, String replacedFile) throws IOException {
+        String older = previousFiles.put(name, replacedFile);
+        if (older != null && !older.equals(replacedFile))
+            Files.deleteIfExists(directory().resolve(older));
+    }
+
+    private void retire(String name) throws IOException {
+        ManifestEntry removed = entries.remove(name);
+        manifestDirty = true;
+        publishedVersions.remove(name);
+        String older = previousFiles.remove(name);
+        if (older != null)
+            Files.deleteIfExists(directory().resolve(older));
+        if (removed != null)
+            Files.deleteIfExists(directory().resolve(fileName(removed)));
+    }
+
+    private void writeManifest() throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(new Manifest(Instant.now(), new TreeMap<>(entries)));
+
+        // manifest.json.gz is served instead to clients sending Accept-Encoding: gzip
+        Path temp = directory().resolve(MANIFEST + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+            out.write(json);
+        }
+        Files.move(temp, directory().resolve(MANIFEST + ".gz"), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        Files.write(temp, json);
+        Files.move(temp, directory().resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        manifestHash = sha256(json);
+        manifestDirty = false;
+        log.info("Catalog snapshots published: {} files", entries.size());
+    }
+
+    // =================================================================================
+    // HELPERS
+    // =================================================================================
+
+    private List<CategoryNode> categoryTree() {
+        return navigationService.getActiveCategories().stream()
+                .map(category -> new CategoryNode(category,
+                        navigationService.getActiveSubCategories(category.getCategoryId())))
+                .toList();
+    }
+
+    private Path directory() throws IOException {
+        Path directory = Paths.get(rootDir, "catalog").toAbsolutePath().normalize();
+        Files.createDirectories(directory);
+        return directory;
+    }
+
+    private static String fileName(ManifestEntry entry) {
+        return entry.file().substring(entry.file().lastIndexOf('/') + 1);
+    }
+
+    // "trending.3f9a1c2b7d4e.json.gz" → "trending"
+    private static String snapshotName(String file) {
+        String base = file.substring(0, file.length() - SNAPSHOT_SUFFIX.length());
+        int dot = base.lastIndexOf('.');
+        return dot > 0 ? base.substring(0, dot) : base;
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.dto.banners.BannerResponse;
+import com.deliveryapp.dto.catalog.CatalogSyncResponse;
+import com.deliveryapp.dto.catalog.CategoryResponse;
+import com.deliveryapp.entity.CatalogChange;
+import com.deliveryapp.entity.Product;
+import com.deliveryapp.entity.Store;
+import com.deliveryapp.entity.StoreCategory;
+import com.deliveryapp.event.CatalogChangedEvent;
+import com.deliveryapp.exception.InvalidDataException;
+import com.deliveryapp.mapper.banner.BannerMapper;
+import com.deliveryapp.mapper.catalog.CatalogMapper;
+import com.deliveryapp.repository.CatalogChangeRepository;
+import com.deliveryapp.repository.ProductRepository;
+import com.deliveryapp.repository.StoreCategoryRepository;
+import com.deliveryapp.repository.StoreRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+import static com.deliveryapp.event.CatalogChangedEvent.Type;
+
+/**
+ * Incremental catalog sync for clients that keep a local copy of the catalog.
+ *
+ * Every catalog write appends a row to the change log in its own transaction;
+ * the row id is the version clients sync from. A sync reads the entries after
+ * the client's version and answers with the current state of what they name —
+ * upserts for what is still visible, deletes for what is gone or hidden.
+ *
+ * Categories, subcategories, colors and the exchange rate are embedded in
+ * every product (names, SYP prices), so a change to any of them, a version
+ * older than the retained log or a version this log never issued answers with
+ * a full snapshot instead.
+ *
+ * Appends to the log are serialized by a transaction-level advisory lock, so
+ * ids are taken in commit order and a version never runs ahead of an entry
+ * that is still in flight. On top of that, entries are only served once they
+ * are catalog.sync.settle-ms old, measured on the database clock that also
+ * stamped them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogSyncService {
+
+    private static final Set<Type> FULL_RESYNC = EnumSet.of(Type.CATEGORY, Type.SUBCATEGORY, Type.COLOR,
+            Type.EXCHANGE_RATE);
+
+    // Ids per product load, keeps IN lists bounded
+    private static final int PRODUCT_BATCH = 500;
+
+    // Advisory lock key of the change log ("catalogC" in ASCII)
+    private static final long APPEND_LOCK = 0x636174616c6f6743L;
+
+    private final CatalogChangeRepository changeRepository;
+    private final ProductRepository productRepository;
+    private final StoreRepository storeRepository;
+    private final StoreCategoryRepository storeCategoryRepository;
+    private final ProductService productService;
+    private final StoreService storeService;
+    private final BannerService bannerService;
+    private final CatalogNavigationService navigationService;
+    private final CatalogMapper catalogMapper;
+    private final BannerMapper bannerMapper;
+
+    @Value("${catalog.sync.max-changes:1000}")
+    private int maxChanges;
+
+    @Value("${catalog.sync.settle-ms:2000}")
+    private long settleMs;
+
+    @Value("${catalog.sync.retention-days:30}")
+    private int retentionDays;
+
+    // =================================================================================
+    // CHANGE LOG
+    // =================================================================================
+
+    // Same transaction as the write: the entry exists exactly when the change does
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void recordChange(CatalogChangedEvent event) {
+        // Banners are sent in full with every sync
+        if (event.type() == Type.BANNER)
+            return;
+        // Held until commit: the next writer takes its id only after this entry is visible
+        changeRepository.lockForAppend(APPEND_LOCK);
+        changeRepository.save(new CatalogChange(null, event.type(), event.entityId(), event.storeId(), null));
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.sync.purge-interval-ms:21600000}")
+    public void purgeOldChanges() {
+        int removed = changeRepository.deleteOlderThan(retentionDays);
+        if (removed > 0)
+            log.info("Catalog change log: purged {} entries older than {} days", removed, retentionDays);
+    }
+
+    // =================================================================================
+    // SYNC
+    // =================================================================================
+
+    public CatalogSyncResponse sync(long since) {
+        if (since < 0)
+            throw new InvalidDataException("رقم الإصدار غير صالح: " + since);
+        if (since == 0 || !isKnownVersion(since))
+            return fullSnapshot();
+
+        // One extra entry tells us whether another batch exists
+        List<CatalogChange> changes = changeRepository.findSettledAfter(since, settleMs, maxChanges + 1);
+        boolean hasMore = changes.size() > maxChanges;
+        if (hasMore)
+            changes = changes.subList(0, maxChanges);
+        if (changes.stream().anyMatch(change -> FULL_RESYNC.contains(change.getEntityType())))
+            return fullSnapshot();
+
+        Set<Long> productIds = new LinkedHashSet<>();
+        Set<Long> storeIds = new LinkedHashSet<>();
+        Set<Long> storeCategoryIds = new LinkedHashSet<>();
+        for (CatalogChange change : changes) {
+            switch (change.getEntityType()) {
+                case PRODUCT -> productIds.add(change.getEntityId());
+                case STORE -> storeIds.add(change.getEntityId());
+                case STORE_CATEGORY -> {
+                    storeCategoryIds.add(change.getEntityId());
+                    // Products carry their section's name
+                    if (change.getStoreId() != null)
+                        productIds.addAll(productRepository.findMenuProductIds(change.getStoreId()));
+                }
+                default -> {
+                }
+            }
+        }
+
+        CatalogSyncResponse response = new CatalogSyncResponse();
+        response.setVersion(changes.isEmpty() ? since : changes.get(changes.size() - 1).getId());
+        response.setHasMore(hasMore);
+        addStores(response, storeIds);
+        addStoreCategories(response, storeCategoryIds);
+        addProducts(response, productIds);
+        response.setBanners(activeBanners());
+        return response;
+    }
+
+    // Issued by this log and not purged yet (ids can have gaps, so this errs towards a full snapshot)
+    private boolean isKnownVersion(long since) {
+        Long oldest = changeRepository.findOldestId();
+        Long latest = changeRepository.findLatestId();
+        return oldest != null && since >= oldest - 1 && since <= latest;
+    }
+
+    private CatalogSyncResponse fullSnapshot() {
+        // Version read before the data: anything newer is sent again on the next sync
+        Long latest = changeRepository.findLatestSettledId(settleMs);
+
+        CatalogSyncResponse response = new CatalogSyncResponse();
+        response.setVersion(latest != null ? latest : 0);
+        response.setFull(true);
+
+        response.setStores(storeService.getAllActiveStores().stream()
+                .map(catalogMapper::toStoreResponse)
+                .toList());
+        response.setStoreCategories(storeCategoryRepository.findByIsActiveTrueOrderByDisplayOrderAsc().stream()
+                .map(catalogMapper::toStoreCategoryResponse)
+                .toList());
+
+        List<CategoryResponse> categories = navigationService.getActiveCategories();
+        response.setCategories(categories);
+        response.setSubCategories(categories.stream()
+                .flatMap(category -> navigationService.getActiveSubCategories(category.getCategoryId()).stream())
+                .toList());
+
+        Page<Long> ids;
+        int page = 0;
+        do {
+            ids = productRepository.findAllActiveProductIds(PageRequest.of(page++, PRODUCT_BATCH));
+            response.getProducts().addAll(
+                    catalogMapper.toCompactProductResponses(productService.getProductsByIds(ids.getContent())));
+        } while (ids.hasNext());
+
+        response.setBanners(activeBanners());
+        return response;
+    }
+
+    // =================================================================================
+    // HELPERS
+    // =================================================================================
+
+    private void addStores(CatalogSyncResponse response, Set<Long> ids) {
+        Set<Long> gone = new LinkedHashSet<>(ids);
+        for (Store store : storeRepository.findAllById(ids)) {
+            if (Boolean.TRUE.equals(store.getIsActive())) {
+                response.getStores().add(catalogMapper.toStoreResponse(store));
+                gone.remove(store.getStoreId());
+            }
+        }
+        response.getDeleted().getStores().addAll(gone);
+    }
+
+    private void addStoreCategories(CatalogSyncResponse response, Set<Long> ids) {
+        Set<Long> gone = new LinkedHashSet<>(ids);
+        for (StoreCategory storeCategory : storeCategoryRepository.findAllById(ids)) {
+            if (Boolean.TRUE.equals(storeCategory.getIsActive())) {
+                response.getStoreCategories().add(catalogMapper.toStoreCategoryResponse(storeCategory));
+                gone.remove(storeCategory.getStoreCategoryId());
+            }
+        }
+        response.getDeleted().getStoreCategories().addAll(gone);
+    }
+
+    private void addProducts(CatalogSyncResponse response, Set<Long> ids) {
+        Set<Long> gone = new LinkedHashSet<>(ids);
+        List<Long> all = List.copyOf(ids);
+        for (int from = 0; from < all.size(); from += PRODUCT_BATCH) {
+            List<Product> visible = productService
+                    .getProductsByIds(all.subList(from, Math.min(from + PRODUCT_BATCH, all.size()))).stream()
+                    .filter(product -> Boolean.TRUE.equals(product.getIsAvailable()))
+                    .toList();
+            visible.forEach(product -> gone.remove(product.getProductId()));
+            response.getProducts().addAll(catalogMapper.toCompactProductResponses(visible));
+        }
+        response.getDeleted().getProducts().addAll(gone);
+    }
+
+    private List<BannerResponse> activeBanners() {
+        return bannerService.getActiveBanners().stream()
+                .map(bannerMapper::toBannerResponse)
+                .toList();
+    }
+}
@@ -0,0 +1,209 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.entity.CatalogVersion;
+import com.deliveryapp.event.CatalogChangedEvent;
+import com.deliveryapp.repository.BannerRepository;
+import com.deliveryapp.repository.CatalogVersionRepository;
+import com.deliveryapp.repository.StoreRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Version counters for the public catalog, used as strong ETags.
+ *
+ * Every catalog write bumps "global" and, depending on what changed, the
+ * owning store's counter or "shared" (categories, subcategories, colors) in
+ * the same transaction; "navigation" follows the category tree and the set of
+ * stores. The counters live in the database so all nodes agree; each node
+ * keeps a copy that is reloaded after its own commits and polled for changes
+ * made elsewhere.
+ *
+ * A tag also carries the exchange rate version (USD prices) and a clock
+ * segment: responses show whether a store is open and which banners are
+ * scheduled, so the tag moves on when an opening/closing time or a banner
+ * start/end date is crossed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogVersionService {
+
+    static final String GLOBAL = "global";
+    static final String SHARED = "shared";
+    static final String NAVIGATION = "navigation";
+
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final StoreRepository storeRepository;
+    private final BannerRepository bannerRepository;
+    private final ExchangeRateService exchangeRateService;
+
+    // Replaced as a whole on reload; null until the first successful load
+    private volatile Versions versions;
+
+    private record Versions(Map<String, Long> byScope, LocalTime[] openingTimes, LocalTime[] closingTimes,
+            LocalDateTime[] bannerStarts, LocalDateTime[] bannerEnds) {
+
+        long of(String scope) {
+            return byScope.getOrDefault(scope, 0L);
+        }
+
+        // Boundaries already crossed; only changes when an open flag or the banner list can change
+        String clock(LocalDateTime now) {
+            LocalTime time = now.toLocalTime();
+            // open while openingTime < now < closingTime
+            int hours = crossed(openingTimes, time, false) + crossed(closingTimes, time, true);
+            // active while startDate <= now <= endDate
+            int banners = crossed(bannerStarts, now, true) + crossed(bannerEnds, now, false);
+            return hours + "-" + banners;
+        }
+    }
+
+    // =================================================================================
+    // TAGS
+    // =================================================================================
+
+    // For responses that can contain any part of the catalog; null while versions are unavailable
+    public String globalTag() {
+        Versions current = current();
+        if (current == null)
+            return null;
+        return quote("g" + current.of(GLOBAL) + ".r" + rateVersion() + ".c" + current.clock(LocalDateTime.now()));
+    }
+
+    // For responses built only from one store's data plus shared reference data
+    public String storeTag(Long storeId) {
+        Versions current = current();
+        if (current == null)
+            return null;
+        return quote("s" + storeId + "." + current.of(storeScope(storeId)) + ".h" + current.of(SHARED)
+                + ".r" + rateVersion() + ".c" + current.clock(LocalDateTime.now()));
+    }
+
+    // Moves on every catalog write, on any node (as of the last reload)
+    public long globalVersion() {
+        Versions current = current();
+        return current != null ? current.of(GLOBAL) : 0L;
+    }
+
+    // Changes whenever the category / subcategory / store-category tree may have changed
+    public long navigationVersion() {
+        Versions current = current();
+        return current != null ? current.of(NAVIGATION) : 0L;
+    }
+
+    // =================================================================================
+    // MAINTENANCE
+    // =================================================================================
+
+    /**
+     * Runs inside the writer's transaction, so the counters commit (or roll back)
+     * together with the change. Exchange rate changes need no counter: the rate
+     * version is part of every tag.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.type() == CatalogChangedEvent.Type.EXCHANGE_RATE)
+            return;
+
+        catalogVersionRepository.increment(GLOBAL);
+        switch (event.type()) {
+            case PRODUCT -> incrementStore(event.storeId());
+            case STORE, STORE_CATEGORY -> {
+                incrementStore(event.storeId());
+                catalogVersionRepository.increment(NAVIGATION);
+            }
+            case CATEGORY, SUBCATEGORY -> {
+                catalogVersionRepository.increment(SHARED);
+                catalogVersionRepository.increment(NAVIGATION);
+            }
+            case COLOR -> catalogVersionRepository.increment(SHARED);
+            default -> {
+            }
+        }
+
+        // Written outside a transaction: already committed
+        if (!TransactionSynchronizationManager.isActualTransactionActive())
+            reload();
+    }
+
+    @TransactionalEventListener
+    public void afterCatalogCommit(CatalogChangedEvent event) {
+        if (event.type() != CatalogChangedEvent.Type.EXCHANGE_RATE)
+            reload();
+    }
+
+    /**
+     * Picks up changes committed on other nodes. Every write bumps "global", so
+     * one primary-key read tells whether anything needs reloading.
+     */
+    @Scheduled(fixedDelayString = "${catalog.version.refresh-interval-ms:5000}")
+    public void reload() {
+        try {
+            Versions current = versions;
+            long global = catalogVersionRepository.findById(GLOBAL).map(CatalogVersion::getVersion).orElse(0L);
+            if (current != null && current.of(GLOBAL) == global)
+                return;
+
+            Map<String, Long> byScope = catalogVersionRepository.findAll().stream()
+                    .collect(Collectors.toUnmodifiableMap(CatalogVersion::getScope, CatalogVersion::getVersion));
+            versions = new Versions(byScope,
+                    sorted(storeRepository.findDistinctOpeningTimes().toArray(LocalTime[]::new)),
+                    sorted(storeRepository.findDistinctClosingTimes().toArray(LocalTime[]::new)),
+                    sorted(bannerRepository.findActiveStartDates().toArray(LocalDateTime[]::new)),
+                    sorted(bannerRepository.findActiveEndDates().toArray(LocalDateTime[]::new)));
+        } catch (Exception e) {
+            log.warn("Catalog version reload failed, keeping current versions: {}", e.getMessage());
+        }
+    }
+
+    // =================================================================================
+    // HELPERS
+    // =================================================================================
+
+    private Versions current() {
+        if (versions == null)
+            reload();
+        return versions;
+    }
+
+    private void incrementStore(Long storeId) {
+        if (storeId != null)
+            catalogVersionRepository.increment(storeScope(storeId));
+    }
+
+    private long rateVersion() {
+        return exchangeRateService.getSnapshot().version();
+    }
+
+    private static String storeScope(Long storeId) {
+        return "store:" + storeId;
+    }
+
+    private static String quote(String tag) {
+        return "\"" + tag + "\"";
+    }
+
+    private static <T extends Comparable<? super T>> T[] sorted(T[] values) {
+        Arrays.sort(values);
+        return values;
+    }
+
+    // Number of (distinct, sorted) boundaries before now, or at now when inclusive
+    private static <T extends Comparable<? super T>> int crossed(T[] boundaries, T now, boolean inclusive) {
+        int pos = Arrays.binarySearch(boundaries, now);
+        if (pos < 0)
+            return -pos - 1;
+        return inclusive ? pos + 1 : pos;
+    }
+}
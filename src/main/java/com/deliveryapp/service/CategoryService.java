@@ -6,12 +6,14 @@ import com.deliveryapp.entity.Category;
 import com.deliveryapp.entity.Product;
 import com.deliveryapp.entity.Store;
 import com.deliveryapp.entity.SubCategory;
+import com.deliveryapp.event.CatalogChangedEvent;
 import com.deliveryapp.exception.ResourceNotFoundException;
 import com.deliveryapp.repository.CategoryRepository;
 import com.deliveryapp.repository.ProductRepository;
 import com.deliveryapp.repository.StoreRepository;
 import com.deliveryapp.repository.SubCategoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -28,24 +30,15 @@ public class CategoryService {
 
     private final StoreRepository storeRepository;
     private final ProductRepository productRepository;
-    // ================= PUBLIC / CATALOG =================
+    private final ApplicationEventPublisher eventPublisher;
 
-    public List<Category> getAllActiveCategories() {
-        return categoryRepository.findByIsActiveTrueOrderByDisplayOrderAsc();
-    }
+    // ================= PUBLIC / CATALOG =================
 
     public Category getCategoryById(Long id) {
         return categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("الفئة غير موجودة برقم: " + id));
     }
 
-    public List<SubCategory> getSubCategoriesByCategoryId(Long categoryId) {
-        if (!categoryRepository.existsById(categoryId)) {
-            throw new ResourceNotFoundException("الفئة غير موجودة برقم: " + categoryId);
-        }
-        return subCategoryRepository.findByCategoryCategoryIdAndIsActiveTrueOrderByDisplayOrderAsc(categoryId);
-    }
-
     // ================= ADMIN CRUD =================
     public List<Category> getAllCategories() {
         return categoryRepository.findAllByOrderByDisplayOrderAsc();
@@ -62,7 +55,7 @@ public class CategoryService {
             String imageUrl = fileStorageService.storeFile(image, "categories");
             category.setIcon(imageUrl);
         }
-        return categoryRepository.save(category);
+        return publishCategorySaved(categoryRepository.save(category));
     }
 
     @Transactional
@@ -85,7 +78,7 @@ public class CategoryService {
             String imageUrl = fileStorageService.storeFile(image, "categories");
             category.setIcon(imageUrl);
         }
-        return categoryRepository.save(category);
+        return publishCategorySaved(categoryRepository.save(category));
     }
 
     public void deleteCategory(Long id) {
@@ -94,6 +87,7 @@ public class CategoryService {
             fileStorageService.deleteFile(category.getIcon());
         }
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(CatalogChangedEvent.categoryChanged(id, true));
     }
 
     public List<SubCategory> getAllSubCategories() {
@@ -114,7 +108,7 @@ public class CategoryService {
             String imageUrl = fileStorageService.storeFile(image, "subcategories");
             sub.setIcon(imageUrl);
         }
-        return subCategoryRepository.save(sub);
+        return publishSubCategorySaved(subCategoryRepository.save(sub));
     }
 
     @Transactional
@@ -142,7 +136,7 @@ public class CategoryService {
             String imageUrl = fileStorageService.storeFile(image, "subcategories");
             subCategory.setIcon(imageUrl);
         }
-        return subCategoryRepository.save(subCategory);
+        return publishSubCategorySaved(subCategoryRepository.save(subCategory));
     }
 
     @Transactional
@@ -181,5 +175,16 @@ public class CategoryService {
 
         // 4. Finally, delete the subcategory
         subCategoryRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.subCategoryChanged(id, true));
+    }
+
+    private Category publishCategorySaved(Category category) {
+        eventPublisher.publishEvent(CatalogChangedEvent.categoryChanged(category.getCategoryId(), false));
+        return category;
+    }
+
+    private SubCategory publishSubCategorySaved(SubCategory subCategory) {
+        eventPublisher.publishEvent(CatalogChangedEvent.subCategoryChanged(subCategory.getSubcategoryId(), false));
+        return subCategory;
     }
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package com.deliveryapp.service;
 
 import com.deliveryapp.entity.Color;
+import com.deliveryapp.event.CatalogChangedEvent;
 import com.deliveryapp.exception.ResourceNotFoundException;
 import com.deliveryapp.repository.ColorRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +16,7 @@ import java.util.List;
 public class ColorService {
 
     private final ColorRepository colorRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Color> getAllColors() {
         return colorRepository.findAll();
@@ -23,7 +26,7 @@ public class ColorService {
         Color color = new Color();
         color.setName(name);
         color.setHexCode(hexCode);
-        return colorRepository.save(color);
+        return publishColorSaved(colorRepository.save(color));
     }
 
     @Transactional
@@ -38,10 +41,17 @@ public class ColorService {
             color.setHexCode(hexCode);
         }
 
-        return colorRepository.save(color);
+        return publishColorSaved(colorRepository.save(color));
     }
 
     public void deleteColor(Long id) {
         colorRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.colorChanged(id, true));
+    }
+
+    // Colors are embedded in product responses
+    private Color publishColorSaved(Color color) {
+        eventPublisher.publishEvent(CatalogChangedEvent.colorChanged(color.getColorId(), false));
+        return color;
     }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import com.deliveryapp.enums.OrderStatus;
 import com.deliveryapp.enums.UserType;
 import com.deliveryapp.exception.InvalidDataException;
 import com.deliveryapp.exception.ResourceNotFoundException;
+import com.deliveryapp.exception.StatusConflictException;
 import com.deliveryapp.repository.OrderRepository;
 import com.deliveryapp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -24,8 +25,7 @@ public class DriverOrderService {
 
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
-    private final NotificationService notificationService;
-    private final OrderWebSocketService webSocketService;
+    private final OrderOutboxService orderOutbox;
 
     @Transactional
     public Order assignDriver(Long orderId, Long driverId) {
@@ -39,43 +39,33 @@ public class DriverOrderService {
             throw new InvalidDataException("المستخدم المحدد ليس سائقاً");
         }
 
+        if (order.getStatus() != null && order.getStatus().isFinal()) {
+            throw new StatusConflictException("لا يمكن تعيين سائق لطلب مكتمل أو ملغى.");
+        }
+
         order.setDriver(driver);
         order.setDriverOrderStatus(DriverOrderStatus.PENDING);
 
         if (order.getStatus() == OrderStatus.PENDING) {
-            try {
-                notificationService.sendNotification(
-                        order.getUser().getUserId(),
-                        "تم تأكيد طلبك! ✅",
-                        "طلبك رقم " + order.getOrderNumber() + " قيد التجهيز الآن.",
-                        null,
-                        "ORDER_UPDATE",
-                        "order",
-                        order.getOrderId(),
-                        null);
-            } catch (Exception e) {
-                System.err.println("Failed to notify customer: " + e.getMessage());
-            }
+            orderOutbox.notifyUser(
+                    order.getUser().getUserId(),
+                    "تم تأكيد طلبك! ✅",
+                    "طلبك رقم " + order.getOrderNumber() + " قيد التجهيز الآن.",
+                    "ORDER_UPDATE",
+                    order.getOrderId());
             order.setStatus(OrderStatus.CONFIRMED);
         }
 
-        Order savedOrder = orderRepository.save(order);
-
-        try {
-            notificationService.sendNotification(
-                    driverId,
-                    "تم تعيين طلب جديد 🛵",
-                    "تم تعيينك للطلب رقم " + order.getOrderNumber(),
-                    null,
-                    "DRIVER_ASSIGNMENT",
-                    "order",
-                    orderId,
-                    null);
-        } catch (Exception e) {
-            System.err.println("Failed to notify driver: " + e.getMessage());
-        }
+        Order savedOrder = orderRepository.saveAndFlush(order);
+
+        orderOutbox.notifyUser(
+                driverId,
+                "تم تعيين طلب جديد 🛵",
+                "تم تعيينك للطلب رقم " + order.getOrderNumber(),
+                "DRIVER_ASSIGNMENT",
+                orderId);
 
-        webSocketService.broadcastOrderUpdated(savedOrder);
+        orderOutbox.broadcastOrderUpdated(orderId);
         return savedOrder;
     }
 
@@ -88,24 +78,34 @@ public class DriverOrderService {
             throw new InvalidDataException("ليس لديك إذن للوصول إلى هذا الطلب.");
         }
 
+        DriverOrderStatus response = isAccepted ? DriverOrderStatus.ACCEPTED : DriverOrderStatus.REJECTED;
+        DriverOrderStatus current = order.getDriverOrderStatus();
+        if (current == response) {
+            return order; // Repeated tap
+        }
+        if ((order.getStatus() != null && order.getStatus().isFinal())
+                || (current != null && !current.canTransitionTo(response))) {
+            throw new StatusConflictException("لا يمكن الرد على هذا الطلب في حالته الحالية.");
+        }
+
         if (isAccepted) {
             order.setDriverOrderStatus(DriverOrderStatus.ACCEPTED);
-            notificationService.notifyAllStaff(
+            orderOutbox.notifyAllStaff(
                     "تم قبول الطلب! ✅",
                     "السائق " + order.getDriver().getName() + " وافق على توصيل الطلب رقم " + order.getOrderNumber(),
                     "DRIVER_ACCEPTED",
                     orderId);
         } else {
             order.setDriverOrderStatus(DriverOrderStatus.REJECTED);
-            notificationService.notifyAllStaff(
+            orderOutbox.notifyAllStaff(
                     "تم رفض الطلب! 🚨",
                     "السائق " + order.getDriver().getName() + " رفض توصيل الطلب رقم " + order.getOrderNumber(),
                     "DRIVER_REJECTED",
                     orderId);
         }
 
-        Order savedOrder = orderRepository.save(order);
-        webSocketService.broadcastOrderUpdated(savedOrder);
+        Order savedOrder = orderRepository.saveAndFlush(order);
+        orderOutbox.broadcastOrderUpdated(orderId);
         return savedOrder;
     }
 
@@ -1,18 +1,63 @@
 package com.deliveryapp.service;
 
 import com.deliveryapp.entity.ExchangeRate;
+import com.deliveryapp.event.CatalogChangedEvent;
 import com.deliveryapp.repository.ExchangeRateRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ExchangeRateService {
 
     private final ExchangeRateRepository exchangeRateRepository;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Immutable view of the current USD → SYP rate.
+     *
+     * The version is the id of the exchange_rates row the snapshot was built from.
+     * Rows are insert-only, so a higher id always means a newer rate, no matter
+     * which node wrote it.
+     */
+    public record RateSnapshot(Double rate, long version, Instant loadedAt) {
+
+        static final RateSnapshot EMPTY = new RateSnapshot(null, 0L, Instant.EPOCH);
+
+        static RateSnapshot of(ExchangeRate exchangeRate) {
+            return new RateSnapshot(exchangeRate.getRate(), exchangeRate.getId(), Instant.now());
+        }
+    }
+
+    // Swapped as a whole, never mutated — readers always see a consistent rate/version pair
+    private final AtomicReference<RateSnapshot> snapshot = new AtomicReference<>();
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("exchange_rate.snapshot.version", snapshot,
+                ref -> ref.get() != null ? ref.get().version() : 0)
+                .description("Id of the exchange_rates row currently used for pricing")
+                .register(meterRegistry);
+        Gauge.builder("exchange_rate.snapshot.age", snapshot,
+                ref -> ref.get() != null ? Duration.between(ref.get().loadedAt(), Instant.now()).toSeconds() : 0)
+                .description("Seconds since the current rate snapshot was installed on this node")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
 
     public ExchangeRate updateRate(Double newRate) {
         ExchangeRate rate = new ExchangeRate();
@@ -21,14 +66,64 @@ public class ExchangeRateService {
         rate.setRate(newRate);
         rate.setUpdatedAt(LocalDateTime.now());
         rate.setEffectiveDate(LocalDate.now());
-        return exchangeRateRepository.save(rate);
+        // save() runs in its own transaction, so the row is committed once it returns
+        ExchangeRate saved = exchangeRateRepository.save(rate);
+        install(RateSnapshot.of(saved));
+        return saved;
     }
 
     public Double getCurrentRate() {
-        return exchangeRateRepository
-                .findFirstByFromCurrencyAndToCurrencyOrderByEffectiveDateDescIdDesc("USD", "SYP")
-                .map(ExchangeRate::getRate)
-                .orElseThrow(() -> new RuntimeException(
-                        "Exchange rate not set. Admin must update it before USD prices can be calculated."));
+        Double rate = getSnapshot().rate();
+        if (rate == null) {
+            throw new RuntimeException(
+                    "Exchange rate not set. Admin must update it before USD prices can be calculated.");
+        }
+        return rate;
+    }
+
+    public RateSnapshot getSnapshot() {
+        RateSnapshot current = snapshot.get();
+        return current != null ? current : refreshSnapshot();
+    }
+
+    /**
+     * Picks up rates written by other nodes. The lookup is a single indexed row
+     * read, and the snapshot is only replaced when a newer version shows up.
+     */
+    @Scheduled(fixedDelayString = "${exchange-rate.refresh-interval-ms:30000}")
+    public void pollForNewerRate() {
+        refreshSnapshot();
+    }
+
+    public RateSnapshot refreshSnapshot() {
+        try {
+            RateSnapshot latest = exchangeRateRepository
+                    .findFirstByFromCurrencyAndToCurrencyOrderByEffectiveDateDescIdDesc("USD", "SYP")
+                    .map(RateSnapshot::of)
+                    .orElse(RateSnapshot.EMPTY);
+            return install(latest);
+        } catch (Exception e) {
+            log.warn("Exchange rate refresh failed, keeping current snapshot: {}", e.getMessage());
+            RateSnapshot current = snapshot.get();
+            if (current == null)
+                throw e;
+            return current;
+        }
+    }
+
+    private RateSnapshot install(RateSnapshot candidate) {
+        RateSnapshot previous = snapshot.getAndAccumulate(candidate,
+                (current, next) -> current == null || next.version() > current.version() ? next : current);
+        if (previous != null && candidate.version() <= previous.version()) {
+            return previous;
+        }
+        if (candidate.rate() != null) {
+            log.info("Exchange rate snapshot installed: rate={} version={}", candidate.rate(), candidate.version());
+        }
+        // The very first load is not a change — read models build against it on startup
+        if (previous != null) {
+            eventPublisher.publishEvent(CatalogChangedEvent.exchangeRateChanged());
+        }
+        return candidate;
     }
-}
\ No newline at end of file
+}
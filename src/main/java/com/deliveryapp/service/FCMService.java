@@ -5,10 +5,22 @@ import com.google.firebase.messaging.Message;
 import com.google.firebase.messaging.MulticastMessage;
 import com.google.firebase.messaging.Notification;
 import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.SendResponse;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
+/**
+ * Push notifications through Firebase.
+ *
+ * A send that Firebase could not take (unreachable, overloaded, internal error)
+ * throws, so the order outbox retries the event instead of marking it
+ * dispatched. Tokens Firebase rejects (unregistered, invalid) are only logged:
+ * sending again would not help. A multicast partly delivered before a later
+ * batch failed is sent again in full on retry.
+ */
 @Service
 public class FCMService {
 
@@ -29,9 +41,10 @@ public class FCMService {
             System.out.println("📡 Dispatching message to Firebase Servers...");
             String response = FirebaseMessaging.getInstance().send(message);
             System.out.println("✅ FCM Success Response: " + response);
-        } catch (Exception e) {
-            System.err.println("❌ CRITICAL FCM ERROR: Failed to send message to single token.");
-            System.err.println("❌ Reason: " + e.getMessage());
+        } catch (FirebaseMessagingException e) {
+            if (isRetryable(e.getMessagingErrorCode()))
+                throw new IllegalStateException("FCM send failed: " + e.getMessage(), e);
+            System.err.println("⚠️ FCM token rejected (" + e.getMessagingErrorCode() + "): " + e.getMessage());
         }
     }
 
@@ -54,18 +67,30 @@ public class FCMService {
                     .addAllTokens(batch)
                     .build();
 
+            BatchResponse response;
             try {
                 System.out.println("📡 Dispatching Multicast Batch to Firebase Servers...");
-                BatchResponse response = FirebaseMessaging.getInstance().sendEachForMulticast(message);
-                System.out.println("✅ FCM Multicast Batch Sent. Successes: " + response.getSuccessCount()
-                        + ", Failures: " + response.getFailureCount());
-            } catch (Exception e) {
-                System.err.println("❌ CRITICAL FCM ERROR: Failed to send Multicast message.");
-                System.err.println("❌ Reason: " + e.getMessage());
+                response = FirebaseMessaging.getInstance().sendEachForMulticast(message);
+            } catch (FirebaseMessagingException e) {
+                throw new IllegalStateException("FCM multicast failed: " + e.getMessage(), e);
             }
+            System.out.println("✅ FCM Multicast Batch Sent. Successes: " + response.getSuccessCount()
+                    + ", Failures: " + response.getFailureCount());
+
+            // Nothing got through and not only because of bad tokens: Firebase itself failed
+            if (response.getSuccessCount() == 0 && response.getResponses().stream()
+                    .map(SendResponse::getException)
+                    .anyMatch(e -> e != null && isRetryable(e.getMessagingErrorCode())))
+                throw new IllegalStateException("FCM multicast delivered to none of " + batch.size() + " tokens");
         }
     }
 
+    // No code: the request didn't get an answer (network, timeout)
+    private static boolean isRetryable(MessagingErrorCode code) {
+        return code == null || code == MessagingErrorCode.UNAVAILABLE || code == MessagingErrorCode.INTERNAL
+                || code == MessagingErrorCode.QUOTA_EXCEEDED;
+    }
+
     // --- Helpers to build payloads ---
 
     private Message.Builder buildMessage(String title, String body, String imageUrl, String type, String richDataJson) {
@@ -1,29 +1,68 @@
 package com.deliveryapp.service;
 
 import com.deliveryapp.exception.InvalidDataException;
+import com.deliveryapp.repository.StoredFileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class FileStorageService {
 
+    private final ImageRenditionService imageRenditionService;
+    private final StoredFileRepository storedFileRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private static final String LATEST_APK = "latest.txt";
+    private static final Pattern APK_VERSION = Pattern.compile("[0-9A-Za-z._-]{1,40}");
+
     @Value("${file.upload-dir:uploads}")
     private String rootDir;
 
+    @Value("${app.apk.releases-kept:3}")
+    private int apkReleasesKept;
+
     /**
-     * Stores a file in a specific sub-directory.
+     * Stores a file in a specific sub-directory, named after the SHA-256 of its
+     * content (e.g. /uploads/products/3f9a...c2.jpg). Uploading the same bytes
+     * again returns the existing URL and only adds a reference.
      * @param file The file to upload
      * @param subDirectory The folder name (e.g., "stores", "categories", "products")
      * @return The public URL to access the file
      */
+    @Transactional
     public String storeFile(MultipartFile file, String subDirectory) {
         try {
             // 1. Validate file
@@ -46,30 +85,90 @@ public class FileStorageService {
                 Files.createDirectories(uploadPath);
             }
 
-            // 5. Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+            // 5. Stream to a temp file, hashing on the way
+            Path temp = uploadPath.resolve(".upload-" + UUID.randomUUID() + ".tmp");
+            String hash;
+            String fileUrl;
+            long size;
+            boolean created = false;
+            try {
+                MessageDigest digest = sha256();
+                try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                    size = Files.copy(in, temp);
+                }
+                hash = HexFormat.of().formatHex(digest.digest());
+
+                // 6. Name the file after its content: "3f9a...c2.jpg"
+                String newFilename = hash + fileExtension(contentType, file.getOriginalFilename());
+                fileUrl = "/uploads/" + subDirectory + "/" + newFilename;
+                Path targetLocation = uploadPath.resolve(newFilename);
+
+                // 7. Same bytes already stored: the copy is dropped below. Touching the file
+                // keeps the upload GC from collecting it before this reference commits.
+                if (Files.exists(targetLocation)) {
+                    Files.setLastModifiedTime(targetLocation, FileTime.from(Instant.now()));
+                } else {
+                    try {
+                        Files.move(temp, targetLocation, StandardCopyOption.ATOMIC_MOVE);
+                        created = true;
+                    } catch (FileAlreadyExistsException e) {
+                        // Stored concurrently
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(temp);
             }
-            // Result: "uuid-1234.jpg"
-            String newFilename = UUID.randomUUID().toString() + fileExtension;
 
-            // 6. Store file
-            Path targetLocation = uploadPath.resolve(newFilename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            // 8. Count the reference
+            storedFileRepository.addReference(fileUrl, hash, size, contentType);
 
-            // 7. Return the URL (e.g., /uploads/products/uuid.jpg)
-            return "/uploads/" + subDirectory + "/" + newFilename;
+            // 9. Thumbnails etc. are resized in the background
+            if (created) {
+                imageRenditionService.generateAsync(fileUrl);
+            }
+
+            // 10. Return the URL (e.g., /uploads/products/3f9a...c2.jpg)
+            return fileUrl;
 
         } catch (IOException ex) {
             throw new InvalidDataException("تعذر تخزين الملف. يرجى المحاولة مرة أخرى! الخطأ: " + ex.getMessage());
         }
     }
 
+    /**
+     * Drops one reference to a stored file. The file (and its renditions) is
+     * removed after the caller's transaction commits, and only if nothing
+     * references it by then — a rolled back update keeps its images.
+     */
+    @Transactional
     public void deleteFile(String fileUrl) {
         if (fileUrl == null || fileUrl.isEmpty()) return;
 
+        if (storedFileRepository.existsById(fileUrl)) {
+            storedFileRepository.decrementRefCount(fileUrl);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeIfUnreferenced(fileUrl);
+                }
+            });
+        } else {
+            removeIfUnreferenced(fileUrl);
+        }
+    }
+
+    private void removeIfUnreferenced(String fileUrl) {
+        // Re-checked in a transaction of its own: the same bytes may have been uploaded again meanwhile.
+        // Files from before content addressing have no row and go right away.
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Boolean unreferenced = requiresNew.execute(status -> !storedFileRepository.existsById(fileUrl)
+                || storedFileRepository.deleteIfUnreferenced(fileUrl) > 0);
+        if (!Boolean.TRUE.equals(unreferenced)) return;
+
         try {
             // fileUrl example: /uploads/products/abc.jpg
             // We need to remove "/uploads/" to find the path relative to root
@@ -78,41 +177,134 @@ public class FileStorageService {
             Path filePath = Paths.get(rootDir).resolve(relativePath).normalize();
 
             Files.deleteIfExists(filePath);
+            imageRenditionService.deleteRenditions(fileUrl);
         } catch (IOException ex) {
-            System.err.println("Could not delete file: " + fileUrl);
+            log.warn("Could not delete file: {}", fileUrl);
+        }
+    }
+
+    // Taken from the content type, so the same image uploaded as .jpeg and .JPG is one file
+    private static String fileExtension(String contentType, String originalFilename) {
+        switch (contentType.toLowerCase(Locale.ROOT)) {
+            case "image/jpeg", "image/jpg" -> { return ".jpg"; }
+            case "image/png" -> { return ".png"; }
+            case "image/webp" -> { return ".webp"; }
+            case "image/gif" -> { return ".gif"; }
+            default -> {
+                if (originalFilename != null && originalFilename.contains(".")) {
+                    return originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase(Locale.ROOT);
+                }
+                return "";
+            }
         }
     }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
-     * Stores the APK file as "Allin.apk" so the download link never changes.
+     * Stores an APK release under a versioned name (uploads/app/Allin-1.4.2.apk)
+     * that never changes meaning, so it can be cached forever and interrupted
+     * downloads can resume. latest.txt points at the current release, and
+     * Allin.apk stays a copy of it for links shared before versioning.
+     * @param version The release name (e.g., "1.4.2"); a timestamp when blank
+     * @return The URL of the release
      */
-    public String storeApkFile(MultipartFile file) {
+    public String storeApkFile(MultipartFile file, String version) {
         try {
             if (file.isEmpty()) {
-                throw new com.deliveryapp.exception.InvalidDataException("لا يمكن رفع ملف APK فارغ");
+                throw new InvalidDataException("لا يمكن رفع ملف APK فارغ");
             }
 
             // Ensure it's an APK
             String originalFilename = file.getOriginalFilename();
             if (originalFilename == null || !originalFilename.endsWith(".apk")) {
-                throw new com.deliveryapp.exception.InvalidDataException("يُسمح برفع ملفات .apk فقط");
+                throw new InvalidDataException("يُسمح برفع ملفات .apk فقط");
+            }
+
+            if (version == null || version.isBlank()) {
+                version = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+            }
+            if (!APK_VERSION.matcher(version).matches()) {
+                throw new InvalidDataException("رقم الإصدار غير صالح");
             }
 
             // Target folder: /uploads/app/
-            java.nio.file.Path uploadPath = java.nio.file.Paths.get(rootDir, "app").toAbsolutePath().normalize();
-            if (!java.nio.file.Files.exists(uploadPath)) {
-                java.nio.file.Files.createDirectories(uploadPath);
+            Path uploadPath = Paths.get(rootDir, "app").toAbsolutePath().normalize();
+            if (!Files.exists(uploadPath)) {
+                Files.createDirectories(uploadPath);
             }
 
-            // Target file: /uploads/app/Allin.apk
-            java.nio.file.Path targetLocation = uploadPath.resolve("Allin.apk");
-            
-            // StandardCopyOption.REPLACE_EXISTING ensures the old app is overwritten
-            java.nio.file.Files.copy(file.getInputStream(), targetLocation, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            // A published release is immutable: clients may hold it in cache
+            String releaseName = "Allin-" + version + ".apk";
+            Path targetLocation = uploadPath.resolve(releaseName);
+            if (Files.exists(targetLocation)) {
+                throw new InvalidDataException("هذا الإصدار مرفوع مسبقاً");
+            }
+
+            Path temp = uploadPath.resolve(".upload-" + UUID.randomUUID() + ".tmp");
+            try {
+                Files.copy(file.getInputStream(), temp);
+                Files.move(temp, targetLocation, StandardCopyOption.ATOMIC_MOVE);
 
-            return "/uploads/app/Allin.apk";
+                // Legacy fixed name, then the pointer /api/app/download follows
+                Files.copy(targetLocation, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, uploadPath.resolve("Allin.apk"), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                Files.writeString(temp, releaseName);
+                Files.move(temp, uploadPath.resolve(LATEST_APK), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
 
-        } catch (java.io.IOException ex) {
-            throw new com.deliveryapp.exception.InvalidDataException("تعذر تخزين ملف APK. " + ex.getMessage());
+            pruneApkReleases(uploadPath);
+            return "/uploads/app/" + releaseName;
+
+        } catch (IOException ex) {
+            throw new InvalidDataException("تعذر تخزين ملف APK. " + ex.getMessage());
+        }
+    }
+
+    /**
+     * URL of the current APK release, or the legacy Allin.apk when no
+     * versioned release was uploaded yet.
+     */
+    public String getLatestApkUrl() {
+        try {
+            Path latest = Paths.get(rootDir, "app", LATEST_APK).toAbsolutePath().normalize();
+            if (Files.exists(latest)) {
+                return "/uploads/app/" + Files.readString(latest).trim();
+            }
+        } catch (IOException ex) {
+            log.warn("Could not read the latest APK release: {}", ex.getMessage());
+        }
+        return "/uploads/app/Allin.apk";
+    }
+
+    // Keeps the newest releases, so downloads that started before an upload can still finish
+    private void pruneApkReleases(Path uploadPath) throws IOException {
+        List<Path> releases;
+        try (Stream<Path> files = Files.list(uploadPath)) {
+            releases = files.filter(f -> f.getFileName().toString().matches("Allin-.+\\.apk"))
+                    .sorted(Comparator.comparing(this::lastModified).reversed())
+                    .toList();
+        }
+        for (Path old : releases.subList(Math.min(apkReleasesKept, releases.size()), releases.size())) {
+            Files.deleteIfExists(old);
+        }
+    }
+
+    private FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
         }
     }
 }
\ No newline at end of file
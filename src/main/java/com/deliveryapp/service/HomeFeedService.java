@@ -0,0 +1,147 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.dto.catalog.HomeFeedResponse;
+import com.deliveryapp.exception.InvalidDataException;
+import com.deliveryapp.mapper.banner.BannerMapper;
+import com.deliveryapp.mapper.catalog.CatalogMapper;
+import com.deliveryapp.util.UrlUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Builds the home screen in one request: banners, categories, trending,
+ * offers, newest products and the store list are loaded side by side on the
+ * home feed executor and merged. Product sections hold at most
+ * ProductService.MAX_PAGE_SIZE products.
+ *
+ * Each section has its own timeout (catalog.home.timeout-ms.<section>,
+ * falling back to catalog.home.timeout-ms). A section that fails or times out
+ * is left empty and reported in failedSections; the rest of the feed is still
+ * returned. Durations are recorded per section and outcome in the
+ * "catalog.home.section" timer.
+ *
+ * Sections run without the request context, which may be recycled while a
+ * timed-out section is still running; image URLs are built from the base URL
+ * captured on the request thread.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HomeFeedService {
+
+    private final BannerService bannerService;
+    private final CatalogNavigationService navigationService;
+    private final ProductService productService;
+    private final StoreService storeService;
+    private final BannerMapper bannerMapper;
+    private final CatalogMapper catalogMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final UrlUtil urlUtil;
+    @Qualifier("homeFeedExecutor")
+    private final Executor homeFeedExecutor;
+
+    public HomeFeedResponse getHomeFeed(int size, boolean compact) {
+        if (size < 1)
+            throw new InvalidDataException("حجم الصفحة يجب أن يكون أكبر من صفر");
+        int pageSize = Math.min(size, ProductService.MAX_PAGE_SIZE);
+        HomeFeedResponse feed = new HomeFeedResponse();
+        List<String> failed = feed.getFailedSections();
+        String baseUrl = urlUtil.getCurrentBaseUrl();
+
+        List<CompletableFuture<Void>> sections = new ArrayList<>();
+        sections.add(section("banners", baseUrl, failed, feed::setBanners,
+                () -> bannerService.getActiveBanners().stream().map(bannerMapper::toBannerResponse).toList()));
+        sections.add(section("categories", baseUrl, failed, feed::setCategories,
+                navigationService::getActiveCategories));
+        sections.add(section("trending", baseUrl, failed, feed::setTrending, () -> catalogMapper.toProductPage(
+                productService.getTrendingProducts(PageRequest.of(0, pageSize)), compact)));
+        sections.add(section("offers", baseUrl, failed, feed::setOffers, () -> catalogMapper.toProductPage(
+                productService.getOffers(PageRequest.of(0, pageSize, Sort.by("displayOrder").ascending())),
+                compact)));
+        sections.add(section("newest", baseUrl, failed, feed::setNewest, () -> catalogMapper.toProductPage(
+                productService.getNewestProducts(PageRequest.of(0, pageSize)), compact)));
+        sections.add(section("stores", baseUrl, failed, feed::setStores,
+                () -> storeService.getAllActiveStores().stream().map(catalogMapper::toStoreResponse).toList()));
+
+        // Every section completes by its own timeout, so this wait is bounded too
+        CompletableFuture.allOf(sections.toArray(CompletableFuture[]::new)).join();
+        return feed;
+    }
+
+    /**
+     * Loads one section on the executor, inside its own read-only transaction
+     * (mappers walk lazy associations), and hands the result to the setter.
+     * Never completes exceptionally.
+     *
+     * A timed-out load is not interrupted, its result is just dropped. The
+     * transaction carries the section timeout (whole seconds, rounded up), so
+     * its statements are cut off and the connection returns to the pool soon
+     * after the section is given up.
+     */
+    private <T> CompletableFuture<Void> section(String name, String baseUrl, List<String> failed,
+            Consumer<T> setter, Supplier<T> loader) {
+        long start = System.nanoTime();
+        long timeoutMs = timeoutOf(name);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.setTimeout((int) Math.max(1, (timeoutMs + 999) / 1000));
+
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(
+                    () -> urlUtil.callWithBaseUrl(baseUrl, () -> readOnly.execute(status -> loader.get())),
+                    homeFeedExecutor);
+        } catch (RuntimeException e) {
+            // Executor saturated
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        return future.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).handle((result, error) -> {
+            if (error == null) {
+                record(name, "success", start);
+                setter.accept(result);
+                return null;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+            boolean timedOut = cause instanceof TimeoutException;
+            record(name, timedOut ? "timeout" : "failure", start);
+            log.warn("Home feed section '{}' {}: {}", name, timedOut ? "timed out" : "failed", cause.getMessage());
+            synchronized (failed) {
+                failed.add(name);
+            }
+            return null;
+        });
+    }
+
+    private long timeoutOf(String section) {
+        long fallback = environment.getProperty("catalog.home.timeout-ms", Long.class, 1500L);
+        return environment.getProperty("catalog.home.timeout-ms." + section, Long.class, fallback);
+    }
+
+    private void record(String section, String outcome, long start) {
+        meterRegistry.timer("catalog.home.section", "section", section, "outcome", outcome)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,221 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.entity.IdempotencyKey;
+import com.deliveryapp.exception.DuplicateResourceException;
+import com.deliveryapp.exception.InvalidDataException;
+import com.deliveryapp.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a write at most once per client Idempotency-Key.
+ *
+ * The key is claimed with an IN_PROGRESS row in a transaction of its own,
+ * then the action runs and the row is marked COMPLETED with the result id in
+ * the action's transaction — an order and its key commit together. A retry
+ * finds the COMPLETED row and gets the same id back without running the
+ * action again. A retry arriving while the first attempt is still running
+ * waits for it: on this node through the in-flight future, on other nodes
+ * by polling the row. A failed attempt releases the key so the client can
+ * try again; a claim whose request died is taken over once it is stale.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    // How long a duplicate waits for the in-flight attempt before giving up with 409
+    @Value("${idempotency.wait-ms:10000}")
+    private long waitMs;
+
+    @Value("${idempotency.poll-ms:100}")
+    private long pollMs;
+
+    // An IN_PROGRESS claim older than this belongs to a request that died
+    @Value("${idempotency.stale-ms:60000}")
+    private long staleMs;
+
+    public record Outcome(Long resourceId, boolean replayed) {
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<Long> result) {
+    }
+
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    // =================================================================================
+    // EXECUTION
+    // =================================================================================
+
+    public Outcome execute(String scope, String key, Object request, Supplier<Long> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH)
+            throw new InvalidDataException("مفتاح Idempotency-Key غير صالح");
+
+        String id = scope + ":" + key;
+        String requestHash = hash(request);
+        long deadline = System.currentTimeMillis() + waitMs;
+
+        while (true) {
+            InFlight local = inFlight.get(id);
+            if (local != null) {
+                checkSameRequest(local.requestHash(), requestHash);
+                return new Outcome(await(local.result(), deadline), true);
+            }
+
+            IdempotencyKey existing = claim(id, requestHash);
+            if (existing == null)
+                return new Outcome(run(id, requestHash, action), false);
+
+            checkSameRequest(existing.getRequestHash(), requestHash);
+            if (existing.getStatus() == IdempotencyKey.Status.COMPLETED)
+                return new Outcome(existing.getResourceId(), true);
+
+            // In progress on another node (or about to register here)
+            if (System.currentTimeMillis() >= deadline)
+                throw new DuplicateResourceException("الطلب نفسه قيد المعالجة، يرجى المحاولة بعد قليل");
+            sleep();
+        }
+    }
+
+    // Null when the key is now ours, otherwise the row that holds it
+    private IdempotencyKey claim(String id, String requestHash) {
+        try {
+            return requiresNew().execute(status -> {
+                IdempotencyKey existing = idempotencyKeyRepository.findById(id).orElse(null);
+                LocalDateTime now = LocalDateTime.now();
+                if (existing != null && !isExpired(existing, now))
+                    return existing;
+                if (existing != null) {
+                    idempotencyKeyRepository.delete(existing);
+                    idempotencyKeyRepository.flush();
+                }
+                idempotencyKeyRepository.saveAndFlush(new IdempotencyKey(id, requestHash,
+                        IdempotencyKey.Status.IN_PROGRESS, null, now, now.plusHours(ttlHours)));
+                return null;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Claimed concurrently: read the winner's row
+            return requiresNew().execute(status -> idempotencyKeyRepository.findById(id)
+                    .orElseGet(() -> new IdempotencyKey(id, requestHash, IdempotencyKey.Status.IN_PROGRESS, null,
+                            LocalDateTime.now(), LocalDateTime.now())));
+        }
+    }
+
+    private Long run(String id, String requestHash, Supplier<Long> action) {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        inFlight.put(id, new InFlight(requestHash, result));
+        try {
+            Long resourceId = new TransactionTemplate(transactionManager).execute(status -> {
+                Long created = action.get();
+                idempotencyKeyRepository.markCompleted(id, created);
+                return created;
+            });
+            result.complete(resourceId);
+            return resourceId;
+        } catch (RuntimeException e) {
+            release(id);
+            result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id);
+        }
+    }
+
+    private void release(String id) {
+        try {
+            requiresNew().executeWithoutResult(status -> idempotencyKeyRepository.deleteById(id));
+        } catch (RuntimeException e) {
+            log.warn("Could not release idempotency key {}: {}", id, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = idempotencyKeyRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0)
+            log.info("Idempotency keys purged: {}", purged);
+    }
+
+    // =================================================================================
+    // HELPERS
+    // =================================================================================
+
+    private boolean isExpired(IdempotencyKey key, LocalDateTime now) {
+        return key.getExpiresAt().isBefore(now)
+                || (key.getStatus() == IdempotencyKey.Status.IN_PROGRESS
+                        && key.getCreatedAt().plusNanos(staleMs * 1_000_000).isBefore(now));
+    }
+
+    private static void checkSameRequest(String expected, String actual) {
+        if (!expected.equals(actual))
+            throw new InvalidDataException("مفتاح Idempotency-Key مستخدم مسبقاً لطلب مختلف");
+    }
+
+    private Long await(CompletableFuture<Long> result, long deadline) {
+        try {
+            return result.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // The first attempt failed: so does its duplicate, with the same error
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new DuplicateResourceException("الطلب نفسه قيد المعالجة، يرجى المحاولة بعد قليل");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(pollMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private TransactionTemplate requiresNew() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package com.deliveryapp.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Fixed-size renditions of uploaded images, so lists download thumbnails
+ * instead of full camera photos.
+ *
+ * For /uploads/products/abc.jpg it writes abc.thumb.jpg, abc.card.jpg and
+ * abc.full.jpg next to the original (plus .webp siblings when an ImageIO WebP
+ * writer is installed). Renditions are rotated upright from the EXIF
+ * orientation and written without any metadata, so EXIF (camera, GPS) is
+ * stripped. Never upscaled.
+ *
+ * Generation runs on the small imageTaskExecutor after the upload; images
+ * stored before this existed are picked up by a backfill on startup. Until an
+ * image's renditions exist, renditionsOf returns null.
+ *
+ * Renditions are always JPEG (plus WebP), so transparency is flattened onto
+ * white and animations keep their first frame; the original stays the image
+ * of record and is what the plain image fields of the API point at.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageRenditionService {
+
+    private static final List<String> SOURCE_EXTENSIONS = List.of("jpg", "jpeg", "png", "gif", "bmp", "webp");
+
+    // Not images of the catalog: the APK and the catalog snapshots
+    private static final List<String> SKIPPED_DIRECTORIES = List.of("app", "catalog");
+
+    public enum Rendition {
+        THUMB("thumb", 240), CARD("card", 640), FULL("full", 1600);
+
+        private final String suffix;
+        private final int maxSize;
+
+        Rendition(String suffix, int maxSize) {
+            this.suffix = suffix;
+            this.maxSize = maxSize;
+        }
+    }
+
+    // Relative URLs (/uploads/...), webp ones null when no WebP writer is installed
+    public record Renditions(String thumb, String card, String full,
+            String thumbWebp, String cardWebp, String fullWebp) {
+    }
+
+    @Qualifier("imageTaskExecutor")
+    private final Executor imageTaskExecutor;
+
+    @Value("${file.upload-dir:uploads}")
+    private String rootDir;
+
+    @Value("${images.renditions.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    // Larger sources are refused before decoding (decompression bombs)
+    @Value("${images.renditions.max-source-pixels:100000000}")
+    private long maxSourcePixels;
+
+    @Value("${images.renditions.backfill:true}")
+    private boolean backfill;
+
+    private final boolean webpAvailable = ImageIO.getImageWritersByFormatName("webp").hasNext();
+
+    // Originals whose renditions exist. Only hits are remembered: a miss is
+    // checked on disk again, since another node may have generated them since
+    private final Set<String> ready = ConcurrentHashMap.newKeySet();
+
+    // =================================================================================
+    // QUERIES
+    // =================================================================================
+
+    public Renditions renditionsOf(String fileUrl) {
+        if (fileUrl == null || !fileUrl.startsWith("/uploads/"))
+            return null;
+        if (!ready.contains(fileUrl)) {
+            if (!Files.exists(resolve(renditionUrl(fileUrl, Rendition.FULL, "jpg"))))
+                return null;
+            ready.add(fileUrl);
+        }
+        return new Renditions(
+                renditionUrl(fileUrl, Rendition.THUMB, "jpg"),
+                renditionUrl(fileUrl, Rendition.CARD, "jpg"),
+                renditionUrl(fileUrl, Rendition.FULL, "jpg"),
+                webpAvailable ? renditionUrl(fileUrl, Rendition.THUMB, "webp") : null,
+                webpAvailable ? renditionUrl(fileUrl, Rendition.CARD, "webp") : null,
+                webpAvailable ? renditionUrl(fileUrl, Rendition.FULL, "webp") : null);
+    }
+
+    // =================================================================================
+    // GENERATION
+    // =================================================================================
+
+    // Queues rendition generation; a full queue only delays it to the next backfill
+    public void generateAsync(String fileUrl) {
+        try {
+            imageTaskExecutor.execute(() -> generate(fileUrl));
+        } catch (RejectedExecutionException e) {
+            log.warn("Image rendition queue full, skipped {}", fileUrl);
+        }
+    }
+
+    public void deleteRenditions(String fileUrl) {
+        if (fileUrl == null || !fileUrl.startsWith("/uploads/"))
+            return;
+        forget(fileUrl);
+        for (String renditionUrl : renditionUrls(fileUrl)) {
+            try {
+                Files.deleteIfExists(resolve(renditionUrl));
+            } catch (IOException e) {
+                log.warn("Could not delete rendition of {}: {}", fileUrl, e.getMessage());
+            }
+        }
+    }
+
+    // Every URL a rendition of the original may be stored under, whether generated or not
+    public List<String> renditionUrls(String fileUrl) {
+        return Stream.of(Rendition.values())
+                .flatMap(rendition -> Stream.of("jpg", "webp").map(format -> renditionUrl(fileUrl, rendition, format)))
+                .toList();
+    }
+
+    // For renditions moved or removed behind this service's back; regenerated on the next upload
+    public void forget(String fileUrl) {
+        ready.remove(fileUrl);
+    }
+
+    // One task walking the upload tree, so the backfill never floods the queue
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissing() {
+        if (!backfill)
+            return;
+        generateBackfill();
+    }
+
+    private void generateBackfill() {
+        try {
+            imageTaskExecutor.execute(() -> {
+                Path root = Paths.get(rootDir).toAbsolutePath().normalize();
+                if (!Files.isDirectory(root))
+                    return;
+                int generated = 0;
+                try (Stream<Path> files = Files.walk(root)) {
+                    for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                        String url = "/uploads/" + root.relativize(file).toString().replace('\\', '/');
+                        if (isOriginal(url) && renditionsOf(url) == null && generate(url))
+                            generated++;
+                    }
+                } catch (IOException e) {
+                    log.warn("Image rendition backfill stopped: {}", e.getMessage());
+                }
+                if (generated > 0)
+                    log.info("Image rendition backfill: {} images", generated);
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Image rendition backfill not started: queue full");
+        }
+    }
+
+    boolean generate(String fileUrl) {
+        long start = System.currentTimeMillis();
+        try {
+            Path source = resolve(fileUrl);
+            BufferedImage image = orient(read(source), exifOrientation(source));
+            for (Rendition rendition : Rendition.values()) {
+                BufferedImage scaled = scale(image, rendition.maxSize);
+                writeJpeg(scaled, resolve(renditionUrl(fileUrl, rendition, "jpg")));
+                if (webpAvailable)
+                    write(scaled, "webp", resolve(renditionUrl(fileUrl, rendition, "webp")));
+            }
+            ready.add(fileUrl);
+            log.debug("Renditions of {} written in {} ms", fileUrl, System.currentTimeMillis() - start);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate renditions of {}: {}", fileUrl, e.getMessage());
+            return false;
+        }
+    }
+
+    // =================================================================================
+    // HELPERS
+    // =================================================================================
+
+    private boolean isOriginal(String url) {
+        String relative = url.substring("/uploads/".length());
+        int slash = relative.indexOf('/');
+        if (slash > 0 && SKIPPED_DIRECTORIES.contains(relative.substring(0, slash)))
+            return false;
+        String name = relative.substring(relative.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT);
+        int dot = name.lastIndexOf('.');
+        if (dot < 0 || !SOURCE_EXTENSIONS.contains(name.substring(dot + 1)))
+            return false;
+        return !isRendition(url);
+    }
+
+    public boolean isRendition(String fileUrl) {
+        String name = fileUrl.substring(fileUrl.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        if (dot < 0)
+            return false;
+        for (Rendition rendition : Rendition.values()) {
+            if (name.substring(0, dot).endsWith("." + rendition.suffix))
+                return true;
+        }
+        return false;
+    }
+
+    // /uploads/products/abc.thumb.jpg → the originals it may belong to (abc.jpg, abc.png, ...)
+    public List<String> originalCandidates(String renditionUrl) {
+        String base = renditionUrl.substring(0, renditionUrl.lastIndexOf('.'));
+        base = base.substring(0, base.lastIndexOf('.'));
+        String stem = base;
+        return SOURCE_EXTENSIONS.stream().map(extension -> stem + "." + extension).toList();
+    }
+
+    // /uploads/products/abc.png → /uploads/products/abc.thumb.jpg
+    static String renditionUrl(String fileUrl, Rendition rendition, String format) {
+        int slash = fileUrl.lastIndexOf('/');
+        int dot = fileUrl.lastIndexOf('.');
+        String base = dot > slash ? fileUrl.substring(0, dot) : fileUrl;
+        return base + "." + rendition.suffix + "." + format;
+    }
+
+    private Path resolve(String fileUrl) {
+        Path root = Paths.get(rootDir).toAbsolutePath().normalize();
+        Path path = root.resolve(fileUrl.substring("/uploads/".length())).normalize();
+        if (!path.startsWith(root))
+            throw new IllegalArgumentException("Outside the upload directory: " + fileUrl);
+        return path;
+    }
+
+    // Decodes subsampled to about twice the largest rendition, which keeps big photos cheap in memory
+    private BufferedImage read(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext())
+                throw new IOException("unsupported image format");
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels)
+                    throw new IOException("image too large: " + width + "x" + height);
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (Rendition.FULL.maxSize * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves in steps before the final resize, which looks much better than one bilinear jump
+    private static BufferedImage scale(BufferedImage image, int maxSize) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= targetWidth && current.getHeight() / 2 >= targetHeight)
+            current = resize(current, current.getWidth() / 2, current.getHeight() / 2);
+        if (current.getWidth() != targetWidth || current.getHeight() != targetHeight)
+            current = resize(current, targetWidth, targetHeight);
+        return current;
+    }
+
+    private static BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, image.getColorModel().hasAlpha()
+                ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return resized;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        // JPEG has no alpha: flatten onto white
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void write(BufferedImage image, String format, Path target) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        if (!ImageIO.write(image, format, temp.toFile()))
+            throw new IOException("no " + format + " writer");
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Applies an EXIF orientation (1-8) so the pixels are upright once the tag is gone
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation < 2 || orientation > 8)
+            return image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform t = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { t.translate(w, 0); t.scale(-1, 1); }
+            case 3 -> { t.translate(w, h); t.rotate(Math.PI); }
+            case 4 -> { t.translate(0, h); t.scale(1, -1); }
+            case 5 -> { t.rotate(-Math.PI / 2); t.scale(-1, 1); }
+            case 6 -> { t.translate(h, 0); t.rotate(Math.PI / 2); }
+            case 7 -> { t.translate(h, w); t.rotate(Math.PI / 2); t.scale(-1, 1); }
+            default -> { t.translate(0, w); t.rotate(-Math.PI / 2); }
+        }
+        boolean swap = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(swap ? h : w, swap ? w : h,
+                image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = oriented.createGraphics();
+        try {
+            g.drawImage(image, t, null);
+        } finally {
+            g.dispose();
+        }
+        return oriented;
+    }
+
+    /**
+     * Orientation tag (0x0112) from a JPEG's EXIF segment, 1 when there is
+     * none. Only walks the segment headers, never decodes the image.
+     */
+    static int exifOrientation(Path source) {
+        try (InputStream in = Files.newInputStream(source)) {
+            byte[] head = in.readNBytes(128 * 1024);
+            if (head.length < 4 || (head[0] & 0xFF) != 0xFF || (head[1] & 0xFF) != 0xD8)
+                return 1;
+            int pos = 2;
+            while (pos + 4 <= head.length && (head[pos] & 0xFF) == 0xFF) {
+                int marker = head[pos + 1] & 0xFF;
+                int length = ((head[pos + 2] & 0xFF) << 8) | (head[pos + 3] & 0xFF);
+                if (marker == 0xDA || length < 2)
+                    return 1;
+                if (marker == 0xE1 && pos + 10 <= head.length
+                        && new String(head, pos + 4, 4, java.nio.charset.StandardCharsets.US_ASCII).equals("Exif"))
+                    return readOrientation(head, pos + 10, Math.min(head.length, pos + 2 + length));
+                pos += 2 + length;
+            }
+        } catch (IOException | RuntimeException e) {
+            // No usable EXIF: leave the image as it is
+        }
+        return 1;
+    }
+
+    private static int readOrientation(byte[] data, int tiff, int end) {
+        boolean little = data[tiff] == 'I';
+        int ifd = tiff + readInt(data, tiff + 4, little);
+        int entries = readShort(data, ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > end)
+                break;
+            if (readShort(data, entry, little) == 0x0112)
+                return readShort(data, entry + 8, little);
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] data, int pos, boolean little) {
+        int a = data[pos] & 0xFF;
+        int b = data[pos + 1] & 0xFF;
+        return little ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private static int readInt(byte[] data, int pos, boolean little) {
+        return little
+                ? (readShort(data, pos + 2, true) << 16) | readShort(data, pos, true)
+                : (readShort(data, pos, false) << 16) | readShort(data, pos + 2, false);
+    }
+}
@@ -156,14 +156,19 @@ public class NotificationService {
             }
         }
         String fullImageUrl = urlUtil.getFullUrl(imageUrl);
-        // Send Multicast
+        // Send Multicast; best effort, the saved notifications stay either way
         if (!tokens.isEmpty()) {
-            fcmService.sendToManyTokens(tokens, title, message, fullImageUrl, type, richDataJson);
+            try {
+                fcmService.sendToManyTokens(tokens, title, message, fullImageUrl, type, richDataJson);
+            } catch (RuntimeException e) {
+                System.err.println("❌ Group push failed: " + e.getMessage());
+            }
         }
     }
 
     // 3. AUTO-NOTIFY STAFF ON NEW ORDER
-    @Async
+    // Sent from the order outbox: a failed push rolls the notifications back with it, so
+    // the retry doesn't save them twice (same for the cancellation / staff / user ones)
     @Transactional
     public void notifyStaffOfNewOrder(String orderNumber, Long orderId) {
         String title = "طلب جديد! 🛒";
@@ -218,7 +223,6 @@ public class NotificationService {
         fcmService.sendToManyTokens(tokens, title, message, null, "ORDER_ACCEPTED", String.valueOf(orderId));
     }
 
-    @Async
     @Transactional
     public void notifyStaffOfCancelledOrder(String orderNumber, Long orderId) {
         System.out.println("🔔 Notifying staff of Cancelled Order #" + orderNumber);
@@ -255,7 +259,6 @@ public class NotificationService {
         fcmService.sendToManyTokens(tokens, title, message, null, "ORDER_CANCELLED", richDataJson);
     }
 
-    @Async
     @Transactional
     public void notifyAllStaff(String title, String message, String type, Long referenceId) {
         System.out.println("🔔 Notifying all staff: " + title);
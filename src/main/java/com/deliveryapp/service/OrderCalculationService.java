@@ -7,8 +7,6 @@ import com.deliveryapp.dto.order.OrderItemRequest;
 import com.deliveryapp.entity.*;
 import com.deliveryapp.exception.InvalidDataException;
 import com.deliveryapp.exception.ResourceNotFoundException;
-import com.deliveryapp.repository.ProductRepository;
-import com.deliveryapp.repository.ProductVariantRepository;
 import com.deliveryapp.repository.StoreRepository;
 import com.deliveryapp.repository.UserAddressRepository;
 import com.deliveryapp.util.DistanceUtil;
@@ -25,11 +23,10 @@ public class OrderCalculationService {
 
     private final StoreRepository storeRepository;
     private final UserAddressRepository addressRepository;
-    private final ProductRepository productRepository;
-    private final ProductVariantRepository variantRepository;
+    private final OrderItemResolver orderItemResolver;
     private final DistanceUtil distanceUtil;
     private final MathUtil mathUtil;
-    private final PricingService pricingService;
+    private final PriceBookService priceBookService;
     private final CouponService couponService;
 
     public DeliveryFeeResponse calculateDeliveryFee(Long storeId, Long addressId) {
@@ -148,15 +145,15 @@ public class OrderCalculationService {
         List<OrderItem> tempItems = new ArrayList<>();
         double subtotal = 0.0;
 
+        OrderItemResolver.ResolvedItems resolved = orderItemResolver.resolve(request.getItems());
+
         for (OrderItemRequest itemReq : request.getItems()) {
-            Product product = productRepository.findById(itemReq.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("المنتج غير موجود"));
-
-            double price = pricingService.getFinalPriceInSYP(product);
-            if (itemReq.getVariantId() != null) {
-                ProductVariant variant = variantRepository.findById(itemReq.getVariantId())
-                        .orElseThrow(() -> new ResourceNotFoundException("النوع غير موجود"));
-                price += pricingService.getVariantFinalPriceInSYP(variant);
+            Product product = resolved.product(itemReq.getProductId());
+
+            double price = priceBookService.getFinalPrice(product);
+            if (itemReq.getVariantId() != null && itemReq.getVariantId() != 0) {
+                ProductVariant variant = resolved.variant(itemReq.getVariantId());
+                price += priceBookService.getVariantPrice(variant);
             }
 
             OrderItem tempItem = new OrderItem();
@@ -0,0 +1,82 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.dto.order.OrderItemRequest;
+import com.deliveryapp.entity.Color;
+import com.deliveryapp.entity.Product;
+import com.deliveryapp.entity.ProductVariant;
+import com.deliveryapp.exception.ResourceNotFoundException;
+import com.deliveryapp.repository.ColorRepository;
+import com.deliveryapp.repository.ProductRepository;
+import com.deliveryapp.repository.ProductVariantRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads everything the items of a cart refer to — products (with store,
+ * categories and colors), variants and colors — in one query per type, so
+ * validating and pricing a 15-item cart doesn't cost 30+ lookups.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderItemResolver {
+
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository variantRepository;
+    private final ColorRepository colorRepository;
+
+    public record ResolvedItems(Map<Long, Product> products, Map<Long, ProductVariant> variants,
+            Map<Long, Color> colors) {
+
+        public Product product(Long productId) {
+            Product product = products.get(productId);
+            if (product == null)
+                throw new ResourceNotFoundException("المنتج غير موجود: " + productId);
+            return product;
+        }
+
+        public ProductVariant variant(Long variantId) {
+            ProductVariant variant = variants.get(variantId);
+            if (variant == null)
+                throw new ResourceNotFoundException("النوع غير موجود: " + variantId);
+            return variant;
+        }
+
+        public Color color(Long colorId) {
+            Color color = colors.get(colorId);
+            if (color == null)
+                throw new ResourceNotFoundException("اللون غير موجود");
+            return color;
+        }
+    }
+
+    public ResolvedItems resolve(List<OrderItemRequest> items) {
+        Set<Long> productIds = ids(items, OrderItemRequest::getProductId);
+        Set<Long> variantIds = ids(items, OrderItemRequest::getVariantId);
+        Set<Long> colorIds = ids(items, OrderItemRequest::getColorId);
+
+        // Products first: the variants' products are then already in the persistence context
+        Map<Long, Product> products = productIds.isEmpty() ? Map.of()
+                : productRepository.findForOrderByProductIdIn(productIds).stream()
+                        .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        Map<Long, ProductVariant> variants = variantIds.isEmpty() ? Map.of()
+                : variantRepository.findAllById(variantIds).stream()
+                        .collect(Collectors.toMap(ProductVariant::getVariantId, Function.identity()));
+        Map<Long, Color> colors = colorIds.isEmpty() ? Map.of()
+                : colorRepository.findAllById(colorIds).stream()
+                        .collect(Collectors.toMap(Color::getColorId, Function.identity()));
+        return new ResolvedItems(products, variants, colors);
+    }
+
+    // 0 is what clients send for "no variant"
+    private static Set<Long> ids(List<OrderItemRequest> items, Function<OrderItemRequest, Long> id) {
+        return items.stream().map(id).filter(Objects::nonNull).filter(value -> value != 0)
+                .collect(Collectors.toSet());
+    }
+}
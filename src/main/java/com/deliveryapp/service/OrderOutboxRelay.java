@@ -0,0 +1,269 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.entity.Order;
+import com.deliveryapp.entity.OrderOutboxEvent;
+import com.deliveryapp.repository.OrderOutboxKey;
+import com.deliveryapp.repository.OrderOutboxRepository;
+import com.deliveryapp.repository.OrderRepository;
+import com.deliveryapp.util.UrlUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Dispatches the order outbox written by {@link OrderOutboxService}.
+ *
+ * Each order has one queue per lane: LIVE (websocket broadcasts) runs on the
+ * outboxLiveExecutor, NOTIFY (push notifications, Telegram) on the
+ * outboxNotifyExecutor, so slow FCM or Telegram calls never delay the live
+ * order boards. A queue is drained by one thread at a time, in id order, and
+ * stops at an event that failed until its retry is due — later events of the
+ * order wait behind it. After the last attempt the event is marked FAILED
+ * and left in the table for inspection, and the queue moves on.
+ *
+ * Queues are scheduled right after the writing transaction commits; the poll
+ * picks up retries and whatever a node left behind when it went down. Every
+ * event is leased before it is sent, so two nodes never send the same one,
+ * though a node dying mid-send means it is sent again (at least once).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderOutboxRelay {
+
+    private final OrderOutboxRepository outboxRepository;
+    private final OrderRepository orderRepository;
+    private final NotificationService notificationService;
+    private final TelegramService telegramService;
+    private final OrderWebSocketService webSocketService;
+    private final UrlUtil urlUtil;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final PlatformTransactionManager transactionManager;
+    @Qualifier("outboxLiveExecutor")
+    private final Executor liveExecutor;
+    @Qualifier("outboxNotifyExecutor")
+    private final Executor notifyExecutor;
+
+    @Value("${order.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    // Retry delay doubles from the base after each failed attempt, up to the max
+    @Value("${order.outbox.retry-base-ms:2000}")
+    private long retryBaseMs;
+
+    @Value("${order.outbox.retry-max-ms:600000}")
+    private long retryMaxMs;
+
+    // How long a node may take to send an event before another node may take it over
+    @Value("${order.outbox.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${order.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${order.outbox.retention-days:7}")
+    private long retentionDays;
+
+    // Per queue: TRUE = scheduled, or new events arrived while draining; FALSE = draining, nothing new
+    private final Map<OrderOutboxKey, Boolean> scheduled = new ConcurrentHashMap<>();
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicReference<LocalDateTime> oldestPending = new AtomicReference<>();
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("order.outbox.pending", pending, AtomicLong::get)
+                .description("Outbox events not dispatched yet, as of the last poll")
+                .register(meterRegistry);
+        Gauge.builder("order.outbox.oldest_pending.age", oldestPending,
+                ref -> ref.get() != null ? Duration.between(ref.get(), LocalDateTime.now()).toSeconds() : 0)
+                .description("Seconds since the oldest outbox event still pending was written")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    // =================================================================================
+    // SCHEDULING
+    // =================================================================================
+
+    public void schedule(OrderOutboxKey key) {
+        if (scheduled.put(key, Boolean.TRUE) != null)
+            return; // Already queued or draining: the drain loop picks the new events up
+        try {
+            executorFor(key.lane()).execute(() -> drain(key));
+        } catch (RejectedExecutionException e) {
+            scheduled.remove(key);
+            log.warn("Outbox executor full, order {} ({}) left to the next poll", key.orderId(), key.lane());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms:5000}",
+            initialDelayString = "${order.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.findDueKeys(now, PageRequest.of(0, batchSize)).forEach(this::schedule);
+        pending.set(outboxRepository.countByStatus(OrderOutboxEvent.Status.PENDING));
+        oldestPending.set(outboxRepository.findOldestPendingCreatedAt());
+    }
+
+    // FAILED events are kept for inspection
+    @Scheduled(cron = "${order.outbox.purge-cron:0 15 4 * * *}")
+    public void purgeDispatched() {
+        int deleted = outboxRepository.deleteDispatchedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0)
+            log.info("Purged {} dispatched outbox events", deleted);
+    }
+
+    private Executor executorFor(OrderOutboxEvent.Lane lane) {
+        return lane == OrderOutboxEvent.Lane.LIVE ? liveExecutor : notifyExecutor;
+    }
+
+    // =================================================================================
+    // DISPATCH
+    // =================================================================================
+
+    void drain(OrderOutboxKey key) {
+        try {
+            do {
+                scheduled.put(key, Boolean.FALSE);
+                drainQueue(key);
+            } while (!scheduled.remove(key, Boolean.FALSE));
+        } catch (RuntimeException e) {
+            // e.g. the database is unreachable; the next poll schedules the queue again
+            scheduled.remove(key);
+            log.warn("Outbox queue of order {} ({}) stopped: {}", key.orderId(), key.lane(), e.getMessage());
+        }
+    }
+
+    private void drainQueue(OrderOutboxKey key) {
+        while (true) {
+            OrderOutboxEvent event = outboxRepository.findFirstByOrderIdAndLaneAndStatusOrderByIdAsc(
+                    key.orderId(), key.lane(), OrderOutboxEvent.Status.PENDING).orElse(null);
+            LocalDateTime now = LocalDateTime.now();
+            if (event == null || event.getAvailableAt().isAfter(now))
+                return; // Empty, or the head waits for its retry
+            if (outboxRepository.claim(event.getId(), now, now.plus(Duration.ofMillis(leaseMs))) == 0)
+                return; // Another node is sending it, and drains the rest after it
+            if (!dispatch(event))
+                return;
+        }
+    }
+
+    // False when the event is to be retried, which holds back the rest of the queue
+    private boolean dispatch(OrderOutboxEvent event) {
+        try {
+            JsonNode payload = objectMapper.readTree(event.getPayload() != null ? event.getPayload() : "{}");
+            urlUtil.runWithBaseUrl(event.getBaseUrl(), () -> send(event, payload));
+        } catch (Exception e) {
+            return attemptFailed(event, e);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.markDispatched(event.getId(), now);
+        meterRegistry.timer("order.outbox.lag", "type", event.getType().name())
+                .record(Duration.between(event.getCreatedAt(), now));
+        count(event, "dispatched");
+        return true;
+    }
+
+    private void send(OrderOutboxEvent event, JsonNode payload) {
+        Long orderId = event.getOrderId();
+        switch (event.getType()) {
+            case ORDER_CREATED -> withOrder(orderId, webSocketService::broadcastOrderCreated);
+            case ORDER_UPDATED -> withOrder(orderId, webSocketService::broadcastOrderUpdated);
+            case ORDER_DELETED -> {
+                List<Long> storeIds = new ArrayList<>();
+                payload.path("storeIds").forEach(id -> storeIds.add(id.asLong()));
+                webSocketService.broadcastOrderDeleted(orderId, storeIds);
+            }
+            case STAFF_NEW_ORDER -> notificationService.notifyStaffOfNewOrder(
+                    payload.path("orderNumber").asText(), orderId);
+            case STAFF_ORDER_CANCELLED -> notificationService.notifyStaffOfCancelledOrder(
+                    payload.path("orderNumber").asText(), orderId);
+            case STAFF_NOTIFICATION -> notificationService.notifyAllStaff(
+                    payload.path("title").asText(), payload.path("message").asText(),
+                    payload.path("type").asText(), orderId);
+            case USER_NOTIFICATION -> notificationService.sendNotification(
+                    payload.path("userId").asLong(), payload.path("title").asText(),
+                    payload.path("message").asText(), null, payload.path("type").asText(), "order", orderId, null);
+            case TELEGRAM_NEW_ORDER -> {
+                // Built in the transaction, sent after it: the connection is not held across Telegram calls
+                List<TelegramService.StoreMessage> messages = readOrder(orderId, telegramService::buildStoreMessages);
+                if (messages != null)
+                    telegramService.sendStoreMessages(messages);
+            }
+        }
+    }
+
+    private void withOrder(Long orderId, Consumer<Order> action) {
+        readOrder(orderId, order -> {
+            action.accept(order);
+            return null;
+        });
+    }
+
+    // Maps the current state of the order in a read-only transaction, so its items and stores load.
+    // Null when the order is gone.
+    private <T> T readOrder(Long orderId, Function<Order, T> mapper) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> {
+            Order order = orderRepository.findById(orderId).orElse(null);
+            if (order == null) {
+                log.debug("Order {} is gone, outbox event skipped", orderId);
+                return null;
+            }
+            return mapper.apply(order);
+        });
+    }
+
+    private boolean attemptFailed(OrderOutboxEvent event, Exception e) {
+        int attempt = event.getAttempts() + 1;
+        String error = e.getMessage() != null && e.getMessage().length() > 500
+                ? e.getMessage().substring(0, 500)
+                : e.getMessage();
+        if (attempt >= maxAttempts) {
+            outboxRepository.markAttemptFailed(event.getId(), OrderOutboxEvent.Status.FAILED,
+                    event.getAvailableAt(), error);
+            count(event, "failed");
+            log.error("Outbox event {} ({} of order {}) failed {} times, giving up: {}",
+                    event.getId(), event.getType(), event.getOrderId(), attempt, error);
+            return true;
+        }
+        long delay = Math.min(retryMaxMs, retryBaseMs << Math.min(attempt - 1, 20));
+        outboxRepository.markAttemptFailed(event.getId(), OrderOutboxEvent.Status.PENDING,
+                LocalDateTime.now().plus(Duration.ofMillis(delay)), error);
+        count(event, "retried");
+        log.warn("Outbox event {} ({} of order {}) failed, retry {} in {} ms: {}",
+                event.getId(), event.getType(), event.getOrderId(), attempt, delay, error);
+        return false;
+    }
+
+    private void count(OrderOutboxEvent event, String result) {
+        meterRegistry.counter("order.outbox.events", "type", event.getType().name(), "result", result).increment();
+    }
+}
@@ -0,0 +1,116 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.entity.OrderOutboxEvent;
+import com.deliveryapp.repository.OrderOutboxKey;
+import com.deliveryapp.repository.OrderOutboxRepository;
+import com.deliveryapp.util.UrlUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the side effects of an order write in the order_outbox table, as
+ * part of the write's transaction (there must be one). Once it commits the
+ * relay dispatches them; if it rolls back they are gone with it.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class OrderOutboxService {
+
+    private final OrderOutboxRepository outboxRepository;
+    private final OrderOutboxRelay relay;
+    private final UrlUtil urlUtil;
+    private final ObjectMapper objectMapper;
+
+    // =================================================================================
+    // WEBSOCKET
+    // =================================================================================
+
+    public void broadcastOrderCreated(Long orderId) {
+        add(orderId, OrderOutboxEvent.Type.ORDER_CREATED, Map.of());
+    }
+
+    public void broadcastOrderUpdated(Long orderId) {
+        add(orderId, OrderOutboxEvent.Type.ORDER_UPDATED, Map.of());
+    }
+
+    public void broadcastOrderDeleted(Long orderId, List<Long> storeIds) {
+        add(orderId, OrderOutboxEvent.Type.ORDER_DELETED, Map.of("storeIds", storeIds));
+    }
+
+    // =================================================================================
+    // NOTIFICATIONS
+    // =================================================================================
+
+    public void notifyStaffOfNewOrder(String orderNumber, Long orderId) {
+        add(orderId, OrderOutboxEvent.Type.STAFF_NEW_ORDER, Map.of("orderNumber", orderNumber));
+    }
+
+    public void notifyStaffOfCancelledOrder(String orderNumber, Long orderId) {
+        add(orderId, OrderOutboxEvent.Type.STAFF_ORDER_CANCELLED, Map.of("orderNumber", orderNumber));
+    }
+
+    public void notifyAllStaff(String title, String message, String type, Long orderId) {
+        add(orderId, OrderOutboxEvent.Type.STAFF_NOTIFICATION,
+                Map.of("title", title, "message", message, "type", type));
+    }
+
+    public void notifyUser(Long userId, String title, String message, String type, Long orderId) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("userId", userId);
+        payload.put("title", title);
+        payload.put("message", message);
+        payload.put("type", type);
+        add(orderId, OrderOutboxEvent.Type.USER_NOTIFICATION, payload);
+    }
+
+    public void notifyStoresOnTelegram(Long orderId) {
+        add(orderId, OrderOutboxEvent.Type.TELEGRAM_NEW_ORDER, Map.of());
+    }
+
+    // =================================================================================
+    // HELPERS
+    // =================================================================================
+
+    private void add(Long orderId, OrderOutboxEvent.Type type, Map<String, ?> payload) {
+        LocalDateTime now = LocalDateTime.now();
+        OrderOutboxEvent event = new OrderOutboxEvent();
+        event.setOrderId(orderId);
+        event.setLane(type.lane());
+        event.setType(type);
+        event.setPayload(toJson(payload));
+        event.setBaseUrl(urlUtil.getCurrentBaseUrl());
+        event.setStatus(OrderOutboxEvent.Status.PENDING);
+        event.setCreatedAt(now);
+        event.setAvailableAt(now);
+        outboxRepository.save(event);
+
+        // Dispatched right after the commit; the relay's poll is only the safety net
+        OrderOutboxKey key = new OrderOutboxKey(orderId, type.lane());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                relay.schedule(key);
+            }
+        });
+    }
+
+    private String toJson(Map<String, ?> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox payload", e);
+        }
+    }
+}
@@ -6,23 +6,28 @@ import com.deliveryapp.enums.OrderStatus;
 import com.deliveryapp.enums.UserType;
 import com.deliveryapp.exception.InvalidDataException;
 import com.deliveryapp.exception.ResourceNotFoundException;
+import com.deliveryapp.exception.StatusConflictException;
 import com.deliveryapp.repository.*;
 import com.deliveryapp.util.MathUtil;
 import com.deliveryapp.util.UrlUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,22 +36,25 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final OrderStatusHistoryRepository historyRepository;
     private final UserRepository userRepository;
-    private final ProductRepository productRepository;
-    private final ProductVariantRepository variantRepository;
     private final UserAddressRepository addressRepository;
     private final CouponUsageRepository couponUsageRepository;
-    private final ColorRepository colorRepository;
 
     private final CouponService couponService;
-    private final NotificationService notificationService;
-    private final PricingService pricingService;
-    private final TelegramService telegramService;
+    private final PriceBookService priceBookService;
     private final OrderCalculationService calculationService; // 🟢 Inject new calculation service
-    private final OrderWebSocketService webSocketService;
+    private final OrderItemResolver orderItemResolver;
+    private final OrderOutboxService orderOutbox; // Notifications and broadcasts, sent after commit
 
     private final UrlUtil urlUtil;
     private final MathUtil mathUtil;
 
+    // Largest page the admin order feed returns
+    private static final int MAX_FEED_SIZE = 100;
+
+    // Admin search totals are counted exactly up to this many orders, estimated above
+    @Value("${orders.search.count-limit:1000}")
+    private int searchCountLimit;
+
     @Transactional
     public Order placeOrder(PlaceOrderRequest request) {
 
@@ -74,9 +82,11 @@ public class OrderService {
         Set<Store> uniqueStores = new HashSet<>();
         double subtotal = 0.0;
 
+        // All products, variants and colors of the cart up front, one query per type
+        OrderItemResolver.ResolvedItems resolved = orderItemResolver.resolve(request.getItems());
+
         for (OrderItemRequest itemReq : request.getItems()) {
-            Product product = productRepository.findById(itemReq.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("المنتج غير موجود: " + itemReq.getProductId()));
+            Product product = resolved.product(itemReq.getProductId());
 
             Store store = product.getStore();
 
@@ -94,8 +104,7 @@ public class OrderService {
             orderItem.setNotes(itemReq.getNotes());
 
             if (itemReq.getColorId() != null) {
-                Color color = colorRepository.findById(itemReq.getColorId())
-                        .orElseThrow(() -> new ResourceNotFoundException("اللون غير موجود"));
+                Color color = resolved.color(itemReq.getColorId());
 
                 boolean isValidColor = product.getColors().stream()
                         .anyMatch(c -> c.getColorId().equals(color.getColorId()));
@@ -105,10 +114,9 @@ public class OrderService {
                 orderItem.setSelectedColor(color);
             }
 
-            double price = pricingService.getFinalPriceInSYP(product);
+            double price = priceBookService.getFinalPrice(product);
             if (itemReq.getVariantId() != null && itemReq.getVariantId() != 0) {
-                ProductVariant variant = variantRepository.findById(itemReq.getVariantId())
-                        .orElseThrow(() -> new ResourceNotFoundException("النوع غير موجود: " + itemReq.getVariantId()));
+                ProductVariant variant = resolved.variant(itemReq.getVariantId());
 
                 if (!variant.getProduct().getProductId().equals(product.getProductId())) {
                     throw new InvalidDataException("هذا النوع لا ينتمي لهذا المنتج");
@@ -116,7 +124,7 @@ public class OrderService {
 
                 orderItem.setVariant(variant);
                 orderItem.setVariantDetails(variant.getVariantValue());
-                price += pricingService.getVariantFinalPriceInSYP(variant);
+                price += priceBookService.getVariantPrice(variant);
             }
 
             orderItem.setUnitPrice(price);
@@ -199,19 +207,9 @@ public class OrderService {
 
         logStatusChange(savedOrder, null, OrderStatus.PENDING, "تم استلام الطلب");
 
-        try {
-            notificationService.notifyStaffOfNewOrder(savedOrder.getOrderNumber(), savedOrder.getOrderId());
-        } catch (Exception e) {
-            System.err.println("Failed to notify staff: " + e.getMessage());
-        }
-
-        try {
-            telegramService.notifyAllStoresOfOrder(savedOrder);
-        } catch (Exception e) {
-            System.err.println("Failed to send Telegram store notifications: " + e.getMessage());
-        }
-
-        webSocketService.broadcastOrderCreated(savedOrder);
+        orderOutbox.notifyStaffOfNewOrder(savedOrder.getOrderNumber(), savedOrder.getOrderId());
+        orderOutbox.notifyStoresOnTelegram(savedOrder.getOrderId());
+        orderOutbox.broadcastOrderCreated(savedOrder.getOrderId());
 
         return savedOrder;
     }
@@ -229,54 +227,45 @@ public class OrderService {
         }
 
         OrderStatus oldStatus = order.getStatus();
+        if (oldStatus == newStatus) {
+            return order; // Repeated request (e.g. a retried "delivered" tap): nothing to do
+        }
+        if (oldStatus != null && !oldStatus.canTransitionTo(newStatus)) {
+            throw new StatusConflictException("لا يمكن تغيير حالة الطلب من " + oldStatus + " إلى " + newStatus + ".");
+        }
+
         order.setStatus(newStatus);
         order.setUpdatedAt(LocalDateTime.now());
 
         if (newStatus == OrderStatus.DELIVERED) {
             order.setDeliveredAt(LocalDateTime.now());
 
-            if (oldStatus != OrderStatus.DELIVERED && order.getDriver() != null) {
-                User driver = order.getDriver();
-                int currentCount = driver.getTotalDeliveries() != null ? driver.getTotalDeliveries() : 0;
-                driver.setTotalDeliveries(currentCount + 1);
-                userRepository.save(driver);
+            if (order.getDriver() != null) {
+                userRepository.incrementTotalDeliveries(order.getDriver().getUserId());
             }
         }
 
-        Order savedOrder = orderRepository.save(order);
+        // Flushed here so a concurrent update of the order fails this request (409) before anything else
+        Order savedOrder = orderRepository.saveAndFlush(order);
         logStatusChange(savedOrder, oldStatus, newStatus, "تم تحديث حالة الطلب بواسطة " + userId);
 
         if (newStatus == OrderStatus.CONFIRMED && oldStatus == OrderStatus.PENDING) {
-            try {
-                notificationService.sendNotification(
-                        order.getUser().getUserId(),
-                        "تم تأكيد طلبك! ✅",
-                        "طلبك رقم " + order.getOrderNumber() + " قيد التجهيز الآن.",
-                        null,
-                        "ORDER_UPDATE",
-                        "order",
-                        order.getOrderId(),
-                        null);
-            } catch (Exception e) {
-                System.err.println("Failed to notify customer: " + e.getMessage());
-            }
-        } else if (newStatus == OrderStatus.DELIVERED && oldStatus != OrderStatus.DELIVERED) {
-            try {
-                notificationService.sendNotification(
-                        order.getUser().getUserId(),
-                        "تم التوصيل بنجاح! 🎉",
-                        "شكراً لاستخدامك تطبيقنا",
-                        null,
-                        "ORDER_DELIVERED",
-                        "order",
-                        order.getOrderId(),
-                        null);
-            } catch (Exception e) {
-                System.err.println("Failed to notify customer: " + e.getMessage());
-            }
+            orderOutbox.notifyUser(
+                    order.getUser().getUserId(),
+                    "تم تأكيد طلبك! ✅",
+                    "طلبك رقم " + order.getOrderNumber() + " قيد التجهيز الآن.",
+                    "ORDER_UPDATE",
+                    order.getOrderId());
+        } else if (newStatus == OrderStatus.DELIVERED) {
+            orderOutbox.notifyUser(
+                    order.getUser().getUserId(),
+                    "تم التوصيل بنجاح! 🎉",
+                    "شكراً لاستخدامك تطبيقنا",
+                    "ORDER_DELIVERED",
+                    order.getOrderId());
         }
 
-        webSocketService.broadcastOrderUpdated(savedOrder);
+        orderOutbox.broadcastOrderUpdated(savedOrder.getOrderId());
         return savedOrder;
     }
 
@@ -304,11 +293,7 @@ public class OrderService {
             }
         }
 
-        try {
-            notificationService.notifyStaffOfCancelledOrder(order.getOrderNumber(), orderId);
-        } catch (Exception e) {
-            System.err.println("Failed to notify staff of cancellation: " + e.getMessage());
-        }
+        orderOutbox.notifyStaffOfCancelledOrder(order.getOrderNumber(), orderId);
 
         List<Long> storeIds = order.getStores().stream().map(Store::getStoreId)
                 .collect(java.util.stream.Collectors.toList());
@@ -316,7 +301,7 @@ public class OrderService {
         historyRepository.deleteByOrderOrderId(orderId);
         orderRepository.delete(order);
 
-        webSocketService.broadcastOrderDeleted(orderId, storeIds);
+        orderOutbox.broadcastOrderDeleted(orderId, storeIds);
     }
 
     @Transactional
@@ -331,7 +316,7 @@ public class OrderService {
         couponUsageRepository.deleteByOrderId(orderId);
         orderRepository.deleteById(orderId);
 
-        webSocketService.broadcastOrderDeleted(orderId, storeIds);
+        orderOutbox.broadcastOrderDeleted(orderId, storeIds);
     }
 
     private void logStatusChange(Order order, OrderStatus oldS, OrderStatus newS, String notes) {
@@ -357,34 +342,71 @@ public class OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("الطلب غير موجود برقم: " + orderId));
     }
 
-    public Page<Order> getAdminOrders(String orderNumber, OrderStatus status, LocalDate startDate, LocalDate endDate,
-            Pageable pageable) {
-        if (orderNumber != null && !orderNumber.trim().isEmpty()) {
-            if (startDate != null && endDate != null && status != null)
-                return orderRepository
-                        .findByOrderNumberContainingIgnoreCaseAndStatusAndCreatedAtBetweenOrderByCreatedAtDesc(
-                                orderNumber, status, startDate.atStartOfDay(), endDate.atTime(23, 59, 59), pageable);
-            else if (startDate != null && endDate != null)
-                return orderRepository.findByOrderNumberContainingIgnoreCaseAndCreatedAtBetweenOrderByCreatedAtDesc(
-                        orderNumber, startDate.atStartOfDay(), endDate.atTime(23, 59, 59), pageable);
-            else if (status != null)
-                return orderRepository.findByOrderNumberContainingIgnoreCaseAndStatusOrderByCreatedAtDesc(orderNumber,
-                        status, pageable);
-            else
-                return orderRepository.findByOrderNumberContainingIgnoreCaseOrderByCreatedAtDesc(orderNumber, pageable);
+    /**
+     * A page of the admin search plus whether its total is only estimated:
+     * beyond orders.search.count-limit matches the orders aren't counted in full.
+     */
+    public record AdminOrderPage(Page<Order> page, boolean totalEstimated) {
+    }
+
+    /**
+     * One page of a keyset listing: the orders, and the cursor of the next page
+     * (null on the last page).
+     */
+    public record OrderSlice(List<Order> content, String nextCursor) {
+    }
+
+    /**
+     * Admin order search with page numbers, newest first. The total is exact up
+     * to orders.search.count-limit; above it the table statistics stand in for an
+     * unfiltered listing, and the limit itself (a lower bound) for a filtered one.
+     */
+    public AdminOrderPage getAdminOrders(OrderSearchFilter filter, Pageable pageable) {
+        List<OrderCursor> positions = orderRepository.findPositions(filter, null, pageable.getOffset(),
+                pageable.getPageSize());
+        List<Order> orders = loadInOrder(positions);
+        if (pageable.getOffset() == 0 && orders.size() < pageable.getPageSize()) {
+            return new AdminOrderPage(new PageImpl<>(orders, pageable, orders.size()), false);
         }
-        if (startDate != null && endDate != null) {
-            LocalDateTime startDateTime = startDate.atStartOfDay();
-            LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-            if (status != null)
-                return orderRepository.findByStatusAndCreatedAtBetweenOrderByCreatedAtDesc(status, startDateTime,
-                        endDateTime, pageable);
-            else
-                return orderRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(startDateTime, endDateTime, pageable);
+
+        long counted = orderRepository.countUpTo(filter, searchCountLimit + 1);
+        if (counted <= searchCountLimit) {
+            return new AdminOrderPage(new PageImpl<>(orders, pageable, counted), false);
         }
-        if (status != null)
-            return orderRepository.findByStatusOrderByCreatedAtDesc(status, pageable);
-        return orderRepository.findAllByOrderByCreatedAtDesc(pageable);
+        Long estimate = filter.isEmpty() ? orderRepository.estimateTotal() : null;
+        long total = estimate != null ? Math.max(estimate, counted) : counted;
+        return new AdminOrderPage(new PageImpl<>(orders, pageable, total), true);
+    }
+
+    /**
+     * Admin order search for infinite scroll, newest first. Seeks past the last
+     * order the client has seen instead of skipping rows, so every page costs the
+     * same, and never counts. At most MAX_FEED_SIZE orders per page.
+     */
+    public OrderSlice getAdminOrdersAfter(OrderSearchFilter filter, String cursor, int size) {
+        if (size < 1)
+            throw new InvalidDataException("حجم الصفحة يجب أن يكون أكبر من صفر");
+        size = Math.min(size, MAX_FEED_SIZE);
+        OrderCursor after = (cursor == null || cursor.isBlank()) ? null : OrderCursor.decode(cursor);
+
+        // One extra row tells us whether another page exists
+        List<OrderCursor> positions = orderRepository.findPositions(filter, after, 0, size + 1);
+        boolean hasMore = positions.size() > size;
+        if (hasMore)
+            positions = positions.subList(0, size);
+
+        String nextCursor = hasMore ? positions.get(size - 1).encode() : null;
+        return new OrderSlice(loadInOrder(positions), nextCursor);
+    }
+
+    private List<Order> loadInOrder(List<OrderCursor> positions) {
+        List<Long> ids = positions.stream().map(OrderCursor::orderId).toList();
+        Map<Long, Order> orderMap = orderRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Order::getOrderId, o -> o));
+        return ids.stream()
+                .map(orderMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     // 🟢 UPDATED: Vendor gets their orders (Active vs History)
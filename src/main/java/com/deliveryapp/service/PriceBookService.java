@@ -0,0 +1,238 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.entity.Product;
+import com.deliveryapp.entity.ProductVariant;
+import com.deliveryapp.event.CatalogChangedEvent;
+import com.deliveryapp.repository.ProductRepository;
+import com.deliveryapp.repository.ProductVariantRepository;
+import com.deliveryapp.util.DirtyQueue;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Precomputed SYP prices for every product and variant.
+ *
+ * Each entry remembers the pricing fields and the exchange rate version it was
+ * computed from. A read only uses the entry when both still match the entity it
+ * is given, otherwise it recomputes inline — so a stale entry can never leak a
+ * wrong price, and entries are refreshed in the background after product
+ * changes and rate changes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PriceBookService {
+
+    private static final int REBUILD_BATCH_SIZE = 200;
+
+    private final PricingService pricingService;
+    private final ExchangeRateService exchangeRateService;
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository variantRepository;
+    @Qualifier("catalogTaskExecutor")
+    private final Executor catalogTaskExecutor;
+
+    private final Map<Long, ProductEntry> products = new ConcurrentHashMap<>();
+    private final Map<Long, VariantEntry> variants = new ConcurrentHashMap<>();
+
+    // Changed products, recomputed together; a rate change recomputes the USD products
+    private final DirtyQueue<Long> changes = new DirtyQueue<>("Price book", this::refresh, this::rebuildUsd);
+
+    public record ProductPrices(Double finalPrice, Double regularPrice, Double offerPrice,
+            Integer discountPercentage) {
+    }
+
+    private record ProductEntry(Boolean isUsd, Double basePrice, Double usdPrice, Boolean hasOffer,
+            Double offerBasePrice, Double offerUsdPrice, long rateVersion, ProductPrices prices) {
+
+        boolean matches(Product p, long currentRateVersion) {
+            return Objects.equals(isUsd, p.getIsUsd())
+                    && Objects.equals(basePrice, p.getBasePrice())
+                    && Objects.equals(usdPrice, p.getUsdPrice())
+                    && Objects.equals(hasOffer, p.getHasOffer())
+                    && Objects.equals(offerBasePrice, p.getOfferBasePrice())
+                    && Objects.equals(offerUsdPrice, p.getOfferUsdPrice())
+                    && (!Boolean.TRUE.equals(isUsd) || rateVersion == currentRateVersion);
+        }
+    }
+
+    private record VariantEntry(Long productId, Boolean isUsd, Double priceAdjustment, long rateVersion,
+            Double price) {
+
+        boolean matches(ProductVariant v, long currentRateVersion) {
+            return Objects.equals(isUsd, v.getProduct().getIsUsd())
+                    && Objects.equals(priceAdjustment, v.getPriceAdjustment())
+                    && (!Boolean.TRUE.equals(isUsd) || rateVersion == currentRateVersion);
+        }
+    }
+
+    // =================================================================================
+    // READS
+    // =================================================================================
+
+    public ProductPrices getPrices(Product product) {
+        long rateVersion = currentRateVersion();
+        ProductEntry entry = product.getProductId() != null ? products.get(product.getProductId()) : null;
+        if (entry != null && entry.matches(product, rateVersion)) {
+            return entry.prices();
+        }
+        ProductEntry fresh = computeEntry(product, rateVersion);
+        if (product.getProductId() != null) {
+            products.merge(product.getProductId(), fresh, PriceBookService::newerProduct);
+        }
+        return fresh.prices();
+    }
+
+    public Double getFinalPrice(Product product) {
+        return getPrices(product).finalPrice();
+    }
+
+    public Double getVariantPrice(ProductVariant variant) {
+        long rateVersion = currentRateVersion();
+        VariantEntry entry = variant.getVariantId() != null ? variants.get(variant.getVariantId()) : null;
+        if (entry != null && entry.matches(variant, rateVersion)) {
+            return entry.price();
+        }
+        VariantEntry fresh = computeEntry(variant, rateVersion);
+        if (variant.getVariantId() != null) {
+            variants.merge(variant.getVariantId(), fresh, PriceBookService::newerVariant);
+        }
+        return fresh.price();
+    }
+
+    // =================================================================================
+    // MAINTENANCE
+    // =================================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        catalogTaskExecutor.execute(() -> rebuild(productRepository.findAllProductIds(), "startup"));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        switch (event.type()) {
+            case PRODUCT -> {
+                if (event.deleted()) {
+                    products.remove(event.entityId());
+                    variants.values().removeIf(v -> event.entityId().equals(v.productId()));
+                } else {
+                    changes.mark(event.entityId(), catalogTaskExecutor);
+                }
+            }
+            case EXCHANGE_RATE -> changes.markRebuild(catalogTaskExecutor);
+            default -> {
+            }
+        }
+    }
+
+    // SYP prices don't depend on the rate, only USD products need recomputing
+    private void rebuildUsd() {
+        rebuild(productRepository.findUsdProductIds(), "exchange rate change");
+    }
+
+    private void refresh(Set<Long> productIds) {
+        List<Long> ids = List.copyOf(productIds);
+        AtomicInteger failures = new AtomicInteger();
+        for (int from = 0; from < ids.size(); from += REBUILD_BATCH_SIZE)
+            rebuildBatch(ids.subList(from, Math.min(from + REBUILD_BATCH_SIZE, ids.size())), failures);
+    }
+
+    /**
+     * Recomputes the given products and their variants in parallel batches on the
+     * catalog executor. Nothing blocks on the result; reads keep working against
+     * the old entries (validated per read) until each batch lands.
+     */
+    private void rebuild(List<Long> productIds, String reason) {
+        if (productIds.isEmpty())
+            return;
+
+        long start = System.currentTimeMillis();
+        AtomicInteger failures = new AtomicInteger();
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < productIds.size(); from += REBUILD_BATCH_SIZE) {
+            List<Long> batch = productIds.subList(from, Math.min(from + REBUILD_BATCH_SIZE, productIds.size()));
+            batches.add(CompletableFuture.runAsync(() -> rebuildBatch(batch, failures), catalogTaskExecutor));
+        }
+
+        CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.warn("Price book rebuild ({}) failed: {}", reason, error.getMessage());
+            } else {
+                log.info("Price book rebuilt ({}): {} products in {} ms, {} skipped",
+                        reason, productIds.size(), System.currentTimeMillis() - start, failures.get());
+            }
+        });
+    }
+
+    private void rebuildBatch(List<Long> productIds, AtomicInteger failures) {
+        long rateVersion = currentRateVersion();
+        for (Product product : productRepository.findByProductIdIn(productIds)) {
+            try {
+                products.merge(product.getProductId(), computeEntry(product, rateVersion),
+                        PriceBookService::newerProduct);
+            } catch (RuntimeException e) {
+                // e.g. USD product while no rate is set — reads will compute (and fail) on demand
+                failures.incrementAndGet();
+            }
+        }
+        for (ProductVariant variant : variantRepository.findWithProductByProductIdIn(productIds)) {
+            try {
+                variants.merge(variant.getVariantId(), computeEntry(variant, rateVersion),
+                        PriceBookService::newerVariant);
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+            }
+        }
+    }
+
+    // =================================================================================
+    // HELPERS
+    // =================================================================================
+
+    private long currentRateVersion() {
+        return exchangeRateService.getSnapshot().version();
+    }
+
+    private ProductEntry computeEntry(Product p, long rateVersion) {
+        Double regular = pricingService.getRegularPriceInSYP(p);
+        ProductPrices prices;
+        if (Boolean.TRUE.equals(p.getHasOffer())) {
+            Double offer = pricingService.getOfferPriceInSYP(p);
+            prices = new ProductPrices(offer, regular, offer, pricingService.getDiscountPercentage(regular, offer));
+        } else {
+            prices = new ProductPrices(regular, regular, null, null);
+        }
+        return new ProductEntry(p.getIsUsd(), p.getBasePrice(), p.getUsdPrice(), p.getHasOffer(),
+                p.getOfferBasePrice(), p.getOfferUsdPrice(), rateVersion, prices);
+    }
+
+    private VariantEntry computeEntry(ProductVariant v, long rateVersion) {
+        return new VariantEntry(v.getProduct().getProductId(), v.getProduct().getIsUsd(), v.getPriceAdjustment(),
+                rateVersion, pricingService.getVariantFinalPriceInSYP(v));
+    }
+
+    // A background batch that read an older rate must not overwrite a newer entry
+    private static ProductEntry newerProduct(ProductEntry current, ProductEntry candidate) {
+        return candidate.rateVersion() >= current.rateVersion() ? candidate : current;
+    }
+
+    private static VariantEntry newerVariant(VariantEntry current, VariantEntry candidate) {
+        return candidate.rateVersion() >= current.rateVersion() ? candidate : current;
+    }
+}
@@ -42,7 +42,7 @@ public class PricingService {
     }
 
     // 3. Calculate the Offer (Discounted) Price
-    private Double getOfferPriceInSYP(Product product) {
+    public Double getOfferPriceInSYP(Product product) {
         if (Boolean.TRUE.equals(product.getIsUsd())) {
             if (product.getOfferUsdPrice() == null)
                 return getRegularPriceInSYP(product); // Fallback
@@ -63,9 +63,10 @@ public class PricingService {
         if (!Boolean.TRUE.equals(product.getHasOffer()))
             return null;
 
-        Double oldPrice = getRegularPriceInSYP(product);
-        Double newPrice = getOfferPriceInSYP(product);
+        return getDiscountPercentage(getRegularPriceInSYP(product), getOfferPriceInSYP(product));
+    }
 
+    public Integer getDiscountPercentage(Double oldPrice, Double newPrice) {
         if (oldPrice == null || newPrice == null || oldPrice == 0.0 || newPrice >= oldPrice) {
             return null;
         }
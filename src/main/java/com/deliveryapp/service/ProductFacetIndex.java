@@ -0,0 +1,551 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.entity.Product;
+import com.deliveryapp.event.CatalogChangedEvent;
+import com.deliveryapp.repository.ProductColorRow;
+import com.deliveryapp.repository.ProductCursor;
+import com.deliveryapp.repository.ProductFacetRow;
+import com.deliveryapp.repository.ProductRepository;
+import com.deliveryapp.util.DirtyQueue;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Per-node in-memory facet index over available products, so any combination
+ * of catalog filters is answered — with facet counts — without a query.
+ *
+ * Every product gets a dense ordinal; each facet value (a store, a category, a
+ * color, "has offer", a price bucket on the SYP price, ...) keeps a bitmap of
+ * the ordinals that carry it. A search ORs the bitmaps of the values selected
+ * within a facet, ANDs the facets, and counts facet values in one pass over
+ * the matches. A filtered facet is counted as if its own filter was off, so the
+ * app can show how many products selecting another value would add.
+ *
+ * Built on startup (or by the first search), kept current from product events,
+ * and rebuilt after deletions that change products without a product event
+ * and every catalog.facets.rebuild-interval-ms (writes made on other nodes).
+ * Refreshes and rebuilds go through one DirtyQueue, so they never overlap.
+ * USD prices are recomputed when the exchange rate version moves.
+ *
+ * Prices are the effective SYP shelf price (offer price while an offer is on,
+ * USD converted at today's rate). They are also kept in a price-sorted map
+ * for range filters and price ordering.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductFacetIndex {
+
+    public enum Facet {
+        STORE("store"), CATEGORY("category"), SUB_CATEGORY("subCategory"), STORE_CATEGORY("storeCategory"),
+        COLOR("color"), OFFER("offer"), TRENDING("trending"), PRICE("price");
+
+        private final String key;
+
+        Facet(String key) {
+            this.key = key;
+        }
+
+        // Name used in API responses
+        public String key() {
+            return key;
+        }
+    }
+
+    public enum Order {
+        DISPLAY_ORDER, NEWEST, PRICE_ASC, PRICE_DESC
+    }
+
+    /**
+     * Values selected within a facet are OR'ed, facets are AND'ed; facets that
+     * are missing or have no values are not filtered. Boolean facets (OFFER,
+     * TRENDING) use 1 for true and 0 for false, PRICE uses bucket numbers.
+     * minPrice / maxPrice (inclusive, null = open) bound the exact SYP price and
+     * apply to the facet counts too.
+     */
+    public record Query(Map<Facet, Set<Long>> filters, Order order, Double minPrice, Double maxPrice) {
+
+        public Query(Map<Facet, Set<Long>> filters, Order order) {
+            this(filters, order, null, null);
+        }
+
+        boolean priceBounded() {
+            return minPrice != null || maxPrice != null;
+        }
+    }
+
+    // One page of matching ids in the requested order, and per facet the match count of each value
+    public record Result(Page<Long> ids, Map<Facet, Map<Long, Integer>> counts) {
+    }
+
+    private final ProductRepository productRepository;
+    private final PricingService pricingService;
+    private final ExchangeRateService exchangeRateService;
+    @Qualifier("catalogTaskExecutor")
+    private final Executor catalogTaskExecutor;
+
+    // Upper bounds of the price buckets in SYP; the last bucket is open-ended
+    @Value("${catalog.facets.price-buckets:5000,10000,25000,50000,100000,250000}")
+    private double[] priceBounds;
+
+    private record Doc(long id, Long storeId, Long categoryId, Long subCategoryId, Long storeCategoryId,
+            List<Long> colorIds, boolean offer, boolean trending, int displayOrder, ProductFacetRow pricing,
+            double price, int priceBucket) {
+
+        List<Long> values(Facet facet) {
+            return switch (facet) {
+                case STORE -> one(storeId);
+                case CATEGORY -> one(categoryId);
+                case SUB_CATEGORY -> one(subCategoryId);
+                case STORE_CATEGORY -> one(storeCategoryId);
+                case COLOR -> colorIds;
+                case OFFER -> List.of(offer ? 1L : 0L);
+                case TRENDING -> List.of(trending ? 1L : 0L);
+                case PRICE -> priceBucket < 0 ? List.of() : List.of((long) priceBucket);
+            };
+        }
+
+        boolean usd() {
+            return Boolean.TRUE.equals(pricing.isUsd());
+        }
+
+        private static List<Long> one(Long value) {
+            return value == null ? List.of() : List.of(value);
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile State state;
+
+    // Changed products and due rebuilds, applied by one task at a time so a slow read never lands last
+    private final DirtyQueue<Long> changes = new DirtyQueue<>("Product facet index", this::refreshProducts,
+            this::rebuild);
+
+    // Changes seen while a rebuild runs (the first one may run on a search thread), re-read once it is done
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding = false;
+
+    // =================================================================================
+    // QUERIES
+    // =================================================================================
+
+    public Result search(Query query, Pageable pageable) {
+        State current = ensureBuilt();
+        repriceIfRateChanged(current);
+
+        lock.readLock().lock();
+        try {
+            BitSet scope = priceScope(current, query);
+            Map<Facet, BitSet> selected = select(current, query);
+            BitSet matches = (BitSet) scope.clone();
+            selected.values().forEach(matches::and);
+
+            Map<Facet, Map<Long, Integer>> counts = new EnumMap<>(Facet.class);
+            // Unfiltered facets all count over the matches, in a single pass
+            EnumSet<Facet> unfiltered = EnumSet.allOf(Facet.class);
+            unfiltered.removeAll(selected.keySet());
+            count(current, matches, unfiltered, counts);
+            // A filtered facet counts over the matches of every other filter
+            for (Facet facet : selected.keySet()) {
+                BitSet base = (BitSet) scope.clone();
+                selected.forEach((other, bits) -> {
+                    if (other != facet)
+                        base.and(bits);
+                });
+                count(current, base, EnumSet.of(facet), counts);
+            }
+
+            return new Result(page(current, matches, query.order(), pageable), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Same as search, without the facet counts
+    public Page<Long> findIds(Query query, Pageable pageable) {
+        State current = ensureBuilt();
+        repriceIfRateChanged(current);
+
+        lock.readLock().lock();
+        try {
+            return page(current, matches(current, query), query.order(), pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keyset variant for the product feed: positions after the cursor (null =
+     * from the start), at most limit of them. Only DISPLAY_ORDER and NEWEST,
+     * the orders a ProductCursor can express.
+     */
+    public List<ProductCursor> findPositionsAfter(Query query, ProductCursor after, int limit) {
+        if (query.order() != Order.DISPLAY_ORDER && query.order() != Order.NEWEST)
+            throw new IllegalArgumentException("No keyset listing by " + query.order());
+        State current = ensureBuilt();
+        repriceIfRateChanged(current);
+
+        lock.readLock().lock();
+        try {
+            return ordered(current, matches(current, query), query.order()).stream()
+                    .filter(doc -> after == null || isAfter(doc, after, query.order()))
+                    .limit(limit)
+                    .map(doc -> new ProductCursor(doc.displayOrder(), doc.id()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Upper bounds of the price buckets: bucket i holds prices below priceBounds[i]
+    public double[] priceBounds() {
+        return priceBounds.clone();
+    }
+
+    // =================================================================================
+    // MAINTENANCE
+    // =================================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        catalogTaskExecutor.execute(this::ensureBuilt);
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.facets.rebuild-interval-ms:600000}",
+            initialDelayString = "${catalog.facets.rebuild-interval-ms:600000}")
+    public void scheduledRebuild() {
+        if (state != null)
+            changes.markRebuild(catalogTaskExecutor);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        switch (event.type()) {
+            case PRODUCT -> changes.mark(event.entityId(), catalogTaskExecutor);
+            // Deleting these detaches products without a product event
+            case STORE, STORE_CATEGORY, CATEGORY, SUBCATEGORY, COLOR -> {
+                if (event.deleted())
+                    changes.markRebuild(catalogTaskExecutor);
+            }
+            // Rate changes are picked up by the next search
+            default -> {
+            }
+        }
+    }
+
+    private State ensureBuilt() {
+        State current = state;
+        if (current != null)
+            return current;
+        synchronized (this) {
+            if (state == null)
+                rebuild();
+            return state;
+        }
+    }
+
+    private synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        try {
+            // Rate version read before the prices, so a concurrent change only makes them look older
+            State fresh = new State(exchangeRateService.getSnapshot().version());
+            Map<Long, List<Long>> colors = groupColors(productRepository.findAllColorRows());
+            for (ProductFacetRow row : productRepository.findAllFacetRows())
+                fresh.put(toDoc(row, colors.getOrDefault(row.productId(), List.of())));
+
+            lock.writeLock().lock();
+            try {
+                state = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Product facet index built: {} products in {} ms",
+                    fresh.docs.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            if (state == null)
+                throw e;
+            log.warn("Product facet index rebuild failed, keeping the current one: {}", e.getMessage());
+        } finally {
+            rebuilding = false;
+        }
+        // The bulk load may have read rows older than these changes
+        List<Long> ids = List.copyOf(pending);
+        if (!ids.isEmpty()) {
+            pending.removeAll(ids);
+            refreshProducts(ids);
+        }
+    }
+
+    private void refreshProducts(Collection<Long> productIds) {
+        if (rebuilding || state == null)
+            pending.addAll(productIds);
+        State current = state;
+        if (current == null)
+            return;
+
+        Map<Long, List<Long>> colors = groupColors(productRepository.findColorRowsByProductIdIn(productIds));
+        Map<Long, Doc> docs = new HashMap<>();
+        for (ProductFacetRow row : productRepository.findFacetRowsByProductIdIn(productIds))
+            docs.put(row.productId(), toDoc(row, colors.getOrDefault(row.productId(), List.of())));
+
+        lock.writeLock().lock();
+        try {
+            // Products that are gone or no longer available leave the index
+            for (Long id : productIds) {
+                Doc doc = docs.get(id);
+                if (doc != null)
+                    current.put(doc);
+                else
+                    current.remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void repriceIfRateChanged(State current) {
+        long rateVersion = exchangeRateService.getSnapshot().version();
+        if (current.rateVersion == rateVersion)
+            return;
+        lock.writeLock().lock();
+        try {
+            if (current.rateVersion == rateVersion)
+                return;
+            // SYP prices don't depend on the rate
+            for (Doc doc : List.copyOf(current.docs.values())) {
+                if (doc.usd())
+                    current.put(toDoc(doc.pricing(), doc.colorIds()));
+            }
+            current.rateVersion = rateVersion;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // =================================================================================
+    // HELPERS
+    // =================================================================================
+
+    // Callers of the following hold the read lock
+
+    private static BitSet matches(State current, Query query) {
+        BitSet matches = priceScope(current, query);
+        select(current, query).values().forEach(matches::and);
+        return matches;
+    }
+
+    private static Map<Facet, BitSet> select(State current, Query query) {
+        Map<Facet, BitSet> selected = new EnumMap<>(Facet.class);
+        query.filters().forEach((facet, values) -> {
+            if (values == null || values.isEmpty())
+                return;
+            BitSet union = new BitSet();
+            Map<Long, BitSet> postings = current.postings.get(facet);
+            for (Long value : values) {
+                BitSet bits = postings.get(value);
+                if (bits != null)
+                    union.or(bits);
+            }
+            selected.put(facet, union);
+        });
+        return selected;
+    }
+
+    // Live products within the price bounds, read off the price-sorted map; always a fresh copy
+    private static BitSet priceScope(State current, Query query) {
+        if (!query.priceBounded())
+            return (BitSet) current.live.clone();
+        double min = query.minPrice() != null ? query.minPrice() : Double.NEGATIVE_INFINITY;
+        double max = query.maxPrice() != null ? query.maxPrice() : Double.POSITIVE_INFINITY;
+        BitSet scope = new BitSet();
+        if (min <= max)
+            current.byPrice.subMap(min, true, max, true).values().forEach(scope::or);
+        return scope;
+    }
+
+    private static Page<Long> page(State current, BitSet matches, Order order, Pageable pageable) {
+        List<Doc> ordered = ordered(current, matches, order);
+        int from = (int) Math.min(pageable.getOffset(), ordered.size());
+        int to = Math.min(from + pageable.getPageSize(), ordered.size());
+        List<Long> ids = ordered.subList(from, to).stream().map(Doc::id).toList();
+        return new PageImpl<>(ids, pageable, ordered.size());
+    }
+
+    private static List<Doc> ordered(State current, BitSet matches, Order order) {
+        List<Doc> ordered = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1))
+            ordered.add(current.byOrdinal.get(i));
+        ordered.sort(comparator(order));
+        return ordered;
+    }
+
+    private static boolean isAfter(Doc doc, ProductCursor after, Order order) {
+        if (order == Order.NEWEST)
+            return doc.id() < after.productId();
+        int byOrder = Integer.compare(doc.displayOrder(), after.displayOrder());
+        return byOrder > 0 || (byOrder == 0 && doc.id() > after.productId());
+    }
+
+    private Doc toDoc(ProductFacetRow row, List<Long> colorIds) {
+        double price = finalPrice(row);
+        return new Doc(row.productId(), row.storeId(), row.categoryId(), row.subCategoryId(),
+                row.storeCategoryId(), List.copyOf(colorIds), Boolean.TRUE.equals(row.hasOffer()),
+                Boolean.TRUE.equals(row.isTrending()), row.displayOrder() != null ? row.displayOrder() : 0,
+                row, price, bucketOf(price));
+    }
+
+    // Same rules as the product pages: offer price when an offer is on, USD converted at today's rate
+    private double finalPrice(ProductFacetRow row) {
+        Product pricing = new Product();
+        pricing.setIsUsd(row.isUsd());
+        pricing.setBasePrice(row.basePrice());
+        pricing.setUsdPrice(row.usdPrice());
+        pricing.setHasOffer(row.hasOffer());
+        pricing.setOfferBasePrice(row.offerBasePrice());
+        pricing.setOfferUsdPrice(row.offerUsdPrice());
+        try {
+            Double price = pricingService.getFinalPriceInSYP(pricing);
+            return price != null ? price : Double.NaN;
+        } catch (RuntimeException e) {
+            // e.g. USD product while no rate is set: no price facet
+            return Double.NaN;
+        }
+    }
+
+    private int bucketOf(double price) {
+        if (Double.isNaN(price))
+            return -1;
+        for (int i = 0; i < priceBounds.length; i++) {
+            if (price < priceBounds[i])
+                return i;
+        }
+        return priceBounds.length;
+    }
+
+    private static void count(State current, BitSet set, Set<Facet> facets, Map<Facet, Map<Long, Integer>> counts) {
+        if (facets.isEmpty())
+            return;
+        facets.forEach(facet -> counts.put(facet, new HashMap<>()));
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            Doc doc = current.byOrdinal.get(i);
+            for (Facet facet : facets) {
+                Map<Long, Integer> facetCounts = counts.get(facet);
+                for (Long value : doc.values(facet))
+                    facetCounts.merge(value, 1, Integer::sum);
+            }
+        }
+    }
+
+    // Products without a known price sort last in both price orders
+    private static Comparator<Doc> comparator(Order order) {
+        Comparator<Doc> byDisplayOrder = Comparator.comparingInt(Doc::displayOrder).thenComparingLong(Doc::id);
+        return switch (order) {
+            case NEWEST -> Comparator.comparingLong(Doc::id).reversed();
+            case PRICE_ASC -> Comparator.comparingDouble(
+                    (Doc doc) -> Double.isNaN(doc.price()) ? Double.POSITIVE_INFINITY : doc.price())
+                    .thenComparing(byDisplayOrder);
+            case PRICE_DESC -> Comparator.comparingDouble(
+                    (Doc doc) -> Double.isNaN(doc.price()) ? Double.POSITIVE_INFINITY : -doc.price())
+                    .thenComparing(byDisplayOrder);
+            case DISPLAY_ORDER -> byDisplayOrder;
+        };
+    }
+
+    private static Map<Long, List<Long>> groupColors(List<ProductColorRow> rows) {
+        return rows.stream().collect(Collectors.groupingBy(ProductColorRow::productId,
+                Collectors.mapping(ProductColorRow::colorId, Collectors.toList())));
+    }
+
+    // =================================================================================
+    // INDEX STRUCTURES
+    // =================================================================================
+
+    /**
+     * Documents by ordinal plus one bitmap per facet value, and the ordinals by
+     * exact SYP price for range filters. Mutated only under the write lock.
+     * Ordinals of removed products stay unused until the next rebuild packs them.
+     */
+    private static final class State {
+
+        private volatile long rateVersion;
+        private final Map<Long, Doc> docs = new HashMap<>();
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final List<Doc> byOrdinal = new ArrayList<>();
+        private final BitSet live = new BitSet();
+        private final Map<Facet, Map<Long, BitSet>> postings = new EnumMap<>(Facet.class);
+        private final NavigableMap<Double, BitSet> byPrice = new TreeMap<>();
+
+        State(long rateVersion) {
+            this.rateVersion = rateVersion;
+            for (Facet facet : Facet.values())
+                postings.put(facet, new HashMap<>());
+        }
+
+        void put(Doc doc) {
+            Integer ordinal = ordinals.get(doc.id());
+            if (ordinal != null) {
+                unindex(byOrdinal.get(ordinal), ordinal);
+            } else {
+                ordinal = byOrdinal.size();
+                byOrdinal.add(null);
+                ordinals.put(doc.id(), ordinal);
+            }
+            byOrdinal.set(ordinal, doc);
+            docs.put(doc.id(), doc);
+            live.set(ordinal);
+            if (!Double.isNaN(doc.price()))
+                byPrice.computeIfAbsent(doc.price(), p -> new BitSet()).set(ordinal);
+            for (Facet facet : Facet.values()) {
+                for (Long value : doc.values(facet))
+                    postings.get(facet).computeIfAbsent(value, v -> new BitSet()).set(ordinal);
+            }
+        }
+
+        void remove(long id) {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal == null)
+                return;
+            unindex(byOrdinal.get(ordinal), ordinal);
+            byOrdinal.set(ordinal, null);
+            docs.remove(id);
+        }
+
+        private void unindex(Doc doc, int ordinal) {
+            live.clear(ordinal);
+            BitSet priced = byPrice.get(doc.price());
+            if (priced != null) {
+                priced.clear(ordinal);
+                if (priced.isEmpty())
+                    byPrice.remove(doc.price());
+            }
+            for (Facet facet : Facet.values()) {
+                Map<Long, BitSet> facetPostings = postings.get(facet);
+                for (Long value : doc.values(facet)) {
+                    BitSet bits = facetPostings.get(value);
+                    if (bits == null)
+                        continue;
+                    bits.clear(ordinal);
+                    if (bits.isEmpty())
+                        facetPostings.remove(value);
+                }
+            }
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.deliveryapp.service;
 
+import com.deliveryapp.config.SearchIndexInitializer;
 import com.deliveryapp.dto.catalog.ProductRequest;
 import com.deliveryapp.entity.*;
+import com.deliveryapp.event.CatalogChangedEvent;
 import com.deliveryapp.exception.InvalidDataException;
 import com.deliveryapp.exception.ResourceNotFoundException;
 import com.deliveryapp.repository.*;
+import com.deliveryapp.util.ArabicTextUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -30,6 +34,11 @@ public class ProductService {
     private final StoreCategoryRepository storeCategoryRepository;
     private final FileStorageService fileStorageService;
     private final OrderItemRepository orderItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SearchIndexInitializer searchIndex;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final ArabicTextUtil arabicTextUtil;
+    private final ProductFacetIndex productFacetIndex;
 
     // ── Strip sort from pageable so it doesn't interfere with JPQL ORDER BY ──
     private Pageable withoutSort(Pageable pageable) {
@@ -53,14 +62,19 @@ public class ProductService {
         if (idPage.isEmpty()) {
             return new PageImpl<>(List.of(), idPage.getPageable(), idPage.getTotalElements());
         }
-        List<Product> products = productRepository.findByProductIdIn(idPage.getContent());
+        List<Product> products = productRepository.findAllWithPlan(idPage.getContent(),
+                ProductFetchPlan.WITH_STORE);
+        return new PageImpl<>(orderByIds(idPage.getContent(), products), idPage.getPageable(),
+                idPage.getTotalElements());
+    }
+
+    private List<Product> orderByIds(List<Long> ids, List<Product> products) {
         Map<Long, Product> productMap = products.stream()
                 .collect(Collectors.toMap(Product::getProductId, p -> p));
-        List<Product> ordered = idPage.getContent().stream()
+        return ids.stream()
                 .map(productMap::get)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
-        return new PageImpl<>(ordered, idPage.getPageable(), idPage.getTotalElements());
     }
 
     // ================= PUBLIC / CATALOG (Paginated) =================
@@ -75,6 +89,13 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("المنتج غير موجود برقم: " + id));
     }
 
+    // Read-only product page: loads everything the mapper walks up front
+    public Product getProductDetail(Long id) {
+        return productRepository.findAllWithPlan(List.of(id), ProductFetchPlan.WITH_STORE).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("المنتج غير موجود برقم: " + id));
+    }
+
     public Page<Product> getProductsByStore(Long storeId, Pageable pageable) {
         if (!storeRepository.existsById(storeId))
             throw new ResourceNotFoundException("المتجر غير موجود برقم: " + storeId);
@@ -110,6 +131,10 @@ public class ProductService {
     public Page<Product> searchProducts(String keyword, Long categoryId, Pageable pageable) {
         if (keyword == null)
             keyword = "";
+        if (catalogSearchIndex.canServe(keyword)) {
+            return fetchPage(catalogSearchIndex.searchProducts(keyword, false,
+                    (categoryId == null || categoryId == 0) ? null : categoryId, null, pageable));
+        }
         if (categoryId == null || categoryId == 0) {
             return fetchPage(productRepository
                     .findIdsByNameContainingIgnoreCaseAndIsAvailableTrue(keyword, pageable));
@@ -125,6 +150,8 @@ public class ProductService {
             throw new ResourceNotFoundException("المتجر غير موجود برقم: " + storeId);
         if (keyword == null)
             keyword = "";
+        if (catalogSearchIndex.canServe(keyword))
+            return fetchPage(catalogSearchIndex.searchProducts(keyword, false, null, storeId, pageable));
         return fetchPage(productRepository
                 .findIdsByStoreStoreIdAndNameContainingIgnoreCaseAndIsAvailableTrue(storeId, keyword, pageable));
     }
@@ -141,9 +168,17 @@ public class ProductService {
                         storeId, subCategoryId, withoutSort(pageable)));
     }
 
-    public Page<Product> getProductsUnderPrice(Double price, Pageable pageable) {
-        return fetchPage(
-                productRepository.findIdsByBasePriceLessThanEqualAndIsAvailableTrue(price, withoutSort(pageable)));
+    /**
+     * Products whose effective SYP price (offer price while an offer is on, USD
+     * converted at today's rate) lies within [minPrice, maxPrice]; either bound
+     * may be null. Served from the price-sorted facet index.
+     */
+    public Page<Product> getProductsByPriceRange(Double minPrice, Double maxPrice, ProductFacetIndex.Order order,
+            Pageable pageable) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice)
+            throw new InvalidDataException("الحد الأدنى للسعر أكبر من الحد الأعلى");
+        return fetchPage(productFacetIndex.findIds(
+                new ProductFacetIndex.Query(Map.of(), order, minPrice, maxPrice), pageable));
     }
 
     public Page<Product> getNewestProducts(Pageable pageable) {
@@ -164,9 +199,109 @@ public class ProductService {
         if (keyword == null || keyword.trim().isEmpty()) {
             return new PageImpl<>(new ArrayList<>(), pageable, 0);
         }
+        // In-memory index first, the database while it is still warming up
+        if (catalogSearchIndex.canServe(keyword))
+            return fetchPage(catalogSearchIndex.searchProducts(keyword, true, null, null, pageable));
+        if (searchIndex.isReady()) {
+            // Ranked: full-text + trigram over Arabic-normalized text
+            String normalized = arabicTextUtil.normalize(keyword);
+            String tsQuery = arabicTextUtil.toPrefixTsQuery(normalized);
+            if (!tsQuery.isEmpty())
+                return fetchPage(productRepository.findIdsByRankedSearch(normalized, tsQuery, withoutSort(pageable)));
+        }
         return fetchPage(productRepository.findIdsByDeepSearchGlobal(keyword, pageable));
     }
 
+    // ================= PUBLIC / CATALOG (Keyset) =================
+
+    // Largest page a public listing returns; bigger requests are cut down to it
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * One keyset page: products in listing order and the cursor of the next page
+     * (null on the last page).
+     */
+    public record ProductSlice(List<Product> content, String nextCursor) {
+    }
+
+    /**
+     * Cursor-based listing for infinite scroll. Seeks past the last product the
+     * client has seen instead of skipping rows, so every page costs the same, and
+     * never counts. Unknown filter ids just yield an empty slice. The size is
+     * capped at MAX_PAGE_SIZE.
+     */
+    public ProductSlice getProductsAfter(ProductSeekFilter filter, String cursor, int size) {
+        if (size < 1)
+            throw new InvalidDataException("حجم الصفحة يجب أن يكون أكبر من صفر");
+        size = Math.min(size, MAX_PAGE_SIZE);
+        ProductCursor after = (cursor == null || cursor.isBlank()) ? null
+                : ProductCursor.decode(cursor, filter.newestFirst());
+
+        // One extra row tells us whether another page exists. The effective price
+        // is not a column, so price-bounded listings seek in the facet index
+        List<ProductCursor> positions = filter.maxPrice() != null
+                ? productFacetIndex.findPositionsAfter(toFacetQuery(filter), after, size + 1)
+                : productRepository.findPositionsAfter(filter, after, size + 1);
+        boolean hasMore = positions.size() > size;
+        if (hasMore)
+            positions = positions.subList(0, size);
+
+        List<Long> ids = positions.stream().map(ProductCursor::productId).toList();
+        List<Product> products = orderByIds(ids,
+                productRepository.findAllWithPlan(ids, ProductFetchPlan.WITH_STORE));
+        String nextCursor = hasMore ? positions.get(size - 1).encode(filter.newestFirst()) : null;
+        return new ProductSlice(products, nextCursor);
+    }
+
+    private static ProductFacetIndex.Query toFacetQuery(ProductSeekFilter filter) {
+        Map<ProductFacetIndex.Facet, Set<Long>> filters = new EnumMap<>(ProductFacetIndex.Facet.class);
+        if (filter.storeId() != null)
+            filters.put(ProductFacetIndex.Facet.STORE, Set.of(filter.storeId()));
+        if (filter.categoryId() != null)
+            filters.put(ProductFacetIndex.Facet.CATEGORY, Set.of(filter.categoryId()));
+        if (filter.subCategoryId() != null)
+            filters.put(ProductFacetIndex.Facet.SUB_CATEGORY, Set.of(filter.subCategoryId()));
+        if (filter.storeCategoryId() != null)
+            filters.put(ProductFacetIndex.Facet.STORE_CATEGORY, Set.of(filter.storeCategoryId()));
+        if (filter.trendingOnly())
+            filters.put(ProductFacetIndex.Facet.TRENDING, Set.of(1L));
+        if (filter.offersOnly())
+            filters.put(ProductFacetIndex.Facet.OFFER, Set.of(1L));
+        ProductFacetIndex.Order order = filter.newestFirst()
+                ? ProductFacetIndex.Order.NEWEST
+                : ProductFacetIndex.Order.DISPLAY_ORDER;
+        return new ProductFacetIndex.Query(filters, order, null, filter.maxPrice());
+    }
+
+    // ================= PUBLIC / CATALOG (Facets) =================
+
+    public record FacetedProducts(Page<Product> page, Map<ProductFacetIndex.Facet, Map<Long, Integer>> counts) {
+    }
+
+    /**
+     * Any combination of catalog filters, answered from the in-memory facet
+     * index together with facet counts; only the page itself is loaded.
+     */
+    public FacetedProducts filterProducts(ProductFacetIndex.Query query, Pageable pageable) {
+        ProductFacetIndex.Result result = productFacetIndex.search(query, pageable);
+        return new FacetedProducts(fetchPage(result.ids()), result.counts());
+    }
+
+    // Every available product of a store, in display order; the menu carries only storeIds
+    public List<Product> getStoreMenuProducts(Long storeId) {
+        List<Long> ids = productRepository.findMenuProductIds(storeId);
+        if (ids.isEmpty())
+            return List.of();
+        return orderByIds(ids, productRepository.findAllWithPlan(ids, ProductFetchPlan.WITHOUT_STORE));
+    }
+
+    // Products by id for compact (storeId only) responses, in the given order; unknown ids are skipped
+    public List<Product> getProductsByIds(List<Long> ids) {
+        if (ids.isEmpty())
+            return List.of();
+        return orderByIds(ids, productRepository.findAllWithPlan(ids, ProductFetchPlan.WITHOUT_STORE));
+    }
+
     // ================= ADMIN CRUD =================
 
     /**
@@ -264,7 +399,9 @@ public class ProductService {
             product.setHasOffer(false);
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        publishProductSaved(saved);
+        return saved;
     }
 
     @Transactional
@@ -298,6 +435,7 @@ public class ProductService {
         if (request.getIsTrending() != null)
             product.setIsTrending(request.getIsTrending());
 
+        Long previousStoreId = storeIdOf(product);
         if (request.getStoreId() != null) {
             Store store = storeRepository.findById(request.getStoreId())
                     .orElseThrow(() -> new ResourceNotFoundException("Store not found"));
@@ -367,7 +505,13 @@ public class ProductService {
             }
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        publishProductSaved(saved);
+        // The old store's pages listed this product too
+        if (previousStoreId != null && !previousStoreId.equals(storeIdOf(saved))) {
+            eventPublisher.publishEvent(CatalogChangedEvent.productSaved(saved.getProductId(), previousStoreId));
+        }
+        return saved;
     }
 
     @Transactional
@@ -377,6 +521,7 @@ public class ProductService {
         if (orderItemRepository.existsByProductProductId(id)) {
             product.setIsAvailable(false);
             productRepository.save(product);
+            publishProductSaved(product);
             return "لا يمكن حذف المنتج نهائياً لارتباطه بطلبات سابقة. تم إخفاؤه بدلاً من ذلك.";
         }
 
@@ -388,6 +533,7 @@ public class ProductService {
         }
 
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.productDeleted(id, storeIdOf(product)));
         return "تم حذف المنتج بنجاح";
     }
 
@@ -398,13 +544,15 @@ public class ProductService {
         variant.setVariantValue(name);
         variant.setPriceAdjustment(priceAdjustment);
         variant.setIsAvailable(true);
-        return variantRepository.save(variant);
+        ProductVariant saved = variantRepository.save(variant);
+        publishProductSaved(product);
+        return saved;
     }
 
     @Transactional
     public void deleteProductVariant(Long variantId) {
-        if (!variantRepository.existsById(variantId))
-            throw new ResourceNotFoundException("النوع غير موجود برقم: " + variantId);
+        ProductVariant variant = variantRepository.findById(variantId)
+                .orElseThrow(() -> new ResourceNotFoundException("النوع غير موجود برقم: " + variantId));
 
         List<OrderItem> orderItems = orderItemRepository.findByVariantVariantId(variantId);
         if (!orderItems.isEmpty()) {
@@ -413,5 +561,15 @@ public class ProductService {
         }
 
         variantRepository.deleteById(variantId);
+        publishProductSaved(variant.getProduct());
+    }
+
+    // Lets read models (price book, ...) refresh once the change is committed
+    private void publishProductSaved(Product product) {
+        eventPublisher.publishEvent(CatalogChangedEvent.productSaved(product.getProductId(), storeIdOf(product)));
+    }
+
+    private Long storeIdOf(Product product) {
+        return product.getStore() != null ? product.getStore().getStoreId() : null;
     }
 }
\ No newline at end of file
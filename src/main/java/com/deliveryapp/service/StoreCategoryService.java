@@ -3,11 +3,13 @@ package com.deliveryapp.service;
 import com.deliveryapp.dto.catalog.StoreCategoryRequest;
 import com.deliveryapp.entity.Store;
 import com.deliveryapp.entity.StoreCategory;
+import com.deliveryapp.event.CatalogChangedEvent;
 import com.deliveryapp.exception.InvalidDataException;
 import com.deliveryapp.exception.ResourceNotFoundException;
 import com.deliveryapp.repository.StoreCategoryRepository;
 import com.deliveryapp.repository.StoreRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,18 +21,7 @@ public class StoreCategoryService {
 
     private final StoreCategoryRepository storeCategoryRepository;
     private final StoreRepository storeRepository;
-
-    // =================================================================================
-    // PUBLIC / USER APP
-    // =================================================================================
-
-    // Get only ACTIVE categories for a specific store (for the customer menu tabs)
-    public List<StoreCategory> getActiveCategoriesForStore(Long storeId) {
-        if (!storeRepository.existsById(storeId)) {
-            throw new ResourceNotFoundException("Store not found with id: " + storeId);
-        }
-        return storeCategoryRepository.findByStoreStoreIdAndIsActiveTrueOrderByDisplayOrderAsc(storeId);
-    }
+    private final ApplicationEventPublisher eventPublisher;
 
     // =================================================================================
     // ADMIN DASHBOARD
@@ -58,7 +49,7 @@ public class StoreCategoryService {
         category.setIsActive(request.getIsActive() != null ? request.getIsActive() : true);
         category.setDisplayOrder(request.getDisplayOrder() != null ? request.getDisplayOrder() : 0);
 
-        return storeCategoryRepository.save(category);
+        return publishStoreCategorySaved(storeCategoryRepository.save(category));
     }
 
     @Transactional
@@ -78,14 +69,13 @@ public class StoreCategoryService {
             category.setDisplayOrder(request.getDisplayOrder());
         }
 
-        return storeCategoryRepository.save(category);
+        return publishStoreCategorySaved(storeCategoryRepository.save(category));
     }
 
     @Transactional
     public void deleteStoreCategory(Long id) {
-        if (!storeCategoryRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Store Category not found with id: " + id);
-        }
+        StoreCategory category = storeCategoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Store Category not found with id: " + id));
 
         // IMPORTANT: If products are linked to this category, you should either:
         // 1. Throw an exception (prevent deletion)
@@ -94,5 +84,13 @@ public class StoreCategoryService {
         // or ensure your Product entity handles the cascade/nullification.
 
         storeCategoryRepository.deleteById(id);
+        eventPublisher.publishEvent(
+                CatalogChangedEvent.storeCategoryChanged(id, category.getStore().getStoreId(), true));
+    }
+
+    private StoreCategory publishStoreCategorySaved(StoreCategory category) {
+        eventPublisher.publishEvent(CatalogChangedEvent.storeCategoryChanged(category.getStoreCategoryId(),
+                category.getStore().getStoreId(), false));
+        return category;
     }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.dto.catalog.StoreCategoryResponse;
+import com.deliveryapp.dto.catalog.StoreMenuResponse;
+import com.deliveryapp.event.CatalogChangedEvent;
+import com.deliveryapp.mapper.catalog.CatalogMapper;
+import com.deliveryapp.util.UrlUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Whole-store menus, built once and cached per store.
+ *
+ * An entry remembers the store's catalog ETag it was built under (store
+ * version, shared version, exchange rate version) and is only served while
+ * that tag is still current — so changes made on other nodes are picked up
+ * too. Local changes also drop the affected entries right away.
+ *
+ * Concurrent requests for a stale menu wait for a single rebuild instead of
+ * all querying. Entries are per host, since image URLs are absolute.
+ */
+@Service
+@RequiredArgsConstructor
+public class StoreMenuService {
+
+    private final ProductService productService;
+    private final CatalogNavigationService navigationService;
+    private final CatalogVersionService catalogVersionService;
+    private final CatalogMapper catalogMapper;
+    private final UrlUtil urlUtil;
+
+    @Value("${catalog.menu.cache-size:2000}")
+    private int maxEntries;
+
+    private record MenuKey(Long storeId, String baseUrl) {
+    }
+
+    private record CachedMenu(String tag, CompletableFuture<StoreMenuResponse> menu) {
+    }
+
+    private final Map<MenuKey, CachedMenu> menus = new ConcurrentHashMap<>();
+
+    public StoreMenuResponse getMenu(Long storeId) {
+        // Also the existence check: unknown stores are a 404
+        List<StoreCategoryResponse> categories = navigationService.getActiveStoreCategories(storeId);
+
+        // Taken before loading, so a concurrent write can only make the entry look older
+        String tag = catalogVersionService.storeTag(storeId);
+        if (tag == null)
+            return build(storeId, categories);
+
+        MenuKey key = new MenuKey(storeId, urlUtil.getFullUrl("/"));
+        CachedMenu created = new CachedMenu(tag, new CompletableFuture<>());
+        CachedMenu entry = menus.compute(key,
+                (k, current) -> current != null && current.tag().equals(tag) ? current : created);
+
+        if (entry == created) {
+            evictIfFull();
+            try {
+                created.menu().complete(build(storeId, categories));
+            } catch (RuntimeException e) {
+                menus.remove(key, created);
+                created.menu().completeExceptionally(e);
+            }
+        }
+
+        try {
+            return entry.menu().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        switch (event.type()) {
+            case PRODUCT, STORE, STORE_CATEGORY -> {
+                if (event.storeId() != null)
+                    menus.keySet().removeIf(key -> key.storeId().equals(event.storeId()));
+            }
+            // Prices, colors and category names appear in every menu
+            case EXCHANGE_RATE, COLOR, CATEGORY, SUBCATEGORY -> menus.clear();
+            default -> {
+            }
+        }
+    }
+
+    private StoreMenuResponse build(Long storeId, List<StoreCategoryResponse> categories) {
+        return catalogMapper.toStoreMenu(storeId, categories, productService.getStoreMenuProducts(storeId));
+    }
+
+    private void evictIfFull() {
+        Iterator<MenuKey> keys = menus.keySet().iterator();
+        while (menus.size() > maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
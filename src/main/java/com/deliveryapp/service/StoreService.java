@@ -1,20 +1,27 @@
 package com.deliveryapp.service;
 
+import com.deliveryapp.config.SearchIndexInitializer;
 import com.deliveryapp.dto.catalog.StoreRequest;
 import com.deliveryapp.entity.Category;
 import com.deliveryapp.entity.Store;
 import com.deliveryapp.entity.SubCategory;
+import com.deliveryapp.event.CatalogChangedEvent;
 import com.deliveryapp.exception.ResourceNotFoundException;
 import com.deliveryapp.repository.CategoryRepository;
 import com.deliveryapp.repository.StoreRepository;
 import com.deliveryapp.repository.SubCategoryRepository;
+import com.deliveryapp.util.ArabicTextUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,6 +31,10 @@ public class StoreService {
     private final CategoryRepository categoryRepository;
     private final SubCategoryRepository subCategoryRepository;
     private final FileStorageService fileStorageService;
+    private final SearchIndexInitializer searchIndex;
+    private final ArabicTextUtil arabicTextUtil;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ================= PUBLIC / CATALOG =================
     public List<Store> getAllActiveStores() {
@@ -49,6 +60,17 @@ public class StoreService {
     public List<Store> searchStores(String keyword) {
         if (keyword == null || keyword.trim().isEmpty())
             return new java.util.ArrayList<>();
+        if (catalogSearchIndex.canServe(keyword)) {
+            List<Long> ids = catalogSearchIndex.searchStores(keyword);
+            Map<Long, Store> byId = storeRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Store::getStoreId, s -> s));
+            return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+        }
+        if (searchIndex.isReady()) {
+            String normalized = arabicTextUtil.normalize(keyword);
+            if (!normalized.isEmpty())
+                return storeRepository.searchStoresRanked(normalized);
+        }
         return storeRepository.searchStoresGlobal(keyword);
     }
 
@@ -101,7 +123,7 @@ public class StoreService {
         // 🔔 Telegram Chat ID
         if (request.getTelegramChatId() != null)
             store.setTelegramChatId(request.getTelegramChatId());
-        return storeRepository.save(store);
+        return publishStoreSaved(storeRepository.save(store));
     }
 
     @Transactional
@@ -172,7 +194,7 @@ public class StoreService {
         // 🔔 Telegram Chat ID (pass empty string to clear, or null to leave unchanged)
         if (request.getTelegramChatId() != null)
             store.setTelegramChatId(request.getTelegramChatId().isBlank() ? null : request.getTelegramChatId());
-        return storeRepository.save(store);
+        return publishStoreSaved(storeRepository.save(store));
     }
 
     public void deleteStore(Long id) {
@@ -182,6 +204,7 @@ public class StoreService {
         if (store.getCoverImage() != null)
             fileStorageService.deleteFile(store.getCoverImage());
         storeRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.storeDeleted(id));
     }
     // ================= VENDOR APP =================
 
@@ -191,7 +214,12 @@ public class StoreService {
                 .orElseThrow(() -> new ResourceNotFoundException("المتجر غير موجود برقم: " + storeId));
 
         store.setIsBusy(isBusy);
-        return storeRepository.save(store);
+        return publishStoreSaved(storeRepository.save(store));
+    }
+
+    private Store publishStoreSaved(Store store) {
+        eventPublisher.publishEvent(CatalogChangedEvent.storeSaved(store.getStoreId()));
+        return store;
     }
 
 }
\ No newline at end of file
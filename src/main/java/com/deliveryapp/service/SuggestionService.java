@@ -0,0 +1,329 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.entity.Category;
+import com.deliveryapp.event.CatalogChangedEvent;
+import com.deliveryapp.repository.*;
+import com.deliveryapp.util.ArabicTextUtil;
+import com.deliveryapp.util.DirtyQueue;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+
+/**
+ * Suggest-as-you-type over product, store and category names.
+ *
+ * Names are normalized with ArabicTextUtil and inserted into a trie once per
+ * word start ("وجبة برغر" is found by "وج" and by "برغ"). Every node keeps its
+ * top completions by popularity precomputed, so a lookup is a walk down the
+ * prefix and a copy of at most TOP_K entries — no database, no scoring.
+ *
+ * Popularity: order lines for products, totalOrders for stores and the orders
+ * of a category's products for categories. Product, store and category changes
+ * are applied in place (deletions that detach products trigger a rebuild); the
+ * whole trie is rebuilt periodically to pick up new order counts and writes
+ * made on other nodes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SuggestionService {
+
+    static final int TOP_K = 10;
+
+    private final ProductRepository productRepository;
+    private final StoreRepository storeRepository;
+    private final CategoryRepository categoryRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ArabicTextUtil arabicTextUtil;
+    @Qualifier("catalogTaskExecutor")
+    private final Executor catalogTaskExecutor;
+
+    public enum SuggestionType {
+        PRODUCT, STORE, CATEGORY
+    }
+
+    public record Suggestion(SuggestionType type, Long id, String text, long weight) {
+    }
+
+    private volatile Trie trie = new Trie();
+
+    // Order lines per product and per category, from the last full build
+    private volatile Map<Long, Long> productOrders = Map.of();
+    private volatile Map<Long, Long> categoryOrders = Map.of();
+
+    // Changed entries and due rebuilds, applied by one task at a time
+    private final DirtyQueue<EntryId> changes = new DirtyQueue<>("Suggestion trie", this::refresh, this::rebuild);
+
+    // =================================================================================
+    // QUERIES
+    // =================================================================================
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = arabicTextUtil.normalize(prefix);
+        if (key.isEmpty() || limit < 1)
+            return List.of();
+        return trie.topCompletions(key, Math.min(limit, TOP_K));
+    }
+
+    // =================================================================================
+    // MAINTENANCE
+    // =================================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        changes.markRebuild(catalogTaskExecutor);
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.suggest.rebuild-interval-ms:600000}",
+            initialDelayString = "${catalog.suggest.rebuild-interval-ms:600000}")
+    public void scheduledRebuild() {
+        changes.markRebuild(catalogTaskExecutor);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        switch (event.type()) {
+            case PRODUCT -> changes.mark(new EntryId(SuggestionType.PRODUCT, event.entityId()), catalogTaskExecutor);
+            case STORE -> changes.mark(new EntryId(SuggestionType.STORE, event.entityId()), catalogTaskExecutor);
+            case CATEGORY -> {
+                if (event.deleted())
+                    changes.markRebuild(catalogTaskExecutor);
+                else
+                    changes.mark(new EntryId(SuggestionType.CATEGORY, event.entityId()), catalogTaskExecutor);
+            }
+            // Deleting one detaches its products without a product event
+            case SUBCATEGORY -> {
+                if (event.deleted())
+                    changes.markRebuild(catalogTaskExecutor);
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            Map<Long, Long> orders = new HashMap<>();
+            for (Object[] row : orderItemRepository.countOrderLinesByProduct()) {
+                orders.put((Long) row[0], (Long) row[1]);
+            }
+
+            Trie fresh = new Trie();
+            Map<Long, Long> categoryOrders = new HashMap<>();
+            for (ProductSearchRow row : productRepository.findAllSearchRows()) {
+                long weight = orders.getOrDefault(row.productId(), 0L);
+                if (row.categoryId() != null)
+                    categoryOrders.merge(row.categoryId(), weight, Long::sum);
+                fresh.put(toSuggestion(row, weight), keysOf(row.name()));
+            }
+            for (StoreSearchRow row : storeRepository.findAllSearchRows()) {
+                fresh.put(toSuggestion(row), keysOf(row.name()));
+            }
+            for (Category category : categoryRepository.findByIsActiveTrueOrderByDisplayOrderAsc()) {
+                fresh.put(toSuggestion(category, categoryOrders.getOrDefault(category.getCategoryId(), 0L)),
+                        keysOf(category.getName()));
+            }
+
+            productOrders = orders;
+            this.categoryOrders = categoryOrders;
+            trie = fresh;
+            log.info("Suggestion trie built: {} entries in {} ms", fresh.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("Suggestion trie rebuild failed, keeping the current one: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    // Re-reads the changed entries; gone, unavailable or inactive ones leave the trie
+    private void refresh(Set<EntryId> batch) {
+        Trie current = trie;
+        for (EntryId entry : batch) {
+            Long id = entry.id();
+            current.remove(entry.type(), id);
+            switch (entry.type()) {
+                case PRODUCT -> productRepository.findSearchRowsByProductIdIn(List.of(id)).stream().findFirst()
+                        .ifPresent(r -> current.put(toSuggestion(r, productOrders.getOrDefault(id, 0L)),
+                                keysOf(r.name())));
+                case STORE -> storeRepository.findSearchRowsByStoreId(id).stream().findFirst()
+                        .ifPresent(r -> current.put(toSuggestion(r), keysOf(r.name())));
+                case CATEGORY -> categoryRepository.findById(id)
+                        .filter(category -> Boolean.TRUE.equals(category.getIsActive()))
+                        .ifPresent(category -> current.put(toSuggestion(category,
+                                categoryOrders.getOrDefault(id, 0L)), keysOf(category.getName())));
+            }
+        }
+    }
+
+    // Unavailable products / inactive stores get no keys, i.e. they are not suggested
+    private Suggestion toSuggestion(ProductSearchRow row, long weight) {
+        return new Suggestion(SuggestionType.PRODUCT, row.productId(), row.name(),
+                Boolean.TRUE.equals(row.isAvailable()) ? weight : -1);
+    }
+
+    private Suggestion toSuggestion(Category category, long weight) {
+        return new Suggestion(SuggestionType.CATEGORY, category.getCategoryId(), category.getName(), weight);
+    }
+
+    private Suggestion toSuggestion(StoreSearchRow row) {
+        return new Suggestion(SuggestionType.STORE, row.storeId(), row.name(),
+                Boolean.TRUE.equals(row.isActive()) ? (row.totalOrders() != null ? row.totalOrders() : 0) : -1);
+    }
+
+    // The normalized name from each word start on
+    private List<String> keysOf(String name) {
+        String normalized = arabicTextUtil.normalize(name);
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty())
+            return keys;
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys;
+    }
+
+    // =================================================================================
+    // TRIE
+    // =================================================================================
+
+    private record EntryId(SuggestionType type, Long id) {
+    }
+
+    private static final Comparator<Suggestion> RANKING = Comparator
+            .comparingLong(Suggestion::weight).reversed()
+            .thenComparingInt(s -> s.text().length())
+            .thenComparing(Suggestion::text);
+
+    private static final Suggestion[] NONE = new Suggestion[0];
+
+    /**
+     * Children are kept in two small sorted arrays instead of a map per node.
+     * Writers (serialized by the service's DirtyQueue) replace arrays, never mutate them, so
+     * lookups walk the trie without locking.
+     */
+    private static final class Node {
+        volatile Edges edges = Edges.EMPTY;
+        List<Suggestion> terminal = List.of(); // entries with a key ending here
+        volatile Suggestion[] top = NONE; // best TOP_K entries in this subtree
+    }
+
+    private record Edges(char[] labels, Node[] children) {
+        static final Edges EMPTY = new Edges(new char[0], new Node[0]);
+
+        Node get(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Edges with(char c, Node child) {
+            int at = -Arrays.binarySearch(labels, c) - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newLabels[at] = c;
+            newChildren[at] = child;
+            System.arraycopy(labels, at, newLabels, at + 1, labels.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            return new Edges(newLabels, newChildren);
+        }
+    }
+
+    private static final class Trie {
+
+        private final Node root = new Node();
+        private final Map<EntryId, List<String>> keysByEntry = new HashMap<>();
+
+        int size() {
+            return keysByEntry.size();
+        }
+
+        List<Suggestion> topCompletions(String prefix, int limit) {
+            Node node = root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.edges.get(prefix.charAt(i));
+            }
+            if (node == null)
+                return List.of();
+            Suggestion[] top = node.top;
+            return Arrays.asList(top).subList(0, Math.min(limit, top.length));
+        }
+
+        void put(Suggestion suggestion, List<String> keys) {
+            if (suggestion.weight() < 0 || keys.isEmpty())
+                return;
+            keysByEntry.put(new EntryId(suggestion.type(), suggestion.id()), keys);
+            for (String key : keys) {
+                Node[] path = path(key, true);
+                Node leaf = path[path.length - 1];
+                List<Suggestion> terminal = new ArrayList<>(leaf.terminal);
+                terminal.add(suggestion);
+                leaf.terminal = terminal;
+                refreshTop(path);
+            }
+        }
+
+        void remove(SuggestionType type, Long id) {
+            List<String> keys = keysByEntry.remove(new EntryId(type, id));
+            if (keys == null)
+                return;
+            for (String key : keys) {
+                Node[] path = path(key, false);
+                if (path == null)
+                    continue;
+                Node leaf = path[path.length - 1];
+                leaf.terminal = leaf.terminal.stream()
+                        .filter(s -> !(s.type() == type && s.id().equals(id)))
+                        .toList();
+                refreshTop(path);
+            }
+        }
+
+        // Nodes from the root to the end of the key (root included)
+        private Node[] path(String key, boolean create) {
+            Node[] path = new Node[key.length() + 1];
+            Node node = root;
+            path[0] = node;
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                Node child = node.edges.get(c);
+                if (child == null) {
+                    if (!create)
+                        return null;
+                    child = new Node();
+                    node.edges = node.edges.with(c, child);
+                }
+                node = child;
+                path[i + 1] = node;
+            }
+            return path;
+        }
+
+        // Only the nodes on the changed path can have a different top-k
+        private void refreshTop(Node[] path) {
+            for (int i = path.length - 1; i >= 0; i--) {
+                Node node = path[i];
+                Map<EntryId, Suggestion> candidates = new LinkedHashMap<>();
+                node.terminal.forEach(s -> candidates.putIfAbsent(new EntryId(s.type(), s.id()), s));
+                for (Node child : node.edges.children()) {
+                    for (Suggestion s : child.top) {
+                        candidates.putIfAbsent(new EntryId(s.type(), s.id()), s);
+                    }
+                }
+                node.top = candidates.values().stream()
+                        .sorted(RANKING)
+                        .limit(TOP_K)
+                        .toArray(Suggestion[]::new);
+            }
+        }
+    }
+}
@@ -6,9 +6,10 @@ import com.deliveryapp.entity.Store;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -16,6 +17,7 @@ import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -36,46 +38,64 @@ public class TelegramService {
             .connectTimeout(Duration.ofSeconds(10))
             .build();
 
-    @Async
-    public void notifyAllStoresOfOrder(Order order) {
-        try {
-            if (order == null || order.getOrderItems() == null || order.getOrderItems().isEmpty()) {
-                log.warn("[Telegram] Order #{} has no items — skipping store notifications.",
-                        order != null ? order.getOrderNumber() : "unknown");
-                return;
-            }
+    // A message ready to send, so no entity (or DB connection) is held while Telegram answers
+    public record StoreMessage(String storeName, String chatId, String text) {
+    }
 
-            Map<Long, List<OrderItem>> itemsByStoreId = order.getOrderItems().stream()
-                    .filter(item -> item.getProduct() != null && item.getProduct().getStore() != null)
-                    .collect(Collectors.groupingBy(item -> item.getProduct().getStore().getStoreId()));
+    // =================================================================================
+    // ORDER NOTIFICATIONS (order outbox relay, notify executor)
+    // =================================================================================
 
-            if (itemsByStoreId.isEmpty()) {
-                log.warn("[Telegram] Could not resolve any store for order #{} — skipping.",
-                        order.getOrderNumber());
-                return;
-            }
+    // One message per store of the order with a chat ID; called while the order is loaded
+    public List<StoreMessage> buildStoreMessages(Order order) {
+        if (order == null || order.getOrderItems() == null || order.getOrderItems().isEmpty()) {
+            log.warn("[Telegram] Order #{} has no items — skipping store notifications.",
+                    order != null ? order.getOrderNumber() : "unknown");
+            return List.of();
+        }
+
+        Map<Long, List<OrderItem>> itemsByStoreId = order.getOrderItems().stream()
+                .filter(item -> item.getProduct() != null && item.getProduct().getStore() != null)
+                .collect(Collectors.groupingBy(item -> item.getProduct().getStore().getStoreId()));
 
-            for (Map.Entry<Long, List<OrderItem>> entry : itemsByStoreId.entrySet()) {
-                List<OrderItem> storeItems = entry.getValue();
-                Store store = storeItems.get(0).getProduct().getStore();
+        if (itemsByStoreId.isEmpty()) {
+            log.warn("[Telegram] Could not resolve any store for order #{} — skipping.",
+                    order.getOrderNumber());
+            return List.of();
+        }
 
-                if (store.getTelegramChatId() == null || store.getTelegramChatId().isBlank()) {
-                    log.info("[Telegram] Store '{}' has no Telegram Chat ID configured — skipping.",
-                            store.getName());
-                    continue;
-                }
+        List<StoreMessage> messages = new ArrayList<>();
+        for (List<OrderItem> storeItems : itemsByStoreId.values()) {
+            Store store = storeItems.get(0).getProduct().getStore();
 
-                notifyStoreOfOrder(order, store, storeItems);
+            if (store.getTelegramChatId() == null || store.getTelegramChatId().isBlank()) {
+                log.info("[Telegram] Store '{}' has no Telegram Chat ID configured — skipping.",
+                        store.getName());
+                continue;
             }
-        } catch (Exception e) {
-            log.error("[Telegram] 🚨 CRITICAL ERROR inside async notifyAllStoresOfOrder for order #{}: {}",
-                    (order != null ? order.getOrderNumber() : "unknown"), e.getMessage(), e);
+
+            messages.add(new StoreMessage(store.getName(), store.getTelegramChatId(),
+                    buildStoreMessage(order, store, storeItems)));
         }
+        return messages;
     }
 
-    private void notifyStoreOfOrder(Order order, Store store, List<OrderItem> storeItems) {
-        String message = buildStoreMessage(order, store, storeItems);
-        sendMessage(store.getTelegramChatId(), message);
+    /**
+     * Sends the messages in order and throws on the first one Telegram does
+     * not accept, so the outbox retries the event. A retry sends all of them
+     * again, including the ones that went through before the failure.
+     */
+    public void sendStoreMessages(List<StoreMessage> messages) {
+        for (StoreMessage message : messages) {
+            try {
+                sendMessage(message.chatId(), message.text());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Telegram message to store '" + message.storeName() + "' failed", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sending to Telegram", e);
+            }
+        }
     }
 
     private String buildStoreMessage(Order order, Store store, List<OrderItem> storeItems) {
@@ -156,44 +176,34 @@ public class TelegramService {
         return sb.toString();
     }
 
-    private void sendMessage(String chatId, String text) {
+    private void sendMessage(String chatId, String text) throws IOException, InterruptedException {
         if (botToken == null || botToken.isBlank() || "YOUR_BOT_TOKEN_HERE".equals(botToken)) {
             log.warn("[Telegram] Bot token is not configured — message not sent to chat {}.", chatId);
             return;
         }
 
-        try {
-            String url = TELEGRAM_API_BASE + botToken + "/sendMessage";
-
-            String jsonBody = String.format(
-                    "{\"chat_id\":\"%s\",\"text\":\"%s\",\"parse_mode\":\"MarkdownV2\"}",
-                    chatId,
-                    escapeJson(text));
+        String url = TELEGRAM_API_BASE + botToken + "/sendMessage";
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .timeout(Duration.ofSeconds(15))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
-                    .build();
+        String jsonBody = String.format(
+                "{\"chat_id\":\"%s\",\"text\":\"%s\",\"parse_mode\":\"MarkdownV2\"}",
+                chatId,
+                escapeJson(text));
 
-            HttpResponse<String> response = httpClient.send(
-                    request, HttpResponse.BodyHandlers.ofString());
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(Duration.ofSeconds(15))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
+                .build();
 
-            if (response.statusCode() == 200) {
-                log.info("[Telegram] ✅ Message sent to chat {} successfully.", chatId);
-            } else {
-                log.error("[Telegram] ❌ Failed to send message to chat {}. Status: {} | Body: {}",
-                        chatId, response.statusCode(), response.body());
-            }
+        HttpResponse<String> response = httpClient.send(
+                request, HttpResponse.BodyHandlers.ofString());
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("[Telegram] 🚨 Thread interrupted while sending message to chat {}: {}",
-                    chatId, e.getMessage());
-        } catch (Exception e) {
-            log.error("[Telegram] 🚨 Error sending message to chat {}: {}", chatId, e.getMessage());
+        if (response.statusCode() != 200) {
+            throw new IOException("Telegram API returned HTTP " + response.statusCode() + " for chat " + chatId
+                    + ": " + response.body());
         }
+        log.info("[Telegram] ✅ Message sent to chat {} successfully.", chatId);
     }
 
     public String sendTestMessage(String chatId, String text, String parseMode) throws Exception {
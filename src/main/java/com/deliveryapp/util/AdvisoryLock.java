@@ -0,0 +1,72 @@
+package com.deliveryapp.util;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Postgres session-level advisory locks, for jobs that run on every node but
+ * must not run on two at once.
+ *
+ * The lock is taken on a pooled connection of its own and held while the task
+ * runs, so the task is free to work in short transactions (or none) instead of
+ * one that lasts as long as the job. On other databases (H2 in tests, a single
+ * node) the task just runs.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdvisoryLock {
+
+    private final DataSource dataSource;
+
+    // False, without running the task, when another node holds the lock
+    public boolean runExclusively(long key, Runnable task) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!"PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())) {
+                task.run();
+                return true;
+            }
+            if (!call(connection, "SELECT pg_try_advisory_lock(?)", key))
+                return false;
+            try {
+                task.run();
+            } finally {
+                unlock(connection, key);
+            }
+            return true;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Advisory lock " + key + " unavailable: " + e.getMessage(), e);
+        }
+    }
+
+    // A connection still holding the lock must not go back to the pool
+    private static void unlock(Connection connection, long key) {
+        try {
+            if (call(connection, "SELECT pg_advisory_unlock(?)", key))
+                return;
+        } catch (SQLException e) {
+            log.warn("Advisory lock {} not released: {}", key, e.getMessage());
+        }
+        try {
+            connection.abort(Runnable::run);
+        } catch (SQLException e) {
+            log.warn("Connection holding advisory lock {} not closed: {}", key, e.getMessage());
+        }
+    }
+
+    private static boolean call(Connection connection, String sql, long key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, key);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+}
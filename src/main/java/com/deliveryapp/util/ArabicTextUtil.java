@@ -0,0 +1,92 @@
+package com.deliveryapp.util;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Arabic-aware text folding for search.
+ *
+ * The same folding runs in Postgres as ar_normalize() (see SearchIndexInitializer),
+ * built from the constants below so queries and indexed text always agree.
+ */
+@Component
+public class ArabicTextUtil {
+
+    // أ إ آ ٱ → ا | ى → ي | ة → ه
+    public static final String FOLD_FROM = "أإآٱىة"
+            // Tashkeel (fathatan … sukun), superscript alef and tatweel: no counterpart → removed
+            + "ًٌٍَُِّْٰـ";
+    public static final String FOLD_TO = "اااايه";
+
+    // The definite article, alone or after a joined و / ب / ف / ك; "لل" is ل + ال. Longest first
+    private static final List<String> ARTICLE_PREFIXES = List.of("وال", "بال", "فال", "كال", "ال", "لل");
+    // Shortest word left after removing the article
+    private static final int MIN_STEM_LENGTH = 2;
+
+    /**
+     * Lower-cases, folds alef / ya / ta-marbuta variants, strips diacritics and
+     * collapses whitespace. Returns "" for null.
+     */
+    public String normalize(String text) {
+        if (text == null)
+            return "";
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder out = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            int idx = FOLD_FROM.indexOf(c);
+            if (idx < 0) {
+                out.append(c);
+            } else if (idx < FOLD_TO.length()) {
+                out.append(FOLD_TO.charAt(idx));
+            }
+        }
+        return out.toString().trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Normalized words of the text (letters and digits only), in order.
+     */
+    public List<String> tokenize(String text) {
+        return Arrays.stream(normalize(text).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Words of the text as a search index stores them: every token, plus the
+     * token without its attached article, so "برغر" finds "البرغر" and
+     * "شاورما" finds "والشاورما".
+     */
+    public Set<String> indexTerms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : tokenize(text)) {
+            terms.add(token);
+            for (String article : ARTICLE_PREFIXES) {
+                if (token.startsWith(article) && token.length() - article.length() >= MIN_STEM_LENGTH) {
+                    terms.add(token.substring(article.length()));
+                    break;
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Builds a prefix tsquery ("برغر:* & لحم:*") from normalized text, so words
+     * match while the user is still typing. Only letters and digits survive,
+     * which keeps the result valid tsquery syntax. Returns "" when nothing is left.
+     */
+    public String toPrefixTsQuery(String normalized) {
+        return Arrays.stream(normalized.split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
@@ -0,0 +1,113 @@
+package com.deliveryapp.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Pending work of one in-memory read model: ids to refresh, and whether a full
+ * rebuild is due. One drain task at a time takes everything pending and hands
+ * it over, so:
+ *
+ * - a burst of catalog writes costs one queued task per read model, not one
+ *   per change, and never overflows the shared executor;
+ * - refreshes and rebuilds of the model never overlap, so a slow task can't
+ *   apply an older read on top of a newer one;
+ * - nothing is lost when the executor rejects the task or the work fails: it
+ *   stays pending and goes out with the next mark or {@link #retry(Executor)}.
+ *
+ * A rebuild covers every id marked before it started, so those are dropped.
+ * The executor is passed on every call, so the queue can be a field
+ * initializer of a service whose executor is injected.
+ */
+@Slf4j
+public final class DirtyQueue<K> {
+
+    private final String name;
+    private final Consumer<Set<K>> refresh;
+    private final Runnable rebuild;
+
+    private final Set<K> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuildDue = new AtomicBoolean();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    public DirtyQueue(String name, Consumer<Set<K>> refresh, Runnable rebuild) {
+        this.name = name;
+        this.refresh = refresh;
+        this.rebuild = rebuild;
+    }
+
+    public void mark(K key, Executor executor) {
+        dirty.add(key);
+        schedule(executor);
+    }
+
+    public void markRebuild(Executor executor) {
+        rebuildDue.set(true);
+        schedule(executor);
+    }
+
+    // Schedules whatever is still pending, e.g. after a failed or rejected drain
+    public void retry(Executor executor) {
+        schedule(executor);
+    }
+
+    public boolean isPending() {
+        return rebuildDue.get() || !dirty.isEmpty();
+    }
+
+    private void schedule(Executor executor) {
+        if (!isPending() || !scheduled.compareAndSet(false, true))
+            return;
+        try {
+            executor.execute(() -> drain(executor));
+        } catch (RejectedExecutionException e) {
+            scheduled.set(false);
+            log.warn("{}: executor full, {} pending until the next change or retry", name,
+                    rebuildDue.get() ? "a rebuild" : dirty.size() + " ids");
+        }
+    }
+
+    private void drain(Executor executor) {
+        boolean failed = false;
+        try {
+            while (isPending() && !failed)
+                failed = !drainOnce();
+        } finally {
+            scheduled.set(false);
+        }
+        // Marked after the last check, before the flag was released
+        if (!failed)
+            schedule(executor);
+    }
+
+    private boolean drainOnce() {
+        if (rebuildDue.getAndSet(false)) {
+            dirty.clear();
+            try {
+                rebuild.run();
+                return true;
+            } catch (RuntimeException e) {
+                rebuildDue.set(true);
+                log.warn("{}: rebuild failed, will retry: {}", name, e.getMessage());
+                return false;
+            }
+        }
+        Set<K> batch = new HashSet<>(dirty);
+        dirty.removeAll(batch);
+        try {
+            refresh.accept(batch);
+            return true;
+        } catch (RuntimeException e) {
+            dirty.addAll(batch);
+            log.warn("{}: refresh of {} ids failed, will retry: {}", name, batch.size(), e.getMessage());
+            return false;
+        }
+    }
+}
@@ -3,9 +3,14 @@ package com.deliveryapp.util;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.util.function.Supplier;
+
 @Component
 public class UrlUtil {
 
+    // Base URL of a request that has already ended, for work done on its behalf in the background
+    private static final ThreadLocal<String> BASE_URL = new ThreadLocal<>();
+
     /**
      * Converts a relative path (e.g., "/uploads/img.jpg")
      * into a full URL (e.g., "http://localhost:8080/uploads/img.jpg").
@@ -14,6 +19,9 @@ public class UrlUtil {
         if (relativePath == null || relativePath.isEmpty()) return null;
         if (relativePath.startsWith("http")) return relativePath; // Already a full URL
 
+        String baseUrl = BASE_URL.get();
+        if (baseUrl != null) return baseUrl + relativePath;
+
         try {
             return ServletUriComponentsBuilder.fromCurrentContextPath()
                     .path(relativePath)
@@ -23,4 +31,39 @@ public class UrlUtil {
             return relativePath;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Scheme, host and context path of the current request (e.g., "http://localhost:8080"),
+     * or null outside of a request.
+     */
+    public String getCurrentBaseUrl() {
+        try {
+            return ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs the action with full URLs built on the given base URL, as they were in
+     * the request that captured it. A null base URL leaves the URLs relative.
+     */
+    public void runWithBaseUrl(String baseUrl, Runnable action) {
+        callWithBaseUrl(baseUrl, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // Same as runWithBaseUrl, for actions with a result
+    public <T> T callWithBaseUrl(String baseUrl, Supplier<T> action) {
+        String previous = BASE_URL.get();
+        BASE_URL.set(baseUrl);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) BASE_URL.set(previous);
+            else BASE_URL.remove();
+        }
+    }
+}
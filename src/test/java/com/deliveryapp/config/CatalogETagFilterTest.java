@@ -0,0 +1,81 @@
+package com.deliveryapp.config;
+
+import com.deliveryapp.service.CatalogVersionService;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogETagFilterTest {
+
+    private static final String TAG = "\"g1.r1.c1\"";
+
+    @Mock
+    private CatalogVersionService catalogVersionService;
+
+    @InjectMocks
+    private CatalogETagFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        when(catalogVersionService.globalTag()).thenReturn(TAG);
+    }
+
+    @Test
+    void doFilter_shouldTagOnlySuccessfulResponses() throws Exception {
+        MockHttpServletResponse ok = handle(null, HttpServletResponse.SC_OK);
+        assertEquals(TAG, ok.getHeader(HttpHeaders.ETAG));
+        assertEquals("no-cache", ok.getHeader(HttpHeaders.CACHE_CONTROL));
+
+        MockHttpServletResponse notFound = handle(null, HttpServletResponse.SC_NOT_FOUND);
+        assertNull(notFound.getHeader(HttpHeaders.ETAG));
+        assertNull(notFound.getHeader(HttpHeaders.CACHE_CONTROL));
+
+        MockHttpServletResponse notModified = handle(TAG, HttpServletResponse.SC_OK);
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, notModified.getStatus());
+        assertEquals("", notModified.getContentAsString());
+    }
+
+    @Test
+    void doFilter_shouldLeaveResponsesWithTheirOwnCacheControlUntagged() throws Exception {
+        MockHttpServletResponse degraded = handle(null, HttpServletResponse.SC_OK, "no-store");
+        assertNull(degraded.getHeader(HttpHeaders.ETAG));
+        assertEquals("no-store", degraded.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    private MockHttpServletResponse handle(String ifNoneMatch, int status) throws Exception {
+        return handle(ifNoneMatch, status, null);
+    }
+
+    private MockHttpServletResponse handle(String ifNoneMatch, int status, String cacheControl) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/catalog/home");
+        if (ifNoneMatch != null)
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setStatus(status);
+                if (cacheControl != null)
+                    resp.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+                resp.getWriter().write("{}");
+            }
+        }));
+        return response;
+    }
+}
@@ -0,0 +1,51 @@
+package com.deliveryapp.config;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadCacheControlFilterTest {
+
+    private static final String IMAGE = "/uploads/products/" + "ab".repeat(32) + ".thumb.jpg";
+
+    private final UploadCacheControlFilter filter = new UploadCacheControlFilter();
+
+    @Test
+    void doFilter_shouldCacheOnlyFilesThatWereServed() throws Exception {
+        String immutable = handle(IMAGE, HttpServletResponse.SC_OK).getHeader(HttpHeaders.CACHE_CONTROL);
+        assertTrue(immutable.contains("immutable"));
+        assertEquals(immutable, handle(IMAGE, HttpServletResponse.SC_NOT_MODIFIED).getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("no-cache",
+                handle("/uploads/catalog/manifest.json", HttpServletResponse.SC_OK).getHeader(HttpHeaders.CACHE_CONTROL));
+
+        // Not there (yet): nothing may keep the 404
+        assertNull(handle(IMAGE, HttpServletResponse.SC_NOT_FOUND).getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    private MockHttpServletResponse handle(String uri, int status) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                if (status == HttpServletResponse.SC_NOT_FOUND) {
+                    resp.sendError(status);
+                    return;
+                }
+                resp.setStatus(status);
+                if (status == HttpServletResponse.SC_OK)
+                    resp.getOutputStream().write(1);
+            }
+        }));
+        return response;
+    }
+}
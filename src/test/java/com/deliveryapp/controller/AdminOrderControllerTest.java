@@ -0,0 +1,68 @@
+package com.deliveryapp.controller;
+
+import com.deliveryapp.entity.Order;
+import com.deliveryapp.enums.OrderStatus;
+import com.deliveryapp.exception.GlobalExceptionHandler;
+import com.deliveryapp.exception.StatusConflictException;
+import com.deliveryapp.mapper.order.OrderMapper;
+import com.deliveryapp.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class AdminOrderControllerTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderMapper orderMapper;
+
+    @InjectMocks
+    private AdminOrderController controller;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void updateOrderStatus_shouldAnswerConflictForIllegalMovesAndStaleOrders() throws Exception {
+        when(orderService.updateOrderStatus(1L, OrderStatus.PREPARING, 7L)).thenReturn(new Order());
+        updateStatus(OrderStatus.PREPARING).andExpect(status().isOk());
+
+        when(orderService.updateOrderStatus(1L, OrderStatus.PENDING, 7L))
+                .thenThrow(new StatusConflictException("لا يمكن تغيير حالة الطلب"));
+        updateStatus(OrderStatus.PENDING)
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409));
+
+        when(orderService.updateOrderStatus(1L, OrderStatus.DELIVERED, 7L))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Order.class, 1L));
+        updateStatus(OrderStatus.DELIVERED).andExpect(status().isConflict());
+    }
+
+    private ResultActions updateStatus(OrderStatus newStatus) throws Exception {
+        return mockMvc.perform(patch("/api/admin/orders/1/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\": 7, \"newStatus\": \"" + newStatus + "\"}"));
+    }
+}
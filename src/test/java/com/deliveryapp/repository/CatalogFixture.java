@@ -0,0 +1,103 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.entity.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Catalog rows shared by the statement-count tests: one category and
+ * subcategory, 3 stores with a section each, and 40 products spread over the
+ * stores, each with two gallery images, a color and a variant.
+ */
+final class CatalogFixture {
+
+    final Long storeId;
+    final Long categoryId;
+    final Long productId;
+
+    private CatalogFixture(Long storeId, Long categoryId, Long productId) {
+        this.storeId = storeId;
+        this.categoryId = categoryId;
+        this.productId = productId;
+    }
+
+    static CatalogFixture seed(TestEntityManager em) {
+        Category category = new Category();
+        category.setName("Food");
+        category.setIsActive(true);
+        em.persist(category);
+
+        SubCategory subCategory = new SubCategory();
+        subCategory.setName("Burgers");
+        subCategory.setCategory(category);
+        subCategory.setIsActive(true);
+        em.persist(subCategory);
+
+        Color color = new Color();
+        color.setName("Red");
+        color.setHexCode("#FF0000");
+        em.persist(color);
+
+        List<Store> stores = new ArrayList<>();
+        for (int s = 0; s < 3; s++) {
+            Store store = new Store();
+            store.setName("Store " + s);
+            store.setCategory(category);
+            store.setSubCategories(new ArrayList<>(List.of(subCategory)));
+            store.setIsActive(true);
+            em.persist(store);
+
+            StoreCategory storeCategory = new StoreCategory();
+            storeCategory.setName("Menu " + s);
+            storeCategory.setStore(store);
+            em.persist(storeCategory);
+            stores.add(store);
+        }
+
+        Long productId = null;
+        for (int i = 0; i < 40; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setStore(stores.get(i % stores.size()));
+            product.setCategory(category);
+            product.setSubCategory(subCategory);
+            product.setBasePrice(1000.0);
+            product.setIsAvailable(true);
+            product.setImages(new ArrayList<>(List.of("/uploads/a.jpg", "/uploads/b.jpg")));
+            product.setColors(new ArrayList<>(List.of(color)));
+            em.persist(product);
+
+            ProductVariant variant = new ProductVariant();
+            variant.setProduct(product);
+            variant.setVariantValue("Large");
+            variant.setPriceAdjustment(100.0);
+            variant.setIsAvailable(true);
+            em.persist(variant);
+            productId = product.getProductId();
+        }
+        em.flush();
+        return new CatalogFixture(stores.get(0).getStoreId(), category.getCategoryId(), productId);
+    }
+
+    // Runs the endpoint for a page of 5 and of 10 from a cold persistence context
+    static void assertStatements(TestEntityManager em, EntityManagerFactory entityManagerFactory, long expected,
+            IntConsumer endpoint) {
+        for (int size : new int[] { 5, 10 }) {
+            em.clear();
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+
+            endpoint.accept(size);
+
+            assertEquals(expected, statistics.getPrepareStatementCount(), "page size " + size);
+        }
+    }
+}
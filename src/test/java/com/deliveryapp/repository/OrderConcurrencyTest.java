@@ -0,0 +1,77 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.entity.Order;
+import com.deliveryapp.entity.User;
+import com.deliveryapp.enums.OrderStatus;
+import com.deliveryapp.enums.UserType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Real transactions: each update commits on its own, as concurrent requests do
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderConcurrencyTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void save_shouldRejectAnUpdateBasedOnAStaleOrder() {
+        Order order = new Order();
+        order.setOrderNumber("ORD-1");
+        order.setStatus(OrderStatus.CONFIRMED);
+        Long orderId = orderRepository.save(order).getOrderId();
+
+        // Admin and driver both read version 0
+        Order byAdmin = orderRepository.findById(orderId).orElseThrow();
+        Order byDriver = orderRepository.findById(orderId).orElseThrow();
+
+        byAdmin.setStatus(OrderStatus.PREPARING);
+        orderRepository.save(byAdmin);
+
+        byDriver.setStatus(OrderStatus.DELIVERED);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> orderRepository.save(byDriver));
+        assertEquals(OrderStatus.PREPARING, orderRepository.findById(orderId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void incrementTotalDeliveries_shouldNotLoseConcurrentIncrements() throws Exception {
+        User driver = new User();
+        driver.setName("سائق");
+        driver.setUserType(UserType.DRIVER);
+        Long driverId = userRepository.save(driver).getUserId();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<Void>> deliveries = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                deliveries.add(CompletableFuture.runAsync(() -> transaction.executeWithoutResult(
+                        status -> userRepository.incrementTotalDeliveries(driverId)), pool));
+            }
+            CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new)).get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(20, userRepository.findById(driverId).orElseThrow().getTotalDeliveries());
+    }
+}
@@ -0,0 +1,65 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.dto.order.OrderItemRequest;
+import com.deliveryapp.entity.Product;
+import com.deliveryapp.service.OrderItemResolver;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+
+// Cart lines resolve in one query per entity type, whatever the cart size
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderItemResolverTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductVariantRepository variantRepository;
+    @Autowired
+    private ColorRepository colorRepository;
+
+    @BeforeEach
+    void setUp() {
+        CatalogFixture.seed(em);
+    }
+
+    @Test
+    void resolve_shouldUseOneQueryPerType() {
+        OrderItemResolver resolver = new OrderItemResolver(productRepository, variantRepository, colorRepository);
+        List<OrderItemRequest> cart = variantRepository.findAll().stream().map(variant -> {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setProductId(variant.getProduct().getProductId());
+            item.setVariantId(variant.getVariantId());
+            item.setColorId(variant.getProduct().getColors().get(0).getColorId());
+            item.setQuantity(1);
+            return item;
+        }).toList();
+
+        // products (with store, categories, colors) + variants + colors
+        CatalogFixture.assertStatements(em, entityManagerFactory, 3, size -> {
+            OrderItemResolver.ResolvedItems resolved = resolver.resolve(cart.subList(0, size));
+            for (OrderItemRequest item : cart.subList(0, size)) {
+                Product product = resolved.product(item.getProductId());
+                product.getStore().getCategory().getName();
+                product.getCategory().getName();
+                product.getColors().size();
+                resolved.variant(item.getVariantId()).getProduct().getProductId();
+                resolved.color(item.getColorId());
+            }
+        });
+    }
+}
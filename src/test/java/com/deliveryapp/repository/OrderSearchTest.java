@@ -0,0 +1,114 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.entity.Order;
+import com.deliveryapp.entity.Store;
+import com.deliveryapp.entity.User;
+import com.deliveryapp.enums.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+class OrderSearchTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private User customer;
+    private User driver;
+    private Store store;
+
+    @BeforeEach
+    void setUp() {
+        customer = new User();
+        customer.setPhoneNumber("0991234567");
+        em.persist(customer);
+        driver = new User();
+        em.persist(driver);
+        store = new Store();
+        store.setName("متجر");
+        em.persist(store);
+    }
+
+    @Test
+    void findPositions_shouldSeekNewestFirstThroughTiedTimestamps() {
+        // Five orders, three of them created in the same instant
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(order("A000000" + i, OrderStatus.PENDING, i < 3 ? NOON : NOON.plusMinutes(i), null, null));
+        }
+        OrderSearchFilter all = filter("A000000", null, null, null, null);
+
+        List<Long> seen = new ArrayList<>();
+        OrderCursor after = null;
+        do {
+            List<OrderCursor> page = orderRepository.findPositions(all, after, 0, 2);
+            page.forEach(position -> seen.add(position.orderId()));
+            after = page.size() < 2 ? null : OrderCursor.decode(page.get(page.size() - 1).encode());
+        } while (after != null);
+
+        assertEquals(List.of(ids.get(4), ids.get(3), ids.get(2), ids.get(1), ids.get(0)), seen);
+    }
+
+    @Test
+    void findPositions_shouldCombineOnlyTheGivenFilters() {
+        Long match = order("7F3A91BC", OrderStatus.CONFIRMED, NOON, customer, store);
+        order("7F3A0000", OrderStatus.PENDING, NOON, customer, store);
+        order("00A91B7F", OrderStatus.CONFIRMED, NOON, null, null);
+        Order assigned = em.find(Order.class, match);
+        assigned.setDriver(driver);
+        em.flush();
+
+        // Substring from three characters, any case; prefix below that
+        assertEquals(2, orderRepository.findPositions(filter("a91b", null, null, null, null), null, 0, 10).size());
+        assertEquals(2, orderRepository.findPositions(filter("7f", null, null, null, null), null, 0, 10).size());
+        assertEquals(0, orderRepository.findPositions(filter("%", null, null, null, null), null, 0, 10).size());
+
+        assertEquals(List.of(match), ids(filter("7F3A", OrderStatus.CONFIRMED, store.getStoreId(), null, null)));
+        assertEquals(List.of(match), ids(filter(null, null, null, driver.getUserId(), null)));
+        assertEquals(2, ids(filter(null, null, null, null, " 0991234567 ")).size());
+        assertEquals(0, ids(new OrderSearchFilter(null, null, NOON.plusSeconds(1), null, null, null, null)).size());
+    }
+
+    @Test
+    void countUpTo_shouldStopCountingAtTheLimit() {
+        for (int i = 0; i < 5; i++) {
+            order("B000000" + i, OrderStatus.PENDING, NOON, null, null);
+        }
+        OrderSearchFilter all = filter("B000000", null, null, null, null);
+        assertEquals(5, orderRepository.countUpTo(all, 10));
+        assertEquals(3, orderRepository.countUpTo(all, 3));
+        assertNull(orderRepository.estimateTotal()); // Not PostgreSQL
+    }
+
+    private List<Long> ids(OrderSearchFilter filter) {
+        return orderRepository.findPositions(filter, null, 0, 10).stream().map(OrderCursor::orderId).toList();
+    }
+
+    private static OrderSearchFilter filter(String orderNumber, OrderStatus status, Long storeId, Long driverId,
+            String customerPhone) {
+        return new OrderSearchFilter(orderNumber, status, null, null, storeId, driverId, customerPhone);
+    }
+
+    private Long order(String number, OrderStatus status, LocalDateTime createdAt, User user, Store orderStore) {
+        Order order = new Order();
+        order.setOrderNumber(number);
+        order.setStatus(status);
+        order.setCreatedAt(createdAt);
+        order.setUser(user);
+        order.setStores(orderStore != null ? new ArrayList<>(List.of(orderStore)) : new ArrayList<>());
+        return em.persistAndFlush(order).getOrderId();
+    }
+}
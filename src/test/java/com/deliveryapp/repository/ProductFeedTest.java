@@ -0,0 +1,119 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.entity.Product;
+import com.deliveryapp.mapper.catalog.CatalogMapper;
+import com.deliveryapp.service.CatalogSearchIndex;
+import com.deliveryapp.service.ImageRenditionService;
+import com.deliveryapp.service.PriceBookService;
+import com.deliveryapp.service.ProductService;
+import com.deliveryapp.util.ArabicTextUtil;
+import com.deliveryapp.util.UrlUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Keyset product feed: walks every page through the cursor, never counts
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ProductFeedTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductVariantRepository variantRepository;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private SubCategoryRepository subCategoryRepository;
+    @Autowired
+    private ColorRepository colorRepository;
+    @Autowired
+    private StoreCategoryRepository storeCategoryRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private ProductService productService;
+    private CatalogMapper catalogMapper;
+
+    private CatalogFixture catalog;
+
+    @BeforeEach
+    void setUp() {
+        PriceBookService priceBookService = mock(PriceBookService.class);
+        when(priceBookService.getPrices(any())).thenReturn(
+                new PriceBookService.ProductPrices(1000.0, 1000.0, null, null));
+        when(priceBookService.getVariantPrice(any())).thenReturn(100.0);
+
+        catalogMapper = new CatalogMapper(new UrlUtil(), priceBookService, mock(ImageRenditionService.class));
+        productService = new ProductService(productRepository, variantRepository, storeRepository,
+                categoryRepository, subCategoryRepository, colorRepository, storeCategoryRepository,
+                null, orderItemRepository, null, null,
+                new CatalogSearchIndex(productRepository, storeRepository, new ArabicTextUtil(), null,
+                        Runnable::run),
+                new ArabicTextUtil(), null);
+
+        catalog = CatalogFixture.seed(em);
+    }
+
+    @Test
+    void feedEndpoint_shouldSeekWithoutCounting() {
+        // positions + products + images + colors + variants + store subcategories + store categories
+        CatalogFixture.assertStatements(em, entityManagerFactory, 7, size -> catalogMapper.toProductCursorPage(
+                productService.getProductsAfter(filter(null, false), null, size).content(), null, true));
+
+        for (boolean newest : new boolean[] { false, true }) {
+            List<Long> seen = new ArrayList<>();
+            String cursor = null;
+            do {
+                ProductService.ProductSlice slice = productService.getProductsAfter(
+                        filter(catalog.storeId, newest), cursor, 4);
+                slice.content().forEach(p -> seen.add(p.getProductId()));
+                cursor = slice.nextCursor();
+            } while (cursor != null);
+
+            List<Long> expected = productService.getProductsByStore(catalog.storeId, PageRequest.of(0, 100))
+                    .stream()
+                    .map(Product::getProductId)
+                    .sorted(newest ? Comparator.reverseOrder() : Comparator.naturalOrder())
+                    .toList();
+            assertEquals(expected, seen);
+        }
+    }
+
+    @Test
+    void feedEndpoint_shouldCapThePageSize() {
+        // No overflow on size + 1; all 40 products fit under the cap
+        ProductService.ProductSlice slice = productService.getProductsAfter(filter(null, false), null,
+                Integer.MAX_VALUE);
+        assertEquals(40, slice.content().size());
+        assertNull(slice.nextCursor());
+    }
+
+    private ProductSeekFilter filter(Long storeId, boolean newestFirst) {
+        return new ProductSeekFilter(storeId, null, null, null, false, false, null, newestFirst);
+    }
+}
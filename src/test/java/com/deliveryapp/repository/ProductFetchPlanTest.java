@@ -0,0 +1,115 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.mapper.catalog.AdminCatalogMapper;
+import com.deliveryapp.mapper.catalog.CatalogMapper;
+import com.deliveryapp.service.CatalogSearchIndex;
+import com.deliveryapp.service.ImageRenditionService;
+import com.deliveryapp.service.PriceBookService;
+import com.deliveryapp.service.ProductService;
+import com.deliveryapp.util.ArabicTextUtil;
+import com.deliveryapp.util.UrlUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.function.IntConsumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Counts the SQL statements each catalog endpoint needs to load and map a page.
+ * The count must be a small constant: the same for a page of 5 and a page of 10.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ProductFetchPlanTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductVariantRepository variantRepository;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private SubCategoryRepository subCategoryRepository;
+    @Autowired
+    private ColorRepository colorRepository;
+    @Autowired
+    private StoreCategoryRepository storeCategoryRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private ProductService productService;
+    private CatalogMapper catalogMapper;
+    private AdminCatalogMapper adminCatalogMapper;
+
+    private CatalogFixture catalog;
+
+    @BeforeEach
+    void setUp() {
+        PriceBookService priceBookService = mock(PriceBookService.class);
+        when(priceBookService.getPrices(any())).thenReturn(
+                new PriceBookService.ProductPrices(1000.0, 1000.0, null, null));
+        when(priceBookService.getVariantPrice(any())).thenReturn(100.0);
+
+        catalogMapper = new CatalogMapper(new UrlUtil(), priceBookService, mock(ImageRenditionService.class));
+        adminCatalogMapper = new AdminCatalogMapper(catalogMapper);
+        productService = new ProductService(productRepository, variantRepository, storeRepository,
+                categoryRepository, subCategoryRepository, colorRepository, storeCategoryRepository,
+                null, orderItemRepository, null, null,
+                new CatalogSearchIndex(productRepository, storeRepository, new ArabicTextUtil(), null,
+                        Runnable::run),
+                new ArabicTextUtil(), null);
+
+        catalog = CatalogFixture.seed(em);
+    }
+
+    @Test
+    void listEndpoints_shouldUseFixedStatementCount() {
+        // ids + count + products + images + colors + variants + store subcategories + store categories
+        assertStatements(8, size -> catalogMapper.toProductPage(
+                productService.getAllProductsRandomly(PageRequest.of(0, size)), false));
+        assertStatements(8, size -> catalogMapper.toProductPage(
+                productService.getNewestProducts(PageRequest.of(0, size)), true));
+        // + existence check of the filter entity
+        assertStatements(9, size -> catalogMapper.toProductPage(
+                productService.getProductsByStore(catalog.storeId, PageRequest.of(0, size)), false));
+        assertStatements(9, size -> catalogMapper.toProductPage(
+                productService.getProductsByCategory(catalog.categoryId, PageRequest.of(0, size)), false));
+        assertStatements(8, size -> catalogMapper.toProductPage(
+                productService.searchProducts("product", 0L, PageRequest.of(0, size)), false));
+    }
+
+    @Test
+    void detailEndpoint_shouldUseFixedStatementCount() {
+        assertStatements(6, size -> catalogMapper.toProductResponse(
+                productService.getProductDetail(catalog.productId)));
+    }
+
+    @Test
+    void adminList_shouldUseFixedStatementCount() {
+        assertStatements(8, size -> productService
+                .getAllProductsAdmin(catalog.storeId, null, null, null, PageRequest.of(0, size))
+                .map(adminCatalogMapper::toAdminProductResponse));
+    }
+
+    private void assertStatements(long expected, IntConsumer endpoint) {
+        CatalogFixture.assertStatements(em, entityManagerFactory, expected, endpoint);
+    }
+}
@@ -0,0 +1,82 @@
+package com.deliveryapp.repository;
+
+import com.deliveryapp.mapper.catalog.CatalogMapper;
+import com.deliveryapp.service.CatalogSearchIndex;
+import com.deliveryapp.service.ImageRenditionService;
+import com.deliveryapp.service.PriceBookService;
+import com.deliveryapp.service.ProductService;
+import com.deliveryapp.util.ArabicTextUtil;
+import com.deliveryapp.util.UrlUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Whole-store menu: one fixed set of statements, however many products the store has
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class StoreMenuTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductVariantRepository variantRepository;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private SubCategoryRepository subCategoryRepository;
+    @Autowired
+    private ColorRepository colorRepository;
+    @Autowired
+    private StoreCategoryRepository storeCategoryRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private ProductService productService;
+    private CatalogMapper catalogMapper;
+
+    private CatalogFixture catalog;
+
+    @BeforeEach
+    void setUp() {
+        PriceBookService priceBookService = mock(PriceBookService.class);
+        when(priceBookService.getPrices(any())).thenReturn(
+                new PriceBookService.ProductPrices(1000.0, 1000.0, null, null));
+        when(priceBookService.getVariantPrice(any())).thenReturn(100.0);
+
+        catalogMapper = new CatalogMapper(new UrlUtil(), priceBookService, mock(ImageRenditionService.class));
+        productService = new ProductService(productRepository, variantRepository, storeRepository,
+                categoryRepository, subCategoryRepository, colorRepository, storeCategoryRepository,
+                null, orderItemRepository, null, null,
+                new CatalogSearchIndex(productRepository, storeRepository, new ArabicTextUtil(), null,
+                        Runnable::run),
+                new ArabicTextUtil(), null);
+
+        catalog = CatalogFixture.seed(em);
+    }
+
+    @Test
+    void storeMenu_shouldUseFixedStatementCount() {
+        // ids + products + images + colors + variants; the menu never reads the store's collections
+        CatalogFixture.assertStatements(em, entityManagerFactory, 5, size -> catalogMapper.toStoreMenu(
+                catalog.storeId, List.of(), productService.getStoreMenuProducts(catalog.storeId)));
+    }
+}
@@ -0,0 +1,130 @@
+package com.deliveryapp.scheduled;
+
+import com.deliveryapp.repository.StoredFileRepository;
+import com.deliveryapp.service.ImageRenditionService;
+import com.deliveryapp.util.AdvisoryLock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UploadGarbageCollectorJobTest {
+
+    @Mock
+    private StoredFileRepository storedFileRepository;
+
+    @Mock
+    private AdvisoryLock advisoryLock;
+
+    @TempDir
+    Path temp;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UploadGarbageCollectorJob job;
+    private Path uploads;
+
+    @BeforeEach
+    void setUp() {
+        uploads = temp.resolve("uploads");
+        ImageRenditionService imageRenditionService = new ImageRenditionService(Runnable::run);
+        ReflectionTestUtils.setField(imageRenditionService, "rootDir", uploads.toString());
+        job = new UploadGarbageCollectorJob(storedFileRepository, imageRenditionService, meterRegistry,
+                advisoryLock);
+        ReflectionTestUtils.setField(job, "rootDir", uploads.toString());
+        ReflectionTestUtils.setField(job, "quarantineDir", temp.resolve("quarantine").toString());
+        ReflectionTestUtils.setField(job, "graceHours", 24L);
+        ReflectionTestUtils.setField(job, "quarantineDays", 14L);
+        ReflectionTestUtils.setField(job, "batchSize", 2);
+        ReflectionTestUtils.setField(job, "batchPauseMs", 0L);
+    }
+
+    @Test
+    void sweep_shouldQuarantineOnlyOldUnreferencedFiles() throws Exception {
+        file("products/used.jpg", 48);
+        file("products/orphan.jpg", 48);
+        file("products/orphan.thumb.jpg", 48);
+        file("products/fresh.jpg", 1);     // Still within the grace period
+        file("stores/logo.png", 48);
+        file("app/Allin.apk", 48);         // Never swept
+        when(storedFileRepository.findReferencedUrls(anyCollection()))
+                .thenAnswer(call -> ((Collection<?>) call.getArgument(0)).stream()
+                        .filter(url -> List.of("/uploads/products/used.jpg", "/uploads/stores/logo.png").contains(url))
+                        .toList());
+
+        // Dry run: counted, nothing moved
+        ReflectionTestUtils.setField(job, "dryRun", true);
+        UploadGarbageCollectorJob.SweepResult dryRun = job.sweep();
+        assertEquals(5, dryRun.scanned());
+        assertEquals(1, dryRun.orphans());
+        assertEquals(0, dryRun.quarantined());
+        assertTrue(Files.exists(uploads.resolve("products/orphan.jpg")));
+
+        ReflectionTestUtils.setField(job, "dryRun", false);
+        UploadGarbageCollectorJob.SweepResult result = job.sweep();
+        assertEquals(1, result.quarantined());
+        assertFalse(Files.exists(uploads.resolve("products/orphan.jpg")));
+        assertFalse(Files.exists(uploads.resolve("products/orphan.thumb.jpg")));
+        Path quarantined = temp.resolve("quarantine").resolve(LocalDate.now().toString());
+        assertTrue(Files.exists(quarantined.resolve("products/orphan.jpg")));
+        // Restorable as a whole: renditions and the stored_files row are kept
+        assertTrue(Files.exists(quarantined.resolve("products/orphan.thumb.jpg")));
+        verify(storedFileRepository, never()).deleteById(any());
+        assertTrue(Files.exists(uploads.resolve("products/used.jpg")));
+        assertTrue(Files.exists(uploads.resolve("products/fresh.jpg")));
+        assertEquals(1.0, meterRegistry.counter("uploads.gc.files", "result", "quarantined", "dry_run", "false").count());
+    }
+
+    @Test
+    void sweep_shouldPurgeQuarantineFoldersPastTheirPeriod() throws Exception {
+        Path old = temp.resolve("quarantine").resolve(LocalDate.now().minusDays(15).toString());
+        Path recent = temp.resolve("quarantine").resolve(LocalDate.now().minusDays(2).toString());
+        Files.createDirectories(old.resolve("products"));
+        Files.createDirectories(recent);
+        Files.write(old.resolve("products/a.jpg"), new byte[] {1});
+        ReflectionTestUtils.setField(job, "dryRun", false);
+
+        assertEquals(1, job.sweep().purged());
+        assertFalse(Files.exists(old));
+        assertTrue(Files.exists(recent));
+    }
+
+    @Test
+    void scheduledSweep_shouldLeaveTheSweepToTheNodeHoldingTheLock() throws Exception {
+        ReflectionTestUtils.setField(job, "enabled", true);
+        ReflectionTestUtils.setField(job, "dryRun", false);
+        file("products/orphan.jpg", 48);
+        when(advisoryLock.runExclusively(anyLong(), any())).thenReturn(false);
+
+        job.scheduledSweep();
+
+        assertTrue(Files.exists(uploads.resolve("products/orphan.jpg")));
+        verifyNoInteractions(storedFileRepository);
+    }
+
+    private void file(String relative, int hoursOld) throws Exception {
+        Path file = uploads.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[] {1, 2, 3});
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofHours(hoursOld))));
+    }
+}
@@ -0,0 +1,106 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.entity.Category;
+import com.deliveryapp.entity.Store;
+import com.deliveryapp.entity.StoreCategory;
+import com.deliveryapp.entity.SubCategory;
+import com.deliveryapp.exception.ResourceNotFoundException;
+import com.deliveryapp.mapper.catalog.CatalogMapper;
+import com.deliveryapp.repository.CategoryRepository;
+import com.deliveryapp.repository.StoreCategoryRepository;
+import com.deliveryapp.repository.StoreRepository;
+import com.deliveryapp.repository.SubCategoryRepository;
+import com.deliveryapp.util.UrlUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogNavigationServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private SubCategoryRepository subCategoryRepository;
+
+    @Mock
+    private StoreCategoryRepository storeCategoryRepository;
+
+    @Mock
+    private StoreRepository storeRepository;
+
+    @Mock
+    private CatalogVersionService catalogVersionService;
+
+    private CatalogNavigationService navigationService;
+
+    @BeforeEach
+    void setUp() {
+        navigationService = new CatalogNavigationService(categoryRepository, subCategoryRepository,
+                storeCategoryRepository, storeRepository, new CatalogMapper(new UrlUtil(), null, mock(ImageRenditionService.class)), new UrlUtil(),
+                catalogVersionService, Runnable::run);
+
+        Category food = category(1L, "Food", true);
+        Category hidden = category(2L, "Hidden", false);
+        when(categoryRepository.findAllByOrderByDisplayOrderAsc()).thenReturn(List.of(food, hidden));
+        when(subCategoryRepository.findAllActiveWithCategory()).thenReturn(List.of(subCategory(10L, food)));
+        when(storeCategoryRepository.findByIsActiveTrueOrderByDisplayOrderAsc())
+                .thenReturn(List.of(storeCategory(100L, 5L)));
+        when(storeRepository.findAllStoreIds()).thenReturn(List.of(5L, 6L));
+    }
+
+    @Test
+    void reads_shouldBeServedFromTheTreeUntilTheNavigationVersionMoves() {
+        when(catalogVersionService.navigationVersion()).thenReturn(3L);
+
+        assertEquals(List.of(1L), navigationService.getActiveCategories().stream()
+                .map(c -> c.getCategoryId()).toList());
+        assertEquals("Hidden", navigationService.getCategory(2L).getName());
+        assertEquals(1, navigationService.getActiveSubCategories(1L).size());
+        assertEquals(1, navigationService.getActiveStoreCategories(5L).size());
+        assertEquals(List.of(), navigationService.getActiveStoreCategories(6L));
+        assertThrows(ResourceNotFoundException.class, () -> navigationService.getActiveStoreCategories(7L));
+        verify(categoryRepository, times(1)).findAllByOrderByDisplayOrderAsc();
+
+        when(catalogVersionService.navigationVersion()).thenReturn(4L);
+        navigationService.getActiveCategories();
+
+        verify(categoryRepository, times(2)).findAllByOrderByDisplayOrderAsc();
+    }
+
+    private Category category(Long id, String name, boolean active) {
+        Category category = new Category();
+        category.setCategoryId(id);
+        category.setName(name);
+        category.setIsActive(active);
+        return category;
+    }
+
+    private SubCategory subCategory(Long id, Category parent) {
+        SubCategory sub = new SubCategory();
+        sub.setSubcategoryId(id);
+        sub.setName("Burgers");
+        sub.setCategory(parent);
+        sub.setIsActive(true);
+        return sub;
+    }
+
+    private StoreCategory storeCategory(Long id, Long storeId) {
+        Store store = new Store();
+        store.setStoreId(storeId);
+        StoreCategory storeCategory = new StoreCategory();
+        storeCategory.setStoreCategoryId(id);
+        storeCategory.setStore(store);
+        storeCategory.setName("Menu");
+        return storeCategory;
+    }
+}
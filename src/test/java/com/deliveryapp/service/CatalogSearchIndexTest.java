@@ -0,0 +1,130 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.event.CatalogChangedEvent;
+import com.deliveryapp.repository.ProductRepository;
+import com.deliveryapp.repository.ProductSearchRow;
+import com.deliveryapp.repository.StoreRepository;
+import com.deliveryapp.repository.StoreSearchRow;
+import com.deliveryapp.util.ArabicTextUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StoreRepository storeRepository;
+
+    @Mock
+    private CatalogVersionService catalogVersionService;
+
+    private CatalogSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CatalogSearchIndex(productRepository, storeRepository, new ArabicTextUtil(),
+                catalogVersionService, Runnable::run);
+    }
+
+    @Test
+    void searchProducts_shouldMatchNormalizedPrefixesAndRankNameHitsFirst() {
+        when(storeRepository.findAllSearchRows()).thenReturn(List.of(
+                new StoreSearchRow(1L, "مطعم الشام", "مشاوي", true, 4.5, 10)));
+        when(productRepository.findAllSearchRows()).thenReturn(List.of(
+                new ProductSearchRow(10L, "وجبة عائلية", "دجاج مشوي", 1L, 5L, true, 0),
+                new ProductSearchRow(11L, "سلطة", "مع وجبة صغيرة", 1L, 5L, true, 0),
+                new ProductSearchRow(12L, "وجبة أطفال", null, 1L, 6L, false, 0)));
+
+        assertFalse(index.canServe("وجبه"));
+        index.warmUp();
+        assertTrue(index.canServe("وجبه"));
+
+        // ة/ه folded, prefix match, unavailable product skipped, name hit before description hit
+        assertEquals(List.of(10L, 11L),
+                index.searchProducts("وجبه", true, null, null, PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of(10L),
+                index.searchProducts("وجب", false, null, null, PageRequest.of(0, 10)).getContent());
+        // every word has to match
+        assertEquals(List.of(10L),
+                index.searchProducts("وجبة دجا", true, 5L, null, PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of(1L), index.searchStores("الشأم"));
+    }
+
+    @Test
+    void searchProducts_shouldMatchWordsWithoutTheirArticle() {
+        when(storeRepository.findAllSearchRows()).thenReturn(List.of());
+        when(productRepository.findAllSearchRows()).thenReturn(List.of(
+                new ProductSearchRow(10L, "وجبة البرغر", null, 1L, 5L, true, 0),
+                new ProductSearchRow(11L, "صحن الشاورما", "بالثوم والمخلل", 1L, 5L, true, 0),
+                new ProductSearchRow(12L, "ألماسة", null, 1L, 5L, true, 0)));
+        index.warmUp();
+
+        assertEquals(List.of(10L),
+                index.searchProducts("برغر", false, null, null, PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of(11L),
+                index.searchProducts("شاورما", false, null, null, PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of(11L),
+                index.searchProducts("الشاورما ثوم مخلل", true, null, null, PageRequest.of(0, 10)).getContent());
+        // The article itself still matches, as a prefix
+        assertEquals(List.of(10L, 11L, 12L),
+                index.searchProducts("ال", false, null, null, PageRequest.of(0, 10)).getContent());
+    }
+
+    @Test
+    void onCatalogChanged_shouldReindexAndRemoveProducts() {
+        when(storeRepository.findAllSearchRows()).thenReturn(List.of());
+        when(productRepository.findAllSearchRows()).thenReturn(List.of(
+                new ProductSearchRow(10L, "برغر لحم", null, 1L, 5L, true, 0)));
+        index.warmUp();
+
+        when(productRepository.findSearchRowsByProductIdIn(List.of(10L))).thenReturn(List.of(
+                new ProductSearchRow(10L, "برغر دجاج", null, 1L, 5L, true, 0)));
+        index.onCatalogChanged(CatalogChangedEvent.productSaved(10L, 1L));
+
+        assertTrue(index.searchProducts("لحم", false, null, null, PageRequest.of(0, 10)).isEmpty());
+        assertEquals(List.of(10L),
+                index.searchProducts("دجاج", false, null, null, PageRequest.of(0, 10)).getContent());
+
+        index.onCatalogChanged(CatalogChangedEvent.productDeleted(10L, 1L));
+        assertTrue(index.searchProducts("برغر", false, null, null, PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void rebuildIfChanged_shouldRetryAFailedBuildAndRebuildOnlyAfterAnotherWrite() {
+        when(storeRepository.findAllSearchRows()).thenThrow(new IllegalStateException("db down"))
+                .thenReturn(List.of());
+        when(productRepository.findAllSearchRows()).thenReturn(List.of(
+                new ProductSearchRow(10L, "برغر لحم", null, 1L, 5L, true, 0)));
+        when(catalogVersionService.globalVersion()).thenReturn(7L);
+
+        index.warmUp();
+        assertFalse(index.isReady());
+        index.rebuildIfChanged();
+        assertTrue(index.isReady());
+
+        // Same version: nothing to do
+        index.rebuildIfChanged();
+        verify(productRepository, times(1)).findAllSearchRows();
+
+        // Renamed on another node
+        when(catalogVersionService.globalVersion()).thenReturn(8L);
+        when(productRepository.findAllSearchRows()).thenReturn(List.of(
+                new ProductSearchRow(10L, "برغر دجاج", null, 1L, 5L, true, 0)));
+        index.rebuildIfChanged();
+        assertEquals(List.of(10L),
+                index.searchProducts("دجاج", false, null, null, PageRequest.of(0, 10)).getContent());
+        assertTrue(index.searchProducts("لحم", false, null, null, PageRequest.of(0, 10)).isEmpty());
+    }
+}
@@ -0,0 +1,179 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.dto.catalog.CategoryResponse;
+import com.deliveryapp.mapper.catalog.CatalogMapper;
+import com.deliveryapp.repository.StoreRepository;
+import com.deliveryapp.util.AdvisoryLock;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotPublisherTest {
+
+    @Mock
+    private CatalogVersionService catalogVersionService;
+    @Mock
+    private CatalogNavigationService navigationService;
+    @Mock
+    private StoreMenuService storeMenuService;
+    @Mock
+    private ProductService productService;
+    @Mock
+    private StoreRepository storeRepository;
+    @Mock
+    private AdvisoryLock advisoryLock;
+    @Mock
+    private CatalogMapper catalogMapper;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path uploads;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private CatalogSnapshotPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = newPublisher();
+        lenient().when(advisoryLock.runExclusively(anyLong(), any())).thenAnswer(call -> {
+            call.<Runnable>getArgument(1).run();
+            return true;
+        });
+    }
+
+    @Test
+    void publishChanged_shouldRewriteOnlyMovedSnapshotsAndKeepOnePreviousFile() throws Exception {
+        when(catalogVersionService.globalTag()).thenReturn(null);
+        when(catalogVersionService.navigationVersion()).thenReturn(1L, 1L, 2L, 3L);
+        when(navigationService.getActiveCategories()).thenReturn(
+                List.of(category(1L, "Food")), List.of(category(1L, "Meals")), List.of(category(1L, "Dishes")));
+
+        publisher.publishChanged();
+        publisher.publishChanged(); // same version: nothing rebuilt
+        verify(navigationService, times(1)).getActiveCategories();
+
+        publisher.publishChanged();
+        publisher.publishChanged();
+
+        Path directory = uploads.resolve("catalog");
+        JsonNode manifest = objectMapper.readTree(directory.resolve(CatalogSnapshotPublisher.MANIFEST).toFile());
+        String current = manifest.at("/snapshots/categories/file").asText();
+        assertTrue(current.startsWith("/uploads/catalog/categories."));
+        try (Stream<Path> files = Files.list(directory)) {
+            // Current and previous snapshot, plus the manifest and its gzip copy
+            assertEquals(4, files.count());
+        }
+    }
+
+    @Test
+    void publishChanged_shouldPickUpTheManifestAfterARestartAndDropStaleFiles() throws Exception {
+        when(catalogVersionService.globalTag()).thenReturn(null);
+        when(catalogVersionService.navigationVersion()).thenReturn(1L, 2L, 3L);
+        when(navigationService.getActiveCategories()).thenReturn(
+                List.of(category(1L, "Food")), List.of(category(1L, "Meals")), List.of(category(1L, "Meals")),
+                List.of(category(1L, "Dishes")));
+        publisher.publishChanged();
+        publisher.publishChanged();
+        Path directory = uploads.resolve("catalog");
+        Path leftover = Files.writeString(directory.resolve("categories.000000000000.json.gz"), "old");
+        Files.setLastModifiedTime(leftover, FileTime.fromMillis(0));
+        Files.writeString(directory.resolve("store-9-menu.111111111111.json.gz"), "retired");
+
+        // Restarted node: same content is not rewritten, unreferenced leftovers are removed
+        CatalogSnapshotPublisher restarted = newPublisher();
+        restarted.publishChanged();
+        assertFalse(Files.exists(leftover));
+        assertFalse(Files.exists(directory.resolve("store-9-menu.111111111111.json.gz")));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(4, files.count());
+        }
+
+        // A new version rotates out the file kept from before the restart
+        when(catalogVersionService.navigationVersion()).thenReturn(4L);
+        restarted.publishChanged();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(4, files.count());
+        }
+    }
+
+    @Test
+    void publishChanged_shouldPublishTheFilesWrittenBeforeASnapshotFailed() throws Exception {
+        when(catalogVersionService.globalTag()).thenReturn(null, "\"g2\"");
+        when(catalogVersionService.navigationVersion()).thenReturn(1L, 2L);
+        when(navigationService.getActiveCategories()).thenReturn(
+                List.of(category(1L, "Food")), List.of(category(1L, "Meals")));
+        when(productService.getTrendingProducts(any())).thenThrow(new IllegalStateException("db down"));
+
+        publisher.publishChanged();
+        publisher.publishChanged();
+
+        // The categories file replaced before trending failed is the one in the manifest
+        Path directory = uploads.resolve("catalog");
+        JsonNode manifest = objectMapper.readTree(directory.resolve(CatalogSnapshotPublisher.MANIFEST).toFile());
+        String file = manifest.at("/snapshots/categories/file").asText();
+        assertTrue(Files.exists(directory.resolve(file.substring(file.lastIndexOf('/') + 1))));
+        try (Stream<Path> files = Files.list(directory)) {
+            // Current and previous categories, plus the manifest and its gzip copy
+            assertEquals(4, files.count());
+        }
+        assertNotEquals(manifest.at("/snapshots/categories/hash").asText(), previousHash(directory));
+    }
+
+    @Test
+    void publishChanged_shouldSkipWhileAnotherNodeHoldsTheLock() {
+        doReturn(false).when(advisoryLock).runExclusively(anyLong(), any());
+
+        publisher.publishChanged();
+
+        verifyNoInteractions(navigationService);
+        assertFalse(Files.exists(uploads.resolve("catalog").resolve(CatalogSnapshotPublisher.MANIFEST)));
+    }
+
+    // Hash of the categories file that is not in the manifest, i.e. the previous one
+    private String previousHash(Path directory) throws Exception {
+        JsonNode manifest = objectMapper.readTree(directory.resolve(CatalogSnapshotPublisher.MANIFEST).toFile());
+        String current = manifest.at("/snapshots/categories/file").asText();
+        try (Stream<Path> files = Files.list(directory)) {
+            String previous = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith("categories.") && !current.endsWith(name))
+                    .findFirst().orElseThrow();
+            return previous.substring("categories.".length(), previous.length() - ".json.gz".length());
+        }
+    }
+
+    private CatalogSnapshotPublisher newPublisher() {
+        CatalogSnapshotPublisher created = new CatalogSnapshotPublisher(catalogVersionService, navigationService,
+                storeMenuService, productService, storeRepository, advisoryLock, catalogMapper,
+                objectMapper, transactionManager, Runnable::run);
+        ReflectionTestUtils.setField(created, "rootDir", uploads.toString());
+        ReflectionTestUtils.setField(created, "enabled", true);
+        ReflectionTestUtils.setField(created, "listSize", 10);
+        return created;
+    }
+
+    private CategoryResponse category(Long id, String name) {
+        CategoryResponse category = new CategoryResponse();
+        category.setCategoryId(id);
+        category.setName(name);
+        return category;
+    }
+}
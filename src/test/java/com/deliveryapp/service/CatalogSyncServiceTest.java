@@ -0,0 +1,116 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.dto.catalog.CatalogSyncResponse;
+import com.deliveryapp.entity.CatalogChange;
+import com.deliveryapp.entity.Product;
+import com.deliveryapp.event.CatalogChangedEvent;
+import com.deliveryapp.event.CatalogChangedEvent.Type;
+import com.deliveryapp.mapper.banner.BannerMapper;
+import com.deliveryapp.mapper.catalog.CatalogMapper;
+import com.deliveryapp.repository.CatalogChangeRepository;
+import com.deliveryapp.repository.ProductRepository;
+import com.deliveryapp.repository.StoreCategoryRepository;
+import com.deliveryapp.repository.StoreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSyncServiceTest {
+
+    @Mock
+    private CatalogChangeRepository changeRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private StoreRepository storeRepository;
+    @Mock
+    private StoreCategoryRepository storeCategoryRepository;
+    @Mock
+    private ProductService productService;
+    @Mock
+    private StoreService storeService;
+    @Mock
+    private BannerService bannerService;
+    @Mock
+    private CatalogNavigationService navigationService;
+    @Mock
+    private CatalogMapper catalogMapper;
+    @Mock
+    private BannerMapper bannerMapper;
+
+    @InjectMocks
+    private CatalogSyncService catalogSyncService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(catalogSyncService, "maxChanges", 2);
+        ReflectionTestUtils.setField(catalogSyncService, "settleMs", 0L);
+        lenient().when(changeRepository.findOldestId()).thenReturn(5L);
+        lenient().when(changeRepository.findLatestId()).thenReturn(20L);
+    }
+
+    @Test
+    void sync_shouldReturnUpsertsAndDeletesInBatches() {
+        when(changeRepository.findSettledAfter(eq(10L), anyLong(), anyInt())).thenReturn(List.of(
+                change(11L, Type.PRODUCT, 1L), change(12L, Type.PRODUCT, 2L), change(13L, Type.PRODUCT, 3L)));
+        Product available = product(1L, true);
+        Product hidden = product(2L, false);
+        when(productService.getProductsByIds(List.of(1L, 2L))).thenReturn(List.of(available, hidden));
+
+        CatalogSyncResponse response = catalogSyncService.sync(10L);
+
+        assertFalse(response.isFull());
+        assertTrue(response.isHasMore());
+        assertEquals(12L, response.getVersion());
+        assertEquals(List.of(2L), response.getDeleted().getProducts());
+        verify(catalogMapper).toCompactProductResponses(List.of(available));
+    }
+
+    @Test
+    void sync_shouldFallBackToFullSnapshotForCatalogWideOrUnknownVersions() {
+        when(changeRepository.findSettledAfter(eq(10L), anyLong(), anyInt()))
+                .thenReturn(List.of(change(11L, Type.EXCHANGE_RATE, null)));
+        when(changeRepository.findLatestSettledId(anyLong())).thenReturn(11L);
+        when(productRepository.findAllActiveProductIds(any())).thenReturn(Page.empty());
+
+        assertTrue(catalogSyncService.sync(10L).isFull());
+        // Purged (older than the log) and never issued
+        assertTrue(catalogSyncService.sync(2L).isFull());
+        assertTrue(catalogSyncService.sync(99L).isFull());
+        verify(changeRepository, times(1)).findSettledAfter(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void recordChange_shouldTakeTheAppendLockBeforeTheId() {
+        catalogSyncService.recordChange(CatalogChangedEvent.productSaved(10L, 1L));
+
+        InOrder inOrder = inOrder(changeRepository);
+        inOrder.verify(changeRepository).lockForAppend(anyLong());
+        inOrder.verify(changeRepository).save(argThat(change -> change.getEntityId() == 10L));
+    }
+
+    private CatalogChange change(Long id, Type type, Long entityId) {
+        return new CatalogChange(id, type, entityId, null, LocalDateTime.now());
+    }
+
+    private Product product(Long id, boolean available) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setIsAvailable(available);
+        return product;
+    }
+}
@@ -0,0 +1,88 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.entity.CatalogVersion;
+import com.deliveryapp.event.CatalogChangedEvent;
+import com.deliveryapp.repository.BannerRepository;
+import com.deliveryapp.repository.CatalogVersionRepository;
+import com.deliveryapp.repository.StoreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogVersionServiceTest {
+
+    @Mock
+    private CatalogVersionRepository catalogVersionRepository;
+
+    @Mock
+    private StoreRepository storeRepository;
+
+    @Mock
+    private BannerRepository bannerRepository;
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @InjectMocks
+    private CatalogVersionService catalogVersionService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(exchangeRateService.getSnapshot())
+                .thenReturn(new ExchangeRateService.RateSnapshot(13000.0, 4L, Instant.now()));
+    }
+
+    @Test
+    void onCatalogChanged_shouldBumpGlobalAndOwningScope() {
+        stored(1L, List.of());
+
+        catalogVersionService.onCatalogChanged(CatalogChangedEvent.productSaved(10L, 5L));
+        catalogVersionService.onCatalogChanged(CatalogChangedEvent.categoryChanged(2L, false));
+        catalogVersionService.onCatalogChanged(CatalogChangedEvent.exchangeRateChanged());
+
+        verify(catalogVersionRepository, times(2)).increment(CatalogVersionService.GLOBAL);
+        verify(catalogVersionRepository).increment("store:5");
+        verify(catalogVersionRepository).increment(CatalogVersionService.SHARED);
+        verify(catalogVersionRepository).increment(CatalogVersionService.NAVIGATION);
+        verify(catalogVersionRepository, times(5)).increment(anyString());
+    }
+
+    @Test
+    void storeTag_shouldOnlyMoveWithThatStoreOrSharedData() {
+        stored(7L, List.of(new CatalogVersion("store:5", 3L), new CatalogVersion("shared", 2L)));
+        String before = catalogVersionService.storeTag(5L);
+        String other = catalogVersionService.storeTag(6L);
+
+        // Another store changed
+        stored(8L, List.of(new CatalogVersion("store:5", 3L), new CatalogVersion("store:6", 1L),
+                new CatalogVersion("shared", 2L)));
+        catalogVersionService.reload();
+
+        assertEquals(before, catalogVersionService.storeTag(5L));
+        assertNotEquals(other, catalogVersionService.storeTag(6L));
+        assertEquals('"', before.charAt(0));
+    }
+
+    private void stored(long global, List<CatalogVersion> scopes) {
+        CatalogVersion globalRow = new CatalogVersion(CatalogVersionService.GLOBAL, global);
+        lenient().when(catalogVersionRepository.findById(CatalogVersionService.GLOBAL))
+                .thenReturn(Optional.of(globalRow));
+        List<CatalogVersion> all = new ArrayList<>(scopes);
+        all.add(globalRow);
+        lenient().when(catalogVersionRepository.findAll()).thenReturn(all);
+    }
+}
@@ -0,0 +1,75 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.entity.Order;
+import com.deliveryapp.entity.User;
+import com.deliveryapp.enums.DriverOrderStatus;
+import com.deliveryapp.enums.OrderStatus;
+import com.deliveryapp.enums.UserType;
+import com.deliveryapp.exception.StatusConflictException;
+import com.deliveryapp.repository.OrderRepository;
+import com.deliveryapp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DriverOrderServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private OrderOutboxService orderOutbox;
+
+    @InjectMocks
+    private DriverOrderService driverOrderService;
+
+    @Test
+    void driverRespondToOrder_shouldFollowTheDriverStatusTransitions() {
+        Order order = assignedOrder(OrderStatus.CONFIRMED);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.saveAndFlush(order)).thenReturn(order);
+
+        assertEquals(DriverOrderStatus.ACCEPTED,
+                driverOrderService.driverRespondToOrder(1L, 5L, true).getDriverOrderStatus());
+        // An accepted order may still be dropped, a rejected one waits for the admin
+        assertEquals(DriverOrderStatus.REJECTED,
+                driverOrderService.driverRespondToOrder(1L, 5L, false).getDriverOrderStatus());
+        assertThrows(StatusConflictException.class, () -> driverOrderService.driverRespondToOrder(1L, 5L, true));
+        verify(orderRepository, times(2)).saveAndFlush(any());
+    }
+
+    @Test
+    void finalOrders_shouldNotTakeDriversOrResponses() {
+        Order order = assignedOrder(OrderStatus.DELIVERED);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(userRepository.findById(5L)).thenReturn(Optional.of(order.getDriver()));
+
+        assertThrows(StatusConflictException.class, () -> driverOrderService.assignDriver(1L, 5L));
+        assertThrows(StatusConflictException.class, () -> driverOrderService.driverRespondToOrder(1L, 5L, true));
+        verify(orderRepository, never()).saveAndFlush(any());
+    }
+
+    private Order assignedOrder(OrderStatus status) {
+        User driver = new User();
+        driver.setUserId(5L);
+        driver.setName("سائق");
+        driver.setUserType(UserType.DRIVER);
+        Order order = new Order();
+        order.setOrderId(1L);
+        order.setOrderNumber("ORD-1");
+        order.setStatus(status);
+        order.setDriver(driver);
+        order.setDriverOrderStatus(DriverOrderStatus.PENDING);
+        return order;
+    }
+}
@@ -0,0 +1,68 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.repository.StoredFileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FileStorageServiceTest {
+
+    @Mock
+    private ImageRenditionService imageRenditionService;
+    @Mock
+    private StoredFileRepository storedFileRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path uploads;
+
+    private FileStorageService fileStorageService;
+
+    @BeforeEach
+    void setUp() {
+        fileStorageService = new FileStorageService(imageRenditionService, storedFileRepository, transactionManager);
+        ReflectionTestUtils.setField(fileStorageService, "rootDir", uploads.toString());
+    }
+
+    @Test
+    void storeFile_shouldKeepOneFilePerContentAndDeleteItWithTheLastReference() throws Exception {
+        byte[] logo = {1, 2, 3, 4};
+        String first = fileStorageService.storeFile(new MockMultipartFile("logo", "a.JPEG", "image/jpeg", logo), "stores");
+        String second = fileStorageService.storeFile(new MockMultipartFile("logo", "b.jpg", "image/jpeg", logo), "stores");
+
+        assertEquals(first, second);
+        assertTrue(first.matches("/uploads/stores/[0-9a-f]{64}\\.jpg"));
+        try (Stream<Path> files = Files.list(uploads.resolve("stores"))) {
+            assertEquals(1, files.count()); // No temp files left behind either
+        }
+        verify(storedFileRepository, times(2)).addReference(eq(first), any(), eq(4L), eq("image/jpeg"));
+        verify(imageRenditionService, times(1)).generateAsync(first);
+
+        // One reference left: the file stays
+        when(storedFileRepository.existsById(first)).thenReturn(true);
+        when(storedFileRepository.deleteIfUnreferenced(first)).thenReturn(0, 1);
+        fileStorageService.deleteFile(first);
+        assertTrue(Files.exists(uploads.resolve(first.substring("/uploads/".length()))));
+
+        fileStorageService.deleteFile(first);
+        assertFalse(Files.exists(uploads.resolve(first.substring("/uploads/".length()))));
+        verify(imageRenditionService).deleteRenditions(first);
+    }
+}
@@ -0,0 +1,104 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.dto.catalog.CategoryResponse;
+import com.deliveryapp.dto.catalog.HomeFeedResponse;
+import com.deliveryapp.mapper.banner.BannerMapper;
+import com.deliveryapp.mapper.catalog.CatalogMapper;
+import com.deliveryapp.util.UrlUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HomeFeedServiceTest {
+
+    @Mock
+    private BannerService bannerService;
+    @Mock
+    private CatalogNavigationService navigationService;
+    @Mock
+    private ProductService productService;
+    @Mock
+    private StoreService storeService;
+    @Mock
+    private BannerMapper bannerMapper;
+    @Mock
+    private CatalogMapper catalogMapper;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final UrlUtil urlUtil = new UrlUtil();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(6);
+    private HomeFeedService homeFeedService;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("catalog.home.timeout-ms", "2000")
+                .withProperty("catalog.home.timeout-ms.stores", "100");
+        homeFeedService = new HomeFeedService(bannerService, navigationService, productService, storeService,
+                bannerMapper, catalogMapper, transactionManager, meterRegistry, environment, urlUtil, executor);
+
+        lenient().when(bannerService.getActiveBanners()).thenReturn(List.of());
+        lenient().when(productService.getTrendingProducts(any())).thenReturn(Page.empty());
+        lenient().when(productService.getOffers(any())).thenReturn(Page.empty());
+        lenient().when(productService.getNewestProducts(any())).thenReturn(Page.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void getHomeFeed_shouldReturnHealthySectionsWhenOthersFailOrTimeOut() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setServerName("api.example.com");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        when(navigationService.getActiveCategories()).thenAnswer(invocation -> {
+            // Built on a pool thread, without the request context
+            CategoryResponse category = new CategoryResponse();
+            category.setImageUrl(urlUtil.getFullUrl("/uploads/c.jpg"));
+            return List.of(category);
+        });
+        when(productService.getOffers(any())).thenThrow(new IllegalStateException("db down"));
+        when(storeService.getAllActiveStores()).thenAnswer(invocation -> {
+            Thread.sleep(1000);
+            return List.of();
+        });
+
+        HomeFeedResponse feed = homeFeedService.getHomeFeed(10, false);
+
+        assertEquals("http://api.example.com/uploads/c.jpg", feed.getCategories().get(0).getImageUrl());
+        assertNotNull(feed.getBanners());
+        assertNull(feed.getOffers());
+        assertNull(feed.getStores());
+        assertEquals(List.of("offers", "stores"), feed.getFailedSections().stream().sorted().toList());
+        assertEquals(1, meterRegistry.get("catalog.home.section").tags("section", "stores", "outcome", "timeout")
+                .timer().count());
+        // Statements of an abandoned section are cut off at its timeout: 2000 ms, 100 ms → 1 s
+        verify(transactionManager, atLeastOnce()).getTransaction(argThat(definition -> definition.getTimeout() == 2));
+        verify(transactionManager).getTransaction(argThat(definition -> definition.getTimeout() == 1));
+    }
+}
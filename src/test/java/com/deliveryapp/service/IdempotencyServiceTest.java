@@ -0,0 +1,102 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.exception.InvalidDataException;
+import com.deliveryapp.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Real transactions: claims are committed in transactions of their own
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyKeyRepository.deleteAll();
+        idempotencyService = new IdempotencyService(idempotencyKeyRepository, transactionManager, new ObjectMapper());
+        ReflectionTestUtils.setField(idempotencyService, "ttlHours", 24L);
+        ReflectionTestUtils.setField(idempotencyService, "waitMs", 5000L);
+        ReflectionTestUtils.setField(idempotencyService, "pollMs", 10L);
+        ReflectionTestUtils.setField(idempotencyService, "staleMs", 60000L);
+    }
+
+    @Test
+    void execute_shouldRunOnceAndReplayTheResult() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Map<String, Object> request = Map.of("items", List.of(1, 2));
+
+        CompletableFuture<IdempotencyService.Outcome> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("order:1", "key-1", request, () -> {
+                    runs.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return 42L;
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // A duplicate arriving mid-flight waits for the first attempt instead of running again
+        CompletableFuture<IdempotencyService.Outcome> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("order:1", "key-1", request, () -> {
+                    runs.incrementAndGet();
+                    return 99L;
+                }));
+        release.countDown();
+
+        assertEquals(new IdempotencyService.Outcome(42L, false), first.get(5, TimeUnit.SECONDS));
+        assertEquals(new IdempotencyService.Outcome(42L, true), duplicate.get(5, TimeUnit.SECONDS));
+
+        // A later retry is answered from the stored row
+        assertEquals(new IdempotencyService.Outcome(42L, true),
+                idempotencyService.execute("order:1", "key-1", request, () -> 99L));
+        assertEquals(1, runs.get());
+
+        // Same key, different request
+        assertThrows(InvalidDataException.class, () ->
+                idempotencyService.execute("order:1", "key-1", Map.of("items", List.of(3)), () -> 99L));
+    }
+
+    @Test
+    void execute_shouldReleaseTheKeyWhenTheActionFails() {
+        Map<String, Object> request = Map.of("items", List.of(1));
+        assertThrows(InvalidDataException.class, () -> idempotencyService.execute("order:1", "key-2", request,
+                () -> {
+                    throw new InvalidDataException("المتجر مغلق حالياً.");
+                }));
+
+        assertEquals(new IdempotencyService.Outcome(7L, false),
+                idempotencyService.execute("order:1", "key-2", request, () -> 7L));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
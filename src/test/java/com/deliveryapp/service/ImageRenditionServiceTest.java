@@ -0,0 +1,90 @@
+package com.deliveryapp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageRenditionServiceTest {
+
+    @TempDir
+    Path uploads;
+
+    private ImageRenditionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ImageRenditionService(Runnable::run);
+        ReflectionTestUtils.setField(service, "rootDir", uploads.toString());
+        ReflectionTestUtils.setField(service, "jpegQuality", 0.8f);
+        ReflectionTestUtils.setField(service, "maxSourcePixels", 100_000_000L);
+    }
+
+    @Test
+    void generateAsync_shouldWriteUprightRenditionsWithoutExif() throws Exception {
+        // 2000x1000 photo whose EXIF says "rotate 90° clockwise to display"
+        Files.createDirectories(uploads.resolve("products"));
+        Files.write(uploads.resolve("products/photo.jpg"), withOrientation(jpeg(2000, 1000), 6));
+        assertEquals(6, ImageRenditionService.exifOrientation(uploads.resolve("products/photo.jpg")));
+
+        assertNull(service.renditionsOf("/uploads/products/photo.jpg"));
+        service.generateAsync("/uploads/products/photo.jpg");
+
+        ImageRenditionService.Renditions renditions = service.renditionsOf("/uploads/products/photo.jpg");
+        assertNotNull(renditions);
+        assertEquals("/uploads/products/photo.thumb.jpg", renditions.thumb());
+
+        Path thumb = uploads.resolve("products/photo.thumb.jpg");
+        BufferedImage image = ImageIO.read(thumb.toFile());
+        assertEquals(120, image.getWidth());
+        assertEquals(240, image.getHeight());
+        assertEquals(1, ImageRenditionService.exifOrientation(thumb));
+
+        service.deleteRenditions("/uploads/products/photo.jpg");
+        assertFalse(Files.exists(thumb));
+        assertNull(service.renditionsOf("/uploads/products/photo.jpg"));
+    }
+
+    @Test
+    void renditionsOf_shouldNotRememberAMiss() throws Exception {
+        Files.createDirectories(uploads.resolve("products"));
+        Files.write(uploads.resolve("products/logo.png"), jpeg(10, 10));
+        assertNull(service.renditionsOf("/uploads/products/logo.png"));
+
+        // Generated meanwhile by another node sharing the upload directory
+        Files.write(uploads.resolve("products/logo.full.jpg"), jpeg(10, 10));
+
+        assertNotNull(service.renditionsOf("/uploads/products/logo.png"));
+    }
+
+    private static byte[] jpeg(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", out);
+        return out.toByteArray();
+    }
+
+    // Inserts a minimal big-endian EXIF segment holding only the orientation tag after SOI
+    private static byte[] withOrientation(byte[] jpeg, int orientation) {
+        byte[] exif = {
+                (byte) 0xFF, (byte) 0xE1, 0, 34,
+                'E', 'x', 'i', 'f', 0, 0,
+                'M', 'M', 0, 42, 0, 0, 0, 8,
+                0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+                0, 0, 0, 0
+        };
+        byte[] result = new byte[jpeg.length + exif.length];
+        System.arraycopy(jpeg, 0, result, 0, 2);
+        System.arraycopy(exif, 0, result, 2, exif.length);
+        System.arraycopy(jpeg, 2, result, 2 + exif.length, jpeg.length - 2);
+        return result;
+    }
+}
@@ -0,0 +1,119 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.entity.Order;
+import com.deliveryapp.entity.OrderOutboxEvent;
+import com.deliveryapp.repository.OrderOutboxRepository;
+import com.deliveryapp.repository.OrderRepository;
+import com.deliveryapp.util.UrlUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+// Real transactions: events are dispatched only once the writing transaction commits
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderOutboxRelayTest {
+
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final OrderWebSocketService webSocketService = mock(OrderWebSocketService.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Tasks handed to the executors, run by the test
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    private OrderOutboxRelay relay;
+    private OrderOutboxService outbox;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        relay = new OrderOutboxRelay(outboxRepository, orderRepository, notificationService,
+                mock(TelegramService.class), webSocketService, new UrlUtil(), new ObjectMapper(), meterRegistry,
+                transactionManager, tasks::add, tasks::add);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+        ReflectionTestUtils.setField(relay, "retryBaseMs", 0L); // Retries are due straight away
+        ReflectionTestUtils.setField(relay, "retryMaxMs", 0L);
+        ReflectionTestUtils.setField(relay, "leaseMs", 60000L);
+        ReflectionTestUtils.setField(relay, "batchSize", 100);
+        outbox = new OrderOutboxService(outboxRepository, relay, new UrlUtil(), new ObjectMapper());
+    }
+
+    @Test
+    void relay_shouldDispatchCommittedEventsInOrderAndRetryFailures() {
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(new Order()));
+        doThrow(new RuntimeException("FCM unavailable")).doNothing()
+                .when(notificationService).sendNotification(anyLong(), any(), any(), any(), any(), any(), any(), any());
+
+        // Rolled back: nothing stored, nothing sent
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            outbox.broadcastOrderUpdated(1L);
+            status.setRollbackOnly();
+        });
+        assertEquals(0, outboxRepository.count());
+        assertTrue(tasks.isEmpty());
+
+        transaction.executeWithoutResult(status -> {
+            outbox.notifyUser(7L, "تم تأكيد طلبك! ✅", "طلبك قيد التجهيز الآن.", "ORDER_UPDATE", 1L);
+            outbox.notifyStaffOfCancelledOrder("A1", 1L);
+            outbox.broadcastOrderUpdated(1L);
+            assertTrue(tasks.isEmpty()); // Not before the commit
+        });
+        assertEquals(2, tasks.size()); // One queue per lane
+        runTasks();
+
+        // The live lane went through; the notify lane stopped at the failed push
+        verify(webSocketService).broadcastOrderUpdated(any(Order.class));
+        verify(notificationService, never()).notifyStaffOfCancelledOrder(any(), any());
+        OrderOutboxEvent failed = outboxRepository.findAll().stream()
+                .filter(e -> e.getType() == OrderOutboxEvent.Type.USER_NOTIFICATION).findFirst().orElseThrow();
+        assertEquals(OrderOutboxEvent.Status.PENDING, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertEquals("FCM unavailable", failed.getLastError());
+
+        // The poll retries it, and the cancellation follows it
+        relay.poll();
+        runTasks();
+        InOrder inOrder = inOrder(notificationService);
+        inOrder.verify(notificationService, times(2)).sendNotification(eq(7L), any(), any(), isNull(),
+                eq("ORDER_UPDATE"), eq("order"), eq(1L), isNull());
+        inOrder.verify(notificationService).notifyStaffOfCancelledOrder("A1", 1L);
+        assertTrue(outboxRepository.findAll().stream()
+                .allMatch(e -> e.getStatus() == OrderOutboxEvent.Status.DISPATCHED));
+        assertEquals(1.0, meterRegistry.counter("order.outbox.events",
+                "type", "USER_NOTIFICATION", "result", "retried").count());
+        assertEquals(3, meterRegistry.timer("order.outbox.lag", "type", "USER_NOTIFICATION").count()
+                + meterRegistry.timer("order.outbox.lag", "type", "STAFF_ORDER_CANCELLED").count()
+                + meterRegistry.timer("order.outbox.lag", "type", "ORDER_UPDATED").count());
+    }
+
+    private void runTasks() {
+        List<Runnable> batch = new ArrayList<>(tasks);
+        tasks.clear();
+        batch.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,80 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.entity.Order;
+import com.deliveryapp.entity.User;
+import com.deliveryapp.enums.OrderStatus;
+import com.deliveryapp.exception.StatusConflictException;
+import com.deliveryapp.repository.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private OrderStatusHistoryRepository historyRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private OrderOutboxService orderOutbox;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    @Test
+    void updateOrderStatus_shouldApplyForwardMovesAndRejectTheRest() {
+        Order order = order(OrderStatus.PREPARING);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.saveAndFlush(order)).thenReturn(order);
+
+        assertEquals(OrderStatus.OUT_FOR_DELIVERY,
+                orderService.updateOrderStatus(1L, OrderStatus.OUT_FOR_DELIVERY, 7L).getStatus());
+
+        // Backwards, and out of a final status
+        assertThrows(StatusConflictException.class,
+                () -> orderService.updateOrderStatus(1L, OrderStatus.PREPARING, 7L));
+        order.setStatus(OrderStatus.DELIVERED);
+        assertThrows(StatusConflictException.class,
+                () -> orderService.updateOrderStatus(1L, OrderStatus.CANCELLED, 7L));
+
+        // Repeating the current status changes nothing
+        orderService.updateOrderStatus(1L, OrderStatus.DELIVERED, 7L);
+        verify(orderRepository, times(1)).saveAndFlush(any());
+        verify(historyRepository, times(1)).save(any());
+    }
+
+    @Test
+    void updateOrderStatus_shouldFailWhenTheOrderChangedSinceItWasRead() {
+        Order order = order(OrderStatus.CONFIRMED);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.saveAndFlush(order))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Order.class, 1L));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> orderService.updateOrderStatus(1L, OrderStatus.PREPARING, 7L));
+        verifyNoInteractions(historyRepository, orderOutbox);
+    }
+
+    private Order order(OrderStatus status) {
+        User customer = new User();
+        customer.setUserId(3L);
+        Order order = new Order();
+        order.setOrderId(1L);
+        order.setOrderNumber("ORD-1");
+        order.setStatus(status);
+        order.setUser(customer);
+        return order;
+    }
+}
@@ -0,0 +1,89 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.entity.Product;
+import com.deliveryapp.repository.ProductRepository;
+import com.deliveryapp.repository.ProductVariantRepository;
+import com.deliveryapp.util.MathUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriceBookServiceTest {
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductVariantRepository variantRepository;
+
+    private PricingService pricingService;
+    private PriceBookService priceBookService;
+
+    @BeforeEach
+    void setUp() {
+        pricingService = spy(new PricingService(exchangeRateService, new MathUtil()));
+        priceBookService = new PriceBookService(pricingService, exchangeRateService, productRepository,
+                variantRepository, Runnable::run);
+    }
+
+    @Test
+    void getPrices_shouldReuseEntryUntilExchangeRateVersionChanges() {
+        Product product = usdProduct(7L, 2.0, 1.5);
+        rate(13000.0, 1L);
+
+        PriceBookService.ProductPrices first = priceBookService.getPrices(product);
+        priceBookService.getPrices(product);
+
+        assertEquals(19500.0, first.finalPrice());
+        assertEquals(26000.0, first.regularPrice());
+        assertEquals(25, first.discountPercentage());
+        verify(pricingService, times(1)).getRegularPriceInSYP(product);
+
+        rate(14000.0, 2L);
+        PriceBookService.ProductPrices second = priceBookService.getPrices(product);
+
+        assertEquals(21000.0, second.finalPrice());
+        verify(pricingService, times(2)).getRegularPriceInSYP(product);
+    }
+
+    @Test
+    void getPrices_shouldRecomputeWhenPricingFieldsChange() {
+        Product product = usdProduct(7L, 2.0, null);
+        product.setHasOffer(false);
+        rate(13000.0, 1L);
+
+        assertEquals(26000.0, priceBookService.getFinalPrice(product));
+
+        product.setUsdPrice(3.0);
+
+        assertEquals(39000.0, priceBookService.getFinalPrice(product));
+    }
+
+    private void rate(double rate, long version) {
+        ExchangeRateService.RateSnapshot snapshot = new ExchangeRateService.RateSnapshot(rate, version, Instant.now());
+        lenient().when(exchangeRateService.getSnapshot()).thenReturn(snapshot);
+        lenient().when(exchangeRateService.getCurrentRate()).thenReturn(rate);
+    }
+
+    private Product usdProduct(Long id, Double usdPrice, Double offerUsdPrice) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setIsUsd(true);
+        product.setUsdPrice(usdPrice);
+        product.setBasePrice(0.0);
+        product.setHasOffer(offerUsdPrice != null);
+        product.setOfferUsdPrice(offerUsdPrice);
+        return product;
+    }
+}
@@ -0,0 +1,107 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.event.CatalogChangedEvent;
+import com.deliveryapp.repository.ProductColorRow;
+import com.deliveryapp.repository.ProductFacetRow;
+import com.deliveryapp.repository.ProductRepository;
+import com.deliveryapp.util.MathUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.deliveryapp.service.ProductFacetIndex.Facet.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductFacetIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    private ProductFacetIndex facetIndex;
+
+    @BeforeEach
+    void setUp() {
+        facetIndex = new ProductFacetIndex(productRepository,
+                new PricingService(exchangeRateService, new MathUtil()), exchangeRateService, Runnable::run);
+        ReflectionTestUtils.setField(facetIndex, "priceBounds", new double[] { 10000, 50000 });
+        when(exchangeRateService.getSnapshot())
+                .thenReturn(new ExchangeRateService.RateSnapshot(13000.0, 1L, Instant.now()));
+    }
+
+    @Test
+    void search_shouldCombineFacetsAndCountOtherValuesAsIfTheirFilterWasOff() {
+        stubCatalog();
+        ProductFacetIndex.Result result = facetIndex.search(new ProductFacetIndex.Query(
+                Map.of(STORE, Set.of(5L, 6L), COLOR, Set.of(100L)), ProductFacetIndex.Order.DISPLAY_ORDER),
+                PageRequest.of(0, 10));
+
+        // Stores OR'ed, AND color 100; product 3 comes first by display order
+        assertEquals(List.of(3L, 1L), result.ids().getContent());
+        assertEquals(Map.of(5L, 1, 6L, 1), result.counts().get(STORE));
+        // Without the color filter store 5/6 match products 1, 2, 3
+        assertEquals(Map.of(100L, 2, 200L, 1), result.counts().get(COLOR));
+        assertEquals(Map.of(0L, 2), result.counts().get(PRICE));
+        assertEquals(Map.of(1L, 1, 0L, 1), result.counts().get(OFFER));
+    }
+
+    @Test
+    void findIds_shouldBoundAndSortByEffectivePriceIncludingUsdAndOffers() {
+        when(exchangeRateService.getCurrentRate()).thenReturn(13000.0);
+        when(productRepository.findAllFacetRows()).thenReturn(List.of(
+                sypRow(1L, 5L, 3, 8000.0, false),
+                // 30000 SYP, but 12000 while the offer is on
+                new ProductFacetRow(2L, 5L, 1L, null, null, true, false, 1, false, 30000.0, null, 12000.0, null),
+                // basePrice 0: $1 at 13000 is 13000 SYP
+                new ProductFacetRow(3L, 6L, 1L, null, null, false, false, 2, true, 0.0, 1.0, null, null)));
+
+        assertEquals(List.of(3L, 2L), facetIndex.findIds(new ProductFacetIndex.Query(Map.of(),
+                ProductFacetIndex.Order.PRICE_DESC, 10000.0, 20000.0), PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of(1L, 2L), facetIndex.findIds(new ProductFacetIndex.Query(Map.of(),
+                ProductFacetIndex.Order.PRICE_ASC, null, 12000.0), PageRequest.of(0, 10)).getContent());
+    }
+
+    @Test
+    void onCatalogChanged_shouldReadChangedProductsBackIntoTheIndex() {
+        stubCatalog();
+        ProductFacetIndex.Query store6 = new ProductFacetIndex.Query(Map.of(STORE, Set.of(6L)),
+                ProductFacetIndex.Order.DISPLAY_ORDER);
+        assertEquals(List.of(3L), facetIndex.findIds(store6, PageRequest.of(0, 10)).getContent());
+
+        // Product 1 moved to store 6, product 3 was deleted
+        when(productRepository.findFacetRowsByProductIdIn(Set.of(1L))).thenReturn(List.of(
+                sypRow(1L, 6L, 3, 8000.0, false)));
+        facetIndex.onCatalogChanged(CatalogChangedEvent.productSaved(1L, 6L));
+        facetIndex.onCatalogChanged(CatalogChangedEvent.productDeleted(3L, 6L));
+
+        assertEquals(List.of(1L), facetIndex.findIds(store6, PageRequest.of(0, 10)).getContent());
+    }
+
+    // Products 1 and 2 in store 5, product 3 in store 6; colors 100 (1, 3) and 200 (3)
+    private void stubCatalog() {
+        when(productRepository.findAllFacetRows()).thenReturn(List.of(
+                sypRow(1L, 5L, 3, 8000.0, false),
+                sypRow(2L, 5L, 1, 30000.0, true),
+                sypRow(3L, 6L, 2, 9000.0, true)));
+        when(productRepository.findAllColorRows()).thenReturn(List.of(
+                new ProductColorRow(1L, 100L), new ProductColorRow(3L, 100L), new ProductColorRow(3L, 200L)));
+    }
+
+    private ProductFacetRow sypRow(Long id, Long storeId, int displayOrder, Double price, boolean offer) {
+        return new ProductFacetRow(id, storeId, 1L, null, null, offer, false, displayOrder,
+                false, price, null, null, null);
+    }
+}
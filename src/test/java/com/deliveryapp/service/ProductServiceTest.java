@@ -1,15 +1,19 @@
 package com.deliveryapp.service;
 
 import com.deliveryapp.entity.OrderItem;
+import com.deliveryapp.entity.Product;
 import com.deliveryapp.entity.ProductVariant;
+import com.deliveryapp.event.CatalogChangedEvent;
 import com.deliveryapp.repository.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.Mockito.*;
 
@@ -43,6 +47,9 @@ class ProductServiceTest {
     @Mock
     private OrderItemRepository orderItemRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductService productService;
 
@@ -51,10 +58,13 @@ class ProductServiceTest {
         Long variantId = 10L;
         ProductVariant variant = new ProductVariant();
         variant.setVariantId(variantId);
+        Product product = new Product();
+        product.setProductId(3L);
+        variant.setProduct(product);
 
         OrderItem item = mock(OrderItem.class);
 
-        when(variantRepository.existsById(variantId)).thenReturn(true);
+        when(variantRepository.findById(variantId)).thenReturn(Optional.of(variant));
         when(orderItemRepository.findByVariantVariantId(variantId)).thenReturn(List.of(item));
 
         productService.deleteProductVariant(variantId);
@@ -63,5 +73,6 @@ class ProductServiceTest {
         verify(item).setVariant(null);
         verify(orderItemRepository).saveAll(List.of(item));
         verify(variantRepository).deleteById(variantId);
+        verify(eventPublisher).publishEvent(CatalogChangedEvent.productSaved(3L, null));
     }
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.deliveryapp.service;
+
+import com.deliveryapp.entity.Category;
+import com.deliveryapp.event.CatalogChangedEvent;
+import com.deliveryapp.repository.*;
+import com.deliveryapp.util.ArabicTextUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestionServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StoreRepository storeRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    private SuggestionService suggestionService;
+
+    @BeforeEach
+    void setUp() {
+        suggestionService = new SuggestionService(productRepository, storeRepository, categoryRepository,
+                orderItemRepository, new ArabicTextUtil(), Runnable::run);
+
+        Category category = new Category();
+        category.setCategoryId(1L);
+        category.setName("برغر");
+        when(categoryRepository.findByIsActiveTrueOrderByDisplayOrderAsc()).thenReturn(List.of(category));
+        when(orderItemRepository.countOrderLinesByProduct()).thenReturn(List.of(
+                new Object[] { 10L, 3L }, new Object[] { 11L, 40L }));
+        when(productRepository.findAllSearchRows()).thenReturn(List.of(
+                new ProductSearchRow(10L, "برغر لحم", null, 1L, 1L, true, 0),
+                new ProductSearchRow(11L, "وجبة برغر دجاج", null, 1L, 1L, true, 0),
+                new ProductSearchRow(12L, "برغر نباتي", null, 1L, 1L, false, 0)));
+        when(storeRepository.findAllSearchRows()).thenReturn(List.of(
+                new StoreSearchRow(1L, "بيت البرغر", null, true, 4.0, 5)));
+        suggestionService.warmUp();
+    }
+
+    @Test
+    void suggest_shouldReturnWordPrefixCompletionsByPopularity() {
+        List<String> texts = suggestionService.suggest("برغ", 10).stream()
+                .map(SuggestionService.Suggestion::text)
+                .toList();
+
+        // Category weight is the sum of its products' orders; the unavailable product is left out
+        assertEquals(List.of("برغر", "وجبة برغر دجاج", "برغر لحم"), texts);
+        assertEquals(List.of("بيت البرغر"), suggestionService.suggest("البر", 10).stream()
+                .map(SuggestionService.Suggestion::text).toList());
+        assertEquals(1, suggestionService.suggest("برغ", 1).size());
+    }
+
+    @Test
+    void onCatalogChanged_shouldUpdateTrieInPlace() {
+        when(productRepository.findSearchRowsByProductIdIn(List.of(10L))).thenReturn(List.of(
+                new ProductSearchRow(10L, "شاورما", null, 1L, 1L, true, 0)));
+
+        suggestionService.onCatalogChanged(CatalogChangedEvent.productSaved(10L, 1L));
+
+        assertEquals(List.of(10L), suggestionService.suggest("شاو", 5).stream()
+                .map(SuggestionService.Suggestion::id).toList());
+        assertEquals(List.of("برغر", "وجبة برغر دجاج"), suggestionService.suggest("برغ", 10).stream()
+                .map(SuggestionService.Suggestion::text).toList());
+    }
+
+    @Test
+    void onCatalogChanged_shouldRenameCategoryKeepingItsWeight() {
+        Category renamed = new Category();
+        renamed.setCategoryId(1L);
+        renamed.setName("همبرغر");
+        renamed.setIsActive(true);
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(renamed));
+
+        suggestionService.onCatalogChanged(CatalogChangedEvent.categoryChanged(1L, false));
+
+        assertEquals(List.of("وجبة برغر دجاج", "برغر لحم"), suggestionService.suggest("برغ", 10).stream()
+                .map(SuggestionService.Suggestion::text).toList());
+        List<SuggestionService.Suggestion> hits = suggestionService.suggest("همب", 5);
+        assertEquals(List.of("همبرغر"), hits.stream().map(SuggestionService.Suggestion::text).toList());
+        assertEquals(43L, hits.get(0).weight());
+    }
+}
@@ -0,0 +1,25 @@
+package com.deliveryapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ArabicTextUtilTest {
+
+    private final ArabicTextUtil arabicTextUtil = new ArabicTextUtil();
+
+    @Test
+    void normalize_shouldFoldLetterVariantsAndStripDiacritics() {
+        assertEquals("احمد", arabicTextUtil.normalize("أَحْمَد"));
+        assertEquals("اسلام", arabicTextUtil.normalize("إسلام"));
+        assertEquals("مستشفي", arabicTextUtil.normalize("مستشفى"));
+        assertEquals("وجبه عائليه", arabicTextUtil.normalize("  وجبـــة   عائلية "));
+        assertEquals("burger king", arabicTextUtil.normalize("Burger KING"));
+    }
+
+    @Test
+    void toPrefixTsQuery_shouldKeepOnlyWordCharacters() {
+        assertEquals("برغر:* & لحم:*", arabicTextUtil.toPrefixTsQuery("برغر & لحم!"));
+        assertEquals("", arabicTextUtil.toPrefixTsQuery("':*|"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.deliveryapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirtyQueueTest {
+
+    @Test
+    void mark_shouldCoalesceIntoOneDrainAndKeepWorkThatWasRejectedOrFailed() {
+        List<Runnable> tasks = new ArrayList<>();
+        List<Set<Long>> refreshed = new ArrayList<>();
+        boolean[] reject = { true };
+        boolean[] fail = { false };
+        Executor executor = task -> {
+            if (reject[0])
+                throw new RejectedExecutionException("full");
+            tasks.add(task);
+        };
+        DirtyQueue<Long> queue = new DirtyQueue<>("test", ids -> {
+            if (fail[0])
+                throw new IllegalStateException("db down");
+            refreshed.add(new HashSet<>(ids));
+        }, () -> refreshed.add(Set.of()));
+
+        // Rejected: still pending
+        queue.mark(1L, executor);
+        assertTrue(queue.isPending());
+        assertTrue(tasks.isEmpty());
+
+        // One task for the whole burst
+        reject[0] = false;
+        queue.mark(2L, executor);
+        queue.mark(3L, executor);
+        assertEquals(1, tasks.size());
+
+        fail[0] = true;
+        tasks.remove(0).run();
+        assertTrue(queue.isPending());
+        assertTrue(tasks.isEmpty()); // No retry loop on failure
+
+        fail[0] = false;
+        queue.retry(executor);
+        tasks.remove(0).run();
+        assertEquals(List.of(Set.of(1L, 2L, 3L)), refreshed);
+
+        // A rebuild replaces the ids marked before it
+        queue.mark(4L, executor);
+        queue.markRebuild(executor);
+        tasks.remove(0).run();
+        assertEquals(Set.of(), refreshed.get(1));
+        assertEquals(2, refreshed.size());
+        assertFalse(queue.isPending());
+    }
+}